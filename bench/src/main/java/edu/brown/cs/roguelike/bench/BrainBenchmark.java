@@ -0,0 +1,69 @@
+package edu.brown.cs.roguelike.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.EntityManager;
+import edu.brown.cs.roguelike.engine.fsm.Transition;
+import edu.brown.cs.roguelike.engine.game.Game;
+
+/**
+ * Every monster on the level making up its mind once, as they do each
+ * turn, with and without Transitions reusing their answers. Nothing moves
+ * in between, so only the thinking is measured, not the acting.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BrainBenchmark {
+
+	@Param({ "200", "500" })
+	public int monsters;
+
+	@Param({ "true", "false" })
+	public boolean cached;
+
+	private List<EntityActionManager> brains;
+
+	@Setup
+	public void setUp() throws ConfigurationException {
+		Game g = Fixtures.game(1);
+		Fixtures.setMonsters(g.getCurrentLevel(), monsters, Fixtures.SEED);
+		brains = g.getCurrentLevel().getManager().getView(EntityManager.MONSTER);
+		Transition.setCaching(cached);
+	}
+
+	@TearDown
+	public void tearDown() {
+		Transition.setCaching(true);
+	}
+
+	@Benchmark
+	public void think(Blackhole bh) {
+		for (EntityActionManager m : brains) {
+			m.setNextAction(null);
+			bh.consume(m.getNextAction());
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+package edu.brown.cs.roguelike.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.screen.ScreenCharacterStyle;
+import com.googlecode.lanterna.screen.ScreenWriter;
+
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Tile;
+
+/**
+ * Drawing a fully revealed 80x24 level onto a screen whose terminal
+ * throws its output away: one string per tile, as levels used to be
+ * drawn, in full, after the player steps once, and when nothing changed
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrawBenchmark {
+
+	private Level level;
+	private Screen screen;
+	private ScreenWriter sw;
+	private Tile a;
+	private Tile b;
+	private boolean atA = true;
+
+	@Setup
+	public void setUp() throws ConfigurationException {
+		level = Fixtures.level(Fixtures.parseSize("80x24"), Fixtures.SEED);
+		for (Room r : level.getRooms())
+			level.revealRoom(r);
+		screen = Fixtures.screen(80, 24);
+		sw = new ScreenWriter(screen);
+
+		// two floor tiles side by side for the player to step between
+		Room r = level.getRooms().get(0);
+		a = level.getTile(r.min.x, r.min.y);
+		b = level.getTile(r.min.x + 1, r.min.y);
+		a.setEntity(new MainCharacter("bench"));
+		b.setEntity(null);
+		level.doDraw(sw);
+		screen.refresh();
+	}
+
+	@Benchmark
+	public void doDraw() {
+		level.doDraw(sw);
+	}
+
+	@Benchmark
+	public void perCellAndRefresh() {
+		screen.clear();
+		for (int c = 0; c < level.getWidth(); c++) {
+			for (int r = level.getHeight() - 1; r >= 0; r--) {
+				Tile t = level.getTile(c, r);
+				sw.setForegroundColor(t.getColor());
+				sw.drawString(c, r, String.valueOf(t.getCharacter()),
+						ScreenCharacterStyle.Bold);
+			}
+		}
+		screen.refresh();
+	}
+
+	@Benchmark
+	public void doDrawAndRefresh() {
+		level.doDraw(sw);
+		screen.refresh();
+	}
+
+	@Benchmark
+	public void stepAndDrawChanges() {
+		Tile from = atA ? a : b, to = atA ? b : a;
+		atA = !atA;
+		to.setEntity(from.getEntity());
+		from.setEntity(null);
+		level.drawChanges(sw);
+		screen.refresh();
+	}
+
+	@Benchmark
+	public void idleDrawChanges() {
+		level.drawChanges(sw);
+		screen.refresh();
+	}
+
+}
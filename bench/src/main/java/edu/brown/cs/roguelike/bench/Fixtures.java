@@ -0,0 +1,156 @@
+package edu.brown.cs.roguelike.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.terminal.TerminalSize;
+import com.googlecode.lanterna.terminal.text.FixedTerminalSizeProvider;
+import com.googlecode.lanterna.terminal.text.UnixTerminal;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.config.MonsterTemplate;
+import edu.brown.cs.roguelike.engine.config.TemplateRegistry;
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.Monster;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+import edu.brown.cs.roguelike.engine.proc.RandomGen;
+
+/**
+ * What the benchmarks are run on. Everything is made from fixed seeds so
+ * every run measures the same levels.
+ *
+ * The config directory is ../config, as from the engine and game modules,
+ * unless the roguelike.config system property says otherwise.
+ *
+ */
+public class Fixtures {
+
+	public static final long SEED = 7;
+
+	public static String configDir() {
+		return System.getProperty("roguelike.config", "../config");
+	}
+
+	/**
+	 * Loading a save needs a concrete game with a no-argument constructor
+	 */
+	public static class BenchGame extends Game {
+		private static final long serialVersionUID = 1L;
+
+		public BenchGame() {
+			super(new Vec2i(80, 24));
+		}
+	}
+
+	/**
+	 * @param size "WIDTHxHEIGHT"
+	 */
+	public static Vec2i parseSize(String size) {
+		String[] wh = size.split("x");
+		return new Vec2i(Integer.parseInt(wh[0]), Integer.parseInt(wh[1]));
+	}
+
+	/**
+	 * @return A generator that splits often enough to fill a level of size
+	 */
+	public static BSPLevelGenerator generator(Vec2i size) {
+		BSPLevelGenerator gen = new BSPLevelGenerator(configDir());
+		int depth = 4;
+		for (int area = 80 * 24; area < size.x * size.y; area *= 2)
+			depth++;
+		gen.setSplitDepth(depth);
+		return gen;
+	}
+
+	public static Level level(Vec2i size, long seed) throws ConfigurationException {
+		return generator(size).generateLevel(size, 1, seed);
+	}
+
+	/**
+	 * @return A started game several levels deep
+	 */
+	public static Game game(int depth) throws ConfigurationException {
+		BSPLevelGenerator gen = new BSPLevelGenerator(configDir());
+		Game g = new BenchGame();
+		g.setSeed(SEED);
+		g.createInitalLevel(gen);
+		for (int d = 2; d <= depth; d++)
+			g.gotoLevel(d, gen);
+		g.start();
+		return g;
+	}
+
+	/**
+	 * Replaces the monsters on the level with count others, placed on
+	 * empty tiles of rooms and hallways chosen from seed (monster AI
+	 * needs to know what space it is in)
+	 */
+	public static void setMonsters(Level level, int count, long seed) throws ConfigurationException {
+		for (EntityActionManager m : level.getManager().getEntity("monster")) {
+			m.getEntity().getLocation().setEntity(null);
+			level.getManager().unregister(m.getEntity());
+		}
+
+		List<Tile> free = new ArrayList<Tile>();
+		for (int x = 0; x < level.getWidth(); x++)
+			for (int y = 0; y < level.getHeight(); y++) {
+				Tile t = level.getTile(x, y);
+				if (t.isPassable() && t.getSpace() != null && t.getEntity() == null)
+					free.add(t);
+			}
+
+		List<MonsterTemplate> templates = TemplateRegistry.forDir(configDir()).getMonsters();
+		RandomGen rand = new RandomGen(seed);
+		for (int i = 0; i < count && !free.isEmpty(); i++) {
+			Tile t = free.remove(rand.getRandom(free.size()));
+			Monster m = new Monster(templates.get(rand.getRandom(templates.size())), level);
+			t.setEntity(m);
+			level.getManager().register(m);
+		}
+	}
+
+	/**
+	 * @return A started screen whose terminal throws its output away
+	 */
+	public static Screen screen(int columns, int rows) {
+		Screen s = new Screen(new NullTerminal(columns, rows), columns, rows);
+		s.startScreen();
+		return s;
+	}
+
+	/**
+	 * A terminal of a fixed size with no tty behind it
+	 */
+	private static class NullTerminal extends UnixTerminal {
+		NullTerminal(int columns, int rows) {
+			super(new ByteArrayInputStream(new byte[0]), new OutputStream() {
+				@Override
+				public void write(int b) {}
+				@Override
+				public void write(byte[] b, int off, int len) {}
+			}, Charset.forName("UTF-8"),
+					new FixedTerminalSizeProvider(new TerminalSize(columns, rows)));
+		}
+
+		@Override
+		public void enterPrivateMode() {}
+
+		@Override
+		public void exitPrivateMode() {}
+
+		@Override
+		public void setCBreak(boolean cbreakOn) {}
+
+		@Override
+		public void setEcho(boolean echoOn) {}
+	}
+
+}
@@ -0,0 +1,63 @@
+package edu.brown.cs.roguelike.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+
+/**
+ * BSPLevelGenerator.generateLevel, monsters and items included, at several
+ * level sizes and with 1 to 4 threads building it. Each call generates the
+ * same level. Threads only pay off on big levels, and on as many cores.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelGenBenchmark {
+
+	@Param({ "80x24", "160x48", "320x96", "1000x1000" })
+	public String size;
+
+	@Param({ "1", "2", "4" })
+	public int threads;
+
+	private Vec2i levelSize;
+	private BSPLevelGenerator gen;
+
+	@Setup
+	public void setUp() {
+		levelSize = Fixtures.parseSize(size);
+		gen = Fixtures.generator(levelSize);
+		gen.setParallelism(threads);
+	}
+
+	@TearDown
+	public void tearDown() {
+		gen.setParallelism(1);
+	}
+
+	@Benchmark
+	public Level generate() throws ConfigurationException {
+		return gen.generateLevel(levelSize, 1, Fixtures.SEED);
+	}
+
+}
@@ -0,0 +1,129 @@
+package edu.brown.cs.roguelike.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Pathfinder;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.pathfinding.AStar;
+import edu.brown.cs.roguelike.engine.pathfinding.GridAStar;
+import edu.brown.cs.roguelike.engine.pathfinding.HierarchicalPathfinder;
+import edu.brown.cs.roguelike.engine.pathfinding.PathCache;
+
+/**
+ * A path from the up stairs to the down stairs of the same level, found by
+ * each of the engine's searches.
+ *
+ * The pursuit benchmarks instead walk from one stair to the other, a step
+ * per call, toward a goal that shuffles between the down stairs and the
+ * tile next to them, as a chased player does.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathfindingBenchmark {
+
+	@Param({ "80x24", "160x48" })
+	public String size;
+
+	private Level level;
+	private Tile start;
+	private Tile goal;
+	private AStar<Tile> astar;
+	private GridAStar grid;
+	private Pathfinder bfs;
+	private HierarchicalPathfinder hierarchical;
+	private PathCache cache;
+
+	// The pursuit: who walks, and toward which of two goals
+	private Tile walker;
+	private Tile[] goals;
+	private int calls;
+
+	@Setup
+	public void setUp() throws ConfigurationException {
+		level = Fixtures.level(Fixtures.parseSize(size), Fixtures.SEED);
+		start = level.upStairs;
+		goal = level.downStairs;
+		astar = new AStar<Tile>();
+		grid = level.getGridAStar();
+		bfs = level.getPathfinder();
+		hierarchical = level.getHierarchicalPathfinder();
+		cache = new PathCache();
+
+		walker = start;
+		goals = new Tile[] { goal, goal };
+		for (Tile t : goal.getNeighbors())
+			goals[1] = t;
+	}
+
+	@Benchmark
+	public List<Tile> aStar() {
+		return astar.computePath(start, goal);
+	}
+
+	@Benchmark
+	public List<Tile> gridAStar() {
+		return grid.computePath(level, start, goal);
+	}
+
+	@Benchmark
+	public Tile gridAStarNextStep() {
+		return grid.nextStep(level, start, goal);
+	}
+
+	@Benchmark
+	public List<Tile> bfsPath() {
+		return bfs.findPath(start, goal);
+	}
+
+	@Benchmark
+	public Tile bfsNearestItem() {
+		return bfs.nearest(start, Pathfinder.UNBOUNDED, Pathfinder.ITEMS);
+	}
+
+	@Benchmark
+	public Tile hierarchicalNextStep() {
+		return hierarchical.nextStep(level, start, goal);
+	}
+
+	@Benchmark
+	public Tile gridAStarPursuit() {
+		Tile next = grid.nextStep(level, walker, pursued());
+		return step(next);
+	}
+
+	@Benchmark
+	public Tile cachedPursuit() {
+		Tile next = cache.nextStep(level, walker, pursued());
+		return step(next);
+	}
+
+	private Tile pursued() {
+		return goals[(calls++ >> 3) & 1];
+	}
+
+	private Tile step(Tile next) {
+		walker = next == null ? start : next;
+		return walker;
+	}
+
+}
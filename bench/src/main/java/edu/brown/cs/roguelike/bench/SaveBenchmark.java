@@ -0,0 +1,78 @@
+package edu.brown.cs.roguelike.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.save.SaveFormat;
+import edu.brown.cs.roguelike.engine.save.SaveLoadException;
+import edu.brown.cs.roguelike.engine.save.SaveManager;
+
+/**
+ * Saving and loading a game through SaveManager, in each save format, to
+ * a temporary file or directory. Saving the same game again is what an
+ * autosave does, so a SEGMENTED save only writes its manifest; the cost of
+ * the other formats grows with how many levels were visited.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveBenchmark {
+
+	@Param({ "JAVA", "BINARY", "SEGMENTED" })
+	public SaveFormat format;
+
+	@Param({ "5", "20" })
+	public int levels;
+
+	private File file;
+	private Game game;
+	private SaveManager sm;
+
+	@Setup
+	public void setUp() throws ConfigurationException, IOException, SaveLoadException {
+		file = File.createTempFile("bench", ".rog");
+		// a SEGMENTED save makes a directory here
+		file.delete();
+		game = Fixtures.game(levels);
+		sm = new SaveManager(file.getPath(), format);
+		// so there is something to load
+		sm.saveGame(game);
+	}
+
+	@TearDown
+	public void tearDown() {
+		sm.deleteSave();
+		file.delete();
+	}
+
+	@Benchmark
+	public void save() throws SaveLoadException {
+		sm.saveGame(game);
+	}
+
+	@Benchmark
+	public Game load() throws SaveLoadException {
+		return sm.loadGame();
+	}
+
+}
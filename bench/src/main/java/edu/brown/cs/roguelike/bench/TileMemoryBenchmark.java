@@ -0,0 +1,75 @@
+package edu.brown.cs.roguelike.bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.level.Hallway;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.level.TileStore;
+import edu.brown.cs.roguelike.engine.level.TileType;
+
+/**
+ * Building a level's tiles as a Tile grid and as a {@link TileStore}.
+ * Nothing built is thrown away but the level itself, so with -prof gc the
+ * gc.alloc.rate.norm column is about how much heap a level's tiles take.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TileMemoryBenchmark {
+
+	@Param({ "80x24", "500x500" })
+	public String size;
+
+	private Vec2i levelSize;
+
+	@Setup
+	public void setUp() {
+		levelSize = Fixtures.parseSize(size);
+	}
+
+	private static TileType typeAt(int x, int y) {
+		return (x + y) % 7 == 0 ? TileType.WALL_HOR : TileType.FLOOR;
+	}
+
+	@Benchmark
+	public Level grid() {
+		Tile[][] tiles = new Tile[levelSize.x][levelSize.y];
+		for (int x = 0; x < levelSize.x; x++) {
+			for (int y = 0; y < levelSize.y; y++) {
+				tiles[x][y] = new Tile(typeAt(x, y));
+				tiles[x][y].setLocation(new Vec2i(x, y));
+			}
+		}
+		return new Level(tiles, new ArrayList<Room>(), new ArrayList<Hallway>());
+	}
+
+	@Benchmark
+	public Level store() {
+		TileStore store = new TileStore(levelSize.x, levelSize.y, TileType.FLOOR);
+		for (int x = 0; x < levelSize.x; x++)
+			for (int y = 0; y < levelSize.y; y++)
+				store.setType(store.index(x, y), typeAt(x, y));
+		return new Level(store, new ArrayList<Room>(), new ArrayList<Hallway>());
+	}
+
+}
@@ -0,0 +1,89 @@
+package edu.brown.cs.roguelike.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.entities.Stats;
+import edu.brown.cs.roguelike.engine.entities.events.Wait;
+import edu.brown.cs.roguelike.engine.game.ActivityTiers;
+import edu.brown.cs.roguelike.engine.game.Announcer;
+import edu.brown.cs.roguelike.engine.game.CumulativeTurnManager;
+import edu.brown.cs.roguelike.engine.game.EnergyTurnManager;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.game.ParallelTurnManager;
+import edu.brown.cs.roguelike.engine.game.TurnManager;
+
+/**
+ * One turn with a given number of monsters on the level, under the
+ * CumulativeTurnManager, the EnergyTurnManager with or without
+ * ActivityTiers, or the ParallelTurnManager on every core. The player
+ * waits every turn and cannot die, so the monsters keep hunting it for
+ * the whole run.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TurnBenchmark {
+
+	private static final int HP = 1000000;
+
+	@Param({ "10", "50", "200", "500" })
+	public int monsters;
+
+	@Param({ "cumulative", "energy", "tiered", "parallel" })
+	public String scheduler;
+
+	private TurnManager tm;
+	private MainCharacter player;
+	private Stats stats;
+
+	@Setup
+	public void setUp() throws ConfigurationException {
+		Game g = Fixtures.game(1);
+		Fixtures.setMonsters(g.getCurrentLevel(), monsters, Fixtures.SEED);
+		player = (MainCharacter) g.getCurrentLevel().getManager().getPlayer(0).getEntity();
+		stats = player.getStats();
+		if (scheduler.equals("cumulative")) {
+			tm = new CumulativeTurnManager(null, g, 10);
+		} else if (scheduler.equals("parallel")) {
+			tm = new ParallelTurnManager(null, g, 10, Runtime.getRuntime().availableProcessors());
+		} else {
+			EnergyTurnManager etm = new EnergyTurnManager(null, g, 10);
+			if (scheduler.equals("tiered"))
+				etm.setActivityTiers(ActivityTiers.DEFAULT);
+			tm = etm;
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (tm instanceof ParallelTurnManager)
+			((ParallelTurnManager) tm).shutdown();
+	}
+
+	@Benchmark
+	public void takeTurn() {
+		player.restore(HP, HP, stats, stats);
+		tm.takeTurnWithoutAnnounce(new Wait());
+		Announcer.getAnnouncer().clear();
+	}
+
+}
@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 
 /**
@@ -38,6 +39,12 @@ public class Config {
 		REQUIRED_FILES.put(ConfigType.KEY_BINDING, "key_bindings");
 	}
 
+	/**
+	 * Creating a mapper is expensive and it is thread-safe once set up,
+	 * so every config shares this one
+	 */
+	static final ObjectMapper MAPPER = new ObjectMapper();
+
 	private File dir;
 
 	public Config(String configDir) throws ConfigurationException {
@@ -91,24 +98,38 @@ public class Config {
 	}
 
     public <E> ArrayList<E> loadTemplate(Class<E> clazz, File file) throws ConfigurationException {
+		return loadTemplate(readerFor(clazz), file);
+	}
 
-		ObjectMapper om = new ObjectMapper();
+	static <E> ArrayList<E> loadTemplate(ObjectReader reader, File file) throws ConfigurationException {
 
 		ArrayList<E> ret = null;
 
 		try {
-
-			TypeFactory t = TypeFactory.defaultInstance();
-
-			ret = om.readValue(
-					file, t.constructCollectionType(ArrayList.class,clazz));
-
+			ret = reader.readValue(file);
 		} catch (Exception e) {
 			throw new ConfigurationException(e);
 		}
 		return ret;
 	}
 
+	/**
+	 * @return A reader for a file holding a list of clazz, which can be
+	 * kept and reused
+	 */
+	static ObjectReader readerFor(Class<?> clazz) {
+		TypeFactory t = TypeFactory.defaultInstance();
+		return MAPPER.reader(t.constructCollectionType(ArrayList.class,clazz));
+	}
+
+	/**
+	 * @return The file holding the given type of configuration
+	 */
+	public File getFile(ConfigType type) {
+		return new File(dir.getAbsolutePath() + "/" +
+				REQUIRED_FILES.get(type).concat(CFG_EXT));
+	}
+
 
 	/**
 	 * Build an array of MonsterTemplates used for the instantiation of 
@@ -119,9 +140,7 @@ public class Config {
 	 * @throws ConfigurationException 
 	 */
 	public ArrayList<MonsterTemplate> loadMonsterTemplate() throws ConfigurationException {
-        File file = new File(dir.getAbsolutePath() + "/" +
-                REQUIRED_FILES.get(ConfigType.MONSTER).concat(CFG_EXT));
-        return loadTemplate(MonsterTemplate.class, file);
+        return loadTemplate(MonsterTemplate.class, getFile(ConfigType.MONSTER));
 	}
 
 
@@ -131,18 +150,14 @@ public class Config {
      * @throws ConfigurationException 
      */
     public ArrayList<WeaponTemplate> loadWeaponTemplate() throws ConfigurationException {
-        File file = new File(dir.getAbsolutePath() + "/" +
-                REQUIRED_FILES.get(ConfigType.WEAPON_TYPE).concat(CFG_EXT));
-        return loadTemplate(WeaponTemplate.class, file);
+        return loadTemplate(WeaponTemplate.class, getFile(ConfigType.WEAPON_TYPE));
     }
 
     /**
      * Builds an array of WeaponNameTemplates used for the instantion of Weapons 
      */
     public ArrayList<WeaponNameTemplate> loadWeaponNameTemplate() throws ConfigurationException {
-        File file = new File(dir.getAbsolutePath() + "/" +
-                REQUIRED_FILES.get(ConfigType.WEAPON_ADJ).concat(CFG_EXT));
-        return loadTemplate(WeaponNameTemplate.class, file);
+        return loadTemplate(WeaponNameTemplate.class, getFile(ConfigType.WEAPON_ADJ));
     }
 
     /**
@@ -153,9 +168,7 @@ public class Config {
      * @throws ConfigurationException 
      */
     public ArrayList<ContextTemplate> loadContextTemplate() throws ConfigurationException {
-        File file = new File(dir.getAbsolutePath() + "/" +
-                REQUIRED_FILES.get(ConfigType.KEY_BINDING).concat(CFG_EXT));
-        return loadTemplate(ContextTemplate.class, file);
+        return loadTemplate(ContextTemplate.class, getFile(ConfigType.KEY_BINDING));
     }
 
 }
@@ -0,0 +1,202 @@
+package edu.brown.cs.roguelike.engine.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import edu.brown.cs.roguelike.engine.config.Config.ConfigType;
+
+/**
+ * The parsed templates of one config directory, shared by everything in
+ * the process that reads them, so generating a level does not parse any
+ * JSON.
+ *
+ * Each file is read the first time it is asked for and indexed by tier and
+ * by name. The same lists are handed out until the file's modification
+ * time or length changes; the next call after that reads it again. The
+ * lists and maps handed out are never changed, so they can be used from
+ * any thread, and keep working after a reload.
+ *
+ */
+public class TemplateRegistry {
+
+	private static final Map<File,TemplateRegistry> registries =
+			new HashMap<File,TemplateRegistry>();
+
+	/**
+	 * @return The registry for configDir, made and validated on first use
+	 */
+	public static TemplateRegistry forDir(String configDir) throws ConfigurationException {
+		File dir;
+		try {
+			dir = new File(configDir).getCanonicalFile();
+		} catch (IOException e) {
+			throw new ConfigurationException(e);
+		}
+		synchronized (registries) {
+			TemplateRegistry r = registries.get(dir);
+			if (r == null) {
+				r = new TemplateRegistry(new Config(dir.getPath()));
+				registries.put(dir, r);
+			}
+			return r;
+		}
+	}
+
+	/**
+	 * One read of a template file, indexed
+	 */
+	private static class Templates<T> {
+		final List<T> all;
+		final Map<Integer,List<T>> byTier;
+		final Map<String,T> byName;
+
+		Templates(List<T> all, Map<Integer,List<T>> byTier, Map<String,T> byName) {
+			this.all = all;
+			this.byTier = byTier;
+			this.byName = byName;
+		}
+	}
+
+	/**
+	 * A template file, and its contents as of the last time it changed
+	 */
+	private abstract static class TemplateFile<T> {
+		private final File file;
+		private final ObjectReader reader;
+
+		// Guarded by this
+		private long modified = -1;
+		private long length = -1;
+		private Templates<T> current = null;
+		private int reads = 0;
+
+		TemplateFile(File file, Class<T> clazz) {
+			this.file = file;
+			this.reader = Config.readerFor(clazz);
+		}
+
+		abstract int tier(T t);
+
+		/**
+		 * @return The name to look t up by, or null if it has none
+		 */
+		abstract String name(T t);
+
+		synchronized Templates<T> get() throws ConfigurationException {
+			long m = file.lastModified();
+			long len = file.length();
+			if (current == null || m != modified || len != length) {
+				List<T> all = Config.loadTemplate(reader, file);
+				current = index(all);
+				modified = m;
+				length = len;
+				reads++;
+			}
+			return current;
+		}
+
+		synchronized int getReads() {
+			return reads;
+		}
+
+		private Templates<T> index(List<T> all) {
+			Map<Integer,List<T>> byTier = new HashMap<Integer,List<T>>();
+			Map<String,T> byName = new HashMap<String,T>();
+			for (T t : all) {
+				List<T> tierList = byTier.get(tier(t));
+				if (tierList == null) {
+					tierList = new ArrayList<T>();
+					byTier.put(tier(t), tierList);
+				}
+				tierList.add(t);
+				if (name(t) != null)
+					byName.put(name(t), t);
+			}
+			for (Map.Entry<Integer,List<T>> e : byTier.entrySet())
+				e.setValue(Collections.unmodifiableList(e.getValue()));
+
+			return new Templates<T>(Collections.unmodifiableList(all),
+					Collections.unmodifiableMap(byTier),
+					Collections.unmodifiableMap(byName));
+		}
+	}
+
+	private final TemplateFile<MonsterTemplate> monsters;
+	private final TemplateFile<WeaponTemplate> weapons;
+	private final TemplateFile<WeaponNameTemplate> weaponNames;
+
+	private TemplateRegistry(Config config) {
+		monsters = new TemplateFile<MonsterTemplate>(
+				config.getFile(ConfigType.MONSTER), MonsterTemplate.class) {
+			int tier(MonsterTemplate t) { return t.tier; }
+			String name(MonsterTemplate t) { return t.name; }
+		};
+		weapons = new TemplateFile<WeaponTemplate>(
+				config.getFile(ConfigType.WEAPON_TYPE), WeaponTemplate.class) {
+			int tier(WeaponTemplate t) { return t.tier; }
+			String name(WeaponTemplate t) { return t.name; }
+		};
+		weaponNames = new TemplateFile<WeaponNameTemplate>(
+				config.getFile(ConfigType.WEAPON_ADJ), WeaponNameTemplate.class) {
+			int tier(WeaponNameTemplate t) { return t.tier; }
+			String name(WeaponNameTemplate t) { return null; }
+		};
+	}
+
+	public List<MonsterTemplate> getMonsters() throws ConfigurationException {
+		return monsters.get().all;
+	}
+
+	public Map<Integer,List<MonsterTemplate>> getMonstersByTier() throws ConfigurationException {
+		return monsters.get().byTier;
+	}
+
+	/**
+	 * @return The monster called name, or null if there is none
+	 */
+	public MonsterTemplate getMonster(String name) throws ConfigurationException {
+		return monsters.get().byName.get(name);
+	}
+
+	public List<WeaponTemplate> getWeapons() throws ConfigurationException {
+		return weapons.get().all;
+	}
+
+	public Map<Integer,List<WeaponTemplate>> getWeaponsByTier() throws ConfigurationException {
+		return weapons.get().byTier;
+	}
+
+	/**
+	 * @return The weapon type called name, or null if there is none
+	 */
+	public WeaponTemplate getWeapon(String name) throws ConfigurationException {
+		return weapons.get().byName.get(name);
+	}
+
+	public List<WeaponNameTemplate> getWeaponNames() throws ConfigurationException {
+		return weaponNames.get().all;
+	}
+
+	/**
+	 * @return The adjective sets of each tier, in file order
+	 */
+	public Map<Integer,List<WeaponNameTemplate>> getWeaponNamesByTier() throws ConfigurationException {
+		return weaponNames.get().byTier;
+	}
+
+	/**
+	 * @return How many times any file has been parsed, for checking that
+	 * unchanged files are not
+	 */
+	public int getReads() {
+		return monsters.getReads() + weapons.getReads() + weaponNames.getReads();
+	}
+
+}
@@ -3,9 +3,13 @@ package edu.brown.cs.roguelike.engine.entities;
 import java.util.HashMap;
 
 import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.fsm.FactClock;
 import edu.brown.cs.roguelike.engine.game.Announcer;
 import edu.brown.cs.roguelike.engine.level.Direction;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Space;
 import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.proc.RandomGen;
 
 public abstract class Combatable extends Entity implements Movable {
 	
@@ -23,6 +27,9 @@ public abstract class Combatable extends Entity implements Movable {
 	protected Tile location;
 	protected HashMap<EquipType,Stackable> equipment = new HashMap<EquipType,Stackable>();
 	
+	// FactClock times of the last changes monsters' brains look at
+	private transient long spaceChangedAt;
+	
 	/** #Dies **/
 	protected abstract void die();
 	
@@ -31,6 +38,12 @@ public abstract class Combatable extends Entity implements Movable {
 	
 	/**Gets the equipment of the combatable*/
 	public HashMap<EquipType,Stackable> getEquipment() {return equipment;}
+
+	/**
+	 * @return The side this is on. Combatables on different teams attack
+	 * each other.
+	 */
+	public int getTeam() {return team;}
 	
 	/**Attacks an opponent**/
 	public void attack(Combatable opp) {
@@ -43,18 +56,29 @@ public abstract class Combatable extends Entity implements Movable {
 		this.manager.call(Event.ATTACK);
 	}
 	
+	/**
+	 * @return The stream to roll with: the level's, so that fights on a
+	 * level play out the same for the same seed
+	 * @throws IllegalStateException if this is not on a level
+	 */
+	private RandomGen random() {
+		if (location == null || location.getLevel() == null)
+			throw new IllegalStateException(getDescription() + " is not on a level");
+		return location.getLevel().getRandom();
+	}
+	
 	/**
 	 * Does a roll to see whether the this can hit opp
 	 */
 	private boolean tryHit(Combatable opp) {
-		return Math.random() < (((double) this.stats.getAttack()) / (this.stats.getAttack() + opp.stats.getDefense()));
+		return random().nextDouble() < (((double) this.stats.getAttack()) / (this.stats.getAttack() + opp.stats.getDefense()));
 	}
 	
 	/**
 	 * Deals damage to opponent.
 	 */
 	private void dealDamage(Combatable opp) {
-		int attackPower = (int) Math.round(Math.random()*stats.attack);
+		int attackPower = (int) Math.round(random().nextDouble()*stats.attack);
 		Announcer.announce(this.getDescription() +" hits " + opp.getDescription() + ", dealing " + attackPower + " damage.");
 		//System.out.println(attackPower);
 		opp.takeDamage(new Attack(this,attackPower));
@@ -122,11 +146,27 @@ public abstract class Combatable extends Entity implements Movable {
 	}
 
 
+	/**
+	 * Restores the combat state of a loaded {@link Combatable}
+	 */
+	public void restore(int HP, int startHP, Stats baseStats, Stats stats) {
+		this.HP = HP;
+		this.startHP = startHP;
+		this.baseStats = baseStats;
+		this.stats = stats;
+	}
+
 	public void changeHP(int delta) {
 		this.HP += delta;
 		this.HP = Math.min(HP, startHP);
 	}
 	
+	/**
+	 * @return The {@link FactClock} time I last went into another space,
+	 * or 0 if I have not moved since being made or loaded
+	 */
+	public long getSpaceChangedAt() { return spaceChangedAt; }
+	
 	/**
 	 * Gets the {@link Combatable}'s location on the map.
 	 * @return The location of this {@link Combatable} on the {@link Level}
@@ -141,18 +181,27 @@ public abstract class Combatable extends Entity implements Movable {
 	 * @param location The new location of this {@link Combatable}.
 	 */
 	public void setLocation(Tile location) {
+		if (spaceOf(location) != spaceOf(this.location))
+			spaceChangedAt = FactClock.tick();
 		this.location = location;
 	}
 
+	private static Space spaceOf(Tile t) {
+		return t == null ? null : t.getSpace();
+	}
+
 	public void move(Direction dir) {
 		Vec2i next = location.getLocation().plus(dir.getDelta());
-		Tile[][] tiles = location.getLevel().getTiles();
+		Level level = location.getLevel();
 		Tile nextTile = null;
-		if (tiles.length > next.x && next.x >= 0 && tiles[0].length > next.y && next.y >= 0)
-			nextTile = tiles[next.x][next.y];
+		if (level.inBounds(next.x, next.y))
+			nextTile = level.getTile(next.x, next.y);
 		if (nextTile != null && nextTile.isPassable()) {
-			location.setEntity(null);
+			// Onto the new tile first, so the level sees a step rather
+			// than leaving and coming back
+			Tile from = location;
 			nextTile.setEntity(this);
+			from.setEntity(null);
 		} else if(nextTile != null && nextTile.getEntity() != null && (nextTile.getEntity() instanceof Combatable)) {
 			Combatable opp = (Combatable) nextTile.getEntity();
 			if(opp.team != this.team) {
@@ -1,9 +1,14 @@
 package edu.brown.cs.roguelike.engine.entities;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import edu.brown.cs.roguelike.engine.entities.events.Remove;
 import edu.brown.cs.roguelike.engine.save.Saveable;
@@ -15,12 +20,47 @@ public class EntityManager implements Saveable {
 	 */
 	private static final long serialVersionUID = 6538908714623761737L;
 	
+	// Every category name ever used, so lookups can go by number. Read
+	// without locking; only numbering a new name takes the lock.
+	private static final ConcurrentHashMap<String,Integer> categoryIds =
+			new ConcurrentHashMap<String,Integer>();
+	
+	/**
+	 * @return The number for the category called name, the same for the
+	 * life of the process
+	 */
+	public static int categoryId(String name) {
+		Integer id = categoryIds.get(name);
+		if (id != null)
+			return id;
+		synchronized (categoryIds) {
+			id = categoryIds.get(name);
+			if (id == null) {
+				id = categoryIds.size();
+				categoryIds.put(name, id);
+			}
+			return id;
+		}
+	}
+	
+	public static final int MAIN = categoryId("main");
+	public static final int MONSTER = categoryId("monster");
+	public static final int KEYBOARD = categoryId("keyboard");
+	
 	/**
 	 * Every EntityActionManager that truly exists.
 	 */
 	protected List<EntityActionManager> everything = new ArrayList<EntityActionManager>();
 	
 	protected HashMap<String,List<EntityActionManager>> map = new HashMap<String,List<EntityActionManager>>();
+	
+	/*
+	 * Read-only copies of the above for lookups that allocate nothing,
+	 * replaced whenever they change and rebuilt after loading
+	 */
+	private transient ArrayList<List<EntityActionManager>> views;
+	private transient Set<EntityActionManager> existing;
+	private transient EntityActionManager player;
 
 	public EntityManager() {
 	}
@@ -32,6 +72,30 @@ public class EntityManager implements Saveable {
 			map.put(category, managers);
 		}
 		managers.add(manager);
+		categoryChanged(category);
+	}
+
+	private void categoryChanged(String category) {
+		if (views == null)
+			return;
+		int id = categoryId(category);
+		while (views.size() <= id)
+			views.add(Collections.<EntityActionManager>emptyList());
+		List<EntityActionManager> managers = map.get(category);
+		views.set(id, managers == null || managers.isEmpty()
+				? Collections.<EntityActionManager>emptyList()
+				: Collections.unmodifiableList(Arrays.asList(
+						managers.toArray(new EntityActionManager[managers.size()]))));
+		if (id == MAIN)
+			player = views.get(id).isEmpty() ? null : views.get(id).get(0);
+	}
+
+	private void buildViews() {
+		views = new ArrayList<List<EntityActionManager>>();
+		for (String category : map.keySet())
+			categoryChanged(category);
+		existing = Collections.newSetFromMap(new IdentityHashMap<EntityActionManager,Boolean>());
+		existing.addAll(everything);
 	}
 
 
@@ -46,10 +110,7 @@ public class EntityManager implements Saveable {
 		EntityActionManager manager = new LocalEntityActionManager(entity);
 		manager.on(Event.DEATH, new Remove(entity, this));
 		entity.setManager(manager);
-		for (String category : entity.getCategories())
-			addToCategory(category, manager);
-		// add to everything
-		everything.add(manager);
+		register(manager, entity.getCategories());
 		return manager;
 	}
 
@@ -64,6 +125,8 @@ public class EntityManager implements Saveable {
 		for (String category : categories)
 			addToCategory(category, manager);
 		everything.add(manager);
+		if (existing != null)
+			existing.add(manager);
 	}
 
 	/**
@@ -73,30 +136,47 @@ public class EntityManager implements Saveable {
 	public void unregister(Combatable entity) {
 		unregister(entity.getManager(), entity.getCategories());
 		everything.remove(entity.getManager());
+		if (existing != null)
+			existing.remove(entity.getManager());
 	}
 
 	public void unregister(EntityActionManager manager, List<String> categories) {
 		for (String category : categories) {
 			List<EntityActionManager> categoryManagers = map.get(category);
 			categoryManagers.remove(manager);
+			categoryChanged(category);
 		}
 	}
 
 	/**
 	 * @param category, String category of the EntityActionManagers to get
 	 * @return a copy of the List<EntityActionManager> in map with the given
-	 * category
+	 * category, which the caller may change. Use getView unless it needs
+	 * to.
 	 */
 	public List<EntityActionManager> getEntity(String category) {
-		List<EntityActionManager> ret = new ArrayList<EntityActionManager>();
-		List<EntityActionManager> lst = map.get(category);
-		if (lst == null) {
-			lst = new ArrayList<EntityActionManager>();
-			map.put(category, lst);
-		}
-		for (EntityActionManager manager : lst) 
-			ret.add(manager);
-		return ret;
+		return new ArrayList<EntityActionManager>(getView(categoryId(category)));
+	}
+	
+	/**
+	 * @return The managers in category as of now, which cannot be changed.
+	 * Registering or unregistering later does not change a list already
+	 * handed out, so it is safe to iterate while entities die. Allocates
+	 * nothing.
+	 */
+	public List<EntityActionManager> getView(String category) {
+		return getView(categoryId(category));
+	}
+	
+	/**
+	 * @param categoryId From {@link #categoryId}, e.g. {@link #MONSTER}
+	 */
+	public List<EntityActionManager> getView(int categoryId) {
+		if (views == null)
+			buildViews();
+		if (categoryId >= views.size())
+			return Collections.emptyList();
+		return views.get(categoryId);
 	}
 	
 	/** Gets the nth manager from the main character.
@@ -105,13 +185,25 @@ public class EntityManager implements Saveable {
 	 * @return - player #n
 	 */
 	public EntityActionManager getPlayer(int n) {
-		List<EntityActionManager> mains = getEntity("main");
+		if (n == 0)
+			return getPlayer();
+		List<EntityActionManager> mains = getView(MAIN);
 		if(n >= mains.size()) 
 			return null;
 		
 		return mains.get(n);
 	}
 	
+	/**
+	 * @return The first main character's manager, or null if there is
+	 * none
+	 */
+	public EntityActionManager getPlayer() {
+		if (views == null)
+			buildViews();
+		return player;
+	}
+	
 	/**
 	 * Returns a boolean indicating whether or not an EntityActionManager
 	 * really exists. True existence is determined by presence in the
@@ -121,7 +213,9 @@ public class EntityManager implements Saveable {
 	 * @return boolean indicating if an EntityActionManager really exists!
 	 */
 	public boolean reallyExists(EntityActionManager manager) {
-		return everything.contains(manager);
+		if (existing == null)
+			buildViews();
+		return existing.contains(manager);
 	}
 	
 	/*** BEGIN Saveable ***/
@@ -65,7 +65,7 @@ public class LocalEntityActionManager implements EntityActionManager, Saveable {
 	public void drop(Stackable s) {
 		if(entity.getLocation().getStackables().size() < MAX_DROP_SIZE) {
 			entity.getInventory().remove(s);
-			entity.getLocation().getStackables().add(s);
+			entity.getLocation().addStackable(s);
 		}
 		else {
 			Announcer.announce("No room to drop here.");
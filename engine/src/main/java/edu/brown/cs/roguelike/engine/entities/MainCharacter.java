@@ -39,6 +39,15 @@ public class MainCharacter extends Combatable {
 	public int getPlayerLevel() {
 		return playerLevel;
 	}
+	
+	/**
+	 * Restores the experience of a loaded character
+	 */
+	public void restoreProgress(int XP, int nextLevelXP, int playerLevel) {
+		this.XP = XP;
+		this.nextLevelXP = nextLevelXP;
+		this.playerLevel = playerLevel;
+	}
 
 	
 	public MainCharacter(String name) {
@@ -81,7 +90,7 @@ public class MainCharacter extends Combatable {
 	private void levelUp() {
 		playerLevel++;
 		this.startHP += HP_GROWTH;
-		this.HP = startHP;
+		changeHP(startHP - HP);
 		this.baseStats = new Stats(baseStats.attack+ATTACK_GROWTH, baseStats.defense+DEFENSE_GROWTH);
 		this.stats = new Stats(stats.attack+ATTACK_GROWTH, stats.defense+DEFENSE_GROWTH);
 		nextLevelXP =  (int) Math.ceil(nextLevelXP*EXP_CURVE);
@@ -96,7 +105,7 @@ public class MainCharacter extends Combatable {
 		super.move(dir);
 		
 		while(inventory.size() < MAX_INVENTORY_SIZE && this.location.getStackables().size()>0) {
-			Stackable s = this.location.getStackables().remove();
+			Stackable s = this.location.removeStackable();
 			this.inventory.add(s);
 			Announcer.announce(s.getDescription());
 		}
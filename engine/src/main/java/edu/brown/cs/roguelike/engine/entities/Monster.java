@@ -29,6 +29,7 @@ public class Monster extends Combatable {
 	
 	// My brainz
 	private FSM<MonsterInput> brainz;
+	private Chasing chaseState;
 	
 	List<String> categories = null;
 	{
@@ -65,7 +66,7 @@ public class Monster extends Combatable {
 		brainz = new FSM<MonsterInput>();
 		
 		Idle idleState = new Idle(this);
-		Chasing chaseState = new Chasing(this, moveCost);
+		chaseState = new Chasing(this, moveCost);
 		
 		PlayerInSpace chasePlayer = new PlayerInSpace(chaseState, this);
 		// PlayerNotInSpace giveUp = new PlayerNotInSpace(idleState, this);
@@ -98,6 +99,17 @@ public class Monster extends Combatable {
 	}
 	
 	public Level getLevel() { return this.level; }
+	public int getMoveCost() { return this.moveCost; }
+	
+	/**
+	 * @return Whether I have spotted the player and am after them
+	 */
+	public boolean isChasing() { return brainz.getCurState() == chaseState; }
+	
+	/**
+	 * Puts me straight into chasing, e.g. when loading a saved game
+	 */
+	public void startChasing() { brainz.setStartState(chaseState); }
 	
 	public void setNextAction(Action nextAction) {
 		this.nextAction = nextAction;
@@ -108,7 +120,7 @@ public class Monster extends Combatable {
 	 */
 	@Override
 	protected Action generateNextAction() {
-		brainz.update(new MonsterInput(level));
+		brainz.update(level.getMonsterInput());
 		return this.nextAction;
 	}
 }
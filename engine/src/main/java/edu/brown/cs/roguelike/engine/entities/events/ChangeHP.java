@@ -23,6 +23,10 @@ public class ChangeHP extends Action {
 		this.delta = delta;
 	}
 
+	public int getDelta() {
+		return delta;
+	}
+	
 	public void apply(EntityActionManager queue) {
 		queue.changeHP(delta);
 		
@@ -22,6 +22,10 @@ public class ChangeStats extends Action {
 		this.delta = delta;
 	}
 
+	public Stats getDelta() {
+		return delta;
+	}
+	
 	public void apply(EntityActionManager queue) {
 		queue.changeStats(delta);
 	};
@@ -1,9 +1,9 @@
 package edu.brown.cs.roguelike.engine.entities.events;
 
-import java.util.List;
 import java.util.UUID;
 
 import edu.brown.cs.roguelike.engine.entities.Action;
+import edu.brown.cs.roguelike.engine.entities.Combatable;
 import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
 import edu.brown.cs.roguelike.engine.entities.EntityManager;
 import edu.brown.cs.roguelike.engine.level.Direction;
@@ -25,14 +25,15 @@ public class ChaseMainCharacter extends Action implements Saveable {
 	}
 
 	public void apply(EntityActionManager queue) {
-		List<EntityActionManager> mains = this.manager.getEntity("main");
-		if (mains.size() > 0) {
-			Tile myLoc = queue.getLocation();
-			Tile mainLoc = mains.get(0).getLocation();
-			// Actually pathfind?
-			//List<Tile> path = Pathfinder.findPath(myLoc, mainLoc, myLoc.getLevel());
-			//Direction dir = path.size() > 0 ? myLoc.dirTo(mainLoc) : Direction.UP;
-			Direction dir = myLoc.dirTo(mainLoc); 
+		Tile myLoc = queue.getLocation();
+		Combatable main = myLoc.getLevel().getEntityIndex().nearestHostile(queue.getEntity());
+		if (main != null) {
+			Tile mainLoc = main.getLocation();
+			// Follow the level's shared distance field toward the player,
+			// falling back to heading straight at them if it has no step
+			Direction dir = myLoc.getLevel().getChaseMap(mainLoc).directionFrom(myLoc);
+			if (dir == null)
+				dir = myLoc.dirTo(mainLoc); 
 			queue.sendMove(dir);
 		}
 	};
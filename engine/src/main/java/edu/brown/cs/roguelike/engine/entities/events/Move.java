@@ -28,6 +28,8 @@ public class Move extends Action {
 		this.dir = dir;
 	}
 	
+	public Direction getDirection() { return dir; }
+	
 	@Override
 	public void apply(EntityActionManager queue) {
 		c.move(dir);
@@ -22,6 +22,10 @@ public class FSM<I extends Input> implements Saveable {
 	public FSM() {
 	}
 
+	public State<I> getCurState() {
+		return curState;
+	}
+
 	public void setCurState(State<I> s) {
 		curState = s;
 	}
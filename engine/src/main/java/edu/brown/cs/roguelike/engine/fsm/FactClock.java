@@ -0,0 +1,24 @@
+package edu.brown.cs.roguelike.engine.fsm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orders changes to the facts {@link Transition}s depend on. Every change
+ * gets a later time than any before it, so the latest of the times of the
+ * facts a Transition reads moves on exactly when one of them changes.
+ *
+ */
+public final class FactClock {
+
+	private static final AtomicLong now = new AtomicLong();
+
+	private FactClock() {}
+
+	/**
+	 * @return A time later than any handed out before
+	 */
+	public static long tick() {
+		return now.incrementAndGet();
+	}
+
+}
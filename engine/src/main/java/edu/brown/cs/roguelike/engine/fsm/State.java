@@ -45,7 +45,8 @@ public abstract class State<I extends Input> implements Saveable {
 	/**
 	 * Gets the next State, traversing the Transitions in
 	 * order of highest to lowest priority. This order is guaranteed
-	 * by addTransition.
+	 * by addTransition. A Transition whose facts have not changed since
+	 * it was last asked gives the same answer without being asked again.
 	 * 
 	 * If transition, calls onExit on this and onEnter on next state.
 	 * Otherwise returns this. 
@@ -57,7 +58,7 @@ public abstract class State<I extends Input> implements Saveable {
 
 		for (Transition<I> t : transitions) {
 
-			if (t.isReady(i)) {
+			if (t.check(i)) {
 				State<I> next = t.getTargetState();
 				this.onExit();
 				next.onEnter();
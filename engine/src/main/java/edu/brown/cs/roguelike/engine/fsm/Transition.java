@@ -21,6 +21,43 @@ private State<I> targetState;
   
   public abstract boolean isReady(I i);
   
+  /** What getStamp returns when isReady must always be asked */
+  public static final long ALWAYS = -1;
+  
+  /** Whether answers are reused while facts stay the same, for comparing */
+  private static boolean caching = true;
+  
+  public static boolean isCaching() { return caching; }
+  public static void setCaching(boolean on) { caching = on; }
+  
+  // The answer isReady last gave, and the stamp it was given at
+  private transient boolean known;
+  private transient boolean ready;
+  private transient long stamp;
+  
+  /**
+   * @return The latest {@link FactClock} time of the facts isReady reads,
+   * or ALWAYS if they are not known. Transitions that read nothing the
+   * clock times are always asked.
+   */
+  public long getStamp(I i) {
+    return ALWAYS;
+  }
+  
+  /**
+   * @return What isReady says, asking it again only if the facts it
+   * reads have changed since it was last asked
+   */
+  public final boolean check(I i) {
+    long now = getStamp(i);
+    if (!caching || !known || now == ALWAYS || now != stamp) {
+      ready = isReady(i);
+      stamp = now;
+      known = true;
+    }
+    return ready;
+  }
+  
   public int compareTo(Transition<I> o) {
     return 0;
   }
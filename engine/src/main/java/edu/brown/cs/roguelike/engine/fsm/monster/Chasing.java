@@ -5,7 +5,7 @@ import java.util.List;
 import cs195n.Vec2i;
 
 import edu.brown.cs.roguelike.engine.entities.Action;
-import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.Combatable;
 import edu.brown.cs.roguelike.engine.entities.Monster;
 import edu.brown.cs.roguelike.engine.entities.events.Move;
 import edu.brown.cs.roguelike.engine.entities.events.Wait;
@@ -14,6 +14,8 @@ import edu.brown.cs.roguelike.engine.level.Direction;
 import edu.brown.cs.roguelike.engine.level.Level;
 import edu.brown.cs.roguelike.engine.level.Tile;
 import edu.brown.cs.roguelike.engine.pathfinding.AStar;
+import edu.brown.cs.roguelike.engine.pathfinding.PathCache;
+import edu.brown.cs.roguelike.engine.pathfinding.PathfinderType;
 
 public class Chasing extends State<MonsterInput> {
 	
@@ -22,8 +24,21 @@ public class Chasing extends State<MonsterInput> {
 	 */
 	private static final long serialVersionUID = 7848469900206748905L;
 	
+	/** The engine all Chasing monsters use to find their way to the player */
+	private static PathfinderType pathfinderType = PathfinderType.CHASE_MAP;
+	
+	public static PathfinderType getPathfinderType() { return pathfinderType; }
+	public static void setPathfinderType(PathfinderType type) { pathfinderType = type; }
+	
 	private final Monster me;
 	private final int moveCost;
+	
+	// Handed out again and again, Actions are not used up by being taken
+	private transient Move[] moves;
+	private transient Wait waiting;
+	
+	// This monster's last path, for the CACHED pathfinder
+	private transient PathCache paths;
 
 	public Chasing(Monster me, int moveCost) {
 		this.me = me;
@@ -47,36 +62,62 @@ public class Chasing extends State<MonsterInput> {
 		
 		Level l = me.getLevel();
 		
-		List<EntityActionManager> players = 
-				l.getManager().getEntity("main");
-		if(players.size() == 0) {
+		Combatable player = l.getEntityIndex().nearestHostile(me);
+		if(player == null) {
 			return new Move(100, me, Direction.RIGHT);
 		}
-		EntityActionManager player = players.get(0);
 		
 		Tile myTile = me.getLocation();
 		
-		Tile playerTile = player.getEntity().getLocation();
-		
-		AStar<Tile> pathfinder = new AStar<Tile>();
+		Tile playerTile = player.getLocation();
 		
-		List<Tile> path = pathfinder.computePath(	myTile, playerTile);
+		Tile dest = nextStep(l, myTile, playerTile);
 		
-		if (path.size() <= 1) return new Wait();
-		
-		Tile dest = path.get(1);
-		
-		Vec2i curLoc = myTile.getLocation();
-		Vec2i destLoc = dest.getLocation();
-		
-		Direction dir;
-		
-		if (destLoc.x < curLoc.x) dir = Direction.LEFT;
-		else if (destLoc.x > curLoc.x) dir = Direction.RIGHT;
-		else if (destLoc.y < curLoc.y) dir = Direction.UP;
-		else dir = Direction.DOWN;
+		if (dest == null) {
+			if (waiting == null)
+				waiting = new Wait();
+			return waiting;
+		}
 		
-		return new Move(moveCost, me, dir);
+		return moveTowards(myTile.dirTo(dest));
+	}
+	
+	private Move moveTowards(Direction dir) {
+		if (moves == null)
+			moves = new Move[Direction.values().length];
+		if (moves[dir.ordinal()] == null)
+			moves[dir.ordinal()] = new Move(moveCost, me, dir);
+		return moves[dir.ordinal()];
+	}
+	
+	/**
+	 * @return The tile to step onto to get closer to playerTile, or null
+	 * if there is no way there
+	 */
+	private Tile nextStep(Level l, Tile myTile, Tile playerTile) {
+		switch (pathfinderType) {
+		case NODE: {
+			AStar<Tile> pathfinder = new AStar<Tile>();
+			List<Tile> path = pathfinder.computePath(myTile, playerTile);
+			if (path == null || path.size() <= 1) return null;
+			return path.get(1);
+		}
+		case GRID:
+			return l.getGridAStar().nextStep(l, myTile, playerTile);
+		case CACHED:
+			if (paths == null)
+				paths = new PathCache();
+			return paths.nextStep(l, myTile, playerTile);
+		case HIERARCHICAL:
+			return l.getHierarchicalPathfinder().nextStep(l, myTile, playerTile);
+		case CHASE_MAP:
+		default: {
+			Direction dir = l.getChaseMap(playerTile).directionFrom(myTile);
+			if (dir == null) return null;
+			Vec2i next = myTile.getLocation().plus(dir.getDelta());
+			return l.getTile(next.x, next.y);
+		}
+		}
 	}
 
 }
@@ -14,6 +14,9 @@ public class Idle extends State<MonsterInput> {
 	
 	private final Monster me;
 	
+	// Handed out every turn, Actions are not used up by being taken
+	private transient Wait waiting;
+	
 	public Idle(Monster me) {
 		this.me = me;
 	}
@@ -32,7 +35,9 @@ public class Idle extends State<MonsterInput> {
 	public void onExit() {}
 	
 	private Action getAction() {
-		return new Wait();
+		if (waiting == null)
+			waiting = new Wait();
+		return waiting;
 	}
 	
 }
@@ -0,0 +1,58 @@
+package edu.brown.cs.roguelike.engine.fsm.monster;
+
+import edu.brown.cs.roguelike.engine.entities.Combatable;
+import edu.brown.cs.roguelike.engine.fsm.FactClock;
+import edu.brown.cs.roguelike.engine.fsm.Transition;
+import edu.brown.cs.roguelike.engine.level.EntityIndex;
+
+/**
+ * The facts about the world a monster's {@link Transition}s can depend on,
+ * each with the {@link FactClock} time it last changed for a monster.
+ *
+ */
+public enum MonsterFact {
+
+	/**
+	 * Which space the player is in. Only kept track of while there is a
+	 * single player: with more, which one is nearest changes with every
+	 * step anyone takes.
+	 */
+	PLAYER_SPACE {
+		@Override
+		long changedAt(MonsterInput i, Combatable me) {
+			EntityIndex index = i.getLevel().getEntityIndex();
+			if (index.countHostiles(me) > 1)
+				return Transition.ALWAYS;
+			Combatable player = index.nearestHostile(me);
+			if (player == null)
+				return index.getMembersChangedAt();
+			return Math.max(index.getMembersChangedAt(), player.getSpaceChangedAt());
+		}
+	},
+
+	/** Which space the monster is in */
+	SPACE {
+		@Override
+		long changedAt(MonsterInput i, Combatable me) {
+			return me.getSpaceChangedAt();
+		}
+	};
+
+	abstract long changedAt(MonsterInput i, Combatable me);
+
+	/**
+	 * @return The latest time any of facts changed for me, for
+	 * {@link Transition#getStamp}
+	 */
+	public static long stamp(MonsterInput i, Combatable me, MonsterFact... facts) {
+		long latest = 0;
+		for (MonsterFact f : facts) {
+			long at = f.changedAt(i, me);
+			if (at == Transition.ALWAYS)
+				return Transition.ALWAYS;
+			latest = Math.max(latest, at);
+		}
+		return latest;
+	}
+
+}
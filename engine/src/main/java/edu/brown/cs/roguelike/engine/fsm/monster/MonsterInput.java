@@ -3,9 +3,14 @@ package edu.brown.cs.roguelike.engine.fsm.monster;
 import edu.brown.cs.roguelike.engine.fsm.Input;
 import edu.brown.cs.roguelike.engine.level.Level;
 
+/**
+ * What a monster's brain thinks with. It only points at the level, so one
+ * is shared by every monster on a level, see {@link Level#getMonsterInput}.
+ *
+ */
 public class MonsterInput implements Input {
 	
-	private Level level;
+	private final Level level;
 
 	public MonsterInput(Level level) {
 		this.level = level;
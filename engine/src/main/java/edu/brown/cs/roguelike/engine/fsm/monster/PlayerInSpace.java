@@ -1,15 +1,12 @@
 package edu.brown.cs.roguelike.engine.fsm.monster;
 
-import java.util.List;
-
-import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.Combatable;
 import edu.brown.cs.roguelike.engine.entities.Monster;
 import edu.brown.cs.roguelike.engine.entities.events.Move;
 import edu.brown.cs.roguelike.engine.fsm.State;
 import edu.brown.cs.roguelike.engine.fsm.Transition;
 import edu.brown.cs.roguelike.engine.level.Direction;
 import edu.brown.cs.roguelike.engine.level.Level;
-import edu.brown.cs.roguelike.engine.level.Space;
 
 public class PlayerInSpace extends Transition<MonsterInput> {
 	
@@ -19,28 +16,31 @@ public class PlayerInSpace extends Transition<MonsterInput> {
 	private static final long serialVersionUID = -1305253493331919281L;
 	
 	private Monster me;
+	
+	private static final MonsterFact[] DEPENDS_ON =
+			{ MonsterFact.PLAYER_SPACE, MonsterFact.SPACE };
 
 	public PlayerInSpace(State<MonsterInput> targetState, Monster me) {
 		super(targetState);
 		this.me = me;
 	}
 
+	@Override
+	public long getStamp(MonsterInput i) {
+		return MonsterFact.stamp(i, me, DEPENDS_ON);
+	}
+
 	@Override
 	public boolean isReady(MonsterInput i) {
 		
 		Level l = i.getLevel();
 		
-		List<EntityActionManager> players = 
-				l.getManager().getEntity("main");
-		if(players.size() == 0) {
+		Combatable player = l.getEntityIndex().nearestHostile(me);
+		if(player == null) {
 			return false;
 		}
-		EntityActionManager player = players.get(0);
-		
-		Space mySpace = me.getLocation().getSpace();
-		Space playerSpace = player.getEntity().getLocation().getSpace();
 		
-		return (mySpace.equals(playerSpace));
+		return l.getSpaceIndex().sameSpace(me.getLocation(), player.getLocation());
 	}
 
 }
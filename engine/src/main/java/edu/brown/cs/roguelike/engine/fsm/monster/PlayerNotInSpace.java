@@ -1,11 +1,10 @@
 package edu.brown.cs.roguelike.engine.fsm.monster;
 
-import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.Combatable;
 import edu.brown.cs.roguelike.engine.entities.Monster;
 import edu.brown.cs.roguelike.engine.fsm.State;
 import edu.brown.cs.roguelike.engine.fsm.Transition;
 import edu.brown.cs.roguelike.engine.level.Level;
-import edu.brown.cs.roguelike.engine.level.Space;
 
 public class PlayerNotInSpace extends Transition<MonsterInput> {
 	
@@ -15,24 +14,31 @@ public class PlayerNotInSpace extends Transition<MonsterInput> {
 	private static final long serialVersionUID = 9120903987001426531L;
 	
 	private Monster me;
+	
+	private static final MonsterFact[] DEPENDS_ON =
+			{ MonsterFact.PLAYER_SPACE, MonsterFact.SPACE };
 
 	public PlayerNotInSpace(State<MonsterInput> targetState, Monster me) {
 		super(targetState);
 		this.me = me;
 	}
 
+	@Override
+	public long getStamp(MonsterInput i) {
+		return MonsterFact.stamp(i, me, DEPENDS_ON);
+	}
+
 	@Override
 	public boolean isReady(MonsterInput i) {
 		
 		Level l = i.getLevel();
 		
-		EntityActionManager player = 
-				l.getManager().getEntity("main").get(0);
-		
-		Space mySpace = me.getLocation().getSpace();
-		Space playerSpace = player.getEntity().getLocation().getSpace();
+		Combatable player = l.getEntityIndex().nearestHostile(me);
+		if(player == null) {
+			return true;
+		}
 		
-		return (!mySpace.equals(playerSpace));
+		return !l.getSpaceIndex().sameSpace(me.getLocation(), player.getLocation());
 	}
 
 }
@@ -0,0 +1,44 @@
+package edu.brown.cs.roguelike.engine.game;
+
+import java.io.Serializable;
+
+import edu.brown.cs.roguelike.engine.level.SpaceGraph;
+
+/**
+ * How often an {@link EnergyTurnManager} runs monsters, by how many steps
+ * of the {@link SpaceGraph} their space is from the player's.
+ *
+ * Monsters at most nearSteps away act every turn. Those at most farSteps
+ * away get a turn once every so many turns, and they are paid for the
+ * turns in between, so they still cover the same ground. Monsters further
+ * away sleep: no turns and no points until the player comes within
+ * farSteps of them.
+ *
+ */
+public class ActivityTiers implements Serializable {
+
+	/**
+	 * Generated
+	 */
+	private static final long serialVersionUID = 5806839062290826428L;
+
+	/**
+	 * The player's room and its neighbours every turn, the rooms next to
+	 * those every fourth turn
+	 */
+	public static final ActivityTiers DEFAULT = new ActivityTiers(1, 2, 4);
+
+	public final int nearSteps;
+	public final int farSteps;
+	public final int every;
+
+	public ActivityTiers(int nearSteps, int farSteps, int every) {
+		if (nearSteps < 0 || farSteps < nearSteps || every < 1)
+			throw new IllegalArgumentException("Bad activity tiers " + nearSteps
+					+ ", " + farSteps + ", " + every);
+		this.nearSteps = nearSteps;
+		this.farSteps = farSteps;
+		this.every = every;
+	}
+
+}
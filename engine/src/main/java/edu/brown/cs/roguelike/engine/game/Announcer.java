@@ -1,13 +1,25 @@
 package edu.brown.cs.roguelike.engine.game;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import edu.brown.cs.roguelike.engine.graphics.Application;
 
 
+/**
+ * Collects messages for the player until they are displayed. Each thread
+ * has its own, so games played on different threads (see
+ * {@link edu.brown.cs.roguelike.engine.sim.HeadlessRunner}) do not mix up
+ * their messages.
+ */
 public class Announcer {
-	private final static Announcer instance = new Announcer();
-	public static Announcer getAnnouncer() {return instance;}
+	private final static ThreadLocal<Announcer> instance = new ThreadLocal<Announcer>() {
+		@Override
+		protected Announcer initialValue() {
+			return new Announcer();
+		}
+	};
+	public static Announcer getAnnouncer() {return instance.get();}
 	
 	private ArrayList<String> announcements;
 	private Announcer() {
@@ -22,6 +34,21 @@ public class Announcer {
 		getAnnouncer().announcements.add(s);
 	}
 	
+	/**
+	 * @return The announcements not displayed yet
+	 */
+	public List<String> getAnnouncements() {
+		return announcements;
+	}
+	
+	/**
+	 * Throws away the announcements not displayed yet, for when there is
+	 * nowhere to display them
+	 */
+	public void clear() {
+		announcements.clear();
+	}
+	
 	public void display(Application app) {
 		app.getLayers().push(new AnnounceLayer(app, announcements));
 	}
@@ -1,7 +1,5 @@
 package edu.brown.cs.roguelike.engine.game;
 
-import java.util.List;
-
 import edu.brown.cs.roguelike.engine.entities.Action;
 import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
 import edu.brown.cs.roguelike.engine.entities.EntityManager;
@@ -23,7 +21,7 @@ public class CumulativeTurnManager extends TurnManager {
 	 */
 	private static final long serialVersionUID = 2226734907191258919L;
 	
-	private final int pointsPerTurn;
+	protected final int pointsPerTurn;
 	
 	// If the player has less than minPtsPerTurn, they won't be given the
 	// chance to go again during that turn. This helps to alleviate 
@@ -45,7 +43,7 @@ public class CumulativeTurnManager extends TurnManager {
 		
 		EntityManager em = game.getCurrentLevel().getManager();
 		
-		EntityActionManager mainMgr = em.getEntity("main").get(0);
+		EntityActionManager mainMgr = em.getPlayer();
 		
 		// if the player doesn't have an Action queued, then set one
 		if (!mainMgr.hasNextAction()) { 
@@ -54,8 +52,7 @@ public class CumulativeTurnManager extends TurnManager {
 		
 		// Player's turn:
 		nextAction = mainMgr.getNextAction();
-		cost = (nextAction instanceof Wait) ? 
-				pointsPerTurn : nextAction.getCost();
+		cost = costOf(nextAction);
 		
 		// if the Player can take the action, then take it
 		if (cost <= mainMgr.getActionPoints()) {
@@ -71,33 +68,54 @@ public class CumulativeTurnManager extends TurnManager {
 		}
 
 		// take care of monsters:
+		monstersTurn(em);
 		
-		List<EntityActionManager> monsterMgrs = em.getEntity("monster");
-
-		for (EntityActionManager mgr: monsterMgrs) {
+		turnEnded();
+	}
+	
+	/**
+	 * Gives every monster in em its turn, in the order they were registered
+	 */
+	protected void monstersTurn(EntityManager em) {
+		for (EntityActionManager mgr: em.getView(EntityManager.MONSTER))
+			actorTurn(em, mgr);
+	}
+	
+	/**
+	 * What an Action costs: a Wait takes the whole turn
+	 */
+	protected int costOf(Action action) {
+		return (action instanceof Wait) ? pointsPerTurn : action.getCost();
+	}
+	
+	/**
+	 * One monster's turn: it acts for as long as it can afford to, then
+	 * is granted this turn's points
+	 */
+	protected void actorTurn(EntityManager em, EntityActionManager mgr) {
+		Action nextAction;
+		int cost;
 
-			do { // actions
-				// check to make sure this monster still exists and hasn't been
-				// concurrently removed
-				if (em.reallyExists(mgr)) { 
+		do { // actions
+			// check to make sure this monster still exists and hasn't been
+			// concurrently removed
+			if (em.reallyExists(mgr)) { 
 
-					nextAction = mgr.getNextAction();
-					cost = (nextAction instanceof Wait) ? 
-							pointsPerTurn : nextAction.getCost();
+				nextAction = mgr.getNextAction();
+				cost = costOf(nextAction);
 
-					// if the monster can afford it, take the action
-					if (cost <= mgr.getActionPoints()) {
-						mgr.takeNextAction();
-						mgr.useActionPoints(cost);
-					} else { break; }
-				} 
+				// if the monster can afford it, take the action
+				if (cost <= mgr.getActionPoints()) {
+					mgr.takeNextAction();
+					mgr.useActionPoints(cost);
+				} else { break; }
 			} 
-			// until we have too few points to try again
-			// TODO: consider making the lower bound minPtsPerTurn? 
-			while (mgr.getActionPoints() > 0);
-			
-			// finally, grant points for this turn
-			mgr.addActionPoints(pointsPerTurn);
-		}
+		} 
+		// until we have too few points to try again
+		// TODO: consider making the lower bound minPtsPerTurn? 
+		while (mgr.getActionPoints() > 0);
+		
+		// finally, grant points for this turn
+		mgr.addActionPoints(pointsPerTurn);
 	}
 }
@@ -0,0 +1,246 @@
+package edu.brown.cs.roguelike.engine.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import edu.brown.cs.roguelike.engine.entities.Action;
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.EntityManager;
+import edu.brown.cs.roguelike.engine.entities.Monster;
+import edu.brown.cs.roguelike.engine.entities.events.Wait;
+import edu.brown.cs.roguelike.engine.graphics.Application;
+import edu.brown.cs.roguelike.engine.level.Space;
+
+/**
+ * A {@link CumulativeTurnManager} that only looks at the monsters whose
+ * turn has come. Monsters wait in a queue ordered by the turn on which
+ * they can next afford their Action, so one saving up for a slow Action
+ * is left alone until it has the points, and is paid for the turns it
+ * sat out when it comes up.
+ *
+ * Idle monsters outside the player's space are put aside altogether until
+ * the player walks into it: until then every turn of theirs is a Wait that
+ * leaves them as they were.
+ *
+ * Monsters act on the same turns, in the same order and with the same
+ * points as under CumulativeTurnManager, so games play out the same,
+ * unless it is given {@link ActivityTiers} to run monsters far from the
+ * player less often.
+ *
+ */
+public class EnergyTurnManager extends CumulativeTurnManager {
+
+	/**
+	 * Generated
+	 */
+	private static final long serialVersionUID = -3370195284415961587L;
+
+	private static class Actor implements Comparable<Actor> {
+		final EntityActionManager mgr;
+		// Monsters registered earlier go first, as in the monster list
+		final int order;
+		// The next turn it has anything to do on
+		long due;
+		// The last turn it was granted points for
+		long paid;
+
+		Actor(EntityActionManager mgr, int order) {
+			this.mgr = mgr;
+			this.order = order;
+		}
+
+		@Override
+		public int compareTo(Actor other) {
+			if (due != other.due)
+				return due < other.due ? -1 : 1;
+			return order < other.order ? -1 : (order == other.order ? 0 : 1);
+		}
+	}
+
+	private ActivityTiers tiers = null;
+
+	/*
+	 * Only good for the level being played, so rebuilt on changing levels
+	 * and after loading
+	 */
+	private transient EntityManager scheduled;
+	private transient List<EntityActionManager> monsters;
+	private transient Set<EntityActionManager> known;
+	private transient PriorityQueue<Actor> queue;
+	private transient Map<Space,List<Actor>> idle;
+	private transient Map<Space,List<Actor>> asleep;
+	// The player's space the tiers were worked out from, and the spaces
+	// close enough to it not to sleep
+	private transient Space tiersFrom;
+	private transient Map<Space,Integer> steps;
+	private transient int registered;
+	private transient long turn;
+
+	public EnergyTurnManager(Application app, Game game, int pointsPerTurn) {
+		super(app, game, pointsPerTurn);
+	}
+
+	public ActivityTiers getActivityTiers() { return tiers; }
+
+	/**
+	 * @param tiers How often to run monsters far from the player, or null
+	 * to run them all as CumulativeTurnManager would
+	 */
+	public void setActivityTiers(ActivityTiers tiers) {
+		this.tiers = tiers;
+		this.scheduled = null;
+	}
+
+	private void schedule(EntityManager em) {
+		scheduled = em;
+		monsters = Collections.emptyList();
+		known = Collections.newSetFromMap(new IdentityHashMap<EntityActionManager,Boolean>());
+		queue = new PriorityQueue<Actor>();
+		idle = new HashMap<Space,List<Actor>>();
+		asleep = new HashMap<Space,List<Actor>>();
+		tiersFrom = null;
+		steps = null;
+		registered = 0;
+	}
+
+	/**
+	 * Queues the monsters registered since the last turn
+	 */
+	private void addNewMonsters(List<EntityActionManager> now) {
+		for (EntityActionManager mgr : now) {
+			if (known.add(mgr)) {
+				Actor a = new Actor(mgr, registered++);
+				a.due = turn;
+				a.paid = turn - 1;
+				queue.add(a);
+			}
+		}
+		monsters = now;
+	}
+
+	private static Space spaceOf(EntityActionManager mgr) {
+		return mgr == null || mgr.getLocation() == null ? null
+				: mgr.getLocation().getSpace();
+	}
+
+	@Override
+	protected void monstersTurn(EntityManager em) {
+		if (em != scheduled || queue == null)
+			schedule(em);
+		turn++;
+
+		// Views are replaced whenever a monster is registered or dies
+		List<EntityActionManager> now = em.getView(EntityManager.MONSTER);
+		if (now != monsters)
+			addNewMonsters(now);
+
+		Space playerSpace = spaceOf(em.getPlayer());
+		if (playerSpace != null) {
+			wake(idle.remove(playerSpace));
+			if (tiers != null && !playerSpace.equals(tiersFrom)) {
+				tiersFrom = playerSpace;
+				steps = game.getCurrentLevel().getSpaceGraph()
+						.stepsFrom(playerSpace, tiers.farSteps);
+				for (Space s : steps.keySet())
+					wake(asleep.remove(s));
+			}
+		}
+
+		while (!queue.isEmpty() && queue.peek().due <= turn) {
+			Actor a = queue.poll();
+			if (!em.reallyExists(a.mgr)) {
+				known.remove(a.mgr);
+				continue;
+			}
+			a.mgr.addActionPoints(pointsPerTurn * (int) (turn - a.paid - 1));
+			actorTurn(em, a.mgr);
+			a.paid = turn;
+			requeue(a, playerSpace);
+		}
+	}
+
+	private void wake(List<Actor> woken) {
+		if (woken == null)
+			return;
+		for (Actor a : woken) {
+			// Idle monsters' waiting cost them what it earned them, and
+			// sleeping ones were not paid
+			a.due = turn;
+			a.paid = turn - 1;
+			queue.add(a);
+		}
+	}
+
+	private static void putAside(Map<Space,List<Actor>> aside, Space space, Actor a) {
+		List<Actor> here = aside.get(space);
+		if (here == null) {
+			here = new ArrayList<Actor>();
+			aside.put(space, here);
+		}
+		here.add(a);
+	}
+
+	/**
+	 * Works out when a is next due after its turn, or puts it aside
+	 */
+	private void requeue(Actor a, Space playerSpace) {
+		EntityActionManager mgr = a.mgr;
+		Action pending = mgr.hasNextAction() ? mgr.getNextAction() : null;
+		int points = mgr.getActionPoints();
+
+		Space space = spaceOf(mgr);
+		if (isIdle(mgr, pending, points) && (space == null || !space.equals(playerSpace))) {
+			putAside(idle, space, a);
+			return;
+		}
+
+		int cost = pending == null ? 0 : costOf(pending);
+		if (pending == null || cost <= points)
+			a.due = turn + 1;
+		else // sits out the turns it cannot afford pending on
+			a.due = turn + 1 + (cost - points + pointsPerTurn - 1) / pointsPerTurn;
+
+		if (steps != null && space != null) {
+			Integer away = steps.get(space);
+			if (away == null) {
+				putAside(asleep, space, a);
+				return;
+			}
+			if (away > tiers.nearSteps)
+				a.due = Math.max(a.due, turn + tiers.every);
+		}
+		queue.add(a);
+	}
+
+	/**
+	 * @return Whether mgr is an idle monster that another turn of waiting
+	 * would leave exactly as it is
+	 */
+	private boolean isIdle(EntityActionManager mgr, Action pending, int points) {
+		if (!(mgr.getEntity() instanceof Monster) || ((Monster) mgr.getEntity()).isChasing())
+			return false;
+		if (pending != null && !(pending instanceof Wait))
+			return false;
+
+		// actorTurn, for a monster that only ever waits
+		int p = points;
+		boolean waiting;
+		do {
+			waiting = true;
+			if (pointsPerTurn <= p) {
+				p -= pointsPerTurn;
+				waiting = false;
+			} else { break; }
+		} while (p > 0);
+		p += pointsPerTurn;
+
+		return p == points && waiting == (pending != null);
+	}
+
+}
@@ -1,5 +1,7 @@
 package edu.brown.cs.roguelike.engine.game;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.Hashtable;
 import java.util.LinkedList;
 import java.util.UUID;
@@ -10,6 +12,8 @@ import edu.brown.cs.roguelike.engine.entities.MainCharacter;
 import edu.brown.cs.roguelike.engine.level.Level;
 import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
 import edu.brown.cs.roguelike.engine.proc.LevelGenerator;
+import edu.brown.cs.roguelike.engine.proc.LevelPrefetcher;
+import edu.brown.cs.roguelike.engine.proc.RandomGen;
 import edu.brown.cs.roguelike.engine.save.Saveable;
 
 public abstract class Game implements Saveable {
@@ -25,6 +29,11 @@ public abstract class Game implements Saveable {
 ;
 	protected Level currentLevel;
 	protected Vec2i levelSize;
+	
+	// Every level is generated from a seed derived from this one
+	protected long seed = RandomGen.randomSeed();
+	// False in games serialized before they had a seed
+	private boolean seeded = true;
 	protected final Vec2i MAP_SIZE;
     
     public Game(Vec2i mapSize) {
@@ -35,7 +44,7 @@ public abstract class Game implements Saveable {
     /**Initalizes the first level
      * @throws ConfigurationException **/
 	public void createInitalLevel(BSPLevelGenerator lg) throws ConfigurationException {
-		this.currentLevel = lg.generateLevel(MAP_SIZE, 1);
+		this.currentLevel = lg.generateLevel(MAP_SIZE, 1, getLevelSeed(1));
 		levels.put(1, currentLevel);
 		
 		//TODO: Get character name
@@ -47,12 +56,14 @@ public abstract class Game implements Saveable {
     /**
      * Moves the player to the level indicated by depth
      * @param depth - The depth the player is moving to
-     * @param levelGen - The level generator to use if new levels are needed
+     * @param levelGen - The level generator to use if new levels are needed.
+     * If it is a LevelPrefetcher, it is told to get the levels below the
+     * new one ready.
      * @throws ConfigurationException - A configuration problem exists
      */
     public void gotoLevel(int depth, LevelGenerator levelGen) throws ConfigurationException {
     	if(levels.get(depth) == null) {
-    		Level newLevel = levelGen.generateLevel(MAP_SIZE, depth);
+    		Level newLevel = levelGen.generateLevel(MAP_SIZE, depth, getLevelSeed(depth));
     		
     		MainCharacter mc = currentLevel.removePlayer();
     		newLevel.placeCharacter(mc, currentLevel.getDepth() < depth);
@@ -64,6 +75,9 @@ public abstract class Game implements Saveable {
     		levels.get(depth).placeCharacter(mc, currentLevel.getDepth() < depth);
     		currentLevel = levels.get(depth);
     	}
+    	
+    	if (levelGen instanceof LevelPrefetcher)
+    		((LevelPrefetcher) levelGen).prefetch(this);
     }
     
     private void init() {
@@ -87,6 +101,64 @@ public abstract class Game implements Saveable {
     }
     
     public Level getCurrentLevel() { return this.currentLevel; }
+    
+    public Vec2i getMapSize() { return this.MAP_SIZE; }
+    
+    /**
+     * The master seed, which decides every level of the game. Set it
+     * before the first level is created to replay a game.
+     */
+    public long getSeed() { return this.seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+    
+    /**
+     * @return The seed the level at depth is generated from
+     */
+    public long getLevelSeed(int depth) {
+    	return RandomGen.derive(RandomGen.derive(seed, "level"), depth);
+    }
+    
+    /**
+     * @return Every level visited so far, by depth
+     */
+    public Hashtable<Integer,Level> getLevels() { return this.levels; }
+    
+    /**
+     * @return The seed for a game saved before games had one, the same
+     * every time that game is loaded
+     */
+    public static long seedFromId(UUID id) {
+    	return RandomGen.derive(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+    
+    /*
+     * Used by SaveManager to rebuild a game from a binary save
+     */
+    public void putLevel(Level l) {
+    	giveRandom(l);
+    	this.levels.put(l.getDepth(), l);
+    }
+    
+    /**
+     * Gives l the random stream its generator would have given it, if it
+     * came from a save without one
+     */
+    private void giveRandom(Level l) {
+    	if (!l.hasRandom())
+    		l.setRandom(new RandomGen(RandomGen.derive(getLevelSeed(l.getDepth()), "play")));
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    	in.defaultReadObject();
+    	if (!seeded) {
+    		seed = seedFromId(id);
+    		seeded = true;
+    	}
+    	for (Level l : levels.values())
+    		giveRandom(l);
+    }
+    public void setCurrentLevel(Level l) { this.currentLevel = l; }
+    public void setState(GameState state) { this.gameState = state; }
 
     
     /**
@@ -145,6 +217,11 @@ public abstract class Game implements Saveable {
 		return this.id;
 	}
 	
+	/** Restores the id of a loaded game **/
+	public void setId(UUID id) {
+		this.id = id;
+	}
+	
 	/*** END Saveable ***/
 
 }
@@ -0,0 +1,193 @@
+package edu.brown.cs.roguelike.engine.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.entities.Action;
+import edu.brown.cs.roguelike.engine.entities.Combatable;
+import edu.brown.cs.roguelike.engine.entities.Entity;
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.EntityManager;
+import edu.brown.cs.roguelike.engine.entities.events.Move;
+import edu.brown.cs.roguelike.engine.fsm.monster.Chasing;
+import edu.brown.cs.roguelike.engine.graphics.Application;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.pathfinding.PathfinderType;
+
+/**
+ * A {@link CumulativeTurnManager} that lets monsters make up their minds
+ * on several threads. First every monster with no Action queued picks one,
+ * all of them looking at the level as the player left it. Then they act
+ * one by one in the usual order. A monster whose move is now blocked by an
+ * ally that got there first thinks again.
+ *
+ * Deciding only reads the level and every monster sees the same level, so
+ * a game plays out the same on any number of threads. It does not play out
+ * the same as under CumulativeTurnManager, where each monster sees the
+ * moves of the monsters before it.
+ *
+ */
+public class ParallelTurnManager extends CumulativeTurnManager {
+
+	/**
+	 * Generated
+	 */
+	private static final long serialVersionUID = -1548937365590402387L;
+
+	// Fewer monsters than this are quicker to decide for on this thread
+	private static final int MIN_BATCH = 16;
+
+	private final int threads;
+	private transient ExecutorService executor;
+
+	/**
+	 * @param threads How many threads monsters decide on, 1 to decide on
+	 * the calling thread
+	 */
+	public ParallelTurnManager(Application app, Game game, int pointsPerTurn, int threads) {
+		super(app, game, pointsPerTurn);
+		this.threads = threads;
+	}
+
+	public int getThreads() { return threads; }
+
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "monster-decisions");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Stops the decision threads. They are started again if another turn
+	 * is taken.
+	 */
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	@Override
+	protected void monstersTurn(EntityManager em) {
+		List<EntityActionManager> monsters = em.getView(EntityManager.MONSTER);
+
+		List<EntityActionManager> undecided = new ArrayList<EntityActionManager>();
+		for (EntityActionManager mgr : monsters)
+			if (em.reallyExists(mgr) && !mgr.hasNextAction())
+				undecided.add(mgr);
+		if (canDecideApart(em) && threads > 1 && undecided.size() >= MIN_BATCH)
+			decideApart(undecided);
+		else
+			for (EntityActionManager mgr : undecided)
+				mgr.getNextAction();
+
+		for (EntityActionManager mgr : monsters) {
+			if (em.reallyExists(mgr) && isBlocked(mgr))
+				mgr.setNextAction(null);
+			actorTurn(em, mgr);
+		}
+	}
+
+	/**
+	 * Brings the level's shared lookups up to date, so deciding only reads
+	 * them
+	 *
+	 * @return Whether monsters can decide on other threads: not with more
+	 * than one player to chase, nor with the GRID or CACHED pathfinders,
+	 * whose scratch space is shared. NODE searches keep their state to
+	 * themselves.
+	 */
+	private boolean canDecideApart(EntityManager em) {
+		List<EntityActionManager> players = em.getView(EntityManager.MAIN);
+		PathfinderType type = Chasing.getPathfinderType();
+		if (players.size() != 1 || !decidesApart(type))
+			return false;
+
+		Level level = game.getCurrentLevel();
+		level.getEntityIndex();
+		level.getSpaceIndex();
+		level.getMonsterInput();
+		if (type == PathfinderType.CHASE_MAP)
+			level.getChaseMap(players.get(0).getLocation());
+		else if (type == PathfinderType.HIERARCHICAL)
+			level.getHierarchicalPathfinder();
+		return true;
+	}
+
+	/**
+	 * @return Whether monsters chasing with type can decide on other
+	 * threads
+	 */
+	public static boolean decidesApart(PathfinderType type) {
+		return type != PathfinderType.GRID && type != PathfinderType.CACHED;
+	}
+
+	private void decideApart(List<EntityActionManager> undecided) {
+		int n = Math.min(threads, undecided.size());
+		List<Future<Void>> decided = new ArrayList<Future<Void>>(n);
+		for (int i = 0; i < n; i++) {
+			final List<EntityActionManager> share = undecided.subList(
+					i * undecided.size() / n, (i + 1) * undecided.size() / n);
+			decided.add(getExecutor().submit(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (EntityActionManager mgr : share)
+						mgr.getNextAction();
+					return null;
+				}
+			}));
+		}
+
+		for (Future<Void> f : decided) {
+			try {
+				f.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				if (e.getCause() instanceof Error)
+					throw (Error) e.getCause();
+				throw new RuntimeException(e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * @return Whether mgr's queued Action is a move onto a tile an ally has
+	 * taken since it was chosen
+	 */
+	private static boolean isBlocked(EntityActionManager mgr) {
+		if (!mgr.hasNextAction())
+			return false;
+		Action a = mgr.getNextAction();
+		if (!(a instanceof Move) || mgr.getLocation() == null)
+			return false;
+
+		Level level = mgr.getLocation().getLevel();
+		Vec2i next = mgr.getLocation().getLocation().plus(((Move) a).getDirection().getDelta());
+		if (!level.inBounds(next.x, next.y))
+			return false;
+		Entity there = level.getEntityAt(next.x, next.y);
+		return there instanceof Combatable && there != mgr.getEntity()
+				&& ((Combatable) there).getTeam() == mgr.getEntity().getTeam();
+	}
+
+}
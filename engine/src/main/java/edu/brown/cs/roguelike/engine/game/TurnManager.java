@@ -4,6 +4,7 @@ import java.util.UUID;
 
 import edu.brown.cs.roguelike.engine.entities.Action;
 import edu.brown.cs.roguelike.engine.graphics.Application;
+import edu.brown.cs.roguelike.engine.save.AutoSaver;
 import edu.brown.cs.roguelike.engine.save.Saveable;
 
 
@@ -25,6 +26,7 @@ public abstract class TurnManager implements Saveable {
 	protected Game game;
 	protected final int waitCost;
 	protected Application app;
+	protected transient AutoSaver autoSaver;
 	
 	public TurnManager(Application app, Game game, int waitCost) {
 		this.game = game;
@@ -33,6 +35,18 @@ public abstract class TurnManager implements Saveable {
 	}
 	
 	public int getWaitCost() { return this.waitCost; }
+	
+	public AutoSaver getAutoSaver() { return autoSaver; }
+	public void setAutoSaver(AutoSaver autoSaver) { this.autoSaver = autoSaver; }
+
+	/**
+	 * Subclasses call this once every Entity has acted for the turn, when
+	 * the game is in a consistent state that can be saved
+	 */
+	protected void turnEnded() {
+		if (autoSaver != null)
+			autoSaver.turnEnded(game);
+	}
 
 	/**
 	 * Every turn starts with the player's Action
@@ -36,6 +36,23 @@ public abstract class Application extends LanternaFrontend {
 		for (Layer layer : layers)
 			layer.doDraw(s);
 	}
+
+	// The only layer the last frame drew, or null if it drew several
+	private Layer drawnAlone = null;
+
+	/**
+	 * A layer drawn on its own can draw just what changed since its last
+	 * frame. Layers above it draw over it and may leave things behind once
+	 * they are gone, so any frame with more than one layer, and the first
+	 * one after the stack changes, is drawn from scratch.
+	 */
+	@Override
+	protected boolean needsRepaint() {
+		Layer alone = layers.size() == 1 ? layers.peek() : null;
+		boolean repaint = alone == null || alone != drawnAlone;
+		drawnAlone = alone;
+		return repaint;
+	}
 	
     /**
      * Takes care of any initialization that is necessary for the game. For 
@@ -1,7 +1,5 @@
 package edu.brown.cs.roguelike.engine.graphics;
 
-import java.util.List;
-
 import com.googlecode.lanterna.input.Key;
 import com.googlecode.lanterna.screen.ScreenCharacterStyle;
 import com.googlecode.lanterna.screen.ScreenWriter;
@@ -37,6 +35,9 @@ public abstract class DefaultMainLayer<A extends Application> implements Layer {
 	
 	protected Vec2i size;
 	protected A app;
+	
+	// The level on screen, if the screen was not cleared since
+	private Level drawnLevel;
 
 	public DefaultMainLayer(A app, Game game, 
 			Vec2i screenSize, String startMessage) {
@@ -56,11 +57,18 @@ public abstract class DefaultMainLayer<A extends Application> implements Layer {
 	public void doDraw(Section sw) {
 
 		Vec2i middle = size.sdiv(2);
+		Level current = game == null ? null : game.getCurrentLevel();
+
+		// Anything but the same level as last frame starts from a blank screen
+		boolean repaint = sw.isRepaint() || current == null || current != drawnLevel;
+		if (repaint && !sw.isRepaint())
+			sw.fillScreen(' ');
+		drawnLevel = current;
 
-		if (game == null || game.getCurrentLevel() == null) { // draw status message
+		if (current == null) { // draw status message
 			sw.drawString(middle.x - statusMsg.length() / 2, 0, statusMsg);
 		} else { // otherwise draw level
-			drawLevel(sw);
+			drawLevel(sw, repaint);
 			drawStats(sw);
 		}
 	}
@@ -78,14 +86,14 @@ public abstract class DefaultMainLayer<A extends Application> implements Layer {
 		int statStart = ANNOUNCE_OFFSET + MAP_SIZE.y + 1;
 
 		// CHECK FOR WIN/LOSE
-		List<EntityActionManager> main = currentLevel.getManager()
-				.getEntity("main");
+		EntityActionManager main = currentLevel.getManager().getPlayer();
 		
-		if(main.size() == 0) {
-			sw.drawString(0, statStart, "You lose!");
+		if(main == null) {
+			sw.drawString(0, statStart, padLine("You lose!"));
+			sw.drawString(0, statStart + 1, padLine(""));
 			return;
 		}
-		MainCharacter player = (MainCharacter) main.get(0).getEntity();
+		MainCharacter player = (MainCharacter) main.getEntity();
 
 		// DRAW THE STATS
 		String line1 = "";
@@ -98,8 +106,7 @@ public abstract class DefaultMainLayer<A extends Application> implements Layer {
 		line1 += player.getXP();
 		line1 += "/";
 		line1 += player.getNextLevelXP();
-		line1 += "       ";
-		sw.drawString(0, statStart, line1);
+		sw.drawString(0, statStart, padLine(line1));
 		
 		String depthString = "Dungeon Level: " + currentLevel.getDepth();
 		sw.drawString(size.x - depthString.length() -2, statStart, depthString);
@@ -111,13 +118,27 @@ public abstract class DefaultMainLayer<A extends Application> implements Layer {
 		line2 += player.getStats().getAttack();
 		line2 += "  Defense: ";
 		line2 += String.valueOf(player.getStats().getDefense());
-		line2 += "       ";
-		sw.drawString(0, statStart + 1, line2);
+		sw.drawString(0, statStart + 1, padLine(line2));
+
+	}
 
+	/**
+	 * @return line padded with spaces to the width of the screen, so it
+	 * covers whatever was drawn there before
+	 */
+	private String padLine(String line) {
+		StringBuilder sb = new StringBuilder(line);
+		while (sb.length() < size.x)
+			sb.append(' ');
+		return sb.toString();
 	}
 
-	private void drawLevel(Section sw) {
-		game.getCurrentLevel().doDraw(sw.moveUpperLeft(new Vec2i(0, ANNOUNCE_OFFSET)));
+	private void drawLevel(Section sw, boolean repaint) {
+		Section map = sw.moveUpperLeft(new Vec2i(0, ANNOUNCE_OFFSET));
+		if (repaint)
+			game.getCurrentLevel().doDraw(map);
+		else
+			game.getCurrentLevel().drawChanges(map);
 	}
 
 	public abstract GameAction getActionForKey(Key k);
@@ -0,0 +1,130 @@
+package edu.brown.cs.roguelike.engine.graphics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counters kept by the {@link LanternaFrontend} event loop: how many frames
+ * it drew, how much CPU it used, and how long a key press took to show on
+ * screen. Only the loop's thread updates them; reading them from another
+ * thread gives approximate values.
+ *
+ */
+public class FrameMetrics {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private volatile long framesDrawn = 0;
+	private volatile long keysHandled = 0;
+	private volatile long wakeups = 0;
+
+	private volatile long latencyCount = 0;
+	private volatile long latencyTotal = 0;
+	private volatile long latencyMax = 0;
+	private volatile long latencyLast = 0;
+
+	private long startWall;
+	private long startCpu;
+	private volatile long wall = 0;
+	private volatile long cpu = -1;
+
+	/**
+	 * Called by the loop's thread when it starts
+	 */
+	void start() {
+		startWall = System.nanoTime();
+		startCpu = threadCpu();
+	}
+
+	/**
+	 * Called by the loop's thread every time it wakes up
+	 */
+	void wokeUp() {
+		wakeups++;
+		wall = System.nanoTime() - startWall;
+		if (startCpu >= 0)
+			cpu = threadCpu() - startCpu;
+	}
+
+	void keyHandled() {
+		keysHandled++;
+	}
+
+	/**
+	 * @param inputAt When the oldest key this frame shows was read, or -1
+	 * if it shows no new keys
+	 */
+	void frameDrawn(long inputAt) {
+		framesDrawn++;
+		if (inputAt >= 0) {
+			long latency = System.nanoTime() - inputAt;
+			latencyLast = latency;
+			latencyTotal += latency;
+			latencyCount++;
+			if (latency > latencyMax)
+				latencyMax = latency;
+		}
+	}
+
+	private static long threadCpu() {
+		try {
+			if (THREADS.isCurrentThreadCpuTimeSupported())
+				return THREADS.getCurrentThreadCpuTime();
+		} catch (UnsupportedOperationException e) {
+			// fall through
+		}
+		return -1;
+	}
+
+	public long getFramesDrawn() { return framesDrawn; }
+	public long getKeysHandled() { return keysHandled; }
+
+	/**
+	 * @return How many times the loop woke up, to draw or to look for input
+	 */
+	public long getWakeups() { return wakeups; }
+
+	/**
+	 * @return Nanoseconds since the loop started
+	 */
+	public long getElapsedNanos() { return wall; }
+
+	/**
+	 * @return CPU nanoseconds used by the loop's thread, or -1 if the JVM
+	 * cannot tell
+	 */
+	public long getCpuNanos() { return cpu; }
+
+	/**
+	 * @return The share of one core the loop has used, from 0 to 1, or -1
+	 * if the JVM cannot tell
+	 */
+	public double getCpuLoad() {
+		long c = cpu, w = wall;
+		return c < 0 || w == 0 ? -1 : (double) c / w;
+	}
+
+	/**
+	 * @return Nanoseconds from reading a key to the end of the frame that
+	 * showed it, for the last key, or 0 if there was none
+	 */
+	public long getLastInputLatency() { return latencyLast; }
+	public long getMaxInputLatency() { return latencyMax; }
+
+	public long getMeanInputLatency() {
+		long n = latencyCount;
+		return n == 0 ? 0 : latencyTotal / n;
+	}
+
+	@Override
+	public String toString() {
+		double seconds = wall / 1e9;
+		return String.format("%d frames, %d keys in %.1fs (%.1f wakeups/s), "
+				+ "cpu %.1f%%, input to paint %.2fms mean %.2fms max",
+				framesDrawn, keysHandled, seconds,
+				seconds == 0 ? 0 : wakeups / seconds,
+				getCpuLoad() * 100,
+				getMeanInputLatency() / 1e6, getMaxInputLatency() / 1e6);
+	}
+
+}
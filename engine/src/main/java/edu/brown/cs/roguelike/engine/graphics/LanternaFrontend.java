@@ -1,7 +1,5 @@
 package edu.brown.cs.roguelike.engine.graphics;
 
-import java.util.Date;
-
 import com.googlecode.lanterna.TerminalFacade;
 import com.googlecode.lanterna.terminal.Terminal;
 import com.googlecode.lanterna.input.Key;
@@ -60,6 +58,17 @@ public abstract class LanternaFrontend {
 	 */
 	protected abstract void onResize(Vec2i newSize);
 
+	/**
+	 * Called before each frame. If this returns false the screen is not
+	 * cleared, so it still shows the last frame and onDraw only needs to
+	 * draw what changed.
+	 *
+	 * @return Whether the next frame must be drawn from scratch
+	 */
+	protected boolean needsRepaint() {
+		return true;
+	}
+
     /**
      * Used to indicate if the game should be running right now. Controls the
      * event loop, too. When this is set to false, the loop will end, and any
@@ -109,38 +118,131 @@ public abstract class LanternaFrontend {
             onResize(screenSize);
         }
 
+        eventLoop(screen, screenSize);
+        screen.stopScreen();
+    }
+
+	/**
+	 * Like {@link #startup}, but runs on a screen that is already started,
+	 * for example one that is not backed by a real terminal. The screen is
+	 * left running.
+	 */
+	public final void startup(Screen screen) {
+		if (!running) {
+			running = true;
+			onResize(getSize());
+			eventLoop(screen, getSize());
+		}
+	}
+
+	private static final long NANOS_PER_SECOND = 1000000000L;
+
+	// Lanterna cannot block waiting for a key, so input is polled. While
+	// nothing happens the wait between polls doubles up to the maximum,
+	// which bounds both idle wakeups and the delay before a key is seen.
+	private static final long MIN_POLL_NANOS = 1000000L;
+	private static final long MAX_POLL_NANOS = 20000000L;
+
+	private volatile int frameCap = 30;
+	private volatile boolean redrawRequested = true;
+	private final FrameMetrics metrics = new FrameMetrics();
+
+	/**
+	 * @param framesPerSecond The most frames to draw per second. Frames are
+	 * only drawn after input or {@link #requestRedraw}, so this only matters
+	 * while they come faster than that.
+	 */
+	public void setFrameCap(int framesPerSecond) {
+		if (framesPerSecond < 1)
+			throw new IllegalArgumentException("Frame cap must be positive: " + framesPerSecond);
+		this.frameCap = framesPerSecond;
+	}
+
+	public int getFrameCap() {
+		return frameCap;
+	}
+
+	/**
+	 * Asks for a frame to be drawn even though no key was pressed, e.g.
+	 * because something changed in the background. Can be called from any
+	 * thread.
+	 */
+	public void requestRedraw() {
+		redrawRequested = true;
+	}
+
+	public FrameMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Hands every waiting key to onKeyPressed, then draws a frame if
+	 * anything asked for one and the frame cap allows it, then sleeps until
+	 * the next frame is due or it is time to poll for input again.
+	 */
+	private void eventLoop(Screen screen, Vec2i screenSize) {
+		metrics.start();
+		long frameInterval = NANOS_PER_SECOND / frameCap;
+		long lastFrame = System.nanoTime() - frameInterval;
+		long lastTick = System.nanoTime();
+		long inputAt = -1; // when the oldest key not on screen yet was read
+		long poll = MIN_POLL_NANOS;
 
-        long time = new Date().getTime();
-        while (running) {
+		while (running) {
 			try {
-				// First do anything that we need to do for updating screen size.
-				/* if (screen.resizePending()) {
-					screen.refresh();
-					TerminalSize size = screen.getTerminalSize();
-					onResize(new Vec2i(size.getColumns(),size.getRows()));
-				} */
-
-				// First do anything that we need to do for updating screen size.
-				// Then we draw the screen.
-				screen.clear();
-				onDraw(new Section(screen, new Vec2i(0,0), screenSize));
-				screen.refresh();
+				metrics.wokeUp();
+				long now = System.nanoTime();
+				onTick(now - lastTick);
+				lastTick = now;
 
 				// We can now give the program any key presses
-				Key key = screen.readInput();
-				if (key != null)
+				Key key;
+				while (running && (key = screen.readInput()) != null) {
+					if (inputAt < 0)
+						inputAt = System.nanoTime();
 					onKeyPressed(key);
+					metrics.keyHandled();
+					redrawRequested = true;
+					poll = MIN_POLL_NANOS;
+				}
+				if (!running)
+					break;
 
-				// Then we take care of ticks.
-				long currentTime = new Date().getTime();
-				onTick(currentTime - time);
-				time = currentTime;
+				long sleep;
+				if (redrawRequested) {
+					long untilDue = lastFrame + frameInterval - System.nanoTime();
+					if (untilDue <= 0) {
+						redrawRequested = false;
+						boolean repaint = needsRepaint();
+						if (repaint)
+							screen.clear();
+						onDraw(new Section(screen, new Vec2i(0,0), screenSize, repaint));
+						screen.refresh();
+						lastFrame = System.nanoTime();
+						metrics.frameDrawn(inputAt);
+						inputAt = -1;
+						frameInterval = NANOS_PER_SECOND / frameCap;
+						continue;
+					}
+					sleep = Math.min(untilDue, poll);
+				} else {
+					sleep = poll;
+					poll = Math.min(poll * 2, MAX_POLL_NANOS);
+				}
+				sleepNanos(sleep);
 			} catch (NullPointerException e) {
 				// For now, ignore it.
 			}
-        }
-        screen.stopScreen();
-    }
+		}
+	}
+
+	private static void sleepNanos(long nanos) {
+		try {
+			Thread.sleep(nanos / 1000000, (int) (nanos % 1000000));
+		} catch (InterruptedException e) {
+			// Only means waking up early
+		}
+	}
     
     /**
      * This method turns on debug mode, which is useful for development.
@@ -37,7 +37,7 @@ public class LookLayer<A extends Application> implements Layer {
 		//Set loc to player
 		EntityActionManager player = currentLevel.getManager().getPlayer(0);
 		if(player == null) {
-			loc = currentLevel.tiles[0][0];
+			loc = currentLevel.getTile(0, 0);
 		}
 		else {
 			loc = player.getLocation();
@@ -61,7 +61,7 @@ public class LookLayer<A extends Application> implements Layer {
 		}
 		
 		sw.setForegroundColor(Color.DEFAULT);
-		if(loc.getEntity() != null){
+		if(loc.getEntity() != null && currentLevel.isVisible(loc.getLocation().x, loc.getLocation().y)){
 			sw.drawString(startX, currentY, loc.getEntity().getDescription());
 			currentY++;
 		}
@@ -143,9 +143,8 @@ public class LookLayer<A extends Application> implements Layer {
 		}
 
 		Vec2i next = loc.getLocation().plus(dir.getDelta());
-		Tile[][] tiles = currentLevel.getTiles();
-		if (tiles.length > next.x && next.x >= 0 && tiles[0].length > next.y && next.y >= 0)
-			loc = tiles[next.x][next.y];
+		if (currentLevel.inBounds(next.x, next.y))
+			loc = currentLevel.getTile(next.x, next.y);
 
 	}
 
@@ -11,6 +11,7 @@ public class Section extends ScreenWriter {
 	protected Screen screen;
 	protected Vec2i upperLeft;
 	protected Vec2i bottomRight = null;
+	protected boolean repaint = true;
 
 	/**
 	 * @param screen
@@ -18,10 +19,19 @@ public class Section extends ScreenWriter {
 	 * @param bottomRight
 	 */
 	public Section(Screen screen, Vec2i upperLeft, Vec2i bottomRight) {
+		this(screen, upperLeft, bottomRight, true);
+	}
+
+	/**
+	 * @param repaint Whether the screen was cleared for this frame. If not,
+	 * it still shows the last frame, so only what changed needs drawing.
+	 */
+	public Section(Screen screen, Vec2i upperLeft, Vec2i bottomRight, boolean repaint) {
 		super(screen);
 		this.screen = screen;
 		this.upperLeft = upperLeft;
 		this.bottomRight = bottomRight;
+		this.repaint = repaint;
 	}
 
 	/**
@@ -58,15 +68,22 @@ public class Section extends ScreenWriter {
 		return bottomRight;
 	}
 
+	/**
+	 * @return Whether the screen was cleared for this frame
+	 */
+	public boolean isRepaint() {
+		return repaint;
+	}
+
 	public Section moveUpperLeft(Vec2i ul) {
 		assert ul.x < bottomRight.x;
 		assert ul.y < bottomRight.y;
-		return new Section(screen, ul, bottomRight);
+		return new Section(screen, ul, bottomRight, repaint);
 	}
 
 	public Section moveUpperRight(Vec2i rl) {
 		assert rl.x > upperLeft.x;
 		assert rl.y > upperLeft.y;
-		return new Section(screen, rl, bottomRight);
+		return new Section(screen, rl, bottomRight, repaint);
 	}
 }
@@ -1,7 +1,5 @@
 package edu.brown.cs.roguelike.engine.graphics;
 
-import java.util.List;
-
 import com.googlecode.lanterna.input.Key;
 
 import cs195n.Vec2i;
@@ -69,19 +67,19 @@ public abstract class UseItemLayer<A extends Application> implements Layer  {
 
 		//System.out.println(slot);
 
-		List<EntityActionManager> mainCharList = currentLevel.getManager().getEntity("main");
-		if(mainCharList.size() < 1) {
+		EntityActionManager mainMgr = currentLevel.getManager().getPlayer();
+		if(mainMgr == null) {
 			return;
 		}
 
-		Combatable main = mainCharList.get(0).getEntity();
+		Combatable main = mainMgr.getEntity();
 
 		Stackable[] inventory = main.getInventory().toArray(new Stackable[0]);
 		if(inventory.length < 1 || inventory.length-1 < slot) {
 			return;
 		}
 
-		applyItemEffect(inventory[slot], mainCharList.get(0));
+		applyItemEffect(inventory[slot], mainMgr);
 	}
 
 
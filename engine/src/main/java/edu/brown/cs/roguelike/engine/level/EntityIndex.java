@@ -0,0 +1,313 @@
+package edu.brown.cs.roguelike.engine.level;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.entities.Combatable;
+import edu.brown.cs.roguelike.engine.entities.Entity;
+import edu.brown.cs.roguelike.engine.fsm.FactClock;
+
+/**
+ * Where the entities of a {@link Level} are, bucketed into square cells
+ * of the map by team, so finding the entities near a point only looks at
+ * the cells around it instead of at every entity or every tile.
+ *
+ * The level keeps it up to date as tiles' entities change. Distances are
+ * in steps, as the entities move: |dx| + |dy|.
+ *
+ */
+public class EntityIndex {
+
+	/** The width and height of a cell in tiles */
+	public static final int CELL = 8;
+
+	// Entities that are not Combatable are kept under this team
+	private static final int NO_TEAM = Integer.MIN_VALUE;
+
+	/**
+	 * The entities of one team, bucketed and in a list. Looking for
+	 * enemies never has to step over a crowd of allies this way.
+	 */
+	private static class Team {
+		final List<List<Entity>> buckets;
+		final List<Entity> members = new ArrayList<Entity>();
+		// Where each member is in members
+		final IdentityHashMap<Entity,Integer> slots = new IdentityHashMap<Entity,Integer>();
+
+		Team(int cells) {
+			buckets = new ArrayList<List<Entity>>(cells);
+			for (int i = 0; i < cells; i++)
+				buckets.add(new ArrayList<Entity>(2));
+		}
+
+		void add(Entity e) {
+			slots.put(e, members.size());
+			members.add(e);
+		}
+
+		void remove(Entity e) {
+			int slot = slots.remove(e);
+			Entity last = members.remove(members.size() - 1);
+			if (last != e) {
+				members.set(slot, last);
+				slots.put(last, slot);
+			}
+		}
+	}
+
+	private final int width;
+	private final int height;
+	private final int cols;
+	private final int rows;
+
+	private final Map<Integer,Team> teams = new TreeMap<Integer,Team>();
+	// y * width + x of each indexed entity
+	private final IdentityHashMap<Entity,Integer> positions =
+			new IdentityHashMap<Entity,Integer>();
+	// FactClock time an entity last came onto or left the level
+	private long membersChangedAt = FactClock.tick();
+
+	EntityIndex(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.cols = (width + CELL - 1) / CELL;
+		this.rows = (height + CELL - 1) / CELL;
+	}
+
+	private static int teamOf(Entity e) {
+		return e instanceof Combatable ? ((Combatable) e).getTeam() : NO_TEAM;
+	}
+
+	private Team team(Entity e) {
+		Team t = teams.get(teamOf(e));
+		if (t == null) {
+			t = new Team(cols * rows);
+			teams.put(teamOf(e), t);
+		}
+		return t;
+	}
+
+	private int cell(int at) {
+		return (at / width / CELL) * cols + (at % width) / CELL;
+	}
+
+	/**
+	 * Records that e is at (x,y), wherever it was before
+	 */
+	void put(Entity e, int x, int y) {
+		int at = y * width + x;
+		Integer old = positions.put(e, at);
+		Team t = team(e);
+		if (old == null) {
+			t.add(e);
+			membersChangedAt = FactClock.tick();
+		} else {
+			if (cell(old) == cell(at))
+				return;
+			removeFrom(t.buckets.get(cell(old)), e);
+		}
+		t.buckets.get(cell(at)).add(e);
+	}
+
+	/**
+	 * Forgets e if it is at (x,y). If it has already been put somewhere
+	 * else, it stays there.
+	 */
+	void remove(Entity e, int x, int y) {
+		Integer at = positions.get(e);
+		if (at == null || at != y * width + x)
+			return;
+		positions.remove(e);
+		Team t = team(e);
+		t.remove(e);
+		membersChangedAt = FactClock.tick();
+		removeFrom(t.buckets.get(cell(at)), e);
+	}
+
+	private static void removeFrom(List<Entity> bucket, Entity e) {
+		// by identity, entities compare by id
+		for (int i = 0; i < bucket.size(); i++)
+			if (bucket.get(i) == e) {
+				bucket.remove(i);
+				return;
+			}
+	}
+
+	/**
+	 * @return How many entities are on the level
+	 */
+	public int size() {
+		return positions.size();
+	}
+
+	/**
+	 * @return Where e is, or null if it is not on the level
+	 */
+	public Vec2i positionOf(Entity e) {
+		Integer at = positions.get(e);
+		return at == null ? null : new Vec2i(at % width, at / width);
+	}
+
+	private int distance(Entity e, int x, int y) {
+		int at = positions.get(e);
+		return Math.abs(at % width - x) + Math.abs(at / width - y);
+	}
+
+	/**
+	 * @return Every entity at most r steps from (x,y)
+	 */
+	public List<Entity> within(int x, int y, int r) {
+		List<Entity> found = new ArrayList<Entity>();
+		int c0 = Math.max(0, (x - r) / CELL), c1 = Math.min(cols - 1, (x + r) / CELL);
+		int r0 = Math.max(0, (y - r) / CELL), r1 = Math.min(rows - 1, (y + r) / CELL);
+		for (Team t : teams.values())
+			for (int row = r0; row <= r1; row++)
+				for (int col = c0; col <= c1; col++)
+					for (Entity e : t.buckets.get(row * cols + col))
+						if (distance(e, x, y) <= r)
+							found.add(e);
+		return found;
+	}
+
+	public List<Entity> within(Tile t, int r) {
+		return within(t.getLocation().x, t.getLocation().y, r);
+	}
+
+	/**
+	 * @return Every entity in the rectangle from (x0,y0) to (x1,y1),
+	 * inclusive
+	 */
+	public List<Entity> inRect(int x0, int y0, int x1, int y1) {
+		List<Entity> found = new ArrayList<Entity>();
+		x0 = Math.max(0, x0);
+		y0 = Math.max(0, y0);
+		x1 = Math.min(width - 1, x1);
+		y1 = Math.min(height - 1, y1);
+		for (Team t : teams.values())
+			for (int row = y0 / CELL; row <= y1 / CELL; row++)
+				for (int col = x0 / CELL; col <= x1 / CELL; col++)
+					for (Entity e : t.buckets.get(row * cols + col)) {
+						int at = positions.get(e);
+						int ex = at % width, ey = at / width;
+						if (ex >= x0 && ex <= x1 && ey >= y0 && ey <= y1)
+							found.add(e);
+					}
+		return found;
+	}
+
+	/**
+	 * @return Every entity inside r, not counting its walls
+	 */
+	public List<Entity> inRoom(Room r) {
+		return inRect(r.min.x, r.min.y, r.max.x, r.max.y);
+	}
+
+	/**
+	 * @return The {@link FactClock} time an entity last came onto or left
+	 * the level, or this index was built
+	 */
+	public long getMembersChangedAt() {
+		return membersChangedAt;
+	}
+
+	/**
+	 * @return How many Combatables on other teams than c there are
+	 */
+	public int countHostiles(Combatable c) {
+		int n = 0;
+		for (Map.Entry<Integer,Team> team : teams.entrySet())
+			if (team.getKey() != NO_TEAM && team.getKey() != c.getTeam())
+				n += team.getValue().members.size();
+		return n;
+	}
+
+	/**
+	 * @return The closest Combatable on another team than c, or null if
+	 * there is none
+	 */
+	public Combatable nearestHostile(Combatable c) {
+		return nearestHostile(c, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @return The closest Combatable on another team than c at most
+	 * maxDistance steps away, or null if there is none
+	 */
+	public Combatable nearestHostile(Combatable c, int maxDistance) {
+		Integer at = positions.get(c);
+		if (at == null)
+			return null;
+		int x = at % width, y = at / width;
+
+		Combatable best = null;
+		int bestDistance = maxDistance;
+		for (Map.Entry<Integer,Team> team : teams.entrySet()) {
+			if (team.getKey() == NO_TEAM || team.getKey() == c.getTeam())
+				continue;
+			Combatable found = nearest(team.getValue(), x, y, bestDistance);
+			if (found != null && (best == null || distance(found, x, y) < bestDistance)) {
+				best = found;
+				bestDistance = distance(found, x, y);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * A team with fewer members than there are cells, like the player's,
+	 * is faster to look through than its cells are. Otherwise looks at
+	 * the team's cells around (x,y) ring by ring, stopping once no cell
+	 * left can hold anything closer than what it has found.
+	 *
+	 * @return The member of t closest to (x,y) at most maxDistance away,
+	 * or null if there is none
+	 */
+	private Combatable nearest(Team t, int x, int y, int maxDistance) {
+		Combatable best = null;
+		int bestDistance = maxDistance;
+
+		if (t.members.size() < cols * rows) {
+			for (int i = 0; i < t.members.size(); i++) {
+				Entity e = t.members.get(i);
+				int d = distance(e, x, y);
+				if (d < bestDistance || (d == bestDistance && best == null)) {
+					best = (Combatable) e;
+					bestDistance = d;
+				}
+			}
+			return best;
+		}
+
+		int cx = x / CELL, cy = y / CELL;
+		int rings = Math.max(Math.max(cx, cols - 1 - cx), Math.max(cy, rows - 1 - cy));
+		for (int k = 0; k <= rings; k++) {
+			// Nothing in ring k is closer than this
+			if (k > 0 && (k - 1) * CELL + 1 > bestDistance)
+				break;
+			for (int row = cy - k; row <= cy + k; row++) {
+				if (row < 0 || row >= rows)
+					continue;
+				boolean edge = row == cy - k || row == cy + k;
+				for (int col = cx - k; col <= cx + k; col += edge ? 1 : 2 * k) {
+					if (col >= 0 && col < cols) {
+						for (Entity e : t.buckets.get(row * cols + col)) {
+							int d = distance(e, x, y);
+							if (d < bestDistance || (d == bestDistance && best == null)) {
+								best = (Combatable) e;
+								bestDistance = d;
+							}
+						}
+					}
+					if (k == 0)
+						break;
+				}
+			}
+		}
+		return best;
+	}
+
+}
@@ -0,0 +1,203 @@
+package edu.brown.cs.roguelike.engine.level;
+
+import java.util.BitSet;
+
+/**
+ * What the player of a {@link Level} can see now and what they have seen
+ * before, one bit per tile in each, so both can be asked about any tile
+ * at no cost.
+ *
+ * What is in sight is worked out by recursive shadowcasting out to a
+ * radius: walls and other impassable tiles block sight, everything else
+ * lets it through. A room is lit, so standing in one shows all of it,
+ * walls included, however big it is.
+ *
+ * It only depends on where the viewer stands and on which tiles block
+ * sight, so it is only cast again when the viewer moves or a tile changes
+ * passability. Tiles that come into or go out of sight are redrawn;
+ * tiles seen for the first time are revealed, which is what is saved.
+ *
+ * Tiles are indexed x*height + y, like {@link TileStore}.
+ *
+ */
+public class FieldOfView {
+
+	/** How far the player sees outside of rooms, in tiles */
+	public static final int DEFAULT_RADIUS = 6;
+
+	// How to turn the first octant into each of the eight: xx, xy, yx, yy
+	private static final int[][] OCTANTS = {
+		{ 1, 0, 0, 1 }, { 0, 1, 1, 0 }, { 0, -1, 1, 0 }, { -1, 0, 0, 1 },
+		{ -1, 0, 0, -1 }, { 0, -1, -1, 0 }, { 0, 1, -1, 0 }, { 1, 0, 0, -1 } };
+
+	private final int width;
+	private final int height;
+
+	private BitSet visible;
+	// What was visible before the last cast, to find what changed
+	private BitSet previous;
+	private final BitSet remembered;
+
+	private int radius = DEFAULT_RADIUS;
+	private int viewer = -1;
+	private boolean stale = true;
+	private int casts = 0;
+
+	/**
+	 * Starts out remembering the tiles of level that are revealed
+	 */
+	FieldOfView(Level level) {
+		this.width = level.getWidth();
+		this.height = level.getHeight();
+		this.visible = new BitSet(width * height);
+		this.previous = new BitSet(width * height);
+		this.remembered = new BitSet(width * height);
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++)
+				if (level.isRevealed(x, y))
+					remembered.set(index(x, y));
+	}
+
+	private int index(int x, int y) {
+		return x * height + y;
+	}
+
+	public int getRadius() { return radius; }
+
+	/**
+	 * Sets how far the viewer sees outside of rooms. Takes effect at the
+	 * next update.
+	 */
+	public void setRadius(int radius) {
+		this.radius = radius;
+		this.stale = true;
+	}
+
+	/**
+	 * Marks what is in sight as out of date, e.g. because a tile changed
+	 * passability. It is cast again on the next update.
+	 */
+	public void invalidate() {
+		this.stale = true;
+	}
+
+	/**
+	 * @return How many times what is in sight has been cast
+	 */
+	public int getCasts() {
+		return casts;
+	}
+
+	/**
+	 * @return Whether (x,y) is in sight, which must be on the level
+	 */
+	public boolean isVisible(int x, int y) {
+		return visible.get(index(x, y));
+	}
+
+	/**
+	 * @return Whether (x,y) has ever been seen, which must be on the level
+	 */
+	public boolean isRemembered(int x, int y) {
+		return remembered.get(index(x, y));
+	}
+
+	void setRemembered(int x, int y, boolean r) {
+		remembered.set(index(x, y), r);
+	}
+
+	/**
+	 * Makes sure what is in sight is what can be seen from viewer, casting
+	 * again only if the viewer moved or this was invalidated
+	 */
+	void update(Level level, Tile viewer) {
+		int v = index(viewer.getLocation().x, viewer.getLocation().y);
+		if (!stale && v == this.viewer)
+			return;
+
+		BitSet swap = previous;
+		previous = visible;
+		visible = swap;
+		visible.clear();
+		cast(level, viewer);
+		this.viewer = v;
+		this.stale = false;
+		this.casts++;
+
+		// Cells going in or out of sight are drawn differently
+		previous.xor(visible);
+		for (int i = previous.nextSetBit(0); i >= 0; i = previous.nextSetBit(i + 1)) {
+			int x = i / height, y = i % height;
+			level.visibilityChanged(x, y);
+			if (visible.get(i) && !remembered.get(i))
+				level.getTile(x, y).setReveal(true);
+		}
+		previous.clear();
+	}
+
+	private void cast(Level level, Tile viewer) {
+		int cx = viewer.getLocation().x, cy = viewer.getLocation().y;
+		visible.set(index(cx, cy));
+
+		Space here = level.getSpaceIndex().getSpace(cx, cy);
+		if (here instanceof Room) {
+			Room r = (Room) here;
+			for (int x = Math.max(r.min.x - 1, 0); x <= Math.min(r.max.x + 1, width - 1); x++)
+				for (int y = Math.max(r.min.y - 1, 0); y <= Math.min(r.max.y + 1, height - 1); y++)
+					visible.set(index(x, y));
+			level.revealedRooms.add(r);
+		}
+
+		for (int[] o : OCTANTS)
+			castLight(level, cx, cy, 1, 1.0, 0.0, o[0], o[1], o[2], o[3]);
+	}
+
+	/**
+	 * Lights the rows of one octant from row on, between the slopes start
+	 * and end, going around whatever blocks sight by starting a new scan
+	 * for each gap
+	 */
+	private void castLight(Level level, int cx, int cy, int row, double start, double end,
+			int xx, int xy, int yx, int yy) {
+		if (start < end)
+			return;
+		int r2 = radius * radius;
+		double newStart = 0;
+
+		for (int j = row; j <= radius; j++) {
+			boolean blocked = false;
+			for (int dx = -j; dx <= 0; dx++) {
+				int dy = -j;
+				double left = (dx - 0.5) / (dy + 0.5);
+				double right = (dx + 0.5) / (dy - 0.5);
+				if (start < right)
+					continue;
+				if (end > left)
+					break;
+
+				int x = cx + dx * xx + dy * xy;
+				int y = cy + dx * yx + dy * yy;
+				boolean inBounds = level.inBounds(x, y);
+				if (inBounds && dx * dx + dy * dy <= r2)
+					visible.set(index(x, y));
+
+				boolean opaque = !inBounds || !level.getTileType(x, y).isPassable();
+				if (blocked) {
+					if (opaque) {
+						newStart = right;
+					} else {
+						blocked = false;
+						start = newStart;
+					}
+				} else if (opaque && j < radius) {
+					blocked = true;
+					castLight(level, cx, cy, j + 1, start, left, xx, xy, yx, yy);
+					newStart = right;
+				}
+			}
+			if (blocked)
+				break;
+		}
+	}
+
+}
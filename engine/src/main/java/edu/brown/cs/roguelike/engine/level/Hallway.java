@@ -30,6 +30,8 @@ public class Hallway implements Space, Saveable {
 	
 	private List<Room> rooms; //The rooms the hallway connects to
 	public void addRoom(Room r) {
+		if (rooms.contains(r))
+			return;
 		for(Room room : rooms) {
 			room.addRoom(r);
 			}
@@ -1,7 +1,8 @@
 package edu.brown.cs.roguelike.engine.level;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
 
@@ -10,11 +11,16 @@ import edu.brown.cs.roguelike.engine.entities.Entity;
 import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
 import edu.brown.cs.roguelike.engine.entities.EntityManager;
 import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.fsm.monster.MonsterInput;
+import edu.brown.cs.roguelike.engine.pathfinding.ChaseMap;
+import edu.brown.cs.roguelike.engine.pathfinding.GridAStar;
+import edu.brown.cs.roguelike.engine.pathfinding.HierarchicalPathfinder;
 import edu.brown.cs.roguelike.engine.proc.RandomGen;
 import edu.brown.cs.roguelike.engine.save.Saveable;
 
 import com.googlecode.lanterna.screen.ScreenWriter;
 import com.googlecode.lanterna.screen.ScreenCharacterStyle;
+import com.googlecode.lanterna.terminal.Terminal.Color;
 import edu.brown.cs.roguelike.engine.graphics.Artist;
 
 
@@ -27,13 +33,47 @@ public class Level implements Saveable, Artist {
 
 	private static final int TIER_STEP_SIZE = 5;
 
+	// Exactly one of these is set, see getTile
 	public final Tile[][] tiles;
+	private final TileStore store;
 	private List<Room> rooms;
 	private List<Hallway> hallways;
 	protected EntityManager manager = new EntityManager();
 	private int depth; //The depth of the level
 	public HashSet<Room> revealedRooms = new HashSet<Room>();
 	
+	// Search state for GridAStar, rebuilt on demand after loading
+	private transient GridAStar gridAStar;
+	private transient Pathfinder pathfinder;
+	
+	// Distance field toward the player, shared by every chasing monster
+	private transient ChaseMap chaseMap;
+	
+	// Routes between rooms and hallways, rebuilt when passability changes
+	private transient HierarchicalPathfinder hierarchical;
+	
+	// Where the entities are, rebuilt on demand after loading
+	private transient EntityIndex entityIndex;
+	private transient SpaceIndex spaceIndex;
+	private transient SpaceGraph spaceGraph;
+	
+	// What the player sees and has seen, made when first updated
+	private transient FieldOfView fieldOfView;
+	
+	// What every monster's brain is given, the same every turn
+	private transient MonsterInput monsterInput;
+	
+	// What changed since the last save checkpoint, see SegmentedSave
+	private transient boolean dirty = true;
+	private transient BitSet dirtyTiles;
+	
+	// Cells that look different since they were last drawn, by y*width+x
+	private transient BitSet damaged;
+	
+	// Rolls made while the level is played, e.g. combat. Given by whatever
+	// makes the level: its generator, a save or its game.
+	private RandomGen random;
+	
 	public Tile upStairs;
 	public Tile downStairs;
 	
@@ -45,6 +85,19 @@ public class Level implements Saveable, Artist {
 		 return this.depth + 1 -  TIER_STEP_SIZE*(getTier()-1);
 	}
 	
+	/**
+	 * @return The stream every roll made on this level while it is played
+	 * should come from, so that play can be reproduced
+	 * @throws IllegalStateException if the level was never given one
+	 */
+	public RandomGen getRandom() {
+		if (random == null)
+			throw new IllegalStateException("Level " + depth + " has no random stream");
+		return random;
+	}
+	public boolean hasRandom() { return random != null; }
+	public void setRandom(RandomGen random) { this.random = random; }
+	
 	/**
 	 * @return The entity manager for this {@link Level}.
 	 */
@@ -58,7 +111,7 @@ public class Level implements Saveable, Artist {
 		
 		for(int i = r.min.x-1; i<=r.max.x+1; i++) {
 			for(int j = r.min.y-1; j<=r.max.y+1; j++) {
-				tiles[i][j].setReveal(true);
+				getTile(i, j).setReveal(true);
 			}
 		}
 		revealedRooms.add(r);
@@ -69,14 +122,319 @@ public class Level implements Saveable, Artist {
 		for (Tile[] tiles2 : tiles)
 			for (Tile tile : tiles2)
 				tile.setLevel(this);
+		this.store = null;
+		this.rooms = rooms;
+		this.hallways = hallways;
+	}
+
+	/**
+	 * Creates a level whose tiles live in a compact {@link TileStore}
+	 * rather than a grid of {@link Tile} objects. Tiles handed out by
+	 * such a level are views, create them with getTile as needed.
+	 */
+	public Level(TileStore store, List<Room> rooms, List<Hallway> hallways) {
+		this.tiles = null;
+		this.store = store;
 		this.rooms = rooms;
 		this.hallways = hallways;
 	}
 
-	public Tile[][] getTiles() { return this.tiles; }
+	/**
+	 * @return The tile at (x,y), which must be on the level
+	 */
+	public Tile getTile(int x, int y) {
+		if (store != null)
+			return store.view(this, x, y);
+		return tiles[x][y];
+	}
+
+	/**
+	 * @return The type of the tile at (x,y), without creating a view
+	 */
+	public TileType getTileType(int x, int y) {
+		if (store != null)
+			return store.getType(store.index(x, y));
+		return tiles[x][y].getType();
+	}
+
+	/**
+	 * @return Whether the tile at (x,y) has been revealed, without
+	 * creating a view
+	 */
+	public boolean isRevealed(int x, int y) {
+		if (store != null)
+			return store.isRevealed(store.index(x, y));
+		return tiles[x][y].getReveal();
+	}
+
+	/**
+	 * @return The space the tile at (x,y) was made part of, without
+	 * creating a view. {@link #getSpaceIndex()} answers faster.
+	 */
+	Space readSpace(int x, int y) {
+		if (store != null)
+			return store.getSpace(store.index(x, y));
+		return tiles[x][y].getSpace();
+	}
+
+	/**
+	 * @return Whether anything is lying on the tile at (x,y), without
+	 * creating a view
+	 */
+	public boolean hasStackablesAt(int x, int y) {
+		if (store != null)
+			return store.peekStackable(store.index(x, y)) != null;
+		return tiles[x][y].hasStackables();
+	}
+
+	/**
+	 * @return The entity on the tile at (x,y), without creating a view
+	 */
+	public Entity getEntityAt(int x, int y) {
+		if (store != null)
+			return store.getEntity(store.index(x, y));
+		return tiles[x][y].getEntity();
+	}
+
+	/**
+	 * @return Whether (x,y) is on the level
+	 */
+	public boolean inBounds(int x, int y) {
+		return x >= 0 && y >= 0 && x < getWidth() && y < getHeight();
+	}
+
+	/**
+	 * @return The tile grid. For a level backed by a {@link TileStore} this
+	 * builds a view of every tile, so prefer getTile.
+	 */
+	public Tile[][] getTiles() {
+		if (store == null)
+			return this.tiles;
+		Tile[][] views = new Tile[getWidth()][getHeight()];
+		for (int x = 0; x < views.length; x++)
+			for (int y = 0; y < views[0].length; y++)
+				views[x][y] = store.view(this, x, y);
+		return views;
+	}
+
+	/**
+	 * @return The backing store, or null if this level uses Tile objects
+	 */
+	public TileStore getStore() { return this.store; }
 	public List<Room> getRooms() { return this.rooms; }
 	public List<Hallway> getHallways() { return this.hallways; }	
 	public int getDepth(){return depth;}
+	public int getWidth() { return store != null ? store.getWidth() : this.tiles.length; }
+	public int getHeight() { return store != null ? store.getHeight() : this.tiles[0].length; }
+
+	/**
+	 * @return A {@link GridAStar} sized to this level. It is shared by
+	 * everything that pathfinds on this level, so its results are only
+	 * valid until the next search.
+	 */
+	public GridAStar getGridAStar() {
+		if (gridAStar == null)
+			gridAStar = new GridAStar(getWidth(), getHeight());
+		return gridAStar;
+	}
+
+	/**
+	 * @return A {@link Pathfinder} sized to this level. Like the GridAStar
+	 * it is shared, so its results are only valid until the next search.
+	 */
+	public Pathfinder getPathfinder() {
+		if (pathfinder == null)
+			pathfinder = new Pathfinder(this);
+		return pathfinder;
+	}
+
+	/**
+	 * @param target The tile being chased, normally the player's
+	 * @return The level's {@link ChaseMap}, brought up to date for target.
+	 * It is only rebuilt if target moved or a tile changed passability
+	 * since the last call.
+	 */
+	public ChaseMap getChaseMap(Tile target) {
+		if (chaseMap == null)
+			chaseMap = new ChaseMap(getWidth(), getHeight());
+		chaseMap.update(this, target);
+		return chaseMap;
+	}
+
+	/**
+	 * @return The level's {@link HierarchicalPathfinder}, built the first
+	 * time it is asked for and again after a tile changes passability. It
+	 * can be shared by any number of threads.
+	 */
+	public HierarchicalPathfinder getHierarchicalPathfinder() {
+		if (hierarchical == null)
+			hierarchical = new HierarchicalPathfinder(this);
+		return hierarchical;
+	}
+
+	/**
+	 * @return Where the entities on this level are, built from the tiles
+	 * the first time it is asked for
+	 */
+	public EntityIndex getEntityIndex() {
+		if (entityIndex == null) {
+			EntityIndex index = new EntityIndex(getWidth(), getHeight());
+			for (int x = 0; x < getWidth(); x++)
+				for (int y = 0; y < getHeight(); y++) {
+					Entity e = getEntityAt(x, y);
+					if (e != null)
+						index.put(e, x, y);
+				}
+			entityIndex = index;
+		}
+		return entityIndex;
+	}
+
+	/**
+	 * @return Which space each tile is in, by id. The generator builds it
+	 * with the level, loaded levels the first time it is asked for.
+	 * Tiles' spaces are not expected to change after that.
+	 */
+	public SpaceIndex getSpaceIndex() {
+		if (spaceIndex == null)
+			spaceIndex = new SpaceIndex(this);
+		return spaceIndex;
+	}
+
+	/**
+	 * @return How the rooms and hallways connect, worked out the first time
+	 * it is asked for
+	 */
+	public SpaceGraph getSpaceGraph() {
+		if (spaceGraph == null)
+			spaceGraph = new SpaceGraph(getSpaceIndex());
+		return spaceGraph;
+	}
+
+	/**
+	 * Brings what the player sees up to date for them standing on viewer,
+	 * revealing what they see for the first time
+	 */
+	public void updateFieldOfView(Tile viewer) {
+		getFieldOfView().update(this, viewer);
+	}
+
+	/**
+	 * @return What the player sees and has seen, made the first time it is
+	 * asked for. It is only up to date after updateFieldOfView.
+	 */
+	public FieldOfView getFieldOfView() {
+		if (fieldOfView == null)
+			fieldOfView = new FieldOfView(this);
+		return fieldOfView;
+	}
+
+	/**
+	 * @return Whether the player can see (x,y), which must be on the
+	 * level. Until updateFieldOfView is first called, everything counts
+	 * as in sight.
+	 */
+	public boolean isVisible(int x, int y) {
+		return fieldOfView == null || fieldOfView.isVisible(x, y);
+	}
+
+	/**
+	 * @return The input monsters on this level think with, shared by all
+	 * of them
+	 */
+	public MonsterInput getMonsterInput() {
+		if (monsterInput == null)
+			monsterInput = new MonsterInput(this);
+		return monsterInput;
+	}
+
+	/**
+	 * Called by a {@link Tile} of this level when its entity goes from
+	 * old to now
+	 */
+	void entityChanged(Tile t, Entity old, Entity now) {
+		if (entityIndex == null || old == now)
+			return;
+		int x = t.getLocation().x, y = t.getLocation().y;
+		if (old != null)
+			entityIndex.remove(old, x, y);
+		if (now != null)
+			entityIndex.put(now, x, y);
+	}
+
+	/**
+	 * Called by a {@link Tile} of this level whenever it changes between
+	 * passable and impassable.
+	 */
+	void passabilityChanged(Tile t) {
+		if (chaseMap != null)
+			chaseMap.invalidate();
+		hierarchical = null;
+		if (fieldOfView != null)
+			fieldOfView.invalidate();
+	}
+
+	/**
+	 * Called by a {@link Tile} of this level when it is revealed or hidden
+	 */
+	void revealChanged(Tile t, boolean r) {
+		if (fieldOfView != null)
+			fieldOfView.setRemembered(t.getLocation().x, t.getLocation().y, r);
+	}
+
+	/**
+	 * Called by the {@link FieldOfView} when (x,y) comes into or goes out
+	 * of sight, which changes how it is drawn but not what is saved
+	 */
+	void visibilityChanged(int x, int y) {
+		if (damaged == null)
+			damaged = new BitSet();
+		damaged.set(y * getWidth() + x);
+	}
+
+	/**
+	 * Called by a {@link Tile} of this level whenever its contents may have
+	 * changed.
+	 */
+	void tileChanged(Tile t) {
+		dirty = true;
+		if (dirtyTiles == null)
+			dirtyTiles = new BitSet();
+		dirtyTiles.set(t.getLocation().x * getHeight() + t.getLocation().y);
+		if (damaged == null)
+			damaged = new BitSet();
+		damaged.set(t.getLocation().y * getWidth() + t.getLocation().x);
+	}
+
+	/**
+	 * Marks this level as changed for changes tiles do not see, such as
+	 * an entity losing HP
+	 */
+	public void markDirty() {
+		dirty = true;
+	}
+
+	/**
+	 * @return Whether anything changed since the last call to clearDirty
+	 */
+	public boolean isDirty() {
+		return dirty;
+	}
+
+	/**
+	 * @return How many tiles changed since the last call to clearDirty
+	 */
+	public int getDirtyTileCount() {
+		return dirtyTiles == null ? 0 : dirtyTiles.cardinality();
+	}
+
+	/**
+	 * Called once this level's current state has been saved
+	 */
+	public void clearDirty() {
+		dirty = false;
+		dirtyTiles = null;
+	}
 
 	public void setDepth(int depth) {this.depth = depth;}
 
@@ -120,22 +478,34 @@ public class Level implements Saveable, Artist {
 		return this.id;
 	}
 
+	/** Restores the id of a loaded level **/
+	public void setId(UUID id) {
+		this.id = id;
+	}
+
 	/*** END Saveable ***/
 
+	/**
+	 * @return The tiles left of, right of, above and below current that
+	 * are on the level, passable or not. {@link Pathfinder} walks the grid
+	 * without making these lists.
+	 */
 	public List<Tile> getNeighbors(Tile current) {
-		List<Tile> neighbors = new LinkedList<Tile>();
+		List<Tile> neighbors = new ArrayList<Tile>(4);
+		int x = current.getLocation().x;
+		int y = current.getLocation().y;
 
-		if(current.getLocation().x != 0) {
-			neighbors.add(tiles[current.getLocation().x-1][current.getLocation().y]);
+		if(x != 0) {
+			neighbors.add(getTile(x-1, y));
 		}
-		if(current.getLocation().x != tiles.length) {
-			neighbors.add(tiles[current.getLocation().x+1][current.getLocation().y]);
+		if(x != getWidth() - 1) {
+			neighbors.add(getTile(x+1, y));
 		}
-		if(current.getLocation().y != 0) {
-			neighbors.add(tiles[current.getLocation().x][current.getLocation().y-1]);
+		if(y != 0) {
+			neighbors.add(getTile(x, y-1));
 		}
-		if(current.getLocation().y != tiles[0].length) {
-			neighbors.add(tiles[current.getLocation().x][current.getLocation().y+1]);
+		if(y != getHeight() - 1) {
+			neighbors.add(getTile(x, y+1));
 		}
 		return neighbors;
 	}
@@ -143,7 +513,7 @@ public class Level implements Saveable, Artist {
 	public void revealAround(Tile t) {
 		for(int i = t.location.x-1; i<=t.location.x+1;i++) {
 			for(int j = t.location.y-1; j<=t.location.y+1;j++) {
-				tiles[i][j].setReveal(true);
+				getTile(i, j).setReveal(true);
 			}
 		}
 	}
@@ -153,9 +523,9 @@ public class Level implements Saveable, Artist {
 	 * @return The main character of the level
 	 */
 	public MainCharacter removePlayer() {
-		List<EntityActionManager> mains = manager.getEntity("main");
-		if(mains.size() >0) {
-			MainCharacter mc = (MainCharacter) mains.get(0).getEntity();
+		EntityActionManager main = manager.getPlayer();
+		if(main != null) {
+			MainCharacter mc = (MainCharacter) main.getEntity();
 			mc.getLocation().setEntity(null);
 			manager.unregister(mc);
 			return mc;
@@ -173,20 +543,20 @@ public class Level implements Saveable, Artist {
 		
 		Entity current = (up ? upStairs.getEntity() : downStairs.getEntity());
 		if(current != null) {
-			RandomGen rand = new RandomGen(System.nanoTime());
-		Room r = this.rooms.get(rand.getRandom(rooms.size()));
-		boolean placedMonster = false;
-		do {
-			int mX = rand.getRandom(r.min.x, r.max.x);
-			int mY = rand.getRandom(r.min.y, r.max.y);
-			Tile t = tiles[mX][mY];
-			if(t.getEntity() == null) {
-				t.setEntity(current);
-				current.setLocation(t);
-				placedMonster = true;
+			RandomGen rand = getRandom();
+			Room r = this.rooms.get(rand.getRandom(rooms.size()));
+			boolean placedMonster = false;
+			do {
+				int mX = rand.getRandom(r.min.x, r.max.x);
+				int mY = rand.getRandom(r.min.y, r.max.y);
+				Tile t = getTile(mX, mY);
+				if(t.getEntity() == null) {
+					t.setEntity(current);
+					current.setLocation(t);
+					placedMonster = true;
+				}
 			}
-		}
-		while(!placedMonster);
+			while(!placedMonster);
 		}
 		
 		if(up)
@@ -194,21 +564,72 @@ public class Level implements Saveable, Artist {
 		else
 			downStairs.setEntity(mc);
 		
-		LinkedList<String> attr = new LinkedList<String>();
 		manager.register(mc);
 	}
 
+	/**
+	 * Draws every tile
+	 */
 	public void doDraw(ScreenWriter sw) {
-		Tile t;
-		for (int c = 0; c < tiles.length; c++) {
-			for (int r = tiles[0].length - 1; r >= 0; r--) { // flip y
-				t = tiles[c][r];
-				sw.setForegroundColor(t.getColor());
-				sw.drawString(c, r,
-						String.valueOf(t.getCharacter()),
-						ScreenCharacterStyle.Bold);
+		char[] buf = new char[getWidth()];
+		for (int r = 0; r < getHeight(); r++)
+			drawRow(sw, r, 0, getWidth(), buf);
+		damaged = null;
+	}
+
+	/**
+	 * Draws only the tiles that look different since the level was last
+	 * drawn, for when the screen still shows the rest
+	 */
+	public void drawChanges(ScreenWriter sw) {
+		if (damaged == null)
+			return;
+		int width = getWidth();
+		char[] buf = new char[width];
+		int i = damaged.nextSetBit(0);
+		while (i >= 0) {
+			int r = i / width;
+			// runs of changed cells, cut at the end of the row
+			int end = Math.min(damaged.nextClearBit(i), (r + 1) * width);
+			drawRow(sw, r, i - r * width, end - r * width, buf);
+			i = damaged.nextSetBit(end);
+		}
+		damaged = null;
+	}
+
+	/**
+	 * @return How many tiles look different since the level was last drawn
+	 */
+	public int getDamagedTileCount() {
+		return damaged == null ? 0 : damaged.cardinality();
+	}
+
+	/**
+	 * Draws the tiles of row r from c0 up to c1, exclusive, with one string
+	 * per run of tiles of the same color
+	 */
+	private void drawRow(ScreenWriter sw, int r, int c0, int c1, char[] buf) {
+		Color runColor = null;
+		int runStart = c0;
+		int len = 0;
+		for (int c = c0; c < c1; c++) {
+			Tile t = getTile(c, r);
+			Color color = t.getColor();
+			if (len > 0 && color != runColor) {
+				drawRun(sw, runStart, r, runColor, buf, len);
+				runStart = c;
+				len = 0;
 			}
+			runColor = color;
+			buf[len++] = t.getCharacter();
 		}
+		if (len > 0)
+			drawRun(sw, runStart, r, runColor, buf, len);
+	}
+
+	private static void drawRun(ScreenWriter sw, int c, int r, Color color, char[] buf, int len) {
+		sw.setForegroundColor(color);
+		sw.drawString(c, r, new String(buf, 0, len), ScreenCharacterStyle.Bold);
 	}
 
 }
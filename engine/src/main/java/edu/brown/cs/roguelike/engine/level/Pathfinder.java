@@ -1,76 +1,223 @@
 package edu.brown.cs.roguelike.engine.level;
 
-import java.util.Comparator;
-import java.util.Hashtable;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
 
 
 /**
- * Pathfinder using A* searching. 
- * @author jte
+ * Breadth-first searches out from a tile of a {@link Level}, for the
+ * questions the AI and auto-explore ask: how far is it to here, which is
+ * the nearest item or stairs, and how to get there. Every step costs the
+ * same, so searching breadth-first finds what Dijkstra would, in the
+ * order it would.
+ *
+ * Searches can stop at a radius, and stop as soon as they reach a tile a
+ * {@link Target} is looking for. Only passable tiles are walked on, and
+ * who stands on them is ignored, like the {@link
+ * edu.brown.cs.roguelike.engine.pathfinding.ChaseMap}.
+ *
+ * What the last search reached stays readable until the next one, which
+ * reuses the same arrays without clearing them, so searching does not
+ * allocate. An instance is therefore not thread safe.
+ *
+ * Tiles are indexed x*height + y, like {@link TileStore}.
  *
- * @param <T> Any node type
  */
 public class Pathfinder {
 
+	/** How far tiles the last search did not reach are */
+	public static final int UNREACHED = -1;
+
+	/** Search as far as the level goes */
+	public static final int UNBOUNDED = Integer.MAX_VALUE;
 
 	/**
-	 * A* pathfinder from s to e
-	 * @param s Start Node
-	 * @param e End Node
-	 * @return List of nodes forming the path
+	 * What a search is looking for
 	 */
-	public  static List<Tile> findPath(Tile s, Tile e, Level level){
-		final Hashtable<Tile,Integer> distances = new Hashtable<Tile,Integer>();
-		Hashtable<Tile,Tile> parents = new Hashtable<Tile,Tile>();
- 
-		PriorityQueue<Tile> pq = 
-				new PriorityQueue<Tile>(40,new Comparator<Tile>() {
-					@Override
-					public int compare(Tile t1, Tile t2) {
-						int dist1 = distances.get(t1);
-						int dist2 = distances.get(t1);
-						return dist1 - dist2;
-					}
-				});
-
-		distances.put(s, 0);
-		pq.add(s);
-
-		while(!pq.isEmpty()) {
-			Tile low = pq.remove();
-			if(low == e) {
-				return createPath(e,parents);
-			}
+	public interface Target {
+		/**
+		 * @return Whether the tile at (x,y) is one. Asked without making a
+		 * view of the tile.
+		 */
+		boolean isTarget(Level level, int x, int y);
+	}
 
-			for(Tile neighbor : level.getNeighbors(low))
-			{
-				if(distances.get(neighbor) > distances.get(low) + 1){
-					distances.put(neighbor,distances.get(low) + 1);
-					parents.put(neighbor,low);
-					pq.add(neighbor);
-				}
-			}
+	/** Tiles with something lying on them */
+	public static final Target ITEMS = new Target() {
+		@Override
+		public boolean isTarget(Level level, int x, int y) {
+			return level.hasStackablesAt(x, y);
 		}
-		//PQ is empty, no path exists
-		return null;
+	};
+
+	/** Up or down stairs */
+	public static final Target STAIRS = new Target() {
+		@Override
+		public boolean isTarget(Level level, int x, int y) {
+			TileType type = level.getTileType(x, y);
+			return type == TileType.UP_STAIRS || type == TileType.DOWN_STAIRS;
+		}
+	};
+
+	/**
+	 * @return A target that is only t
+	 */
+	public static Target tile(Tile t) {
+		final int tx = t.getLocation().x, ty = t.getLocation().y;
+		return new Target() {
+			@Override
+			public boolean isTarget(Level level, int x, int y) {
+				return x == tx && y == ty;
+			}
+		};
+	}
+
+	private final Level level;
+	private final int width;
+	private final int height;
+
+	private final int[] dist;
+	private final int[] parent;
+	private final int[] seen; // generation in which dist/parent were set
+	private final int[] queue;
+	private int generation = 0;
+
+	private int start = -1;
+
+	public Pathfinder(Level level) {
+		this.level = level;
+		this.width = level.getWidth();
+		this.height = level.getHeight();
+		int n = width * height;
+		this.dist = new int[n];
+		this.parent = new int[n];
+		this.seen = new int[n];
+		this.queue = new int[n];
+	}
+
+	/**
+	 * A path from s to e
+	 * @param s Start tile
+	 * @param e End tile
+	 * @return The tiles of a shortest path, s first and e last, or null if
+	 * there is none
+	 */
+	public static List<Tile> findPath(Tile s, Tile e, Level level) {
+		return level.getPathfinder().findPath(s, e);
+	}
+
+	/**
+	 * @return The tiles of a shortest path from s to e, s first and e last,
+	 * or null if there is none
+	 */
+	public List<Tile> findPath(Tile s, Tile e) {
+		Tile found = nearest(s, UNBOUNDED, tile(e));
+		return found == null ? null : pathTo(found);
+	}
+
+	/**
+	 * Searches out from from, at most radius steps, until the first tile
+	 * target is looking for
+	 *
+	 * @return The nearest such tile, or null if there is none in reach
+	 */
+	public Tile nearest(Tile from, int radius, Target target) {
+		int found = search(from, radius, target);
+		return found < 0 ? null : level.getTile(found / height, found % height);
+	}
+
+	/**
+	 * Reaches every tile at most radius steps from from, so that
+	 * getDistance and pathTo can be asked about any of them
+	 */
+	public void flood(Tile from, int radius) {
+		search(from, radius, null);
 	}
 
 	/**
-	 * Creates a path using the node's parents
-	 * @param e the end node
-	 * @return A list of nodes defining the path
+	 * @return How many steps the last search took to reach t, or UNREACHED
 	 */
-	private static List<Tile> createPath(Tile e, Hashtable<Tile,Tile> parents) {
+	public int getDistance(Tile t) {
+		int i = index(t);
+		return seen[i] == generation ? dist[i] : UNREACHED;
+	}
+
+	/**
+	 * @return The tiles of the way the last search reached t, its start
+	 * first and t last, or null if it did not reach t
+	 */
+	public List<Tile> pathTo(Tile t) {
+		int i = index(t);
+		if (seen[i] != generation)
+			return null;
 		LinkedList<Tile> path = new LinkedList<Tile>();
-		Tile node = e;
-		while(node != null) {
-			path.addFirst(node);
-			node = parents.get(node);
+		for (int cur = i; ; cur = parent[cur]) {
+			path.addFirst(level.getTile(cur / height, cur % height));
+			if (cur == start)
+				break;
 		}
 		return path;
 	}
 
+	/**
+	 * Searches breadth-first out from from, at most radius steps
+	 *
+	 * @param target What to stop at, or null to reach everything in radius
+	 * @return The index of the first tile target is looking for, or -1
+	 */
+	private int search(Tile from, int radius, Target target) {
+		nextGeneration();
+		start = index(from);
+		dist[start] = 0;
+		parent[start] = start;
+		seen[start] = generation;
+		int head = 0, tail = 0;
+		queue[tail++] = start;
+
+		while (head < tail) {
+			int cur = queue[head++];
+			int x = cur / height, y = cur % height;
+			if (target != null && target.isTarget(level, x, y))
+				return cur;
+			int next = dist[cur] + 1;
+			if (next > radius)
+				continue;
+
+			if (x > 0) tail = visit(cur, cur - height, x - 1, y, next, tail);
+			if (x < width - 1) tail = visit(cur, cur + height, x + 1, y, next, tail);
+			if (y > 0) tail = visit(cur, cur - 1, x, y - 1, next, tail);
+			if (y < height - 1) tail = visit(cur, cur + 1, x, y + 1, next, tail);
+		}
+		return -1;
+	}
+
+	/**
+	 * Queues n, at (x,y), as reached from cur in d steps if it is passable
+	 * and not yet reached
+	 *
+	 * @return The new end of the queue
+	 */
+	private int visit(int cur, int n, int x, int y, int d, int tail) {
+		if (seen[n] == generation || !level.getTileType(x, y).isPassable())
+			return tail;
+		dist[n] = d;
+		parent[n] = cur;
+		seen[n] = generation;
+		queue[tail] = n;
+		return tail + 1;
+	}
+
+	private int index(Tile t) {
+		return t.getLocation().x * height + t.getLocation().y;
+	}
+
+	private void nextGeneration() {
+		if (generation == Integer.MAX_VALUE) {
+			Arrays.fill(seen, 0);
+			generation = 0;
+		}
+		generation++;
+	}
+
 }
@@ -38,8 +38,9 @@ public class Room implements Space, Saveable {
 	public void connectToHallway(Hallway h) {
 		for(Room r : h.getRooms()) {
 			this.addRoom(r);
-			h.addRoom(this);
 		}
+		// also links the hallway's rooms back to this one
+		h.addRoom(this);
 	}
 
 	
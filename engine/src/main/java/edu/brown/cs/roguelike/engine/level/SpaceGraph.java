@@ -0,0 +1,69 @@
+package edu.brown.cs.roguelike.engine.level;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How the {@link Space}s of a {@link Level} connect. Rooms joined by a
+ * hallway are one step apart, and the hallway is one step from each of
+ * them. Searches run over the ids and adjacency list of the level's
+ * {@link SpaceIndex}.
+ *
+ */
+public class SpaceGraph {
+
+	/** How far spaces stepsFrom did not reach are */
+	public static final int UNREACHED = -1;
+
+	private final SpaceIndex index;
+
+	SpaceGraph(SpaceIndex index) {
+		this.index = index;
+	}
+
+	/**
+	 * @return Every space at most max steps from from, with how many steps
+	 * away it is
+	 */
+	public Map<Space,Integer> stepsFrom(Space from, int max) {
+		Map<Space,Integer> steps = new HashMap<Space,Integer>();
+		int id = index.getId(from);
+		if (id == SpaceIndex.NONE) {
+			steps.put(from, 0);
+			return steps;
+		}
+		int[] away = stepsFrom(id, max);
+		for (int i = 0; i < away.length; i++)
+			if (away[i] != UNREACHED)
+				steps.put(index.getSpace(i), away[i]);
+		return steps;
+	}
+
+	/**
+	 * @return How many steps each space, by id, is from the space with id
+	 * from, or UNREACHED if it is more than max steps away
+	 */
+	public int[] stepsFrom(int from, int max) {
+		int[] steps = new int[index.size()];
+		Arrays.fill(steps, UNREACHED);
+		int[] open = new int[index.size()];
+		int head = 0, tail = 0;
+		steps[from] = 0;
+		open[tail++] = from;
+
+		while (head < tail) {
+			int s = open[head++];
+			int next = steps[s] + 1;
+			if (next > max)
+				continue;
+			for (int n : index.getAdjacent(s))
+				if (steps[n] == UNREACHED) {
+					steps[n] = next;
+					open[tail++] = n;
+				}
+		}
+		return steps;
+	}
+
+}
@@ -0,0 +1,164 @@
+package edu.brown.cs.roguelike.engine.level;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * The {@link Space} of every tile of a {@link Level}, as a dense grid of
+ * small int ids, with the spaces in an array by id. Which space a tile is
+ * in, and whether two tiles are in the same one, are array reads.
+ *
+ * Rooms come first, in the order of {@link Level#getRooms()}, then the
+ * hallways. Tiles outside of any space, such as walls, have id NONE.
+ *
+ * It also holds how the spaces connect, as an adjacency list of ids: a
+ * room's rooms and hallways, and a hallway's rooms.
+ *
+ * Tiles are indexed x*height + y, like {@link TileStore}.
+ *
+ */
+public class SpaceIndex {
+
+	/** The id of tiles that are in no space */
+	public static final int NONE = -1;
+
+	private final int height;
+	private final int[] ids;
+	private final Space[] spaces;
+	private final int roomCount;
+	private final int[][] adjacent;
+	private final IdentityHashMap<Space,Integer> idOf = new IdentityHashMap<Space,Integer>();
+
+	/**
+	 * Reads the space of every tile of level
+	 */
+	SpaceIndex(Level level) {
+		int width = level.getWidth();
+		this.height = level.getHeight();
+
+		List<Space> all = new ArrayList<Space>(level.getRooms());
+		all.addAll(level.getHallways());
+		for (int i = 0; i < all.size(); i++)
+			idOf.put(all.get(i), i);
+		this.roomCount = level.getRooms().size();
+
+		this.ids = new int[width * height];
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++) {
+				Space s = level.readSpace(x, y);
+				int id = NONE;
+				if (s != null) {
+					Integer known = idOf.get(s);
+					if (known == null) {
+						// A space the level's lists do not have
+						known = all.size();
+						all.add(s);
+						idOf.put(s, known);
+					}
+					id = known;
+				}
+				ids[x * height + y] = id;
+			}
+		this.spaces = all.toArray(new Space[all.size()]);
+
+		this.adjacent = new int[spaces.length][];
+		List<List<Integer>> out = new ArrayList<List<Integer>>(spaces.length);
+		for (int i = 0; i < spaces.length; i++)
+			out.add(new ArrayList<Integer>(4));
+		for (int i = 0; i < spaces.length; i++) {
+			if (spaces[i] instanceof Room) {
+				for (Room r : ((Room) spaces[i]).getConnectedRooms())
+					link(out, i, r);
+			} else if (spaces[i] instanceof Hallway) {
+				for (Room r : ((Hallway) spaces[i]).getRooms()) {
+					link(out, i, r);
+					link(out, getId(r), spaces[i]);
+				}
+			}
+		}
+		for (int i = 0; i < spaces.length; i++) {
+			adjacent[i] = new int[out.get(i).size()];
+			for (int j = 0; j < adjacent[i].length; j++)
+				adjacent[i][j] = out.get(i).get(j);
+		}
+	}
+
+	/**
+	 * Adds to as a neighbour of from, once, if it is a known space other
+	 * than from
+	 */
+	private void link(List<List<Integer>> out, int from, Space to) {
+		Integer id = idOf.get(to);
+		if (from == NONE || id == null || id == from || out.get(from).contains(id))
+			return;
+		out.get(from).add(id);
+	}
+
+	/**
+	 * @return The id of the space (x,y) is in, or NONE
+	 */
+	public int getId(int x, int y) {
+		return ids[x * height + y];
+	}
+
+	/**
+	 * @return The id of the space t is in, or NONE
+	 */
+	public int getId(Tile t) {
+		return getId(t.getLocation().x, t.getLocation().y);
+	}
+
+	/**
+	 * @return The id of s, or NONE if it is not on the level
+	 */
+	public int getId(Space s) {
+		Integer id = s == null ? null : idOf.get(s);
+		return id == null ? NONE : id;
+	}
+
+	/**
+	 * @return The space with the given id, or null for NONE
+	 */
+	public Space getSpace(int id) {
+		return id == NONE ? null : spaces[id];
+	}
+
+	/**
+	 * @return The space (x,y) is in, or null
+	 */
+	public Space getSpace(int x, int y) {
+		return getSpace(getId(x, y));
+	}
+
+	/**
+	 * @return Whether a and b are both in the same space
+	 */
+	public boolean sameSpace(Tile a, Tile b) {
+		int id = getId(a);
+		return id != NONE && id == getId(b);
+	}
+
+	/**
+	 * @return How many spaces there are. Ids go from 0 up to this.
+	 */
+	public int size() {
+		return spaces.length;
+	}
+
+	/**
+	 * @return Whether the space with the given id is a room
+	 */
+	public boolean isRoom(int id) {
+		return id != NONE && id < roomCount;
+	}
+
+	/**
+	 * @return The ids of the spaces one step from the given one. Not to be
+	 * changed.
+	 */
+	public int[] getAdjacent(int id) {
+		return adjacent[id];
+	}
+
+}
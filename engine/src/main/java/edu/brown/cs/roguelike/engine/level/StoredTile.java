@@ -0,0 +1,133 @@
+package edu.brown.cs.roguelike.engine.level;
+
+import java.util.List;
+import java.util.UUID;
+
+import edu.brown.cs.roguelike.engine.entities.Entity;
+import edu.brown.cs.roguelike.engine.entities.Stackable;
+
+/**
+ * A {@link Tile} that keeps no state of its own and reads and writes one
+ * cell of a {@link TileStore} instead. Views of the same cell are
+ * interchangeable, they are equal and share an id.
+ *
+ */
+class StoredTile extends Tile {
+
+	/**
+	 * Generated
+	 */
+	private static final long serialVersionUID = 5183316027359419734L;
+
+	private final TileStore store;
+	private final int index;
+
+	StoredTile(TileStore store, int index) {
+		this.store = store;
+		this.index = index;
+	}
+
+	@Override
+	public TileType getType() {
+		return store.getType(index);
+	}
+
+	@Override
+	public void setType(TileType type) {
+		boolean wasPassable = store.getType(index).isPassable();
+		store.setType(index, type);
+		if (level != null) {
+			level.tileChanged(this);
+			if (wasPassable != type.isPassable())
+				level.passabilityChanged(this);
+		}
+	}
+
+	@Override
+	public boolean getReveal() {
+		return store.isRevealed(index);
+	}
+
+	@Override
+	public void setReveal(boolean r) {
+		if (level != null && r != store.isRevealed(index)) {
+			level.tileChanged(this);
+			level.revealChanged(this, r);
+		}
+		store.setRevealed(index, r);
+	}
+
+	@Override
+	public Entity getEntity() {
+		return store.getEntity(index);
+	}
+
+	@Override
+	public void setEntity(Entity entity) {
+		if (entity != null)
+			entity.setLocation(this);
+		if (level != null) {
+			level.tileChanged(this);
+			level.entityChanged(this, store.getEntity(index), entity);
+		}
+		store.setEntity(index, entity);
+	}
+
+	@Override
+	public List<Stackable> getStackables() {
+		return store.getStackables(index);
+	}
+
+	@Override
+	public void addStackable(Stackable s) {
+		if (level != null)
+			level.tileChanged(this);
+		store.addStackable(index, s);
+	}
+
+	@Override
+	public Stackable removeStackable() {
+		if (store.peekStackable(index) == null)
+			return null;
+		if (level != null)
+			level.tileChanged(this);
+		return store.removeStackable(index);
+	}
+
+	@Override
+	protected Stackable peekStackable() {
+		return store.peekStackable(index);
+	}
+
+	@Override
+	public Space getSpace() {
+		return store.getSpace(index);
+	}
+
+	@Override
+	public void setSpace(Space space) {
+		store.setSpace(index, space);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * store.hashCode() + index;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		StoredTile other = (StoredTile) obj;
+		return index == other.index && store.equals(other.store);
+	}
+
+	@Override
+	public UUID getId() {
+		UUID s = store.getId();
+		return new UUID(s.getMostSignificantBits(), s.getLeastSignificantBits() ^ index);
+	}
+
+}
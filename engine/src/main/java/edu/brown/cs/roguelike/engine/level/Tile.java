@@ -1,9 +1,11 @@
 package edu.brown.cs.roguelike.engine.level;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.googlecode.lanterna.terminal.Terminal.Color;
 
@@ -32,9 +34,17 @@ public class Tile extends AStarNode<Tile> implements Saveable, Drawable {
 
 	/**Allows you to reveal/hide a tile**/
 	public void setReveal(boolean r) {
+		if (level != null && r != this.reveal) {
+			level.tileChanged(this);
+			level.revealChanged(this, r);
+		}
 		this.reveal = r;
 	}
 	
+	/** For views that keep their state elsewhere, see {@link TileStore} */
+	protected Tile() {
+	}
+	
 	/**
 	 * Generated
 	 */
@@ -42,14 +52,16 @@ public class Tile extends AStarNode<Tile> implements Saveable, Drawable {
 
 	public Tile(TileType type) {
 		this.type = type;
+		this.id = nextId();
 	}
 	
 	public Tile(TileType type, Space space) {
-		this.type = type;
+		this(type);
 		this.space = space;
 	}
 	
-	private LinkedList<Stackable> stackables = new LinkedList<Stackable>();
+	// Created on first use, most tiles never hold anything
+	private LinkedList<Stackable> stackables;
 
 	/**
 	 * @return the location
@@ -97,8 +109,54 @@ public class Tile extends AStarNode<Tile> implements Saveable, Drawable {
 		this.level = level;
 	}
 
-	public LinkedList<Stackable> getStackables() {
-		return stackables;
+	/**
+	 * @return The pile on this tile, read only. Reading it leaves the tile
+	 * as it was; only addStackable and removeStackable change it.
+	 */
+	public List<Stackable> getStackables() {
+		return stackables == null ? Collections.<Stackable>emptyList() : Collections.unmodifiableList(stackables);
+	}
+	
+	/**
+	 * Puts s at the bottom of the pile on this tile
+	 */
+	public void addStackable(Stackable s) {
+		if (level != null)
+			level.tileChanged(this);
+		if (stackables == null)
+			stackables = new LinkedList<Stackable>();
+		stackables.add(s);
+	}
+	
+	/**
+	 * Takes the top off the pile on this tile
+	 * 
+	 * @return What was on top, or null if there was nothing
+	 */
+	public Stackable removeStackable() {
+		if (stackables == null)
+			return null;
+		if (level != null)
+			level.tileChanged(this);
+		Stackable top = stackables.removeFirst();
+		if (stackables.isEmpty())
+			stackables = null;
+		return top;
+	}
+	
+	/**
+	 * @return The top of the pile on this tile, or null if there is none.
+	 * Unlike getStackables, never allocates.
+	 */
+	protected Stackable peekStackable() {
+		return (stackables == null || stackables.isEmpty()) ? null : stackables.getFirst();
+	}
+	
+	/**
+	 * @return Whether anything is lying on this tile, without allocating
+	 */
+	public boolean hasStackables() {
+		return peekStackable() != null;
 	}
 	
 	private Entity entity;
@@ -110,15 +168,19 @@ public class Tile extends AStarNode<Tile> implements Saveable, Drawable {
 	public void setEntity(Entity entity) {
 		if (entity != null)
 			entity.setLocation(this);
+		if (level != null) {
+			level.tileChanged(this);
+			level.entityChanged(this, this.entity, entity);
+		}
 		this.entity = entity;
 	}
 
 
 	public boolean isPassable() {
-		if (entity != null)
+		if (getEntity() != null)
 			return false;
 		else
-			return type.isPassable();
+			return getType().isPassable();
 	}
 
 	private TileType type;
@@ -128,7 +190,13 @@ public class Tile extends AStarNode<Tile> implements Saveable, Drawable {
 	}
 
 	public void setType(TileType type) {
+		boolean wasPassable = this.type != null && this.type.isPassable();
 		this.type = type;
+		if (level != null) {
+			level.tileChanged(this);
+			if (wasPassable != type.isPassable())
+				level.passabilityChanged(this);
+		}
 	}
 	
     @Override
@@ -183,16 +251,22 @@ public class Tile extends AStarNode<Tile> implements Saveable, Drawable {
 
 	private UUID id;
 	
-	/** initialize id **/
-	{
-		this.id = UUID.randomUUID();
+	// A level has a tile per cell, and generating a random UUID for each is
+	// a large part of the cost of building big maps. Tiles instead count up
+	// from a random id picked once per run, like the views of a TileStore.
+	private static final UUID ID_BASE = UUID.randomUUID();
+	private static final AtomicLong NEXT_ID = new AtomicLong();
+	
+	private static UUID nextId() {
+		return new UUID(ID_BASE.getMostSignificantBits(),
+				ID_BASE.getLeastSignificantBits() ^ NEXT_ID.getAndIncrement());
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		result = prime * result + getId().hashCode();
 		return result;
 	}
 	
@@ -205,10 +279,7 @@ public class Tile extends AStarNode<Tile> implements Saveable, Drawable {
 		if (getClass() != obj.getClass())
 			return false;
 		Tile other = (Tile) obj;
-		if (id == null) {
-			if (other.id != null)
-				return false;
-		} else if (id.equals(other.id))
+		if (getId().equals(other.getId()))
 			// return true if ids are the same
 			return true;
 		return false;
@@ -229,13 +300,19 @@ public class Tile extends AStarNode<Tile> implements Saveable, Drawable {
 	}
 
 	protected Drawable getCurrent() {
-		if(this.reveal == false && !(entity instanceof MainCharacter)) {
+		Entity entity = getEntity();
+		if(getReveal() == false && !(entity instanceof MainCharacter)) {
 			return TileType.HIDDEN;
 		}
-		if (this.entity != null)
+		// What has been seen before is remembered without who stood there
+		if (entity != null && level != null && !(entity instanceof MainCharacter)
+				&& !level.isVisible(location.x, location.y))
+			entity = null;
+		Stackable top;
+		if (entity != null)
 			return entity;
-		else if(stackables.size() > 0)
-			return stackables.getFirst();
+		else if((top = peekStackable()) != null)
+			return top;
 		else
 			return getType();
 	}
@@ -0,0 +1,233 @@
+package edu.brown.cs.roguelike.engine.level;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.entities.Entity;
+import edu.brown.cs.roguelike.engine.entities.Stackable;
+import edu.brown.cs.roguelike.engine.save.Saveable;
+
+/**
+ * Compact struct-of-arrays storage for the tiles of a {@link Level}.
+ *
+ * Instead of a {@link Tile} object per cell, the tile type of every cell is
+ * packed into a byte array and the revealed flags into a bit set. Entities,
+ * item piles and spaces only exist on a small part of the map, so they are
+ * kept in sparse maps keyed by tile index (x*height + y).
+ *
+ * {@link Level#getTile(int, int)} hands out lightweight {@link Tile} views
+ * over this store, so code written against Tile keeps working.
+ *
+ */
+public class TileStore implements Saveable {
+
+	/**
+	 * Generated
+	 */
+	private static final long serialVersionUID = -3261810935412207648L;
+
+	private static final TileType[] TYPES = TileType.values();
+
+	private final int width;
+	private final int height;
+
+	private final byte[] types;
+	private final BitSet revealed;
+	private final HashMap<Integer,Entity> entities = new HashMap<Integer,Entity>();
+	private final HashMap<Integer,LinkedList<Stackable>> stackables =
+			new HashMap<Integer,LinkedList<Stackable>>();
+	private final HashMap<Integer,Space> spaces = new HashMap<Integer,Space>();
+
+	/**
+	 * Creates a store of the given size filled with fill
+	 */
+	public TileStore(int width, int height, TileType fill) {
+		this.width = width;
+		this.height = height;
+		this.types = new byte[width * height];
+		this.revealed = new BitSet(width * height);
+		if (fill.ordinal() != 0)
+			java.util.Arrays.fill(types, (byte) fill.ordinal());
+	}
+
+	/**
+	 * Copies a grid of tiles into a new store
+	 */
+	public static TileStore fromTiles(Tile[][] tiles) {
+		TileStore store = new TileStore(tiles.length, tiles[0].length, TileType.SOLID);
+		for (int x = 0; x < tiles.length; x++) {
+			for (int y = 0; y < tiles[0].length; y++) {
+				Tile t = tiles[x][y];
+				int i = store.index(x, y);
+				store.types[i] = (byte) t.getType().ordinal();
+				if (t.getReveal())
+					store.revealed.set(i);
+				if (t.getEntity() != null)
+					store.entities.put(i, t.getEntity());
+				if (t.peekStackable() != null)
+					store.stackables.put(i, new LinkedList<Stackable>(t.getStackables()));
+				if (t.getSpace() != null)
+					store.spaces.put(i, t.getSpace());
+			}
+		}
+		return store;
+	}
+
+	public int getWidth() { return width; }
+	public int getHeight() { return height; }
+
+	public int index(int x, int y) {
+		return x * height + y;
+	}
+
+	/**
+	 * @return A new view of the tile at (x,y), bound to level
+	 */
+	public Tile view(Level level, int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height)
+			throw new IndexOutOfBoundsException("No tile at (" + x + ", " + y + ")");
+		StoredTile t = new StoredTile(this, index(x, y));
+		t.setLocation(new Vec2i(x, y));
+		t.setLevel(level);
+		return t;
+	}
+
+	public TileType getType(int i) {
+		return TYPES[types[i]];
+	}
+
+	public void setType(int i, TileType type) {
+		types[i] = (byte) type.ordinal();
+	}
+
+	public boolean isRevealed(int i) {
+		return revealed.get(i);
+	}
+
+	public void setRevealed(int i, boolean r) {
+		revealed.set(i, r);
+	}
+
+	public Entity getEntity(int i) {
+		return entities.isEmpty() ? null : entities.get(i);
+	}
+
+	public void setEntity(int i, Entity e) {
+		if (e == null)
+			entities.remove(i);
+		else
+			entities.put(i, e);
+	}
+
+	public Space getSpace(int i) {
+		return spaces.isEmpty() ? null : spaces.get(i);
+	}
+
+	public void setSpace(int i, Space s) {
+		if (s == null)
+			spaces.remove(i);
+		else
+			spaces.put(i, s);
+	}
+
+	/**
+	 * @return The pile at i, read only and empty if there is none. Change
+	 * it with addStackable and removeStackable.
+	 */
+	public List<Stackable> getStackables(int i) {
+		LinkedList<Stackable> pile = stackables.isEmpty() ? null : stackables.get(i);
+		return pile == null ? Collections.<Stackable>emptyList() : Collections.unmodifiableList(pile);
+	}
+
+	/**
+	 * Puts s at the bottom of the pile at i, starting a pile if there is
+	 * none
+	 */
+	public void addStackable(int i, Stackable s) {
+		LinkedList<Stackable> pile = stackables.get(i);
+		if (pile == null) {
+			pile = new LinkedList<Stackable>();
+			stackables.put(i, pile);
+		}
+		pile.add(s);
+	}
+
+	/**
+	 * Takes the top off the pile at i, and forgets the pile once it is
+	 * empty
+	 *
+	 * @return What was on top, or null if there was no pile
+	 */
+	public Stackable removeStackable(int i) {
+		LinkedList<Stackable> pile = stackables.get(i);
+		if (pile == null)
+			return null;
+		Stackable top = pile.removeFirst();
+		if (pile.isEmpty())
+			stackables.remove(i);
+		return top;
+	}
+
+	/**
+	 * @return How many tiles have something lying on them
+	 */
+	public int getPileCount() {
+		return stackables.size();
+	}
+
+	/**
+	 * @return The top of the pile at i, or null, without creating a pile
+	 */
+	public Stackable peekStackable(int i) {
+		LinkedList<Stackable> pile = stackables.isEmpty() ? null : stackables.get(i);
+		return (pile == null || pile.isEmpty()) ? null : pile.getFirst();
+	}
+
+	/*** BEGIN Saveable ***/
+
+	private UUID id;
+
+	/** initialize id **/
+	{
+		this.id = UUID.randomUUID();
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		TileStore other = (TileStore) obj;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		} else if (id.equals(other.id))
+			// return true if ids are the same
+			return true;
+		return false;
+	}
+
+	@Override
+	public UUID getId() {
+		return this.id;
+	}
+
+	/*** END Saveable ***/
+
+}
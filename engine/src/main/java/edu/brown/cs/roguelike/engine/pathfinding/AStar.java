@@ -1,13 +1,17 @@
 package edu.brown.cs.roguelike.engine.pathfinding;
 
 import java.util.ArrayList;
-import java.util.PriorityQueue;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.PriorityQueue;
 
 
 /**
  * Implementation of the A* graph pathfinding algorithm
  * 
+ * Scores and parents are kept by the search, not on the nodes, so nodes
+ * can be short-lived views and several searches can share them.
+ * 
  * @author lelberty
  *
  */
@@ -27,6 +31,29 @@ public class AStar<N extends AStarNode<N>> {
     cameFrom = new HashMap<N,N>();
   }
   
+  /**
+   * A node waiting in the open set. A node re-scored while waiting is
+   * queued again, and the older entry skipped once the node is closed.
+   */
+  private static class Open<N> implements Comparable<Open<N>> {
+    final N node;
+    final int fScore;
+    final long order;
+
+    Open(N node, int fScore, long order) {
+      this.node = node;
+      this.fScore = fScore;
+      this.order = order;
+    }
+
+    public int compareTo(Open<N> o) {
+      if (fScore != o.fScore)
+        return fScore < o.fScore ? -1 : 1;
+      // first come first served, so ties break the same way every time
+      return order < o.order ? -1 : (order == o.order ? 0 : 1);
+    }
+  }
+  
   /**
    * A* pathfinding. Returns an ArrayList of nodes representing the calculated
    * path from the start to the goal
@@ -35,46 +62,44 @@ public class AStar<N extends AStarNode<N>> {
 
     reset(); // reset path and pathMap
     
-    // open and closed sets
-    ArrayList<N> closed = new ArrayList<N>();
-    PriorityQueue<N> open = new PriorityQueue<N>();
+    // open and closed sets, and the best known cost to each node
+    HashSet<N> closed = new HashSet<N>();
+    PriorityQueue<Open<N>> open = new PriorityQueue<Open<N>>();
+    HashMap<N,Integer> gScores = new HashMap<N,Integer>();
+    long queued = 0;
     
-    open.add(start);
-    
-    int totalDistance = 0;
-
-    start.update(totalDistance, goal);
-    
-    // init now for efficiency
-    int neighborGScore = 0;
+    gScores.put(start, 0);
+    open.add(new Open<N>(start, start.getHScore(goal), queued++));
     
     while(!open.isEmpty()) {
-      N current = open.poll();
+      N current = open.poll().node;
+      
+      if (!closed.add(current)) {
+        continue; // already expanded through a better entry
+      }
       
       if (current.equals(goal)) {
-        buildPath(goal); // reconstruct and return
+        buildPath(current); // reconstruct and return
         return this.path;
-      } else { // otherwise keep going
-        
-        closed.add(current);
+      }
+      
+      int currentGScore = gScores.get(current);
+      for (N neighbor : current.getNeighbors()) {
         
-        for (N neighbor : current.getNeighbors()) {
-          
-          if (!closed.contains(neighbor)) {
+        if (!closed.contains(neighbor)) {
 
-            neighborGScore = current.getGScore() + current.distance(neighbor); 
+          int neighborGScore = currentGScore + current.distance(neighbor); 
+          Integer known = gScores.get(neighbor);
+          
+          // If we haven't visited neighbor yet, or if this is a better path to
+          // neighbor, then update it and add to open
+          if (known == null || neighborGScore < known) {
             
-            // If we haven't visited neighbor yet, or if this is a better path to
-            // neighbor, then update it and add to open
-            if (!open.contains(neighbor) || neighborGScore < neighbor.getGScore()) {
-              
-              // update the path to neighbor
-              this.cameFrom.put(neighbor, current);
-              
-              // update neighbor node and add to open
-              neighbor.update(neighborGScore, goal);
-              open.add(neighbor);
-            }
+            // update the path to neighbor
+            this.cameFrom.put(neighbor, current);
+            gScores.put(neighbor, neighborGScore);
+            open.add(new Open<N>(neighbor,
+                neighborGScore + neighbor.getHScore(goal), queued++));
           }
         }
       }
@@ -92,10 +117,16 @@ public class AStar<N extends AStarNode<N>> {
    * @return
    */
   private void buildPath(N cur) {
-    if (cur != null) { // icky null base case
-      this.path.add(0,cur);
-      buildPath(this.cameFrom.get(cur));
+    while (cur != null) {
+      this.path.add(cur);
+      cur = this.cameFrom.get(cur);
+    }
+    // built goal-first
+    for (int i = 0, j = path.size() - 1; i < j; i++, j--) {
+      N tmp = path.get(i);
+      path.set(i, path.get(j));
+      path.set(j, tmp);
     }
   }
     
-}    
+}
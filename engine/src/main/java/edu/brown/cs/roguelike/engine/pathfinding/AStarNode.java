@@ -1,10 +1,11 @@
 package edu.brown.cs.roguelike.engine.pathfinding;
 
+/**
+ * A node {@link AStar} can search. What a search knows about a node, its
+ * scores and parent, is kept by the search rather than here.
+ */
 public abstract class AStarNode<N extends AStarNode<N>> 
-  extends GraphNode<N> implements Comparable<N> {
-  
-  private int fScore;
-  private int gScore;
+  extends GraphNode<N> {
   
   public AStarNode() {
   }
@@ -17,26 +18,9 @@ public abstract class AStarNode<N extends AStarNode<N>>
    */
   protected abstract int getHScore(N goal);
   
-  public void update(int gScore, N goal) {
-    this.fScore = gScore + getHScore(goal);
-    this.gScore = gScore;
-  }
-  
-  public int getGScore() {
-    return this.gScore;
-  }
-
-  public int getFScore() {
-    return this.fScore;
-  }
-  
   /**
    * Calculate the distance between this node and a neighbor
    */
   public abstract int distance(N neighbor);
-
-  public int compareTo(N node1) {
-    return this.fScore - node1.getFScore();
-  }
   
 }
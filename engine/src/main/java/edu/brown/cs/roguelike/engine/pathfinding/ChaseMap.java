@@ -0,0 +1,157 @@
+package edu.brown.cs.roguelike.engine.pathfinding;
+
+import java.util.Arrays;
+
+import edu.brown.cs.roguelike.engine.entities.Entity;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.level.Direction;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Tile;
+
+/**
+ * A level-wide distance field ("flow field") toward a single target tile,
+ * usually the player. Every passable tile stores its step distance to the
+ * target, so any number of monsters can find their next step by looking at
+ * their four neighbors instead of each running its own search.
+ *
+ * The field only depends on tile passability, not on who is standing
+ * where, so it stays valid until the target moves or a tile changes
+ * passability. Both only mark it stale; it is rebuilt at most once, the
+ * next time it is asked for.
+ *
+ * Tiles are indexed x*height + y, like {@link GridAStar}.
+ *
+ */
+public class ChaseMap {
+
+  /** Distance of tiles the target cannot be reached from */
+  public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  private final int width;
+  private final int height;
+
+  private final int[] dist;
+  private final int[] queue;
+
+  private int target = -1;
+  private boolean stale = true;
+  private int rebuilds = 0;
+
+  public ChaseMap(int width, int height) {
+    this.width = width;
+    this.height = height;
+    this.dist = new int[width * height];
+    this.queue = new int[width * height];
+  }
+
+  /**
+   * Marks the field as out of date, e.g. because a tile's passability
+   * changed. It is recomputed on the next call to {@link #update}.
+   */
+  public void invalidate() {
+    this.stale = true;
+  }
+
+  public boolean isStale() {
+    return stale;
+  }
+
+  /**
+   * @return how many times the field has been rebuilt
+   */
+  public int getRebuilds() {
+    return rebuilds;
+  }
+
+  /**
+   * Makes sure the field points at target, rebuilding it only if the
+   * target moved or the field was invalidated.
+   */
+  public void update(Level level, Tile target) {
+    int t = index(target.getLocation().x, target.getLocation().y);
+    if (!stale && t == this.target) return;
+    rebuild(level, t);
+  }
+
+  /**
+   * Breadth-first search outward from the target over passable tiles
+   */
+  private void rebuild(Level level, int t) {
+    Arrays.fill(dist, UNREACHABLE);
+
+    int head = 0, tail = 0;
+    dist[t] = 0;
+    queue[tail++] = t;
+
+    while (head < tail) {
+      int cur = queue[head++];
+      int x = cur / height;
+      int y = cur % height;
+      int d = dist[cur] + 1;
+
+      if (x > 0) tail = visit(level, x - 1, y, d, tail);
+      if (x < width - 1) tail = visit(level, x + 1, y, d, tail);
+      if (y > 0) tail = visit(level, x, y - 1, d, tail);
+      if (y < height - 1) tail = visit(level, x, y + 1, d, tail);
+    }
+
+    this.target = t;
+    this.stale = false;
+    this.rebuilds++;
+  }
+
+  private int visit(Level level, int x, int y, int d, int tail) {
+    int n = index(x, y);
+    if (dist[n] != UNREACHABLE || !level.getTileType(x, y).isPassable())
+      return tail;
+    dist[n] = d;
+    queue[tail] = n;
+    return tail + 1;
+  }
+
+  /**
+   * @return number of steps from t to the target, or UNREACHABLE
+   */
+  public int getDistance(Tile t) {
+    return dist[index(t.getLocation().x, t.getLocation().y)];
+  }
+
+  /**
+   * Descends the field from t by one step. Tiles held by anything other
+   * than the main character are skipped, so monsters do not walk into
+   * each other.
+   *
+   * @return the direction to step in, or null if t is the target, cannot
+   * reach it, or every step closer is blocked
+   */
+  public Direction directionFrom(Tile t) {
+    Level level = t.getLevel();
+    int x = t.getLocation().x;
+    int y = t.getLocation().y;
+    int best = dist[index(x, y)];
+    if (best == UNREACHABLE || best == 0) return null;
+
+    Direction bestDir = null;
+    for (Direction dir : Direction.values()) {
+      int nx = x + dir.getDelta().x;
+      int ny = y + dir.getDelta().y;
+      if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+
+      int d = dist[index(nx, ny)];
+      if (d < best && isFree(level.getEntityAt(nx, ny))) {
+        best = d;
+        bestDir = dir;
+      }
+    }
+    return bestDir;
+  }
+
+  private static boolean isFree(Entity occupant) {
+    return occupant == null || occupant instanceof MainCharacter;
+  }
+
+  private int index(int x, int y) {
+    return x * height + y;
+  }
+
+}
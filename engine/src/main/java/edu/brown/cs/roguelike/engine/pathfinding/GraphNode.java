@@ -7,14 +7,16 @@ public class GraphNode<N extends GraphNode<N>>  {
   private ArrayList<N> neighbors;
   
   public GraphNode() {
-    this.neighbors = new ArrayList<N>();
   }
 
   public void addNeighbor(N neighbor) {
-    this.neighbors.add(neighbor);
+    getNeighbors().add(neighbor);
   }
   
   public ArrayList<N> getNeighbors() {
+    // created on first use; subclasses such as Tile compute their own
+    if (neighbors == null)
+      neighbors = new ArrayList<N>();
     return neighbors;
   }
 
@@ -0,0 +1,202 @@
+package edu.brown.cs.roguelike.engine.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import edu.brown.cs.roguelike.engine.entities.Entity;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Tile;
+
+/**
+ * A* over the tile grid of a {@link Level}, working on tile indices
+ * (x*height + y) instead of {@link Tile} objects.
+ *
+ * All per-node state lives in int arrays sized to the level, and is
+ * invalidated between searches by bumping a generation counter rather than
+ * clearing, so repeated searches on the same level do not allocate.
+ *
+ * Costs and the heuristic match {@link Tile#distance(Tile)} and
+ * {@link Tile#getHScore(Tile)}, so paths are interchangeable with
+ * {@link AStar}. Instances are not thread safe.
+ *
+ */
+public class GridAStar {
+
+  /** Cost of a single orthogonal step */
+  public static final int STEP_COST = 10;
+
+  /** Extra cost of stepping onto a tile occupied by a non-player entity */
+  public static final int OCCUPIED_PENALTY = 100;
+
+  private final int width;
+  private final int height;
+
+  private final int[] gScore;
+  private final int[] parent;
+  private final int[] seen;   // generation in which gScore/parent were set
+  private final int[] closed; // generation in which the node was expanded
+  private final IndexedMinHeap open;
+
+  private int generation = 0;
+
+  public GridAStar(int width, int height) {
+    this.width = width;
+    this.height = height;
+    int n = width * height;
+    this.gScore = new int[n];
+    this.parent = new int[n];
+    this.seen = new int[n];
+    this.closed = new int[n];
+    this.open = new IndexedMinHeap(n);
+  }
+
+  public int getWidth() { return width; }
+  public int getHeight() { return height; }
+
+  public int index(int x, int y) {
+    return x * height + y;
+  }
+
+  public int indexOf(Tile t) {
+    return index(t.getLocation().x, t.getLocation().y);
+  }
+
+  /**
+   * Computes a path from start to goal.
+   *
+   * @return the tiles of the path, start first and goal last, or null if
+   * no path exists. Same shape as {@link AStar#computePath}.
+   */
+  public ArrayList<Tile> computePath(Level level, Tile start, Tile goal) {
+    int g = search(level, indexOf(start), indexOf(goal));
+    if (g < 0) return null;
+
+    ArrayList<Tile> path = new ArrayList<Tile>();
+    int s = indexOf(start);
+    for (int cur = g; ; cur = parent[cur]) {
+      path.add(tileAt(level, cur));
+      if (cur == s) break;
+    }
+    // built goal-first
+    for (int i = 0, j = path.size() - 1; i < j; i++, j--) {
+      Tile tmp = path.get(i);
+      path.set(i, path.get(j));
+      path.set(j, tmp);
+    }
+    return path;
+  }
+
+  /**
+   * Finds the first tile to step onto on a shortest path from start to
+   * goal without building the path.
+   *
+   * @return the next tile, or null if there is no path or start == goal
+   */
+  public Tile nextStep(Level level, Tile start, Tile goal) {
+    int s = indexOf(start);
+    int cur = search(level, s, indexOf(goal));
+    if (cur < 0 || cur == s) return null;
+    while (parent[cur] != s)
+      cur = parent[cur];
+    return tileAt(level, cur);
+  }
+
+  /**
+   * @return the accumulated cost of the last path found to node, only
+   * meaningful for nodes reached during the last search
+   */
+  public int getCost(int node) {
+    return seen[node] == generation ? gScore[node] : Integer.MAX_VALUE;
+  }
+
+  /**
+   * @return the parent of node on the last search, or -1
+   */
+  public int getParent(int node) {
+    return seen[node] == generation ? parent[node] : -1;
+  }
+
+  /**
+   * Runs A* between two tile indices
+   *
+   * @return goal if it was reached, -1 otherwise
+   */
+  public int search(Level level, int start, int goal) {
+    nextGeneration();
+    int gx = goal / height;
+    int gy = goal % height;
+
+    gScore[start] = 0;
+    parent[start] = start;
+    seen[start] = generation;
+    open.push(start, heuristic(start, gx, gy));
+
+    while (!open.isEmpty()) {
+      int current = open.pop();
+      if (current == goal) {
+        open.clear();
+        return goal;
+      }
+      closed[current] = generation;
+
+      int cx = current / height;
+      int cy = current % height;
+      int base = gScore[current];
+
+      if (cx > 0) relax(level, current, base, cx - 1, cy, gx, gy);
+      if (cx < width - 1) relax(level, current, base, cx + 1, cy, gx, gy);
+      if (cy > 0) relax(level, current, base, cx, cy - 1, gx, gy);
+      if (cy < height - 1) relax(level, current, base, cx, cy + 1, gx, gy);
+    }
+
+    // Could not find path.
+    return -1;
+  }
+
+  private void relax(Level level, int from, int base, int x, int y,
+      int gx, int gy) {
+    if (!level.getTileType(x, y).isPassable()) return;
+
+    int n = index(x, y);
+    if (closed[n] == generation) return;
+
+    int cost = base + stepCost(level.getEntityAt(x, y));
+    if (seen[n] != generation || cost < gScore[n]) {
+      gScore[n] = cost;
+      parent[n] = from;
+      seen[n] = generation;
+      open.pushOrDecrease(n, cost + STEP_COST * manhattan(x, y, gx, gy));
+    }
+  }
+
+  private static int stepCost(Entity occupant) {
+    // Don't move into other Monsters, silly
+    if (occupant != null && !(occupant instanceof MainCharacter))
+      return STEP_COST + OCCUPIED_PENALTY;
+    return STEP_COST;
+  }
+
+  private int heuristic(int node, int gx, int gy) {
+    return STEP_COST * manhattan(node / height, node % height, gx, gy);
+  }
+
+  private static int manhattan(int x1, int y1, int x2, int y2) {
+    return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+  }
+
+  private Tile tileAt(Level level, int node) {
+    return level.getTile(node / height, node % height);
+  }
+
+  private void nextGeneration() {
+    open.clear();
+    if (generation == Integer.MAX_VALUE) {
+      Arrays.fill(seen, 0);
+      Arrays.fill(closed, 0);
+      generation = 0;
+    }
+    generation++;
+  }
+
+}
@@ -0,0 +1,336 @@
+package edu.brown.cs.roguelike.engine.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.brown.cs.roguelike.engine.entities.Entity;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.SpaceIndex;
+import edu.brown.cs.roguelike.engine.level.Tile;
+
+/**
+ * HPA*-style pathfinding over the rooms and hallways of a {@link Level}.
+ *
+ * Every passable tile next to a tile of another space is a portal. Built
+ * once per level, each portal keeps its step distance to every tile of its
+ * own space, and the portals form a small graph: portals of the same space
+ * are joined by their distance across it, portals on either side of a
+ * boundary by one step. A path leaves and enters spaces only through
+ * portals, so routes found on this graph are as short as any on the tiles.
+ *
+ * Finding the next step routes over the portal graph from the portals of
+ * the start's space to those of the goal's, then only refines the first
+ * leg by descending the first portal's distances. The cost depends on how
+ * many portals the level has, not on how many tiles. Within the goal's own
+ * space it descends the distances to the goal, worked out once per goal:
+ * every monster chases the same player, so those in the player's space
+ * share them until the player moves.
+ *
+ * Like the {@link ChaseMap} it ignores who stands where when routing, and
+ * skips tiles held by anything other than the main character when
+ * stepping. It only depends on tile passability, which the level watches.
+ * Searches allocate their own scratch, and the distances kept for the last
+ * goal are replaced whole, so any number of threads can use one.
+ *
+ * Tiles are indexed x*height + y, like {@link GridAStar}.
+ *
+ */
+public class HierarchicalPathfinder {
+
+  private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  private final int width;
+  private final int height;
+  private final SpaceIndex spaces;
+
+  // Per tile: where it is in its space's tiles, or -1 if it is in none
+  private final int[] local;
+  // Per space: its passable tiles, and its portals
+  private final int[][] tilesOf;
+  private final int[][] portalsOf;
+
+  // Per portal: its tile, its space and its distance to each tile of the
+  // space by local index
+  private final int[] portalTile;
+  private final int[] portalSpace;
+  private final int[][] field;
+
+  // Per portal: the portals it is joined to, and at what cost
+  private final int[][] edgeTo;
+  private final int[][] edgeCost;
+
+  // The distances to the last goal asked for, over the goal's space
+  private volatile GoalField lastGoal;
+
+  private static final class GoalField {
+    final int tile;
+    final int[] dist;
+
+    GoalField(int tile, int[] dist) {
+      this.tile = tile;
+      this.dist = dist;
+    }
+  }
+
+  public HierarchicalPathfinder(Level level) {
+    this.width = level.getWidth();
+    this.height = level.getHeight();
+    this.spaces = level.getSpaceIndex();
+    int n = width * height;
+
+    this.local = new int[n];
+    Arrays.fill(local, -1);
+    int[] count = new int[spaces.size()];
+    for (int i = 0; i < n; i++) {
+      int s = spaceOf(level, i);
+      if (s != SpaceIndex.NONE)
+        local[i] = count[s]++;
+    }
+    this.tilesOf = new int[spaces.size()][];
+    for (int s = 0; s < tilesOf.length; s++)
+      tilesOf[s] = new int[count[s]];
+    for (int i = 0; i < n; i++)
+      if (local[i] >= 0)
+        tilesOf[spaces.getId(i / height, i % height)][local[i]] = i;
+
+    // Portals
+    int[] portalAt = new int[n];
+    Arrays.fill(portalAt, -1);
+    List<Integer> portals = new ArrayList<Integer>();
+    List<List<Integer>> portalsBySpace = new ArrayList<List<Integer>>();
+    for (int s = 0; s < spaces.size(); s++)
+      portalsBySpace.add(new ArrayList<Integer>());
+    int[] around = new int[4];
+    for (int i = 0; i < n; i++) {
+      if (local[i] < 0) continue;
+      int s = spaceOf(level, i);
+      for (int j : neighbours(i, around)) {
+        if (j >= 0 && local[j] >= 0 && spaceOf(level, j) != s) {
+          portalAt[i] = portals.size();
+          portalsBySpace.get(s).add(portals.size());
+          portals.add(i);
+          break;
+        }
+      }
+    }
+
+    int p = portals.size();
+    this.portalTile = new int[p];
+    this.portalSpace = new int[p];
+    this.field = new int[p][];
+    for (int k = 0; k < p; k++) {
+      portalTile[k] = portals.get(k);
+      portalSpace[k] = spaceOf(level, portalTile[k]);
+      field[k] = fieldWithin(level, portalSpace[k], portalTile[k]);
+    }
+    this.portalsOf = new int[spaces.size()][];
+    for (int s = 0; s < portalsOf.length; s++) {
+      List<Integer> of = portalsBySpace.get(s);
+      portalsOf[s] = new int[of.size()];
+      for (int j = 0; j < of.size(); j++)
+        portalsOf[s][j] = of.get(j);
+    }
+
+    // Across spaces and across boundaries
+    this.edgeTo = new int[p][];
+    this.edgeCost = new int[p][];
+    for (int k = 0; k < p; k++) {
+      List<Integer> to = new ArrayList<Integer>();
+      List<Integer> cost = new ArrayList<Integer>();
+      for (int l : portalsOf[portalSpace[k]]) {
+        int d = field[k][local[portalTile[l]]];
+        if (l != k && d != UNREACHABLE) {
+          to.add(l);
+          cost.add(d);
+        }
+      }
+      for (int j : neighbours(portalTile[k], around)) {
+        if (j >= 0 && portalAt[j] >= 0 && portalSpace[portalAt[j]] != portalSpace[k]) {
+          to.add(portalAt[j]);
+          cost.add(1);
+        }
+      }
+      edgeTo[k] = new int[to.size()];
+      edgeCost[k] = new int[to.size()];
+      for (int j = 0; j < to.size(); j++) {
+        edgeTo[k][j] = to.get(j);
+        edgeCost[k][j] = cost.get(j);
+      }
+    }
+  }
+
+  /**
+   * @return How many portals the level has
+   */
+  public int getPortalCount() {
+    return portalTile.length;
+  }
+
+  /**
+   * Finds the first tile to step onto on a shortest path from start to
+   * goal.
+   *
+   * @return the next tile, or null if there is no path, start == goal, or
+   * every step closer is blocked
+   */
+  public Tile nextStep(Level level, Tile start, Tile goal) {
+    int f = index(start), t = index(goal);
+    if (f == t || local[f] < 0 || local[t] < 0)
+      return null;
+    int sf = spaces.getId(start), st = spaces.getId(goal);
+
+    if (sf == st) {
+      int[] d = fieldTo(level, st, t);
+      if (d[local[f]] != UNREACHABLE)
+        return descend(level, sf, d, f);
+    }
+
+    // Route over the portals, the goal being one more node after them
+    int p = portalTile.length;
+    int[] dist = new int[p + 1];
+    int[] parent = new int[p + 1];
+    Arrays.fill(dist, UNREACHABLE);
+    Arrays.fill(parent, -1);
+    IndexedMinHeap open = new IndexedMinHeap(p + 1);
+    for (int k : portalsOf[sf]) {
+      int d = field[k][local[f]];
+      if (d != UNREACHABLE) {
+        dist[k] = d;
+        open.push(k, d);
+      }
+    }
+
+    while (!open.isEmpty()) {
+      int u = open.pop();
+      if (u == p)
+        break;
+      if (portalSpace[u] == st) {
+        int d = field[u][local[t]];
+        if (d != UNREACHABLE && dist[u] + d < dist[p]) {
+          dist[p] = dist[u] + d;
+          parent[p] = u;
+          open.pushOrDecrease(p, dist[p]);
+        }
+      }
+      for (int j = 0; j < edgeTo[u].length; j++) {
+        int v = edgeTo[u][j];
+        int d = dist[u] + edgeCost[u][j];
+        if (d < dist[v]) {
+          dist[v] = d;
+          parent[v] = u;
+          open.pushOrDecrease(v, d);
+        }
+      }
+    }
+    if (dist[p] == UNREACHABLE)
+      return null;
+
+    // Only the first leg is refined to tiles
+    int first = parent[p], second = p;
+    while (parent[first] != -1) {
+      second = first;
+      first = parent[first];
+    }
+    if (portalTile[first] != f)
+      return descend(level, sf, field[first], f);
+    if (second != p && portalSpace[second] == sf)
+      return descend(level, sf, field[second], f);
+    int next = portalTile[second];
+    return isFree(level.getEntityAt(next / height, next % height))
+        ? level.getTile(next / height, next % height) : null;
+  }
+
+  /**
+   * @return The step distance from goal t to each tile of its space s,
+   * worked out again only when t is not the last goal
+   */
+  private int[] fieldTo(Level level, int s, int t) {
+    GoalField g = lastGoal;
+    if (g == null || g.tile != t) {
+      g = new GoalField(t, fieldWithin(level, s, t));
+      lastGoal = g;
+    }
+    return g.dist;
+  }
+
+  /**
+   * @return The step distance from to to each tile of space s, by local
+   * index, staying inside the space
+   */
+  private int[] fieldWithin(Level level, int s, int to) {
+    int[] d = new int[tilesOf[s].length];
+    Arrays.fill(d, UNREACHABLE);
+    int[] queue = new int[d.length];
+    int[] around = new int[4];
+    int head = 0, tail = 0;
+    d[local[to]] = 0;
+    queue[tail++] = to;
+    while (head < tail) {
+      int cur = queue[head++];
+      int next = d[local[cur]] + 1;
+      for (int j : neighbours(cur, around)) {
+        if (j >= 0 && local[j] >= 0 && spaceOf(level, j) == s && d[local[j]] == UNREACHABLE) {
+          d[local[j]] = next;
+          queue[tail++] = j;
+        }
+      }
+    }
+    return d;
+  }
+
+  /**
+   * Descends d, the distances over space s, from f by one step onto a
+   * tile nobody but the main character holds
+   */
+  private Tile descend(Level level, int s, int[] d, int f) {
+    int best = d[local[f]];
+    int bestTile = -1;
+    for (int j : neighbours(f, new int[4])) {
+      if (j < 0 || local[j] < 0 || spaceOf(level, j) != s)
+        continue;
+      int x = j / height, y = j % height;
+      if (d[local[j]] < best && isFree(level.getEntityAt(x, y))) {
+        best = d[local[j]];
+        bestTile = j;
+      }
+    }
+    return bestTile < 0 ? null : level.getTile(bestTile / height, bestTile % height);
+  }
+
+  private static boolean isFree(Entity occupant) {
+    return occupant == null || occupant instanceof MainCharacter;
+  }
+
+  /**
+   * @return The space of passable tile i, or NONE for tiles that are in
+   * none or block the way
+   */
+  private int spaceOf(Level level, int i) {
+    int x = i / height, y = i % height;
+    if (!level.getTileType(x, y).isPassable())
+      return SpaceIndex.NONE;
+    return spaces.getId(x, y);
+  }
+
+  /**
+   * Puts the tiles left of, right of, above and below i into out, -1 for
+   * those off the level
+   *
+   * @return out
+   */
+  private int[] neighbours(int i, int[] out) {
+    int x = i / height, y = i % height;
+    out[0] = x > 0 ? i - height : -1;
+    out[1] = x < width - 1 ? i + height : -1;
+    out[2] = y > 0 ? i - 1 : -1;
+    out[3] = y < height - 1 ? i + 1 : -1;
+    return out;
+  }
+
+  private int index(Tile t) {
+    return t.getLocation().x * height + t.getLocation().y;
+  }
+
+}
@@ -0,0 +1,135 @@
+package edu.brown.cs.roguelike.engine.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of int node ids keyed by int priorities. Every node id
+ * in [0, capacity) has a slot in a position index, which makes contains and
+ * decreaseKey O(1) and O(log n) respectively. Nothing is allocated after
+ * construction, so one heap can be reused for any number of searches.
+ *
+ */
+public class IndexedMinHeap {
+
+  private final int[] heap;  // heap position -> node
+  private final int[] pos;   // node -> heap position, or -1 if absent
+  private final int[] keys;  // node -> priority
+  private int size;
+
+  public IndexedMinHeap(int capacity) {
+    this.heap = new int[capacity];
+    this.pos = new int[capacity];
+    this.keys = new int[capacity];
+    Arrays.fill(pos, -1);
+    this.size = 0;
+  }
+
+  public int capacity() {
+    return heap.length;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean contains(int node) {
+    return pos[node] >= 0;
+  }
+
+  public int getKey(int node) {
+    return keys[node];
+  }
+
+  /**
+   * Inserts node with the given priority. The node must not already be in
+   * the heap.
+   */
+  public void push(int node, int key) {
+    keys[node] = key;
+    heap[size] = node;
+    pos[node] = size;
+    siftUp(size++);
+  }
+
+  /**
+   * Lowers the priority of a node that is already in the heap. Keys that
+   * are not lower than the current one are ignored.
+   */
+  public void decreaseKey(int node, int key) {
+    if (key >= keys[node]) return;
+    keys[node] = key;
+    siftUp(pos[node]);
+  }
+
+  /**
+   * Inserts the node, or lowers its key if it is already present.
+   */
+  public void pushOrDecrease(int node, int key) {
+    if (contains(node)) decreaseKey(node, key);
+    else push(node, key);
+  }
+
+  /**
+   * Removes and returns the node with the lowest key
+   */
+  public int pop() {
+    int top = heap[0];
+    pos[top] = -1;
+    size--;
+    if (size > 0) {
+      int last = heap[size];
+      heap[0] = last;
+      pos[last] = 0;
+      siftDown(0);
+    }
+    return top;
+  }
+
+  /**
+   * Empties the heap in O(size), leaving it ready for reuse
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++)
+      pos[heap[i]] = -1;
+    size = 0;
+  }
+
+  private void siftUp(int i) {
+    int node = heap[i];
+    int key = keys[node];
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      int p = heap[parent];
+      if (keys[p] <= key) break;
+      heap[i] = p;
+      pos[p] = i;
+      i = parent;
+    }
+    heap[i] = node;
+    pos[node] = i;
+  }
+
+  private void siftDown(int i) {
+    int node = heap[i];
+    int key = keys[node];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && keys[heap[right]] < keys[heap[child]])
+        child = right;
+      int c = heap[child];
+      if (key <= keys[c]) break;
+      heap[i] = c;
+      pos[c] = i;
+      i = child;
+    }
+    heap[i] = node;
+    pos[node] = i;
+  }
+
+}
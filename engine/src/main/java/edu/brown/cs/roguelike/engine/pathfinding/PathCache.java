@@ -0,0 +1,263 @@
+package edu.brown.cs.roguelike.engine.pathfinding;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.brown.cs.roguelike.engine.entities.Entity;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Tile;
+
+/**
+ * One walker's last {@link GridAStar} path, kept so following it turn
+ * after turn does not search again every step.
+ *
+ * Each step is one of:
+ * <ul>
+ * <li>a hit: the walker is where the path says, and the rest of it is
+ * still open, so its next tile is used as is</li>
+ * <li>a repair: the goal moved a little, so the path is cut short or
+ * carried on from its end to the new goal, or a tile ahead got blocked,
+ * so the path is searched again only from the walker to just past it</li>
+ * <li>a miss: there was no path, the walker left it, or the goal has
+ * wandered more than the tolerance from where the path was planned to,
+ * so a whole new path is searched</li>
+ * </ul>
+ *
+ * Repaired paths can be a little longer than the shortest; the tolerance
+ * bounds by how much. The searches use the level's shared GridAStar, so
+ * like it a cache must only be used on one thread at a time.
+ *
+ * Tiles are indexed x*height + y, like {@link GridAStar}.
+ *
+ */
+public class PathCache {
+
+  /** How far, in steps, the goal may move before the path is planned again */
+  public static final int DEFAULT_TOLERANCE = 4;
+
+  private static final AtomicLong totalHits = new AtomicLong();
+  private static final AtomicLong totalMisses = new AtomicLong();
+  private static final AtomicLong totalRepairs = new AtomicLong();
+
+  private final int tolerance;
+
+  // The path, start first, and where on it the walker was last seen
+  private int[] path = new int[16];
+  private int length = 0;
+  private int at = 0;
+  // The level and goal the path was planned on
+  private Level level;
+  private int plannedTo = -1;
+
+  private int hits = 0;
+  private int misses = 0;
+  private int repairs = 0;
+
+  public PathCache() {
+    this(DEFAULT_TOLERANCE);
+  }
+
+  public PathCache(int tolerance) {
+    this.tolerance = tolerance;
+  }
+
+  public int getHits() { return hits; }
+  public int getMisses() { return misses; }
+  public int getRepairs() { return repairs; }
+
+  /** @return Hits of every cache since the counters were last reset */
+  public static long getTotalHits() { return totalHits.get(); }
+  /** @return Misses of every cache since the counters were last reset */
+  public static long getTotalMisses() { return totalMisses.get(); }
+  /** @return Repairs of every cache since the counters were last reset */
+  public static long getTotalRepairs() { return totalRepairs.get(); }
+
+  public static void resetTotals() {
+    totalHits.set(0);
+    totalMisses.set(0);
+    totalRepairs.set(0);
+  }
+
+  /**
+   * Forgets the path, so the next step searches a new one
+   */
+  public void clear() {
+    length = 0;
+    level = null;
+  }
+
+  /**
+   * Finds the first tile to step onto toward goal, reusing the path from
+   * the last call where it can.
+   *
+   * @return the next tile, or null if there is no path or start == goal
+   */
+  public Tile nextStep(Level level, Tile start, Tile goal) {
+    GridAStar grid = level.getGridAStar();
+    int s = grid.indexOf(start), g = grid.indexOf(goal);
+    if (s == g)
+      return null;
+
+    int pos = find(level, s);
+    if (pos < 0 || distance(grid, g, plannedTo) > tolerance)
+      return replan(level, grid, s, g);
+    at = pos;
+
+    boolean repaired = false;
+    if (path[length - 1] != g) {
+      if (!retarget(level, grid, g))
+        return replan(level, grid, s, g);
+      repaired = true;
+    }
+    int blocked = firstBlocked(level, grid);
+    if (blocked >= 0) {
+      if (!detour(level, grid, blocked))
+        return replan(level, grid, s, g);
+      repaired = true;
+    }
+
+    if (repaired) {
+      repairs++;
+      totalRepairs.incrementAndGet();
+    } else {
+      hits++;
+      totalHits.incrementAndGet();
+    }
+    return tileAt(level, grid, path[at + 1]);
+  }
+
+  /**
+   * @return Where s is on the path, looking only where the walker was
+   * last and one step on, or -1
+   */
+  private int find(Level level, int s) {
+    if (level != this.level || length == 0)
+      return -1;
+    if (path[at] == s)
+      return at;
+    if (at + 1 < length && path[at + 1] == s)
+      return at + 1;
+    return -1;
+  }
+
+  /**
+   * Makes the path end at g instead: cut short if g is already further
+   * along it, otherwise carried on from its end
+   *
+   * @return whether g could be reached
+   */
+  private boolean retarget(Level level, GridAStar grid, int g) {
+    for (int i = at + 1; i < length; i++) {
+      if (path[i] == g) {
+        length = i + 1;
+        return true;
+      }
+    }
+    int end = path[length - 1];
+    if (grid.search(level, end, g) < 0)
+      return false;
+    length--;
+    append(grid, end, g);
+    return true;
+  }
+
+  /**
+   * Routes around the blocked tile at blocked by searching from the walker
+   * to the first open tile past it, keeping the rest of the path
+   *
+   * @return whether a way around was found
+   */
+  private boolean detour(Level level, GridAStar grid, int blocked) {
+    int rejoin = blocked + 1;
+    while (rejoin < length && !level.getTileType(x(grid, path[rejoin]), y(grid, path[rejoin])).isPassable())
+      rejoin++;
+    if (rejoin >= length)
+      return false;
+    int from = path[at], to = path[rejoin];
+    if (grid.search(level, from, to) < 0)
+      return false;
+
+    int[] rest = Arrays.copyOfRange(path, rejoin + 1, length);
+    length = 0;
+    at = 0;
+    append(grid, from, to);
+    ensure(length + rest.length);
+    System.arraycopy(rest, 0, path, length, rest.length);
+    length += rest.length;
+    return true;
+  }
+
+  /**
+   * @return The first tile after the walker that can no longer be walked
+   * on, or that someone other than the main character stands on next to
+   * the walker, or -1
+   */
+  private int firstBlocked(Level level, GridAStar grid) {
+    for (int i = at + 1; i < length; i++) {
+      int x = x(grid, path[i]), y = y(grid, path[i]);
+      if (!level.getTileType(x, y).isPassable())
+        return i;
+      if (i == at + 1 && !isFree(level.getEntityAt(x, y)))
+        return i;
+    }
+    return -1;
+  }
+
+  private Tile replan(Level level, GridAStar grid, int s, int g) {
+    misses++;
+    totalMisses.incrementAndGet();
+    length = 0;
+    at = 0;
+    this.level = level;
+    this.plannedTo = g;
+    if (grid.search(level, s, g) < 0) {
+      this.level = null;
+      return null;
+    }
+    append(grid, s, g);
+    return tileAt(level, grid, path[1]);
+  }
+
+  /**
+   * Appends the path the last search found from from to to, both included
+   */
+  private void append(GridAStar grid, int from, int to) {
+    int n = 1;
+    for (int cur = to; cur != from; cur = grid.getParent(cur))
+      n++;
+    ensure(length + n);
+    int i = length + n - 1;
+    for (int cur = to; ; cur = grid.getParent(cur)) {
+      path[i--] = cur;
+      if (cur == from) break;
+    }
+    length += n;
+  }
+
+  private void ensure(int capacity) {
+    if (path.length < capacity)
+      path = Arrays.copyOf(path, Math.max(capacity, path.length * 2));
+  }
+
+  private static boolean isFree(Entity occupant) {
+    return occupant == null || occupant instanceof MainCharacter;
+  }
+
+  private static int distance(GridAStar grid, int a, int b) {
+    return Math.abs(x(grid, a) - x(grid, b)) + Math.abs(y(grid, a) - y(grid, b));
+  }
+
+  private static int x(GridAStar grid, int node) {
+    return node / grid.getHeight();
+  }
+
+  private static int y(GridAStar grid, int node) {
+    return node % grid.getHeight();
+  }
+
+  private static Tile tileAt(Level level, GridAStar grid, int node) {
+    return level.getTile(x(grid, node), y(grid, node));
+  }
+
+}
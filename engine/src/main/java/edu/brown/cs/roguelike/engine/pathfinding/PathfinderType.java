@@ -0,0 +1,18 @@
+package edu.brown.cs.roguelike.engine.pathfinding;
+
+/**
+ * The pathfinding engines monsters can use to chase the player
+ *
+ */
+public enum PathfinderType {
+	/** The object-graph {@link AStar} over {@link AStarNode}s */
+	NODE,
+	/** The index-based {@link GridAStar} */
+	GRID,
+	/** The level's shared {@link ChaseMap} toward the player */
+	CHASE_MAP,
+	/** The level's {@link HierarchicalPathfinder} over its rooms and hallways */
+	HIERARCHICAL,
+	/** {@link GridAStar} paths each monster keeps in a {@link PathCache} */
+	CACHED;
+}
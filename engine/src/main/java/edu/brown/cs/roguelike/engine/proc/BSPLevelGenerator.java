@@ -1,5 +1,8 @@
 package edu.brown.cs.roguelike.engine.proc;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import cs195n.Vec2i;
 import edu.brown.cs.roguelike.engine.config.ConfigurationException;
 import edu.brown.cs.roguelike.engine.level.Hallway;
@@ -7,6 +10,7 @@ import edu.brown.cs.roguelike.engine.level.Level;
 import edu.brown.cs.roguelike.engine.level.Room;
 import edu.brown.cs.roguelike.engine.level.Space;
 import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.level.TileStore;
 import edu.brown.cs.roguelike.engine.level.TileType;
 
 /**
@@ -17,7 +21,10 @@ import edu.brown.cs.roguelike.engine.level.TileType;
  *
  */
 public class BSPLevelGenerator implements LevelGenerator{
-	private final int depthMax = 3;
+	private int depthMax = 3;
+
+	// Sublevels smaller than this are built without forking
+	private static final int FORK_AREA = 64*64;
 
 
 	//-----------------------------------------------------------------------CONSTANTS-----------------------------------------------------------------------------------------------------------------
@@ -36,41 +43,102 @@ public class BSPLevelGenerator implements LevelGenerator{
 
 	private int splitTries = 7;
 
+	// After this many blocked hallways, the last one is dug anyway
+	private int hallwayTries = 100;
+
 
 	//---------------------------------------------------------------------END CONSTANTS------------------------------------------------------------------------------------------------------
 
 	Tile[][] tiles;
-	RandomGen rand;
 
 	private String configDir;
 
+	// Whether generated levels keep their tiles in a TileStore
+	private boolean compactTiles = false;
+
+	// Builds sublevels in parallel if set, see setParallelism
+	private ForkJoinPool pool = null;
+
 	public BSPLevelGenerator(String configDir) {
 		this.configDir = configDir;
 	}
 
+	/**
+	 * @param compactTiles If true, generated levels store their tiles in a
+	 * {@link TileStore} instead of keeping the Tile grid used to carve them
+	 */
+	public void setCompactTiles(boolean compactTiles) {
+		this.compactTiles = compactTiles;
+	}
+
+	/**
+	 * @param depth How many times the level is split in two at most, so
+	 * there are at most 2^depth rooms. Big levels need more.
+	 */
+	public void setSplitDepth(int depth) {
+		this.depthMax = depth;
+	}
+
+	/**
+	 * @param threads How many threads build a level. With more than one,
+	 * the two halves of a split are built at the same time, each in its
+	 * own part of the tile grid, and joined by hallways once both are
+	 * done. The level is the same as with one thread.
+	 */
+	public synchronized void setParallelism(int threads) {
+		if (pool != null)
+			pool.shutdown();
+		pool = threads > 1 ? new ForkJoinPool(threads) : null;
+	}
+
 	/**
 	 * Generates a full level whose size is levelSize
 	 * @throws ConfigurationException 
 	 */
 	public Level generateLevel(Vec2i levelSize, int depth) throws ConfigurationException {
-		rand = new RandomGen(System.nanoTime());
-		tiles = new Tile[levelSize.x][levelSize.y];
+		return generateLevel(levelSize, depth, RandomGen.randomSeed());
+	}
 
-		//Init with solid map
-		fillWithSolids(tiles);
+	/**
+	 * Generates a full level whose size is levelSize. The layout, monsters,
+	 * items and the level's own stream each come from a stream derived
+	 * from seed. Synchronized since generation works in instance fields,
+	 * so a {@link LevelPrefetcher} and the game can share one generator.
+	 * @throws ConfigurationException 
+	 */
+	public synchronized Level generateLevel(Vec2i levelSize, int depth, long seed) throws ConfigurationException {
+		RandomGen root = new RandomGen(seed);
+		tiles = new Tile[levelSize.x][levelSize.y];
 
 		SubLevel fullLevel = new SubLevel(new Vec2i(0,0), levelSize,0);
-		splitAndBuild(fullLevel);
+		if (pool == null) {
+			//Init with solid map
+			fillWithSolids(tiles);
+			splitAndBuild(fullLevel, root.derive("layout"));
+		}
+		else {
+			pool.invoke(new Fill(0, levelSize.x));
+			pool.invoke(new Build(fullLevel, root.derive("layout")));
+		}
 
-		Level level = new Level(tiles,fullLevel.rooms,fullLevel.hallways);
+		Level level;
+		if (compactTiles)
+			level = new Level(TileStore.fromTiles(tiles),fullLevel.rooms,fullLevel.hallways);
+		else
+			level = new Level(tiles,fullLevel.rooms,fullLevel.hallways);
+		tiles = null;
+		// Off the game's thread when prefetched
+		level.getSpaceIndex();
 
-		createStairs(level);
+		createStairs(level, root.derive("stairs"));
+		level.getHierarchicalPathfinder();
 
 		level.setDepth(depth); 
-		MonsterGenerator mg = new ProgressiveMonsterGenerator(configDir);
+		level.setRandom(root.derive("play"));
+		MonsterGenerator mg = new ProgressiveMonsterGenerator(configDir, root.derive("monsters"));
 		mg.populateLevel(level);
 
-		ItemGenerator ig = new ProgressiveItemGenerator(configDir); 
+		ItemGenerator ig = new ProgressiveItemGenerator(configDir, root.derive("items")); 
 		ig.populateLevel(level);
 
 		return level;
@@ -79,12 +147,12 @@ public class BSPLevelGenerator implements LevelGenerator{
 
 
 	/**Creates the up and down stairs**/
-	private void createStairs(Level level) {
+	private void createStairs(Level level, RandomGen rand) {
 
 		Room r = level.getRooms().get(rand.getRandom(level.getRooms().size()));
 		int mX = rand.getRandom(r.min.x, r.max.x);
 		int mY = rand.getRandom(r.min.y, r.max.y);
-		Tile t = level.getTiles()[mX][mY];	
+		Tile t = level.getTile(mX, mY);	
 		level.upStairs = t;
 		t.setType(TileType.UP_STAIRS);
 
@@ -103,7 +171,7 @@ public class BSPLevelGenerator implements LevelGenerator{
 
 		int x = rand.getRandom(r2.min.x, r2.max.x);
 		int y = rand.getRandom(r2.min.y, r2.max.y);
-		t2 = level.getTiles()[x][y];	
+		t2 = level.getTile(x, y);	
 
 		level.downStairs = t2;
 		t2.setType(TileType.DOWN_STAIRS);
@@ -115,9 +183,23 @@ public class BSPLevelGenerator implements LevelGenerator{
 	/**
 	 * Splits the sublevel recursively until it builds rooms, then connects the rooms together
 	 * In the end, curr is populated with the current hallways and rooms
+	 * 
+	 * Every sublevel rolls from its own stream, derived from its parent's,
+	 * so the result does not depend on the order sublevels are built in
 	 */
+	private void splitAndBuild(SubLevel curr, RandomGen rand) {
+		if(split(curr, rand)) {
+			splitAndBuild(curr.first, rand.derive(1));
+			splitAndBuild(curr.second, rand.derive(2));
+			connect(curr, rand);
+		}
+	}
 
-	private void splitAndBuild(SubLevel curr) {
+	/**
+	 * Either makes a room in curr and returns false, or decides how to
+	 * split it into curr.first and curr.second and returns true
+	 */
+	private boolean split(SubLevel curr, RandomGen rand) {
 		boolean makeRoom = false;
 		int splitAttempts = 0;
 
@@ -126,7 +208,8 @@ public class BSPLevelGenerator implements LevelGenerator{
 			makeRoom = true;
 		}
 		if(makeRoom) {
-			makeRoom(curr);
+			makeRoom(curr, rand);
+			return false;
 		}
 		else{ 
 
@@ -154,16 +237,16 @@ public class BSPLevelGenerator implements LevelGenerator{
 				float height = (curr.max.y-curr.min.y);
 
 				if(height < 4*minWallThickness + 2*minRoomDim) {
-					makeRoom(curr);
-					return;
+					makeRoom(curr, rand);
+					return false;
 				}
 
 				int splitVal = Math.round(curr.min.y + height*splitMin+ rand.getRandom(Math.round((height*(splitMax-splitMin)))));
 
 				while(splitVal - curr.min.y < 2*minWallThickness + minRoomDim || curr.max.y - splitVal -1 < 2*minWallThickness + minRoomDim ) {
 					if(splitAttempts >= splitTries) {
-						makeRoom(curr);
-						return;
+						makeRoom(curr, rand);
+						return false;
 					}
 					splitAttempts++;
 					splitVal = Math.round(curr.min.y + height*splitMin+ rand.getRandom(Math.round((height*(splitMax-splitMin)))));
@@ -177,8 +260,8 @@ public class BSPLevelGenerator implements LevelGenerator{
 				float width = (curr.max.x-curr.min.x);
 
 				if(width < 4*minWallThickness + 2*minRoomDim) {
-					makeRoom(curr);
-					return;
+					makeRoom(curr, rand);
+					return false;
 				}
 
 				int maxVal = Math.round((width*(splitMax-splitMin)));
@@ -186,8 +269,8 @@ public class BSPLevelGenerator implements LevelGenerator{
 
 				while(splitVal - curr.min.x < 2*minWallThickness + minRoomDim || curr.max.x - splitVal -1 < 2*minWallThickness + minRoomDim ) {
 					if(splitAttempts >= splitTries) {
-						makeRoom(curr);
-						return;
+						makeRoom(curr, rand);
+						return false;
 					}
 					splitAttempts++;
 					maxVal = Math.round((width*(splitMax-splitMin)));
@@ -199,139 +282,152 @@ public class BSPLevelGenerator implements LevelGenerator{
 				s2 = new SubLevel(new Vec2i(splitVal+1,curr.min.y), new Vec2i(curr.max.x,curr.max.y), curr.depth+1);
 			}
 
-			splitAndBuild(s1);
-			splitAndBuild(s2);
+			curr.split = s;
+			curr.first = s1;
+			curr.second = s2;
+			return true;
+		}
+	}
 
-			Range range = s1.overLap(s2, s);
-			if(range != null)
-			{
-				int hpt;
-				HallwayPoint hp1;
-				HallwayPoint hp2;
-				do{
-					hpt = rand.getRandom(range.min,range.max);
-					hp1 = s1.getHallwayPoint(s, true, hpt);
-					hp2 = s2.getHallwayPoint(s, false, hpt);
-				}
-				while (!testHallway(hp1.point,hp2.point));
+	/**
+	 * Joins the two built halves of curr with hallways, then merges them
+	 * into curr
+	 */
+	private void connect(SubLevel curr, RandomGen rand) {
+		Split s = curr.split;
+		SubLevel s1 = curr.first;
+		SubLevel s2 = curr.second;
+
+		int tries = 0;
+		Range range = s1.overLap(s2, s);
+		if(range != null)
+		{
+			int hpt;
+			HallwayPoint hp1;
+			HallwayPoint hp2;
+			do{
+				hpt = rand.getRandom(range.min,range.max);
+				hp1 = s1.getHallwayPoint(s, true, hpt);
+				hp2 = s2.getHallwayPoint(s, false, hpt);
+			}
+			while (!testHallway(hp1.point,hp2.point) && ++tries < hallwayTries);
 
-				Hallway new_hallway = new Hallway(hp1.point,hp2.point);
+			Hallway new_hallway = new Hallway(hp1.point,hp2.point);
 
-				paintHallway(hp1.point,hp2.point,true, new_hallway, TileType.FLOOR);
+			paintHallway(hp1.point,hp2.point,true, new_hallway, TileType.FLOOR);
 
-				hp1.space.connectToHallway(new_hallway);
-				hp2.space.connectToHallway(new_hallway);
+			hp1.space.connectToHallway(new_hallway);
+			hp2.space.connectToHallway(new_hallway);
 
-				if(hp1.space.needDoor())
-					makeDoor(hp1.point,s, new_hallway, true);
-				if(hp2.space.needDoor())
-					makeDoor(hp2.point,s, new_hallway, false);
+			if(hp1.space.needDoor())
+				makeDoor(hp1.point,s, new_hallway, true);
+			if(hp2.space.needDoor())
+				makeDoor(hp2.point,s, new_hallway, false);
 
-				curr.hallways.add(new_hallway);
-			}
-			else{
-				//Make L-Shaped corridor
-				if(s == Split.HOR) {
-
-					HallwayPoint hp1;
-					HallwayPoint hp2;
-					Vec2i corner;
-					do{
-						int cx = rand.getRandom(s1.intersectMin.x, s1.intersectMax.x);
-						int cy = rand.getRandom(s2.intersectMin.y, s2.intersectMax.y);
-						corner = new Vec2i(cx,cy);
-
-						hp1 = s1.getHallwayPoint(Split.HOR, true, cx);
-						hp2 = s2.getHallwayPoint(Split.VER, (s2.intersectMin.x < s1.intersectMax.x), cy);
-					}
-					while (!testHallway(hp1.point,corner) && !testHallway(hp2.point,corner));
+			curr.hallways.add(new_hallway);
+		}
+		else{
+			//Make L-Shaped corridor
+			if(s == Split.HOR) {
 
+				HallwayPoint hp1;
+				HallwayPoint hp2;
+				Vec2i corner;
+				do{
+					int cx = rand.getRandom(s1.intersectMin.x, s1.intersectMax.x);
+					int cy = rand.getRandom(s2.intersectMin.y, s2.intersectMax.y);
+					corner = new Vec2i(cx,cy);
 
+					hp1 = s1.getHallwayPoint(Split.HOR, true, cx);
+					hp2 = s2.getHallwayPoint(Split.VER, (s2.intersectMin.x < s1.intersectMax.x), cy);
+				}
+				while (!testHallway(hp1.point,corner) && !testHallway(hp2.point,corner) && ++tries < hallwayTries);
 
 
-					Hallway new_hallway1 = new Hallway(hp1.point,corner);
-					hp1.space.connectToHallway(new_hallway1);
 
-					Hallway new_hallway2;
 
-					if (s2.intersectMin.x > s1.intersectMax.x) 
-						new_hallway2 = new Hallway(hp2.point,corner);
-					else 
-						new_hallway2 = new Hallway(corner,hp2.point);
+				Hallway new_hallway1 = new Hallway(hp1.point,corner);
+				hp1.space.connectToHallway(new_hallway1);
 
+				Hallway new_hallway2;
 
-					hp2.space.connectToHallway(new_hallway2);
+				if (s2.intersectMin.x > s1.intersectMax.x) 
+					new_hallway2 = new Hallway(hp2.point,corner);
+				else 
+					new_hallway2 = new Hallway(corner,hp2.point);
 
-					new_hallway1.connectToHallway(new_hallway2);
 
-					//Paint in
-					paintHallway(hp1.point,corner,true,new_hallway1, TileType.FLOOR);
-					paintHallway(hp2.point,corner,true,new_hallway2, TileType.FLOOR);
+				hp2.space.connectToHallway(new_hallway2);
 
-					if(hp1.space.needDoor())
-						makeDoor(hp1.point,s, new_hallway1, true);
-					if(hp2.space.needDoor())
-						makeDoor(hp2.point,s, new_hallway2, false);
+				new_hallway1.connectToHallway(new_hallway2);
 
-					curr.hallways.add(new_hallway1);
-					curr.hallways.add(new_hallway2);
-				}
-				else{ //VER
+				//Paint in
+				paintHallway(hp1.point,corner,true,new_hallway1, TileType.FLOOR);
+				paintHallway(hp2.point,corner,true,new_hallway2, TileType.FLOOR);
 
-					HallwayPoint hp1;
-					HallwayPoint hp2;
-					Vec2i corner;
+				if(hp1.space.needDoor())
+					makeDoor(hp1.point,s, new_hallway1, true);
+				if(hp2.space.needDoor())
+					makeDoor(hp2.point,s, new_hallway2, false);
 
-					do{
-						int cx = s1.intersectMin.x + rand.getRandom(s1.intersectMax.x - s1.intersectMin.x);
-						int cy = s2.intersectMin.y + rand.getRandom(s2.intersectMax.y - s2.intersectMin.y);
-						corner = new Vec2i(cx,cy);
+				curr.hallways.add(new_hallway1);
+				curr.hallways.add(new_hallway2);
+			}
+			else{ //VER
 
-						hp1 = s1.getHallwayPoint(Split.HOR, (s1.intersectMin.y < s2.intersectMax.y), cx);
-						hp2 = s2.getHallwayPoint(Split.VER, false, cy);
-					}
-					while (!testHallway(hp1.point,corner) && !testHallway(hp2.point,corner));
+				HallwayPoint hp1;
+				HallwayPoint hp2;
+				Vec2i corner;
 
-					Hallway new_hallway1;
-					if (s1.intersectMin.y < s2.intersectMax.y)
-						new_hallway1 = new Hallway(hp1.point,corner);
-					else 
-						new_hallway1 = new Hallway(corner,hp1.point);
+				do{
+					int cx = s1.intersectMin.x + rand.getRandom(s1.intersectMax.x - s1.intersectMin.x);
+					int cy = s2.intersectMin.y + rand.getRandom(s2.intersectMax.y - s2.intersectMin.y);
+					corner = new Vec2i(cx,cy);
 
-					hp1.space.connectToHallway(new_hallway1);
+					hp1 = s1.getHallwayPoint(Split.HOR, (s1.intersectMin.y < s2.intersectMax.y), cx);
+					hp2 = s2.getHallwayPoint(Split.VER, false, cy);
+				}
+				while (!testHallway(hp1.point,corner) && !testHallway(hp2.point,corner) && ++tries < hallwayTries);
 
-					Hallway new_hallway2 = new Hallway(corner,hp2.point);
-					hp2.space.connectToHallway(new_hallway2);
+				Hallway new_hallway1;
+				if (s1.intersectMin.y < s2.intersectMax.y)
+					new_hallway1 = new Hallway(hp1.point,corner);
+				else 
+					new_hallway1 = new Hallway(corner,hp1.point);
 
-					new_hallway1.connectToHallway(new_hallway2);
+				hp1.space.connectToHallway(new_hallway1);
 
-					//Paint in
-					paintHallway(hp1.point,corner,true, new_hallway1, TileType.FLOOR);
-					paintHallway(hp2.point,corner,true, new_hallway2, TileType.FLOOR);
+				Hallway new_hallway2 = new Hallway(corner,hp2.point);
+				hp2.space.connectToHallway(new_hallway2);
 
-					if(hp1.space.needDoor())
-						makeDoor(hp1.point,s,new_hallway1, true);
-					if(hp2.space.needDoor())
-						makeDoor(hp2.point,s,new_hallway2, false);
+				new_hallway1.connectToHallway(new_hallway2);
 
-					curr.hallways.add(new_hallway1);
-					curr.hallways.add(new_hallway2);
-				}
+				//Paint in
+				paintHallway(hp1.point,corner,true, new_hallway1, TileType.FLOOR);
+				paintHallway(hp2.point,corner,true, new_hallway2, TileType.FLOOR);
+
+				if(hp1.space.needDoor())
+					makeDoor(hp1.point,s,new_hallway1, true);
+				if(hp2.space.needDoor())
+					makeDoor(hp2.point,s,new_hallway2, false);
+
+				curr.hallways.add(new_hallway1);
+				curr.hallways.add(new_hallway2);
 			}
-			//Combine into a single sublevel
-			curr.rooms.addAll(s1.rooms);
-			curr.rooms.addAll(s2.rooms);
-			curr.hallways.addAll(s1.hallways);
-			curr.hallways.addAll(s2.hallways);
-
-			int maxIX = Math.max(s1.intersectMax.x, s2.intersectMax.x);
-			int maxIY = Math.max(s1.intersectMax.y, s2.intersectMax.y);
-			int minIX = Math.min(s1.intersectMin.x, s2.intersectMin.x);
-			int minIY = Math.min(s1.intersectMin.y, s2.intersectMin.y);
-
-			curr.intersectMax = new Vec2i(maxIX,maxIY);
-			curr.intersectMin = new Vec2i(minIX,minIY);
 		}
+		//Combine into a single sublevel
+		curr.rooms.addAll(s1.rooms);
+		curr.rooms.addAll(s2.rooms);
+		curr.hallways.addAll(s1.hallways);
+		curr.hallways.addAll(s2.hallways);
+
+		int maxIX = Math.max(s1.intersectMax.x, s2.intersectMax.x);
+		int maxIY = Math.max(s1.intersectMax.y, s2.intersectMax.y);
+		int minIX = Math.min(s1.intersectMin.x, s2.intersectMin.x);
+		int minIY = Math.min(s1.intersectMin.y, s2.intersectMin.y);
+
+		curr.intersectMax = new Vec2i(maxIX,maxIY);
+		curr.intersectMin = new Vec2i(minIX,minIY);
 	}
 
 
@@ -360,7 +456,7 @@ public class BSPLevelGenerator implements LevelGenerator{
 	 * Makes a room inside the sublevel
 	 * @param curr - the area to make the room in
 	 */
-	private void makeRoom(SubLevel curr) {
+	private void makeRoom(SubLevel curr, RandomGen rand) {
 		int maxWidth = curr.max.x - curr.min.x- 1*minWallThickness - 1;
 		int maxHeight = curr.max.y - curr.min.y - 1*minWallThickness - 1;
 
@@ -461,13 +557,20 @@ public class BSPLevelGenerator implements LevelGenerator{
 			for(int j = a.y; j <= b.y; j++) {
 				Tile x = tiles[i][j];
 				x.setType(t);
+				// the ends may already be in a room
+				if (x.getSpace() == null)
+					x.setSpace(space);
 			}
 		}
 	}
 
 	/**Fills the tiles with all walls **/
 	private void fillWithSolids(Tile[][] tiles) {
-		for(int i = 0; i < tiles.length; i++) {
+		fillColumns(tiles, 0, tiles.length);
+	}
+
+	private static void fillColumns(Tile[][] tiles, int from, int to) {
+		for(int i = from; i < to; i++) {
 			for(int j = 0; j<tiles[0].length; j++) {
 				tiles[i][j] = new Tile(TileType.SOLID);
 				tiles[i][j].setLocation(new Vec2i(i,j));
@@ -475,6 +578,60 @@ public class BSPLevelGenerator implements LevelGenerator{
 		}
 	}
 
+	/**
+	 * splitAndBuild, forking the two halves of big sublevels. Halves never
+	 * share tiles, and a sublevel is only connected once both its halves
+	 * are built, so the tile grid needs no locking.
+	 */
+	private class Build extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final SubLevel curr;
+		private final RandomGen rand;
+
+		Build(SubLevel curr, RandomGen rand) {
+			this.curr = curr;
+			this.rand = rand;
+		}
+
+		@Override
+		protected void compute() {
+			if ((curr.max.x - curr.min.x) * (curr.max.y - curr.min.y) < FORK_AREA) {
+				splitAndBuild(curr, rand);
+				return;
+			}
+			if(split(curr, rand)) {
+				invokeAll(new Build(curr.first, rand.derive(1)),
+						new Build(curr.second, rand.derive(2)));
+				connect(curr, rand);
+			}
+		}
+	}
+
+	/**
+	 * fillWithSolids over a range of columns, in parallel
+	 */
+	private class Fill extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int from, to;
+
+		Fill(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if ((to - from) * tiles[0].length < FORK_AREA) {
+				fillColumns(tiles, from, to);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new Fill(from, mid), new Fill(mid, to));
+		}
+	}
+
 
 
 }
@@ -9,7 +9,7 @@ import edu.brown.cs.roguelike.engine.level.Tile;
 
 public class JewelGenerator implements ItemGenerator {
 
-	RandomGen rand = new RandomGen(System.nanoTime());
+	RandomGen rand = new RandomGen(RandomGen.randomSeed());
 	
 	@Override
 	public void populateLevel(Level level) throws ConfigurationException {
@@ -31,8 +31,8 @@ public class JewelGenerator implements ItemGenerator {
 	private void addItem(Level l, Room r, Stackable item) {
 			int mX = rand.getRandom(r.min.x, r.max.x);
 			int mY = rand.getRandom(r.min.y, r.max.y);
-			Tile t = l.getTiles()[mX][mY];
-			t.getStackables().add(item);
+			Tile t = l.getTile(mX, mY);
+			t.addStackable(item);
 	}
 	
 }
@@ -51,9 +51,9 @@ public class LevelGenTester extends Application {
 
 		if(!drawn)
 		{
-			for(int i = 0; i<level.tiles.length; i++) {
-				for(int j = 0; j<level.tiles[0].length; j++) {
-					Tile t = level.tiles[i][j];
+			for(int i = 0; i<level.getWidth(); i++) {
+				for(int j = 0; j<level.getHeight(); j++) {
+					Tile t = level.getTile(i, j);
 					Rectangle2D rect = new Rectangle2D.Float(i*scalex,j*scaley,(i+1)*scalex,(j+1)*scaley);
 					if(t.isPassable()) {
 						g.setColor(Color.gray);
@@ -15,4 +15,9 @@ public interface LevelGenerator {
 	 * @param depth 
 	 * @throws ConfigurationException **/
 	public Level generateLevel(Vec2i levelSize, int depth) throws ConfigurationException;
+	
+	/**Generates a level whose size is levelSize, making every random choice
+	 * from seed, so the same arguments always give the same level
+	 * @throws ConfigurationException **/
+	public Level generateLevel(Vec2i levelSize, int depth, long seed) throws ConfigurationException;
 }
@@ -0,0 +1,208 @@
+package edu.brown.cs.roguelike.engine.proc;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.Config;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.level.Level;
+
+/**
+ * A LevelGenerator that generates the levels below the player's on a
+ * worker thread ahead of time, so that taking the stairs down does not
+ * wait for generation.
+ *
+ * Levels are handed out by depth. One that is still being generated is
+ * waited for; one that was never prefetched, or whose inputs changed since
+ * (a different seed, level size or config files, or {@link #invalidate}
+ * was called), is generated on the spot. Since generation depends only on
+ * those inputs, either way the player gets the same level.
+ *
+ */
+public class LevelPrefetcher implements LevelGenerator {
+
+	/**
+	 * A level being generated, with what it was generated from
+	 */
+	private static class Entry {
+		final Vec2i size;
+		final long seed;
+		final long configStamp;
+		final Future<Level> level;
+
+		Entry(Vec2i size, long seed, long configStamp, Future<Level> level) {
+			this.size = size;
+			this.seed = seed;
+			this.configStamp = configStamp;
+			this.level = level;
+		}
+	}
+
+	private final LevelGenerator generator;
+	private final String configDir;
+	private final int lookahead;
+
+	private final ExecutorService executor;
+	private final Map<Integer,Entry> entries = new HashMap<Integer,Entry>();
+
+	/**
+	 * @param generator Does the actual generating; must be safe to call
+	 * from two threads, like {@link BSPLevelGenerator}
+	 * @param configDir The config the generator reads, or null
+	 * @param lookahead How many levels below the current one to keep ready
+	 */
+	public LevelPrefetcher(LevelGenerator generator, String configDir, int lookahead) {
+		this.generator = generator;
+		this.configDir = configDir;
+		this.lookahead = lookahead;
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "level-prefetch");
+				t.setDaemon(true);
+				t.setPriority(Thread.MIN_PRIORITY);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Starts generating the levels below g's current one that g does not
+	 * have yet, and forgets any others
+	 */
+	public synchronized void prefetch(Game g) {
+		Level current = g.getCurrentLevel();
+		if (current == null)
+			return;
+		int from = current.getDepth() + 1;
+		int to = current.getDepth() + lookahead;
+		long stamp = configStamp();
+
+		Iterator<Map.Entry<Integer,Entry>> it = entries.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Integer,Entry> e = it.next();
+			if (e.getKey() < from || e.getKey() > to
+					|| !matches(e.getValue(), g.getMapSize(), g.getLevelSeed(e.getKey()), stamp)) {
+				e.getValue().level.cancel(false);
+				it.remove();
+			}
+		}
+
+		for (int depth = from; depth <= to; depth++) {
+			if (g.getLevels().containsKey(depth) || entries.containsKey(depth))
+				continue;
+			long seed = g.getLevelSeed(depth);
+			entries.put(depth, new Entry(g.getMapSize(), seed, stamp,
+					executor.submit(new Generate(g.getMapSize(), depth, seed))));
+		}
+	}
+
+	/**
+	 * Forgets every prefetched level, e.g. because what the generator
+	 * produces has changed
+	 */
+	public synchronized void invalidate() {
+		for (Entry e : entries.values())
+			e.level.cancel(false);
+		entries.clear();
+	}
+
+	/**
+	 * @return Whether a level for depth is ready to be handed out without
+	 * waiting
+	 */
+	public synchronized boolean isReady(int depth) {
+		Entry e = entries.get(depth);
+		return e != null && e.level.isDone() && !e.level.isCancelled();
+	}
+
+	/**
+	 * Unseeded levels are never prefetched, so this always generates
+	 */
+	@Override
+	public Level generateLevel(Vec2i levelSize, int depth) throws ConfigurationException {
+		return generator.generateLevel(levelSize, depth);
+	}
+
+	@Override
+	public Level generateLevel(Vec2i levelSize, int depth, long seed) throws ConfigurationException {
+		Entry e;
+		synchronized (this) {
+			e = entries.remove(depth);
+		}
+		if (e == null || !matches(e, levelSize, seed, configStamp()))
+			return generator.generateLevel(levelSize, depth, seed);
+
+		try {
+			return e.level.get();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			return generator.generateLevel(levelSize, depth, seed);
+		} catch (ExecutionException ee) {
+			if (ee.getCause() instanceof ConfigurationException)
+				throw (ConfigurationException) ee.getCause();
+			throw new ConfigurationException(ee.getCause());
+		}
+	}
+
+	/**
+	 * Stops the worker thread
+	 */
+	public void shutdown() {
+		invalidate();
+		executor.shutdown();
+	}
+
+	private static boolean matches(Entry e, Vec2i size, long seed, long stamp) {
+		return e.size.equals(size) && e.seed == seed && e.configStamp == stamp;
+	}
+
+	/**
+	 * @return A value that changes whenever a config file does
+	 */
+	private long configStamp() {
+		if (configDir == null)
+			return 0;
+		File[] files = new File(configDir).listFiles(new FilenameFilter() {
+			public boolean accept(File dir, String name) {
+				return name.toLowerCase().endsWith(Config.CFG_EXT);
+			}
+		});
+		if (files == null)
+			return 0;
+		// order independent, listFiles promises no order
+		long stamp = files.length;
+		for (File f : files)
+			stamp += (f.getName().hashCode() * 31L + f.lastModified()) * 31 + f.length();
+		return stamp;
+	}
+
+	private class Generate implements Callable<Level> {
+		private final Vec2i size;
+		private final int depth;
+		private final long seed;
+
+		Generate(Vec2i size, int depth, long seed) {
+			this.size = size;
+			this.depth = depth;
+			this.seed = seed;
+		}
+
+		@Override
+		public Level call() throws ConfigurationException {
+			return generator.generateLevel(size, depth, seed);
+		}
+	}
+
+}
@@ -1,13 +1,12 @@
 package edu.brown.cs.roguelike.engine.proc;
 
-import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
 
 import com.googlecode.lanterna.terminal.Terminal.Color;
 
-import edu.brown.cs.roguelike.engine.config.Config;
 import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.config.TemplateRegistry;
 import edu.brown.cs.roguelike.engine.config.WeaponNameTemplate;
 import edu.brown.cs.roguelike.engine.config.WeaponTemplate;
 import edu.brown.cs.roguelike.engine.entities.Jewel;
@@ -34,44 +33,34 @@ public class ProgressiveItemGenerator implements ItemGenerator {
 	private static final int MAX_DAMAGE_TIER = 3;
 	
 	
-	RandomGen rand = new RandomGen(System.nanoTime());
-	ArrayList<WeaponNameTemplate> weaponNameTemplates;
-	ArrayList<WeaponTemplate> weaponTemplates;
-
-	Hashtable<Integer,WeaponNameTemplate> weaponNameTiers = new Hashtable<Integer,WeaponNameTemplate>();
-	Hashtable<Integer,List<WeaponTemplate>> weaponTiers = new Hashtable<Integer,List<WeaponTemplate>>();
+	RandomGen rand;
+	Map<Integer,List<WeaponNameTemplate>> weaponNameTiers;
+	Map<Integer,List<WeaponTemplate>> weaponTiers;
 
 	private String configDir;
 
 	public ProgressiveItemGenerator(String configDir) {
+		this(configDir, new RandomGen(RandomGen.randomSeed()));
+	}
+
+	/**
+	 * @param rand Every roll placing items comes from here, so the same
+	 * stream gives the same items
+	 */
+	public ProgressiveItemGenerator(String configDir, RandomGen rand) {
 		this.configDir = configDir;
+		this.rand = rand;
 	}
 
 	
 	@Override
 	public void populateLevel(Level level) throws ConfigurationException {
 
-		Config c = new Config(configDir);
-		weaponNameTemplates = c.loadWeaponNameTemplate();
-		weaponTemplates = c.loadWeaponTemplate();
+		//Already divided into tiers, and only parsed again if a file changed
+		TemplateRegistry registry = TemplateRegistry.forDir(configDir);
+		weaponNameTiers = registry.getWeaponNamesByTier();
+		weaponTiers = registry.getWeaponsByTier();
 
-
-		//Divide into tiers
-		for(WeaponNameTemplate t : weaponNameTemplates) {
-			weaponNameTiers.put(t.tier, t);
-		}
-		
-		for(WeaponTemplate t : weaponTemplates) {
-			List<WeaponTemplate> tierList = weaponTiers.get(t.tier);
-			if(tierList == null) {
-				tierList = new ArrayList<WeaponTemplate>();
-			}
-			tierList.add(t);
-			weaponTiers.put(t.tier, tierList);
-		}
-		
-		
-		
 		int roomNum;
 		for (int i = 0 ; i < getItemCount(); i++) {
 			roomNum = rand.getRandom(level.getRooms().size());
@@ -100,9 +89,9 @@ public class ProgressiveItemGenerator implements ItemGenerator {
 		int tierDiff = level.getTierDiff();
 
 		
-		if(Math.random() <= lowerChance/tierDiff)
+		if(rand.nextDouble() <= lowerChance/tierDiff)
 			tier -= 1;
-		else if(Math.random() <= higherChance*tierDiff)
+		else if(rand.nextDouble() <= higherChance*tierDiff)
 			tier += 1;
 		
 		if(tier == 0) {
@@ -111,19 +100,21 @@ public class ProgressiveItemGenerator implements ItemGenerator {
 		if(tier > Math.min(weaponNameTiers.size(),weaponTiers.size())) {
 			tier = weaponNameTiers.size();
 		}
-		WeaponNameTemplate adjs = weaponNameTiers.get(tier);
+		//The last adjective set listed for a tier is the one used
+		List<WeaponNameTemplate> tierAdjs = weaponNameTiers.get(tier);
+		WeaponNameTemplate adjs = tierAdjs.get(tierAdjs.size() - 1);
 		
 		String prefix = "";
 		String suffix = "";
 		String material = "";
 		
 		if(adjs.prefixes.length > 0) {
-			if(Math.random() < prefixChance) {
+			if(rand.nextDouble() < prefixChance) {
 				prefix = adjs.prefixes[rand.getRandom(0,adjs.prefixes.length-1)];
 			}
 		}
 		if(adjs.suffixes.length > 0) {
-			if(Math.random() < suffixChance) {
+			if(rand.nextDouble() < suffixChance) {
 				suffix = adjs.suffixes[rand.getRandom(0,adjs.suffixes.length-1)];
 			}
 		}
@@ -152,8 +143,8 @@ public class ProgressiveItemGenerator implements ItemGenerator {
 	private void addItem(Level l, Room r, Stackable item) {
 		int mX = rand.getRandom(r.min.x, r.max.x);
 		int mY = rand.getRandom(r.min.y, r.max.y);
-		Tile t = l.getTiles()[mX][mY];
-		t.getStackables().add(item);
+		Tile t = l.getTile(mX, mY);
+		t.addStackable(item);
 	}
 
 }
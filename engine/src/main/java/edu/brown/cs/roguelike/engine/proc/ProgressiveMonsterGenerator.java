@@ -1,13 +1,12 @@
 package edu.brown.cs.roguelike.engine.proc;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
 
-import edu.brown.cs.roguelike.engine.config.Config;
 import edu.brown.cs.roguelike.engine.config.ConfigurationException;
 import edu.brown.cs.roguelike.engine.config.MonsterTemplate;
+import edu.brown.cs.roguelike.engine.config.TemplateRegistry;
 import edu.brown.cs.roguelike.engine.entities.Combatable;
 import edu.brown.cs.roguelike.engine.entities.Monster;
 import edu.brown.cs.roguelike.engine.level.Level;
@@ -25,34 +24,32 @@ public class ProgressiveMonsterGenerator implements MonsterGenerator {
 	
 	//END CONSTANTS
 	
-	ArrayList<MonsterTemplate> templates;
-	Hashtable<Integer,List<MonsterTemplate>> tiers = new Hashtable<Integer,List<MonsterTemplate>>();
+	Map<Integer,List<MonsterTemplate>> tiers;
 	HashSet<Room> populatedRooms;
 	
-	RandomGen rand = new RandomGen(System.nanoTime());
+	RandomGen rand;
 
 	private String configDir;
 
 	public ProgressiveMonsterGenerator(String configDir) {
+		this(configDir, new RandomGen(RandomGen.randomSeed()));
+	}
+
+	/**
+	 * @param rand Every roll placing monsters comes from here, so the same
+	 * stream gives the same monsters
+	 */
+	public ProgressiveMonsterGenerator(String configDir, RandomGen rand) {
 		this.configDir = configDir;
+		this.rand = rand;
 	}
 
 	@Override
 	public void populateLevel(Level level) throws ConfigurationException {
 		int roomNum;
 
-		Config c = new Config(configDir);
-		templates = c.loadMonsterTemplate();
-		
-		//Divide into tiers
-		for(MonsterTemplate t : templates) {
-			List<MonsterTemplate> tierList = tiers.get(t.tier);
-			if(tierList == null) {
-				tierList = new ArrayList<MonsterTemplate>();
-			}
-			tierList.add(t);
-			tiers.put(t.tier, tierList);
-		}
+		//Already divided into tiers, and only parsed again if the file changed
+		tiers = TemplateRegistry.forDir(configDir).getMonstersByTier();
 		
 		populatedRooms = new HashSet<Room>();
 		int roomCounter = 0;
@@ -90,9 +87,9 @@ public class ProgressiveMonsterGenerator implements MonsterGenerator {
 		int tierDiff = level.getTierDiff();
 
 		
-		if(Math.random() <= lowerChance/tierDiff)
+		if(rand.nextDouble() <= lowerChance/tierDiff)
 			tier -= 1;
-		else if(Math.random() <= higherChance*tierDiff)
+		else if(rand.nextDouble() <= higherChance*tierDiff)
 			tier += 1;
 		
 		if(tier == 0) {
@@ -118,7 +115,7 @@ public class ProgressiveMonsterGenerator implements MonsterGenerator {
 		do {
 			int mX = rand.getRandom(r.min.x, r.max.x);
 			int mY = rand.getRandom(r.min.y, r.max.y);
-			Tile t = l.getTiles()[mX][mY];
+			Tile t = l.getTile(mX, mY);
 			if(t.getEntity() == null) {
 				t.setEntity(m);
 				l.getManager().register(m);
@@ -1,24 +1,114 @@
 package edu.brown.cs.roguelike.engine.proc;
 
-import java.util.Random;
+import java.io.Serializable;
 
-public class RandomGen {
-	private Random random;
+/**
+ * A seedable source of random numbers (SplitMix64). The same seed always
+ * gives the same sequence, and {@link #derive} gives independent streams
+ * for separate purposes, e.g. one per level, so they can be used on
+ * different threads and in any order without changing each other's
+ * results. Not thread-safe: give each thread its own stream.
+ */
+public class RandomGen implements Serializable {
 
-	public RandomGen(long nanoTime) {
-		random = new Random(System.nanoTime());
+	/**
+	 * Generated
+	 */
+	private static final long serialVersionUID = -2787212040618286998L;
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	// What derived streams are based on; never changes
+	private final long seed;
+	private long state;
+
+	public RandomGen(long seed) {
+		this.seed = seed;
+		this.state = seed;
+	}
+
+	/**
+	 * @return A seed that differs from run to run, for when nothing needs
+	 * to be reproduced
+	 */
+	public static long randomSeed() {
+		return mix(System.nanoTime() ^ (System.currentTimeMillis() * GOLDEN_GAMMA));
+	}
+
+	/**
+	 * @return The seed of the stream called key, derived from seed
+	 */
+	public static long derive(long seed, long key) {
+		return mix(seed + mix(key + GOLDEN_GAMMA));
+	}
+
+	public static long derive(long seed, String key) {
+		return derive(seed, hash(key));
+	}
+
+	/**
+	 * @return A new stream depending only on this one's seed and key, not
+	 * on how much of this one has been used
+	 */
+	public RandomGen derive(long key) {
+		return new RandomGen(derive(seed, key));
+	}
+
+	public RandomGen derive(String key) {
+		return new RandomGen(derive(seed, key));
+	}
+
+	public long getSeed() { return this.seed; }
+
+	/*
+	 * Position in the sequence, so a stream can be saved and picked up
+	 * where it left off
+	 */
+	public long getState() { return this.state; }
+	public void setState(long state) { this.state = state; }
+
+	public long nextLong() {
+		state += GOLDEN_GAMMA;
+		return mix(state);
+	}
+
+	//Returns a double in [0,1)
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
 	}
 
 	//Returns an int between [0,n)
 	public int getRandom(int n){
 		if(n == 0)
 			return 0;
-		else 
-			return random.nextInt(n);
+		if(n < 0)
+			throw new IllegalArgumentException("n must not be negative: " + n);
+		// bounded with rejection so every value is equally likely
+		long bound = n;
+		long bits, val;
+		do {
+			bits = nextLong() >>> 33;
+			val = bits % bound;
+		} while (bits - val + (bound - 1) >= (1L << 31));
+		return (int) val;
 	}
 
 	//Returns a number between min and max, inclusive
 	public int getRandom(int min, int max){
 		return min+getRandom(max-min+1);
 	}
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	private static long hash(String key) {
+		long h = 1125899906842597L;
+		for (int i = 0; i < key.length(); i++)
+			h = 31 * h + key.charAt(i);
+		return h;
+	}
+
 }
@@ -1,10 +1,10 @@
 package edu.brown.cs.roguelike.engine.proc;
 
-import java.util.ArrayList;
+import java.util.List;
 
-import edu.brown.cs.roguelike.engine.config.Config;
 import edu.brown.cs.roguelike.engine.config.ConfigurationException;
 import edu.brown.cs.roguelike.engine.config.MonsterTemplate;
+import edu.brown.cs.roguelike.engine.config.TemplateRegistry;
 import edu.brown.cs.roguelike.engine.entities.Monster;
 import edu.brown.cs.roguelike.engine.level.Level;
 import edu.brown.cs.roguelike.engine.level.Room;
@@ -13,15 +13,14 @@ import edu.brown.cs.roguelike.engine.level.Tile;
 public class RandomMonsterGenerator implements MonsterGenerator {
 
 
-	ArrayList<MonsterTemplate> templates;
-	RandomGen rand = new RandomGen(System.nanoTime());
+	List<MonsterTemplate> templates;
+	RandomGen rand = new RandomGen(RandomGen.randomSeed());
 	
 	@Override
 	public void populateLevel(Level level) throws ConfigurationException {
 		int roomNum;
 		
-		Config c = new Config("../config");
-		templates = c.loadMonsterTemplate();
+		templates = TemplateRegistry.forDir("../config").getMonsters();
 		
 		for (int i = 0 ; i < getMonsterCount(); i++) {
 			roomNum = rand.getRandom(level.getRooms().size());
@@ -48,7 +47,7 @@ public class RandomMonsterGenerator implements MonsterGenerator {
 		do {
 			int mX = rand.getRandom(r.min.x, r.max.x);
 			int mY = rand.getRandom(r.min.y, r.max.y);
-			Tile t = l.getTiles()[mX][mY];
+			Tile t = l.getTile(mX, mY);
 			if(t.getEntity() == null) {
 				t.setEntity(m);
 				m.setLocation(t);
@@ -15,6 +15,11 @@ public class SubLevel {
 	public Vec2i intersectMin;
 	public Vec2i intersectMax;
 
+	// How this sublevel was split, if it was
+	public Split split;
+	public SubLevel first;
+	public SubLevel second;
+
 	public SubLevel(Vec2i min, Vec2i max, int d) {
 		this.min = min;
 		this.max = max;
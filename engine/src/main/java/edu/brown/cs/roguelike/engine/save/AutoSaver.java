@@ -0,0 +1,198 @@
+package edu.brown.cs.roguelike.engine.save;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.level.Level;
+
+/**
+ * Saves a game in the background. At a turn boundary the game thread only
+ * takes a {@link SaveSnapshot} (for a SEGMENTED save that means encoding
+ * the levels that changed, without touching the disk); the snapshot is
+ * then written by a single background thread.
+ *
+ * At most one write is in flight. A save requested while one is running
+ * replaces any snapshot still waiting behind it, so a slow disk makes
+ * saves less frequent instead of piling them up, and the game thread never
+ * waits except in {@link #flush}.
+ *
+ */
+public class AutoSaver {
+
+	private final SaveManager manager;
+	private final int everyTurns;
+	private final boolean onLevelChange;
+
+	private final ExecutorService executor;
+
+	// Guarded by this
+	private SaveSnapshot pending = null;
+	private boolean writing = false;
+	private SaveLoadException lastError = null;
+
+	// Only used on the game thread
+	private int turns = 0;
+	private Level lastLevel = null;
+
+	/**
+	 * @param everyTurns Save after this many full turns, or never if 0
+	 * @param onLevelChange Whether to save when the player changes level
+	 */
+	public AutoSaver(SaveManager manager, int everyTurns, boolean onLevelChange) {
+		this.manager = manager;
+		this.everyTurns = everyTurns;
+		this.onLevelChange = onLevelChange;
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "autosave");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	public SaveManager getSaveManager() { return manager; }
+
+	/**
+	 * Called at the end of every full turn. Saves if the cadence is due or
+	 * the game moved to another level.
+	 */
+	public void turnEnded(Game g) {
+		turns++;
+		boolean changed = lastLevel != null && g.getCurrentLevel() != lastLevel;
+		lastLevel = g.getCurrentLevel();
+		if ((everyTurns > 0 && turns >= everyTurns) || (onLevelChange && changed))
+			saveQuietly(g);
+	}
+
+	/**
+	 * Called when the game moves to another level outside of a turn
+	 */
+	public void levelChanged(Game g) {
+		if (onLevelChange && g.getCurrentLevel() != lastLevel)
+			saveQuietly(g);
+		lastLevel = g.getCurrentLevel();
+	}
+
+	private void saveQuietly(Game g) {
+		try {
+			requestSave(g);
+		} catch (SaveLoadException e) {
+			setError(e);
+		}
+	}
+
+	/**
+	 * Snapshots g now and writes it in the background
+	 *
+	 * @throws SaveLoadException if the snapshot could not be taken, or if
+	 * an earlier background write failed
+	 */
+	public void requestSave(Game g) throws SaveLoadException {
+		turns = 0;
+		lastLevel = g.getCurrentLevel();
+		SaveSnapshot s = manager.snapshotGame(g);
+
+		SaveLoadException earlier;
+		synchronized (this) {
+			pending = s;
+			if (!writing) {
+				writing = true;
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						drain();
+					}
+				});
+			}
+			earlier = lastError;
+			lastError = null;
+		}
+		if (earlier != null)
+			throw earlier;
+	}
+
+	/**
+	 * Writes snapshots until none is waiting
+	 */
+	private void drain() {
+		while (true) {
+			SaveSnapshot s;
+			synchronized (this) {
+				s = pending;
+				pending = null;
+				if (s == null) {
+					writing = false;
+					notifyAll();
+					return;
+				}
+			}
+			try {
+				s.write();
+			} catch (SaveLoadException e) {
+				setError(e);
+			} catch (RuntimeException e) {
+				setError(new SaveLoadException(e));
+			}
+		}
+	}
+
+	private synchronized void setError(SaveLoadException e) {
+		lastError = e;
+	}
+
+	/**
+	 * @return Whether a save is being written or waiting to be
+	 */
+	public synchronized boolean isBusy() {
+		return writing;
+	}
+
+	/**
+	 * Waits until every requested save is on disk
+	 *
+	 * @throws SaveLoadException if a background write failed
+	 */
+	public void flush() throws SaveLoadException {
+		SaveLoadException e;
+		synchronized (this) {
+			boolean interrupted = false;
+			while (writing) {
+				try {
+					wait();
+				} catch (InterruptedException ie) {
+					interrupted = true;
+				}
+			}
+			if (interrupted)
+				Thread.currentThread().interrupt();
+			e = lastError;
+			lastError = null;
+		}
+		if (e != null)
+			throw e;
+	}
+
+	/**
+	 * Stops the background thread once the last requested save is written,
+	 * and waits for that
+	 */
+	public void shutdown() {
+		executor.shutdown();
+		boolean interrupted = false;
+		while (!executor.isTerminated()) {
+			try {
+				executor.awaitTermination(1, TimeUnit.SECONDS);
+			} catch (InterruptedException ie) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+}
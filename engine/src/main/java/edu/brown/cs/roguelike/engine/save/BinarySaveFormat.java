@@ -0,0 +1,600 @@
+package edu.brown.cs.roguelike.engine.save;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.googlecode.lanterna.terminal.Terminal.Color;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.MonsterTemplate;
+import edu.brown.cs.roguelike.engine.entities.Action;
+import edu.brown.cs.roguelike.engine.entities.Combatable;
+import edu.brown.cs.roguelike.engine.entities.DamageType;
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.EquipType;
+import edu.brown.cs.roguelike.engine.entities.Jewel;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.entities.Monster;
+import edu.brown.cs.roguelike.engine.entities.Potion;
+import edu.brown.cs.roguelike.engine.entities.Stackable;
+import edu.brown.cs.roguelike.engine.entities.Stats;
+import edu.brown.cs.roguelike.engine.entities.Weapon;
+import edu.brown.cs.roguelike.engine.entities.events.ChangeHP;
+import edu.brown.cs.roguelike.engine.entities.events.ChangeStats;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.game.GameState;
+import edu.brown.cs.roguelike.engine.level.Hallway;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Space;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.level.TileStore;
+import edu.brown.cs.roguelike.engine.level.TileType;
+import edu.brown.cs.roguelike.engine.proc.RandomGen;
+
+/**
+ * The binary save format. Instead of the whole object graph, a save holds
+ * only what is needed to rebuild it:
+ *
+ * <pre>
+ * header   magic "ROGB", version, kind (game or level)
+ * game     class name, id, state, seed, current depth, levels
+ * level    id, depth, size, random stream, rooms and hallways and how
+ *          they connect,
+ *          tile types, revealed flags and spaces as runs in tile index
+ *          order (x*height + y), stairs, item piles, entity records
+ * entity   kind, tile, name, HP and stats, action points, kind specific
+ *          fields, inventory and equipment item records
+ * </pre>
+ *
+ * Monster brains and entity action managers are rebuilt rather than saved.
+ * Files written by Java serialization start with 0xACED instead of the
+ * magic number, which is how {@link SaveManager} tells them apart.
+ *
+ * Version 2 added the game seed and each level's random stream. Version 1
+ * files still load: the game's seed is then derived from its id, and each
+ * level's stream from that seed.
+ *
+ */
+public final class BinarySaveFormat {
+
+	/** "ROGB" */
+	public static final int MAGIC = 0x524F4742;
+	public static final int VERSION = 2;
+
+	/** First two bytes of every Java serialization stream */
+	public static final int JAVA_STREAM_MAGIC = 0xACED;
+
+	private static final int KIND_GAME = 1;
+	private static final int KIND_LEVEL = 2;
+
+	private static final int ENTITY_MAIN = 1;
+	private static final int ENTITY_MONSTER = 2;
+
+	private static final int ITEM_WEAPON = 1;
+	private static final int ITEM_POTION = 2;
+	private static final int ITEM_JEWEL = 3;
+
+	private static final int ACTION_CHANGE_HP = 1;
+	private static final int ACTION_CHANGE_STATS = 2;
+
+	private static final TileType[] TILE_TYPES = TileType.values();
+
+	private BinarySaveFormat() {
+	}
+
+	/*** Games ***/
+
+	public static void writeGame(Game g, SaveOutput out) throws IOException, SaveLoadException {
+		writeHeader(out, KIND_GAME);
+		out.writeString(g.getClass().getName());
+		out.writeUUID(g.getId());
+		out.writeByte(g.getState().ordinal());
+		out.writeLong(g.getSeed());
+		Level current = g.getCurrentLevel();
+		out.writeSignedVarInt(current == null ? -1 : current.getDepth());
+
+		Collection<Level> levels = g.getLevels().values();
+		out.writeVarInt(levels.size());
+		for (Level l : levels)
+			writeLevelBody(l, out);
+	}
+
+	/**
+	 * Rebuilds a game. Its class needs a public no-argument constructor.
+	 */
+	public static Game readGame(SaveInput in) throws IOException, SaveLoadException {
+		int version = readHeader(in, KIND_GAME);
+		Game g = newGame(in.readString());
+		g.setId(in.readUUID());
+		g.setState(GameState.values()[in.readByte()]);
+		if (version >= 2)
+			g.setSeed(in.readLong());
+		else
+			g.setSeed(Game.seedFromId(g.getId()));
+		int currentDepth = in.readSignedVarInt();
+
+		int levels = in.readVarInt();
+		for (int i = 0; i < levels; i++)
+			g.putLevel(readLevelBody(in, version));
+		g.setCurrentLevel(g.getLevels().get(currentDepth));
+		return g;
+	}
+
+	/**
+	 * @return A new, empty game of the named class
+	 */
+	static Game newGame(String className) throws SaveLoadException {
+		try {
+			return (Game) Class.forName(className).newInstance();
+		} catch (Exception e) {
+			throw new SaveLoadException("Cannot create a " + className + ": " + e);
+		}
+	}
+
+	/*** Levels ***/
+
+	public static void writeLevel(Level l, SaveOutput out) throws IOException, SaveLoadException {
+		writeHeader(out, KIND_LEVEL);
+		writeLevelBody(l, out);
+	}
+
+	public static Level readLevel(SaveInput in) throws IOException, SaveLoadException {
+		int version = readHeader(in, KIND_LEVEL);
+		return readLevelBody(in, version);
+	}
+
+	private static void writeHeader(SaveOutput out, int kind) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.writeByte(kind);
+	}
+
+	/**
+	 * @return The version the rest of the save was written in
+	 */
+	private static int readHeader(SaveInput in, int kind) throws IOException, SaveLoadException {
+		if (in.readInt() != MAGIC)
+			throw new SaveLoadException("Not a binary save file");
+		int version = in.readShort();
+		if (version < 1 || version > VERSION)
+			throw new SaveLoadException("Unsupported save version " + version);
+		int found = in.readByte();
+		if (found != kind)
+			throw new SaveLoadException("Expected save of kind " + kind + ", found " + found);
+		return version;
+	}
+
+	private static void writeLevelBody(Level l, SaveOutput out) throws IOException, SaveLoadException {
+		int w = l.getWidth(), h = l.getHeight();
+		out.writeUUID(l.getId());
+		out.writeVarInt(l.getDepth());
+		out.writeBoolean(l.getStore() != null);
+		out.writeVarInt(w);
+		out.writeVarInt(h);
+		out.writeLong(l.getRandom().getSeed());
+		out.writeLong(l.getRandom().getState());
+
+		// Spaces are numbered rooms first, then hallways
+		List<Room> rooms = l.getRooms();
+		List<Hallway> hallways = l.getHallways();
+		Map<Space,Integer> spaceIds = new IdentityHashMap<Space,Integer>();
+		out.writeVarInt(rooms.size());
+		for (Room r : rooms) {
+			spaceIds.put(r, spaceIds.size());
+			writeVec(r.min, out);
+			writeVec(r.max, out);
+		}
+		out.writeVarInt(hallways.size());
+		for (Hallway hw : hallways) {
+			spaceIds.put(hw, spaceIds.size());
+			writeVec(hw.startTile, out);
+			writeVec(hw.endTile, out);
+		}
+		for (Room r : rooms)
+			writeRoomList(r.getConnectedRooms(), spaceIds, out);
+		for (Hallway hw : hallways)
+			writeRoomList(hw.getRooms(), spaceIds, out);
+		writeRoomList(l.revealedRooms, spaceIds, out);
+
+		// Tile types, then revealed flags, then spaces, each as runs
+		int run = 0;
+		int prev = -1;
+		for (int x = 0; x < w; x++) {
+			for (int y = 0; y < h; y++) {
+				int type = l.getTileType(x, y).ordinal();
+				if (type != prev && run > 0) {
+					out.writeByte(prev);
+					out.writeVarInt(run);
+					run = 0;
+				}
+				prev = type;
+				run++;
+			}
+		}
+		out.writeByte(prev);
+		out.writeVarInt(run);
+
+		boolean revealed = false;
+		run = 0;
+		for (int x = 0; x < w; x++) {
+			for (int y = 0; y < h; y++) {
+				if (l.getTile(x, y).getReveal() != revealed) {
+					out.writeVarInt(run);
+					revealed = !revealed;
+					run = 0;
+				}
+				run++;
+			}
+		}
+		out.writeVarInt(run);
+
+		run = 0;
+		prev = -1;
+		for (int x = 0; x < w; x++) {
+			for (int y = 0; y < h; y++) {
+				Space s = l.getTile(x, y).getSpace();
+				Integer id = s == null ? null : spaceIds.get(s);
+				int space = id == null ? 0 : id + 1;
+				if (space != prev && run > 0) {
+					out.writeVarInt(prev);
+					out.writeVarInt(run);
+					run = 0;
+				}
+				prev = space;
+				run++;
+			}
+		}
+		out.writeVarInt(prev);
+		out.writeVarInt(run);
+
+		writeTileRef(l.upStairs, h, out);
+		writeTileRef(l.downStairs, h, out);
+
+		// Item piles
+		List<Tile> piles = new ArrayList<Tile>();
+		for (int x = 0; x < w; x++)
+			for (int y = 0; y < h; y++)
+				if (l.getTile(x, y).hasStackables())
+					piles.add(l.getTile(x, y));
+		out.writeVarInt(piles.size());
+		for (Tile t : piles) {
+			writeTileRef(t, h, out);
+			writeItems(t.getStackables(), out);
+		}
+
+		// Entities, in turn order
+		List<EntityActionManager> managers = l.getManager().getEntity("main");
+		managers.addAll(l.getManager().getEntity("monster"));
+		out.writeVarInt(managers.size());
+		for (EntityActionManager m : managers)
+			writeEntity(m, h, out);
+	}
+
+	private static Level readLevelBody(SaveInput in, int version)
+			throws IOException, SaveLoadException {
+		UUID id = in.readUUID();
+		int depth = in.readVarInt();
+		boolean compact = in.readBoolean();
+		int w = in.readVarInt();
+		int h = in.readVarInt();
+		RandomGen random = null;
+		if (version >= 2) {
+			random = new RandomGen(in.readLong());
+			random.setState(in.readLong());
+		}
+
+		List<Space> spaces = new ArrayList<Space>();
+		List<Room> rooms = new ArrayList<Room>();
+		int count = in.readVarInt();
+		for (int i = 0; i < count; i++) {
+			Room r = new Room(readVec(in), readVec(in));
+			rooms.add(r);
+			spaces.add(r);
+		}
+		List<Hallway> hallways = new ArrayList<Hallway>();
+		count = in.readVarInt();
+		for (int i = 0; i < count; i++) {
+			Hallway hw = new Hallway(readVec(in), readVec(in));
+			hallways.add(hw);
+			spaces.add(hw);
+		}
+		for (Room r : rooms)
+			readRoomList(r.getConnectedRooms(), spaces, in);
+		for (Hallway hw : hallways)
+			readRoomList(hw.getRooms(), spaces, in);
+		List<Room> revealedRooms = new ArrayList<Room>();
+		readRoomList(revealedRooms, spaces, in);
+
+		TileStore store = null;
+		Tile[][] tiles = null;
+		if (compact) {
+			store = new TileStore(w, h, TileType.SOLID);
+		} else {
+			tiles = new Tile[w][h];
+		}
+
+		int total = w * h;
+		for (int i = 0; i < total; ) {
+			TileType type = TILE_TYPES[in.readByte()];
+			int end = i + in.readVarInt();
+			for (; i < end; i++) {
+				if (compact) {
+					store.setType(i, type);
+				} else {
+					Tile t = new Tile(type);
+					t.setLocation(new Vec2i(i / h, i % h));
+					tiles[i / h][i % h] = t;
+				}
+			}
+		}
+
+		boolean revealed = false;
+		for (int i = 0; i < total; revealed = !revealed) {
+			int end = i + in.readVarInt();
+			for (; i < end; i++) {
+				if (!revealed)
+					continue;
+				if (compact)
+					store.setRevealed(i, true);
+				else
+					tiles[i / h][i % h].setReveal(true);
+			}
+		}
+
+		for (int i = 0; i < total; ) {
+			int space = in.readVarInt();
+			int end = i + in.readVarInt();
+			Space s = space == 0 ? null : spaces.get(space - 1);
+			for (; i < end && s != null; i++) {
+				if (compact)
+					store.setSpace(i, s);
+				else
+					tiles[i / h][i % h].setSpace(s);
+			}
+			i = end;
+		}
+
+		Level l = compact ? new Level(store, rooms, hallways) : new Level(tiles, rooms, hallways);
+		if (random != null)
+			l.setRandom(random);
+		l.setId(id);
+		l.setDepth(depth);
+		l.revealedRooms.addAll(revealedRooms);
+		l.upStairs = readTileRef(l, in);
+		l.downStairs = readTileRef(l, in);
+
+		count = in.readVarInt();
+		for (int i = 0; i < count; i++) {
+			Tile t = readTileRef(l, in);
+			for (Stackable s : readItems(in))
+				t.addStackable(s);
+		}
+
+		count = in.readVarInt();
+		for (int i = 0; i < count; i++)
+			readEntity(l, in);
+
+		return l;
+	}
+
+	private static void writeVec(Vec2i v, SaveOutput out) throws IOException {
+		out.writeSignedVarInt(v.x);
+		out.writeSignedVarInt(v.y);
+	}
+
+	private static Vec2i readVec(SaveInput in) throws IOException {
+		int x = in.readSignedVarInt();
+		int y = in.readSignedVarInt();
+		return new Vec2i(x, y);
+	}
+
+	private static void writeRoomList(Collection<Room> list, Map<Space,Integer> ids,
+			SaveOutput out) throws IOException {
+		out.writeVarInt(list.size());
+		for (Room r : list)
+			out.writeVarInt(ids.get(r));
+	}
+
+	private static void readRoomList(Collection<Room> list, List<Space> spaces,
+			SaveInput in) throws IOException {
+		int n = in.readVarInt();
+		for (int i = 0; i < n; i++)
+			list.add((Room) spaces.get(in.readVarInt()));
+	}
+
+	/** Writes x*height + y, plus one so that null can be 0 */
+	private static void writeTileRef(Tile t, int height, SaveOutput out) throws IOException {
+		if (t == null)
+			out.writeVarInt(0);
+		else
+			out.writeVarInt(t.getLocation().x * height + t.getLocation().y + 1);
+	}
+
+	private static Tile readTileRef(Level l, SaveInput in) throws IOException {
+		int i = in.readVarInt() - 1;
+		if (i < 0)
+			return null;
+		return l.getTile(i / l.getHeight(), i % l.getHeight());
+	}
+
+	/*** Entities ***/
+
+	private static void writeEntity(EntityActionManager m, int height, SaveOutput out)
+			throws IOException, SaveLoadException {
+		Combatable c = m.getEntity();
+		if (c instanceof MainCharacter)
+			out.writeByte(ENTITY_MAIN);
+		else if (c instanceof Monster)
+			out.writeByte(ENTITY_MONSTER);
+		else
+			throw new SaveLoadException("Cannot save entity " + c.getClass().getName());
+
+		writeTileRef(c.getLocation(), height, out);
+		out.writeString(c.getName());
+		out.writeSignedVarInt(c.getHP());
+		out.writeSignedVarInt(c.getStartHP());
+		writeStats(c.getBaseStats(), out);
+		writeStats(c.getStats(), out);
+		out.writeSignedVarInt(m.getActionPoints());
+
+		if (c instanceof MainCharacter) {
+			MainCharacter mc = (MainCharacter) c;
+			out.writeVarInt(mc.getXP());
+			out.writeVarInt(mc.getNextLevelXP());
+			out.writeVarInt(mc.getPlayerLevel());
+		} else {
+			Monster mon = (Monster) c;
+			out.writeShort(mon.getCharacter());
+			out.writeByte(mon.getColor().ordinal());
+			out.writeVarInt(mon.tier);
+			out.writeVarInt(mon.getMoveCost());
+			out.writeBoolean(mon.isChasing());
+		}
+
+		writeItems(c.getInventory(), out);
+		out.writeVarInt(c.getEquipment().size());
+		for (Map.Entry<EquipType,Stackable> e : c.getEquipment().entrySet()) {
+			out.writeByte(e.getKey().ordinal());
+			writeItem(e.getValue(), out);
+		}
+	}
+
+	private static void readEntity(Level l, SaveInput in) throws IOException, SaveLoadException {
+		int kind = in.readByte();
+		Tile t = readTileRef(l, in);
+		String name = in.readString();
+		int hp = in.readSignedVarInt();
+		int startHp = in.readSignedVarInt();
+		Stats base = readStats(in);
+		Stats stats = readStats(in);
+		int actionPoints = in.readSignedVarInt();
+
+		Combatable c;
+		if (kind == ENTITY_MAIN) {
+			MainCharacter mc = new MainCharacter(name);
+			mc.restoreProgress(in.readVarInt(), in.readVarInt(), in.readVarInt());
+			c = mc;
+		} else if (kind == ENTITY_MONSTER) {
+			char ch = (char) in.readShort();
+			Color color = Color.values()[in.readByte()];
+			int tier = in.readVarInt();
+			int moveCost = in.readVarInt();
+			Monster mon = new Monster(new MonsterTemplate(name, ch, color.name(),
+					startHp, base.getAttack(), base.getDefense(), tier, moveCost), l);
+			if (in.readBoolean())
+				mon.startChasing();
+			c = mon;
+		} else {
+			throw new SaveLoadException("Unknown entity kind " + kind);
+		}
+		c.restore(hp, startHp, base, stats);
+
+		c.getInventory().addAll(readItems(in));
+		int equipped = in.readVarInt();
+		for (int i = 0; i < equipped; i++) {
+			EquipType slot = EquipType.values()[in.readByte()];
+			c.getEquipment().put(slot, readItem(in));
+		}
+
+		if (t != null)
+			t.setEntity(c);
+		l.getManager().register(c).addActionPoints(actionPoints);
+	}
+
+	private static void writeStats(Stats s, SaveOutput out) throws IOException {
+		out.writeSignedVarInt(s.getAttack());
+		out.writeSignedVarInt(s.getDefense());
+	}
+
+	private static Stats readStats(SaveInput in) throws IOException {
+		int attack = in.readSignedVarInt();
+		int defense = in.readSignedVarInt();
+		return new Stats(attack, defense);
+	}
+
+	/*** Items ***/
+
+	private static void writeItems(Collection<Stackable> items, SaveOutput out)
+			throws IOException, SaveLoadException {
+		out.writeVarInt(items.size());
+		for (Stackable s : items)
+			writeItem(s, out);
+	}
+
+	private static List<Stackable> readItems(SaveInput in) throws IOException, SaveLoadException {
+		int n = in.readVarInt();
+		List<Stackable> items = new ArrayList<Stackable>(n);
+		for (int i = 0; i < n; i++)
+			items.add(readItem(in));
+		return items;
+	}
+
+	private static void writeItem(Stackable s, SaveOutput out) throws IOException, SaveLoadException {
+		if (s instanceof Weapon) {
+			Weapon w = (Weapon) s;
+			out.writeByte(ITEM_WEAPON);
+			out.writeString(w.getDescription());
+			writeStats(w.getStats(), out);
+			out.writeByte(w.getDamageType().ordinal());
+		} else if (s instanceof Potion) {
+			Potion p = (Potion) s;
+			out.writeByte(ITEM_POTION);
+			out.writeByte(p.getColor().ordinal());
+			writeAction(p.getQuaffAction(), out);
+		} else if (s instanceof Jewel) {
+			out.writeByte(ITEM_JEWEL);
+		} else {
+			throw new SaveLoadException("Cannot save item " + s.getClass().getName());
+		}
+	}
+
+	private static Stackable readItem(SaveInput in) throws IOException, SaveLoadException {
+		int kind = in.readByte();
+		switch (kind) {
+		case ITEM_WEAPON: {
+			String description = in.readString();
+			Stats stats = readStats(in);
+			return new Weapon(stats, description, DamageType.values()[in.readByte()]);
+		}
+		case ITEM_POTION: {
+			Color color = Color.values()[in.readByte()];
+			return new Potion(color, readAction(in));
+		}
+		case ITEM_JEWEL:
+			return new Jewel();
+		default:
+			throw new SaveLoadException("Unknown item kind " + kind);
+		}
+	}
+
+	private static void writeAction(Action a, SaveOutput out) throws IOException, SaveLoadException {
+		if (a instanceof ChangeHP) {
+			out.writeByte(ACTION_CHANGE_HP);
+			out.writeSignedVarInt(((ChangeHP) a).getDelta());
+		} else if (a instanceof ChangeStats) {
+			out.writeByte(ACTION_CHANGE_STATS);
+			writeStats(((ChangeStats) a).getDelta(), out);
+		} else {
+			throw new SaveLoadException("Cannot save action " + a.getClass().getName());
+		}
+	}
+
+	private static Action readAction(SaveInput in) throws IOException, SaveLoadException {
+		int kind = in.readByte();
+		switch (kind) {
+		case ACTION_CHANGE_HP:
+			return new ChangeHP(in.readSignedVarInt());
+		case ACTION_CHANGE_STATS:
+			return new ChangeStats(readStats(in));
+		default:
+			throw new SaveLoadException("Unknown action kind " + kind);
+		}
+	}
+
+}
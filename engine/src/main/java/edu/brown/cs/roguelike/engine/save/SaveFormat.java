@@ -0,0 +1,22 @@
+package edu.brown.cs.roguelike.engine.save;
+
+/**
+ * The formats {@link SaveManager} can write. What was written is told
+ * apart on disk, so loading does not depend on the format a SaveManager
+ * is set to: loadGame reads all three, a directory as SEGMENTED, a file
+ * as BINARY or JAVA by its first bytes. loadLevel reads BINARY and JAVA,
+ * the only formats a level on its own is written in.
+ *
+ */
+public enum SaveFormat {
+	/** Java serialization of the whole object graph, the original format */
+	JAVA,
+	/** The compact {@link BinarySaveFormat} */
+	BINARY,
+	/**
+	 * A directory of per-level binary segments, see {@link SegmentedSave}.
+	 * Only changed levels are rewritten. Levels on their own are saved as
+	 * BINARY.
+	 */
+	SEGMENTED;
+}
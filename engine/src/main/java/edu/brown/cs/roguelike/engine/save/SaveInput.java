@@ -0,0 +1,107 @@
+package edu.brown.cs.roguelike.engine.save;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.UUID;
+
+/**
+ * Buffered reader for what a {@link SaveOutput} wrote, on top of any
+ * {@link ReadableByteChannel}.
+ *
+ */
+public class SaveInput {
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer;
+
+	public SaveInput(ReadableByteChannel channel) {
+		this(channel, 1 << 16);
+	}
+
+	public SaveInput(ReadableByteChannel channel, int bufferSize) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(bufferSize);
+		this.buffer.limit(0);
+	}
+
+	/**
+	 * Makes sure at least n bytes are buffered
+	 */
+	private void ensure(int n) throws IOException {
+		if (buffer.remaining() >= n)
+			return;
+		buffer.compact();
+		while (buffer.position() < n) {
+			if (channel.read(buffer) < 0) {
+				buffer.flip();
+				throw new EOFException("Save file ended early");
+			}
+		}
+		buffer.flip();
+	}
+
+	public int readByte() throws IOException {
+		ensure(1);
+		return buffer.get();
+	}
+
+	public boolean readBoolean() throws IOException {
+		return readByte() != 0;
+	}
+
+	public short readShort() throws IOException {
+		ensure(2);
+		return buffer.getShort();
+	}
+
+	public int readInt() throws IOException {
+		ensure(4);
+		return buffer.getInt();
+	}
+
+	public long readLong() throws IOException {
+		ensure(8);
+		return buffer.getLong();
+	}
+
+	public int readVarInt() throws IOException {
+		int v = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = readByte();
+			v |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return v;
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	public int readSignedVarInt() throws IOException {
+		int v = readVarInt();
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	public String readString() throws IOException {
+		byte[] bytes = new byte[readVarInt()];
+		readBytes(bytes);
+		return new String(bytes, SaveOutput.UTF8);
+	}
+
+	public void readBytes(byte[] bytes) throws IOException {
+		int off = 0;
+		while (off < bytes.length) {
+			ensure(1);
+			int n = Math.min(buffer.remaining(), bytes.length - off);
+			buffer.get(bytes, off, n);
+			off += n;
+		}
+	}
+
+	public UUID readUUID() throws IOException {
+		long msb = readLong();
+		long lsb = readLong();
+		return new UUID(msb, lsb);
+	}
+
+}
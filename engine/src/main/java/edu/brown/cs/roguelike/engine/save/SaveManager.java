@@ -1,10 +1,16 @@
 package edu.brown.cs.roguelike.engine.save;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 
 import edu.brown.cs.roguelike.engine.game.Game;
 import edu.brown.cs.roguelike.engine.level.Level;
@@ -20,12 +26,29 @@ public class SaveManager {
 	private static final String fileExtension = ".rog";
 	
 	private String saveFile;
+	
+	private SaveFormat format;
+	
+	// Remembers which levels are already on disk between saves
+	private SegmentedSave segmented;
 
 	public SaveManager(String saveFile) {
+		this(saveFile, SaveFormat.JAVA);
+	}
+
+	/**
+	 * @param format The format saves are written in. Loading accepts
+	 * whichever format is on disk, see {@link SaveFormat}.
+	 */
+	public SaveManager(String saveFile, SaveFormat format) {
 		if (saveFile.endsWith(fileExtension))
 			this.saveFile = saveFile;
 		else this.saveFile = saveFile + fileExtension;
+		this.format = format;
 	}
+	
+	public SaveFormat getFormat() { return format; }
+	public void setFormat(SaveFormat format) { this.format = format; }
 
 	/**
 	 * Saves the current level, obliterating anything that
@@ -34,6 +57,11 @@ public class SaveManager {
 	 * @throws SaveLoadException
 	 */
 	public void saveLevel(Level l) throws SaveLoadException {
+		if (format != SaveFormat.JAVA) {
+			saveBinary(null, l);
+			return;
+		}
+		removeSegmented();
 		try {
 			FileOutputStream fos = new FileOutputStream(this.saveFile);
 			ObjectOutputStream oos = new ObjectOutputStream(fos);
@@ -48,10 +76,34 @@ public class SaveManager {
 	
 	public void deleteSave() {
 		File f = new File(saveFile);
-		if(f.exists()) 
+		if (f.isDirectory())
+			segmented().delete();
+		else if(f.exists()) 
 			f.delete();
 		
 	}
+	
+	/**
+	 * @return How many levels the last SEGMENTED save had to write
+	 */
+	public int getLevelsLastWritten() {
+		return segmented == null ? 0 : segmented.getLastWritten();
+	}
+	
+	private synchronized SegmentedSave segmented() {
+		if (segmented == null)
+			segmented = new SegmentedSave(new File(saveFile));
+		return segmented;
+	}
+	
+	/**
+	 * Gets rid of a SEGMENTED save before a single file is written in its
+	 * place
+	 */
+	private void removeSegmented() {
+		if (new File(saveFile).isDirectory())
+			segmented().delete();
+	}
 
 	/**
 	 * 
@@ -61,6 +113,9 @@ public class SaveManager {
 	 */
 	public Level loadLevel() throws SaveLoadException {
 		
+		if (isBinary())
+			return (Level) loadBinary(false);
+		
 		Level l = null;
 
 		try {
@@ -93,6 +148,15 @@ public class SaveManager {
 	 * @throws SaveLoadException
 	 */
 	public void saveGame(Game g) throws SaveLoadException {
+		if (format == SaveFormat.SEGMENTED) {
+			segmented().save(g);
+			return;
+		}
+		if (format == SaveFormat.BINARY) {
+			saveBinary(g, null);
+			return;
+		}
+		removeSegmented();
 		try {
 			FileOutputStream fos = new FileOutputStream(this.saveFile);
 			ObjectOutputStream oos = new ObjectOutputStream(fos);
@@ -105,6 +169,74 @@ public class SaveManager {
 		}
 	}
 
+	/**
+	 * Takes a copy of everything {@link #saveGame} would write, so that it
+	 * can be written later, on any thread, while g keeps changing. Call it
+	 * between turns, on the thread that runs the game.
+	 * 
+	 * @throws SaveLoadException
+	 */
+	public SaveSnapshot snapshotGame(Game g) throws SaveLoadException {
+		if (format == SaveFormat.SEGMENTED)
+			return segmented().snapshot(g);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			if (format == SaveFormat.BINARY) {
+				SaveOutput out = new SaveOutput(Channels.newChannel(bytes));
+				BinarySaveFormat.writeGame(g, out);
+				out.flush();
+			} else {
+				ObjectOutputStream oos = new ObjectOutputStream(bytes);
+				oos.writeObject(g);
+				oos.close();
+			}
+		} catch (IOException e) {
+			throw new SaveLoadException(e);
+		}
+		return new FileSnapshot(bytes.toByteArray());
+	}
+
+	/**
+	 * A whole single-file save, already encoded
+	 */
+	private class FileSnapshot extends SaveSnapshot {
+		private final byte[] bytes;
+
+		FileSnapshot(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public void write() throws SaveLoadException {
+			synchronized (SaveManager.this) {
+				removeSegmented();
+				// Written beside the save and renamed over it, so a crash
+				// mid-write keeps the previous save
+				File target = new File(saveFile);
+				File tmp = new File(saveFile + ".tmp");
+				FileOutputStream fos = null;
+				try {
+					fos = new FileOutputStream(tmp);
+					FileChannel ch = fos.getChannel();
+					ByteBuffer buf = ByteBuffer.wrap(bytes);
+					while (buf.hasRemaining())
+						ch.write(buf);
+					ch.force(true);
+				} catch (IOException e) {
+					throw new SaveLoadException(e);
+				} finally {
+					close(fos);
+				}
+				if (!tmp.renameTo(target)) {
+					target.delete();
+					if (!tmp.renameTo(target))
+						throw new SaveLoadException("Cannot replace " + target);
+				}
+			}
+		}
+	}
+
 	/**
 	 * 
 	 * Attempts to load a savegame from saveFile
@@ -113,6 +245,11 @@ public class SaveManager {
 	 */
 	public Game loadGame() throws SaveLoadException {
 		
+		if (new File(saveFile).isDirectory())
+			return segmented().load();
+		if (isBinary())
+			return (Game) loadBinary(true);
+		
 		Game g = null;
 
 		try {
@@ -137,4 +274,71 @@ public class SaveManager {
 		return g;
 	}
 
+	/**
+	 * @return Whether saveFile starts with the {@link BinarySaveFormat}
+	 * magic number rather than being a serialized object
+	 */
+	private boolean isBinary() throws SaveLoadException {
+		FileInputStream fis = null;
+		try {
+			fis = new FileInputStream(this.saveFile);
+			ByteBuffer magic = ByteBuffer.allocate(4);
+			FileChannel ch = fis.getChannel();
+			while (magic.hasRemaining() && ch.read(magic) >= 0);
+			magic.flip();
+			return magic.remaining() == 4 && magic.getInt() == BinarySaveFormat.MAGIC;
+		} catch (IOException e) {
+			throw new SaveLoadException(e);
+		} finally {
+			close(fis);
+		}
+	}
+
+	/**
+	 * Writes g, or l if g is null, in the binary format
+	 */
+	private void saveBinary(Game g, Level l) throws SaveLoadException {
+		removeSegmented();
+		FileOutputStream fos = null;
+		try {
+			fos = new FileOutputStream(this.saveFile);
+			SaveOutput out = new SaveOutput(fos.getChannel());
+			if (g != null)
+				BinarySaveFormat.writeGame(g, out);
+			else
+				BinarySaveFormat.writeLevel(l, out);
+			out.flush();
+		} catch (IOException e) {
+			throw new SaveLoadException(e);
+		} finally {
+			close(fos);
+		}
+	}
+
+	private Object loadBinary(boolean game) throws SaveLoadException {
+		FileInputStream fis = null;
+		try {
+			fis = new FileInputStream(this.saveFile);
+			SaveInput in = new SaveInput(fis.getChannel());
+			if (game)
+				return BinarySaveFormat.readGame(in);
+			else
+				return BinarySaveFormat.readLevel(in);
+		} catch (IOException e) {
+			throw new SaveLoadException(e);
+		} finally {
+			close(fis);
+		}
+	}
+
+	static void close(Closeable c) {
+		if (c == null)
+			return;
+		try {
+			c.close();
+		} catch (IOException e) {
+			// nothing left to do with it
+		}
+	}
+
 }
@@ -0,0 +1,128 @@
+package edu.brown.cs.roguelike.engine.save;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.UUID;
+
+/**
+ * Buffered writer of the primitives that make up a binary save, on top of
+ * any {@link WritableByteChannel}. Values are written big-endian; counts and
+ * run lengths use a variable-length encoding so small numbers take a byte.
+ *
+ * @see SaveInput
+ *
+ */
+public class SaveOutput {
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer;
+
+	private long written = 0;
+
+	public SaveOutput(WritableByteChannel channel) {
+		this(channel, 1 << 16);
+	}
+
+	public SaveOutput(WritableByteChannel channel, int bufferSize) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(bufferSize);
+	}
+
+	/**
+	 * @return How many bytes have been written, including buffered ones
+	 */
+	public long getBytesWritten() {
+		return written + buffer.position();
+	}
+
+	private void ensure(int n) throws IOException {
+		if (buffer.remaining() < n)
+			drain();
+	}
+
+	private void drain() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			written += channel.write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Writes out everything that is buffered. Does not close the channel.
+	 */
+	public void flush() throws IOException {
+		drain();
+	}
+
+	public void writeByte(int b) throws IOException {
+		ensure(1);
+		buffer.put((byte) b);
+	}
+
+	public void writeBoolean(boolean b) throws IOException {
+		writeByte(b ? 1 : 0);
+	}
+
+	public void writeShort(int s) throws IOException {
+		ensure(2);
+		buffer.putShort((short) s);
+	}
+
+	public void writeInt(int i) throws IOException {
+		ensure(4);
+		buffer.putInt(i);
+	}
+
+	public void writeLong(long l) throws IOException {
+		ensure(8);
+		buffer.putLong(l);
+	}
+
+	/**
+	 * Writes a non-negative int in 7-bit groups, low bits first
+	 */
+	public void writeVarInt(int v) throws IOException {
+		if (v < 0)
+			throw new IllegalArgumentException("Negative varint: " + v);
+		ensure(5);
+		while ((v & ~0x7F) != 0) {
+			buffer.put((byte) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		buffer.put((byte) v);
+	}
+
+	/**
+	 * Writes any int, small magnitudes in few bytes
+	 */
+	public void writeSignedVarInt(int v) throws IOException {
+		writeVarInt((v << 1) ^ (v >> 31));
+	}
+
+	public void writeString(String s) throws IOException {
+		byte[] bytes = s.getBytes(UTF8);
+		writeVarInt(bytes.length);
+		writeBytes(bytes);
+	}
+
+	public void writeBytes(byte[] bytes) throws IOException {
+		int off = 0;
+		while (off < bytes.length) {
+			if (!buffer.hasRemaining())
+				drain();
+			int n = Math.min(buffer.remaining(), bytes.length - off);
+			buffer.put(bytes, off, n);
+			off += n;
+		}
+	}
+
+	public void writeUUID(UUID id) throws IOException {
+		writeLong(id.getMostSignificantBits());
+		writeLong(id.getLeastSignificantBits());
+	}
+
+}
@@ -0,0 +1,17 @@
+package edu.brown.cs.roguelike.engine.save;
+
+/**
+ * A copy of a game's saved state, taken by {@link SaveManager#snapshotGame}.
+ * It shares nothing the game goes on to change, so it can be written out on
+ * another thread while play continues.
+ *
+ */
+public abstract class SaveSnapshot {
+
+	/**
+	 * Writes the snapshot to its save. Snapshots of the same save may be
+	 * written from any thread, but not concurrently.
+	 */
+	public abstract void write() throws SaveLoadException;
+
+}
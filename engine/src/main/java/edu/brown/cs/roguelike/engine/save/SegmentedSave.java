@@ -0,0 +1,419 @@
+package edu.brown.cs.roguelike.engine.save;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.game.GameState;
+import edu.brown.cs.roguelike.engine.level.Level;
+
+/**
+ * A save kept as a directory: one {@link BinarySaveFormat} segment file per
+ * level, plus a manifest naming the segment that holds each level.
+ *
+ * A save only writes segments for levels that are new or changed since the
+ * last save (the current level always counts as changed, since entities
+ * act there), so its cost does not grow with the number of levels visited.
+ * Segments are never overwritten: each save writes new ones, named after a
+ * generation past any already on disk, then swaps in a new manifest by
+ * renaming it over the old one, and only then removes segments nothing
+ * refers to. A save interrupted at any point leaves the previous manifest
+ * and everything it names intact.
+ *
+ * Saving is split in two so the disk work can happen on another thread:
+ * {@link #snapshot} runs on the game thread and encodes changed levels
+ * into byte arrays, reusing the arrays of unchanged levels, and
+ * {@link #write} puts a snapshot on disk.
+ *
+ * Manifest layout: magic "ROGM", version, generation, game class, game id,
+ * state, seed (since version 2), current depth, then depth, level id and
+ * segment name per level.
+ *
+ */
+class SegmentedSave {
+
+	/** "ROGM" */
+	static final int MANIFEST_MAGIC = 0x524F474D;
+	static final int MANIFEST_VERSION = 2;
+
+	static final String MANIFEST = "manifest";
+	private static final String MANIFEST_TMP = "manifest.tmp";
+	private static final String SEGMENT_EXTENSION = ".seg";
+	private static final String TMP_EXTENSION = ".tmp";
+
+	/**
+	 * A level encoded in the binary format. Never changed once made, so
+	 * snapshots can share them.
+	 */
+	private static class EncodedLevel {
+		final UUID id;
+		final long version;
+		final byte[] bytes;
+
+		EncodedLevel(UUID id, long version, byte[] bytes) {
+			this.id = id;
+			this.version = version;
+			this.bytes = bytes;
+		}
+	}
+
+	/**
+	 * The state of a game at one moment, ready to be written
+	 */
+	private static class Snapshot extends SaveSnapshot {
+		final SegmentedSave save;
+		final String className;
+		final UUID gameId;
+		final GameState state;
+		final long seed;
+		final int currentDepth;
+		final Map<Integer,EncodedLevel> levels;
+
+		Snapshot(SegmentedSave save, Game g, Map<Integer,EncodedLevel> levels) {
+			this.save = save;
+			this.className = g.getClass().getName();
+			this.gameId = g.getId();
+			this.state = g.getState();
+			this.seed = g.getSeed();
+			Level current = g.getCurrentLevel();
+			this.currentDepth = current == null ? -1 : current.getDepth();
+			this.levels = levels;
+		}
+
+		@Override
+		public void write() throws SaveLoadException {
+			save.write(this);
+		}
+	}
+
+	private final File dir;
+
+	// Latest encoding of every level, only used on the game thread
+	private UUID encodedGameId;
+	private final Map<Integer,EncodedLevel> encoded = new HashMap<Integer,EncodedLevel>();
+	private long nextVersion = 1;
+
+	// The checkpoint, i.e. what the manifest on disk says
+	private UUID gameId;
+	private long generation = 0;
+	private final Map<Integer,String> segments = new HashMap<Integer,String>();
+	private final Map<Integer,Long> versions = new HashMap<Integer,Long>();
+	// Whether generation has caught up with the directory. Another instance,
+	// or this game before a restart, may have saved there already.
+	private boolean generationRead = false;
+
+	private volatile int lastWritten = 0;
+
+	SegmentedSave(File dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * @return How many level segments the last save wrote
+	 */
+	int getLastWritten() {
+		return lastWritten;
+	}
+
+	void save(Game g) throws SaveLoadException {
+		snapshot(g).write();
+	}
+
+	/**
+	 * Encodes every level that is new or changed since the last snapshot,
+	 * plus the current one. Must be called while the game is not changing.
+	 */
+	SaveSnapshot snapshot(Game g) throws SaveLoadException {
+		if (!g.getId().equals(encodedGameId)) {
+			encoded.clear();
+			encodedGameId = g.getId();
+		}
+
+		try {
+			for (Map.Entry<Integer,Level> e : g.getLevels().entrySet()) {
+				Level l = e.getValue();
+				EncodedLevel old = encoded.get(e.getKey());
+				if (old != null && old.id.equals(l.getId()) && !l.isDirty()
+						&& l != g.getCurrentLevel())
+					continue;
+
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				SaveOutput out = new SaveOutput(Channels.newChannel(bytes), 1 << 14);
+				BinarySaveFormat.writeLevel(l, out);
+				out.flush();
+				encoded.put(e.getKey(), new EncodedLevel(l.getId(), nextVersion++, bytes.toByteArray()));
+				l.clearDirty();
+			}
+		} catch (IOException e) {
+			throw new SaveLoadException(e);
+		}
+		encoded.keySet().retainAll(g.getLevels().keySet());
+
+		return new Snapshot(this, g, new HashMap<Integer,EncodedLevel>(encoded));
+	}
+
+	/**
+	 * Writes the segments of s that are not on disk yet, then swaps in its
+	 * manifest
+	 */
+	synchronized void write(Snapshot s) throws SaveLoadException {
+		if (dir.isFile() && !dir.delete())
+			throw new SaveLoadException("Cannot replace " + dir);
+		if (!dir.isDirectory() && !dir.mkdirs())
+			throw new SaveLoadException("Cannot create " + dir);
+		if (!generationRead)
+			readGeneration();
+
+		if (!s.gameId.equals(gameId)) {
+			segments.clear();
+			versions.clear();
+		}
+
+		long gen = generation + 1;
+		Map<Integer,String> newSegments = new HashMap<Integer,String>(segments);
+		Map<Integer,Long> newVersions = new HashMap<Integer,Long>(versions);
+		int written = 0;
+
+		try {
+			for (Map.Entry<Integer,EncodedLevel> e : s.levels.entrySet()) {
+				Integer depth = e.getKey();
+				EncodedLevel level = e.getValue();
+				Long onDisk = versions.get(depth);
+				if (onDisk != null && onDisk == level.version)
+					continue;
+
+				String name = "level-" + depth + "-" + gen + SEGMENT_EXTENSION;
+				writeSegment(level.bytes, new File(dir, name));
+				newSegments.put(depth, name);
+				newVersions.put(depth, level.version);
+				written++;
+			}
+			newSegments.keySet().retainAll(s.levels.keySet());
+			newVersions.keySet().retainAll(s.levels.keySet());
+
+			writeManifest(s, gen, newSegments);
+		} catch (IOException e) {
+			throw new SaveLoadException(e);
+		}
+
+		// The new checkpoint is on disk
+		gameId = s.gameId;
+		generation = gen;
+		segments.clear();
+		segments.putAll(newSegments);
+		versions.clear();
+		versions.putAll(newVersions);
+		lastWritten = written;
+
+		removeUnreferenced();
+	}
+
+	synchronized Game load() throws SaveLoadException {
+		FileInputStream fis = null;
+		try {
+			fis = new FileInputStream(new File(dir, MANIFEST));
+			SaveInput in = new SaveInput(fis.getChannel());
+			if (in.readInt() != MANIFEST_MAGIC)
+				throw new SaveLoadException("Not a save manifest");
+			int version = in.readShort();
+			if (version < 1 || version > MANIFEST_VERSION)
+				throw new SaveLoadException("Unsupported manifest version " + version);
+
+			long gen = in.readLong();
+			Game g = BinarySaveFormat.newGame(in.readString());
+			g.setId(in.readUUID());
+			g.setState(GameState.values()[in.readByte()]);
+			if (version >= 2)
+				g.setSeed(in.readLong());
+			else
+				g.setSeed(Game.seedFromId(g.getId()));
+			int currentDepth = in.readSignedVarInt();
+
+			encoded.clear();
+			segments.clear();
+			versions.clear();
+			int count = in.readVarInt();
+			for (int i = 0; i < count; i++) {
+				int depth = in.readVarInt();
+				UUID id = in.readUUID();
+				String name = in.readString();
+
+				byte[] bytes = readSegment(new File(dir, name));
+				Level l = BinarySaveFormat.readLevel(
+						new SaveInput(Channels.newChannel(new ByteArrayInputStream(bytes))));
+				if (!l.getId().equals(id))
+					throw new SaveLoadException("Segment " + name + " holds the wrong level");
+				l.clearDirty();
+				g.putLevel(l);
+
+				// What was read is both the latest encoding and what is on disk
+				long v = nextVersion++;
+				encoded.put(depth, new EncodedLevel(id, v, bytes));
+				segments.put(depth, name);
+				versions.put(depth, v);
+			}
+			g.setCurrentLevel(g.getLevels().get(currentDepth));
+
+			encodedGameId = g.getId();
+			gameId = g.getId();
+			generation = gen;
+			generationRead = false;
+			return g;
+		} catch (IOException e) {
+			throw new SaveLoadException(e);
+		} finally {
+			SaveManager.close(fis);
+		}
+	}
+
+	/**
+	 * Deletes the whole save
+	 */
+	synchronized void delete() {
+		File[] files = dir.listFiles();
+		if (files != null)
+			for (File f : files)
+				f.delete();
+		dir.delete();
+		gameId = null;
+		segments.clear();
+		versions.clear();
+	}
+
+	/**
+	 * Moves generation past every generation already in the directory: the
+	 * manifest's, and that of every segment, leftovers of interrupted saves
+	 * included. New segments then never take a name the manifest on disk
+	 * may still refer to.
+	 */
+	private void readGeneration() {
+		long gen = generation;
+		FileInputStream fis = null;
+		try {
+			fis = new FileInputStream(new File(dir, MANIFEST));
+			SaveInput in = new SaveInput(fis.getChannel());
+			if (in.readInt() == MANIFEST_MAGIC) {
+				in.readShort();
+				gen = Math.max(gen, in.readLong());
+			}
+		} catch (IOException e) {
+			// No manifest, or not a whole one; the segments still count
+		} finally {
+			SaveManager.close(fis);
+		}
+		String[] names = dir.list();
+		if (names != null)
+			for (String name : names)
+				gen = Math.max(gen, generationOf(name));
+		generation = gen;
+		generationRead = true;
+	}
+
+	/**
+	 * @return The generation in the name of a segment, or 0 if name is not
+	 * one
+	 */
+	private static long generationOf(String name) {
+		if (!name.endsWith(SEGMENT_EXTENSION))
+			return 0;
+		String stem = name.substring(0, name.length() - SEGMENT_EXTENSION.length());
+		try {
+			return Long.parseLong(stem.substring(stem.lastIndexOf('-') + 1));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Writes bytes beside f and renames them over it, so f is only ever
+	 * seen whole
+	 */
+	private static void writeSegment(byte[] bytes, File f) throws IOException {
+		File tmp = new File(f.getPath() + TMP_EXTENSION);
+		FileOutputStream fos = new FileOutputStream(tmp);
+		try {
+			FileChannel ch = fos.getChannel();
+			ByteBuffer buf = ByteBuffer.wrap(bytes);
+			while (buf.hasRemaining())
+				ch.write(buf);
+			ch.force(true);
+		} finally {
+			SaveManager.close(fos);
+		}
+		if (!tmp.renameTo(f)) {
+			f.delete();
+			if (!tmp.renameTo(f))
+				throw new IOException("Cannot replace " + f);
+		}
+	}
+
+	private static byte[] readSegment(File f) throws IOException {
+		FileInputStream fis = new FileInputStream(f);
+		try {
+			FileChannel ch = fis.getChannel();
+			ByteBuffer buf = ByteBuffer.allocate((int) ch.size());
+			while (buf.hasRemaining() && ch.read(buf) >= 0);
+			return buf.array();
+		} finally {
+			SaveManager.close(fis);
+		}
+	}
+
+	private void writeManifest(Snapshot s, long gen, Map<Integer,String> segs)
+			throws IOException, SaveLoadException {
+		File tmp = new File(dir, MANIFEST_TMP);
+		FileOutputStream fos = new FileOutputStream(tmp);
+		try {
+			SaveOutput out = new SaveOutput(fos.getChannel(), 1 << 12);
+			out.writeInt(MANIFEST_MAGIC);
+			out.writeShort(MANIFEST_VERSION);
+			out.writeLong(gen);
+			out.writeString(s.className);
+			out.writeUUID(s.gameId);
+			out.writeByte(s.state.ordinal());
+			out.writeLong(s.seed);
+			out.writeSignedVarInt(s.currentDepth);
+			out.writeVarInt(segs.size());
+			for (Map.Entry<Integer,String> e : segs.entrySet()) {
+				out.writeVarInt(e.getKey());
+				out.writeUUID(s.levels.get(e.getKey()).id);
+				out.writeString(e.getValue());
+			}
+			out.flush();
+			fos.getChannel().force(true);
+		} finally {
+			SaveManager.close(fos);
+		}
+
+		File manifest = new File(dir, MANIFEST);
+		if (!tmp.renameTo(manifest)) {
+			// Platforms that will not rename over an existing file
+			manifest.delete();
+			if (!tmp.renameTo(manifest))
+				throw new SaveLoadException("Cannot replace " + manifest);
+		}
+	}
+
+	private void removeUnreferenced() {
+		File[] files = dir.listFiles();
+		if (files == null)
+			return;
+		for (File f : files) {
+			String name = f.getName();
+			if (name.endsWith(TMP_EXTENSION)
+					|| (name.endsWith(SEGMENT_EXTENSION) && !segments.containsValue(name)))
+				f.delete();
+		}
+	}
+
+}
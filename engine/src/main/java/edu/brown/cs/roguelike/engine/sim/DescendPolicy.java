@@ -0,0 +1,31 @@
+package edu.brown.cs.roguelike.engine.sim;
+
+import edu.brown.cs.roguelike.engine.entities.Action;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.entities.events.Move;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.proc.RandomGen;
+
+/**
+ * Heads for the down stairs by the shortest path, fighting anything in
+ * the way. Walks randomly when there is no path.
+ */
+public class DescendPolicy implements PlayerPolicy {
+
+	private final RandomWalkPolicy lost = new RandomWalkPolicy();
+
+	@Override
+	public Action choose(Game game, MainCharacter player, RandomGen rand) {
+		Level level = game.getCurrentLevel();
+		Tile at = player.getLocation();
+		Tile next = level.downStairs == null ? null
+				: level.getGridAStar().nextStep(level, at, level.downStairs);
+		if (next == null)
+			return lost.choose(game, player, rand);
+		// Moving onto a monster attacks it
+		return new Move(Simulation.MOVE_COST, player, at.dirTo(next));
+	}
+
+}
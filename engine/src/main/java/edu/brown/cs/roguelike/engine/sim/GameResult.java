@@ -0,0 +1,48 @@
+package edu.brown.cs.roguelike.engine.sim;
+
+import edu.brown.cs.roguelike.engine.game.GameState;
+
+/**
+ * How one simulated game ended
+ */
+public class GameResult {
+
+	/**
+	 * WIN, LOSS, or RUNNING if the game ran out of turns
+	 */
+	public final GameState outcome;
+	public final long seed;
+	public final int turns;
+	/** How many levels were generated, counting the first */
+	public final int levels;
+	public final int depth;
+	public final int playerLevel;
+	public final long nanos;
+
+	public GameResult(GameState outcome, long seed, int turns, int levels,
+			int depth, int playerLevel, long nanos) {
+		this.outcome = outcome;
+		this.seed = seed;
+		this.turns = turns;
+		this.levels = levels;
+		this.depth = depth;
+		this.playerLevel = playerLevel;
+		this.nanos = nanos;
+	}
+
+	/**
+	 * @return Whether other is the same game: everything but the time
+	 */
+	public boolean sameGame(GameResult other) {
+		return outcome == other.outcome && seed == other.seed
+				&& turns == other.turns && levels == other.levels
+				&& depth == other.depth && playerLevel == other.playerLevel;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s after %d turns at depth %d, player level %d (seed %d)",
+				outcome, turns, depth, playerLevel, seed);
+	}
+
+}
@@ -0,0 +1,170 @@
+package edu.brown.cs.roguelike.engine.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.game.ActivityTiers;
+import edu.brown.cs.roguelike.engine.proc.RandomGen;
+
+/**
+ * Plays many {@link Simulation} games at once on a pool of threads and
+ * adds up how they went, for balance testing, soak testing the engine,
+ * and measuring its speed without a terminal in the way.
+ *
+ * Game i is played from a seed derived from the master seed and i, so a
+ * run is repeatable whatever the number of threads, and any one game can
+ * be replayed on its own from the seed in its {@link GameResult}.
+ *
+ */
+public class HeadlessRunner {
+
+	/**
+	 * The totals of a run
+	 */
+	public static class Report {
+		public final List<GameResult> results;
+		public final int wins;
+		public final int losses;
+		public final int timeouts;
+		public final int errors;
+		public final long turns;
+		public final long levels;
+		public final long nanos;
+
+		Report(List<GameResult> results, int errors, long nanos) {
+			this.results = results;
+			this.errors = errors;
+			this.nanos = nanos;
+			int w = 0, l = 0, t = 0;
+			long tu = 0, le = 0;
+			for (GameResult r : results) {
+				switch (r.outcome) {
+				case WIN: w++; break;
+				case LOSS: l++; break;
+				default: t++; break;
+				}
+				tu += r.turns;
+				le += r.levels;
+			}
+			this.wins = w;
+			this.losses = l;
+			this.timeouts = t;
+			this.turns = tu;
+			this.levels = le;
+		}
+
+		public double getTurnsPerSecond() {
+			return nanos == 0 ? 0 : turns * 1e9 / nanos;
+		}
+
+		public double getLevelsPerSecond() {
+			return nanos == 0 ? 0 : levels * 1e9 / nanos;
+		}
+
+		public double getGamesPerSecond() {
+			return nanos == 0 ? 0 : results.size() * 1e9 / nanos;
+		}
+
+		public double getMeanDepth() {
+			if (results.isEmpty())
+				return 0;
+			long d = 0;
+			for (GameResult r : results)
+				d += r.depth;
+			return (double) d / results.size();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d games in %.2fs: %.1f games/s, %.0f turns/s, %.1f levels/s%n"
+					+ "%d won, %d lost, %d out of turns, %d failed; mean depth %.2f",
+					results.size(), nanos / 1e9, getGamesPerSecond(),
+					getTurnsPerSecond(), getLevelsPerSecond(),
+					wins, losses, timeouts, errors, getMeanDepth());
+		}
+	}
+
+	private final Simulation sim;
+	private final int threads;
+
+	public HeadlessRunner(Simulation sim, int threads) {
+		this.sim = sim;
+		this.threads = threads;
+	}
+
+	/**
+	 * Plays games games, and waits for all of them
+	 * @param seed The master seed of the run
+	 */
+	public Report run(int games, long seed) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		try {
+			List<Future<GameResult>> futures = new ArrayList<Future<GameResult>>(games);
+			for (int i = 0; i < games; i++)
+				futures.add(executor.submit(new Play(RandomGen.derive(seed, i))));
+
+			List<GameResult> results = new ArrayList<GameResult>(games);
+			int errors = 0;
+			for (Future<GameResult> f : futures) {
+				try {
+					results.add(f.get());
+				} catch (ExecutionException e) {
+					errors++;
+					System.err.println("Game failed: " + e.getCause());
+				}
+			}
+			return new Report(results, errors, System.nanoTime() - start);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private class Play implements Callable<GameResult> {
+		private final long seed;
+
+		Play(long seed) {
+			this.seed = seed;
+		}
+
+		@Override
+		public GameResult call() throws ConfigurationException {
+			return sim.play(seed);
+		}
+	}
+
+	/**
+	 * Usage: HeadlessRunner [games [threads [random|descend [maxDepth
+	 * [maxTurns [seed [configDir [cumulative|energy|tiered|parallel]]]]]]]]
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1])
+				: Runtime.getRuntime().availableProcessors();
+		PlayerPolicy policy = args.length > 2 && args[2].equals("random")
+				? new RandomWalkPolicy() : new DescendPolicy();
+		int maxDepth = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+		int maxTurns = args.length > 4 ? Integer.parseInt(args[4]) : 2000;
+		long seed = args.length > 5 ? Long.parseLong(args[5]) : RandomGen.randomSeed();
+		String configDir = args.length > 6 ? args[6] : "../config";
+		String scheduler = args.length > 7 ? args[7] : "cumulative";
+
+		Simulation sim = new Simulation(configDir, new Vec2i(80, 24), policy,
+				maxDepth, maxTurns);
+		sim.setEnergyScheduler(scheduler.equals("energy") || scheduler.equals("tiered"));
+		if (scheduler.equals("tiered"))
+			sim.setActivityTiers(ActivityTiers.DEFAULT);
+		if (scheduler.equals("parallel"))
+			sim.setDecisionThreads(Runtime.getRuntime().availableProcessors());
+		System.out.println("Seed " + seed + ", " + threads + " threads");
+		System.out.println(new HeadlessRunner(sim, threads).run(games, seed));
+	}
+
+}
@@ -0,0 +1,21 @@
+package edu.brown.cs.roguelike.engine.sim;
+
+import edu.brown.cs.roguelike.engine.entities.Action;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.proc.RandomGen;
+
+/**
+ * Decides what the player does in a {@link Simulation}, in place of
+ * someone at the keyboard
+ */
+public interface PlayerPolicy {
+
+	/**
+	 * @param rand The game's stream for the player's choices; use it for
+	 * any randomness so that the game can be replayed from its seed
+	 * @return The player's action for the next turn
+	 */
+	public Action choose(Game game, MainCharacter player, RandomGen rand);
+
+}
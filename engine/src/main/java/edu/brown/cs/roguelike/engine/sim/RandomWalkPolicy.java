@@ -0,0 +1,24 @@
+package edu.brown.cs.roguelike.engine.sim;
+
+import edu.brown.cs.roguelike.engine.entities.Action;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.entities.events.Move;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.level.Direction;
+import edu.brown.cs.roguelike.engine.proc.RandomGen;
+
+/**
+ * Steps in a random direction every turn, attacking whatever is there
+ */
+public class RandomWalkPolicy implements PlayerPolicy {
+
+	private static final Direction[] DIRECTIONS = {
+		Direction.LEFT, Direction.RIGHT, Direction.UP, Direction.DOWN };
+
+	@Override
+	public Action choose(Game game, MainCharacter player, RandomGen rand) {
+		return new Move(Simulation.MOVE_COST, player,
+				DIRECTIONS[rand.getRandom(DIRECTIONS.length)]);
+	}
+
+}
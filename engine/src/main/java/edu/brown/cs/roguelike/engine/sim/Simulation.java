@@ -0,0 +1,152 @@
+package edu.brown.cs.roguelike.engine.sim;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.game.ActivityTiers;
+import edu.brown.cs.roguelike.engine.game.Announcer;
+import edu.brown.cs.roguelike.engine.game.CumulativeTurnManager;
+import edu.brown.cs.roguelike.engine.game.EnergyTurnManager;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.game.GameState;
+import edu.brown.cs.roguelike.engine.game.ParallelTurnManager;
+import edu.brown.cs.roguelike.engine.game.TurnManager;
+import edu.brown.cs.roguelike.engine.level.TileType;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+import edu.brown.cs.roguelike.engine.proc.RandomGen;
+
+/**
+ * Plays one game from start to finish with no screen: a
+ * {@link PlayerPolicy} picks the player's actions and the usual
+ * {@link CumulativeTurnManager} runs everything else. Announcements are
+ * thrown away.
+ *
+ * A game is decided by its seed and policy, so running it again gives the
+ * same result. Games on different threads share nothing but the config
+ * templates.
+ *
+ */
+public class Simulation {
+
+	/**
+	 * What a move costs, the same as from the keyboard
+	 */
+	public static final int MOVE_COST = 10;
+	public static final int POINTS_PER_TURN = 10;
+
+	private static class HeadlessGame extends Game {
+		private static final long serialVersionUID = 1L;
+
+		HeadlessGame(Vec2i mapSize) {
+			super(mapSize);
+		}
+	}
+
+	private final String configDir;
+	private final Vec2i mapSize;
+	private final PlayerPolicy policy;
+	private final int maxDepth;
+	private final int maxTurns;
+	private boolean energy = false;
+	private ActivityTiers tiers = null;
+	private int decisionThreads = 0;
+
+	/**
+	 * @param maxDepth Reaching the down stairs on this depth wins
+	 * @param maxTurns A game still running after this many turns is
+	 * stopped
+	 */
+	public Simulation(String configDir, Vec2i mapSize, PlayerPolicy policy,
+			int maxDepth, int maxTurns) {
+		this.configDir = configDir;
+		this.mapSize = mapSize;
+		this.policy = policy;
+		this.maxDepth = maxDepth;
+		this.maxTurns = maxTurns;
+	}
+
+	/**
+	 * @param energy Whether monsters are run by an
+	 * {@link EnergyTurnManager} instead
+	 */
+	public void setEnergyScheduler(boolean energy) {
+		this.energy = energy;
+	}
+
+	/**
+	 * @param tiers How often the EnergyTurnManager runs monsters far from
+	 * the player, or null for every turn
+	 */
+	public void setActivityTiers(ActivityTiers tiers) {
+		this.tiers = tiers;
+	}
+
+	/**
+	 * @param threads If more than 0, monsters are run by a
+	 * {@link ParallelTurnManager} deciding on that many threads instead
+	 */
+	public void setDecisionThreads(int threads) {
+		this.decisionThreads = threads;
+	}
+
+	public GameResult play(long seed) throws ConfigurationException {
+		long start = System.nanoTime();
+
+		Game game = new HeadlessGame(mapSize);
+		game.setSeed(seed);
+		BSPLevelGenerator gen = new BSPLevelGenerator(configDir);
+		game.createInitalLevel(gen);
+		game.start();
+		TurnManager tm;
+		if (decisionThreads > 0) {
+			tm = new ParallelTurnManager(null, game, POINTS_PER_TURN, decisionThreads);
+		} else if (energy) {
+			EnergyTurnManager etm = new EnergyTurnManager(null, game, POINTS_PER_TURN);
+			etm.setActivityTiers(tiers);
+			tm = etm;
+		} else {
+			tm = new CumulativeTurnManager(null, game, POINTS_PER_TURN);
+		}
+		RandomGen rand = new RandomGen(RandomGen.derive(seed, "player"));
+
+		int turns = 0;
+		int levels = 1;
+		MainCharacter player = null;
+		Announcer.getAnnouncer().clear();
+		try {
+			while (game.getState() == GameState.RUNNING && turns < maxTurns) {
+				EntityActionManager mgr = game.getCurrentLevel().getManager().getPlayer(0);
+				if (mgr == null) {
+					game.loss();
+					break;
+				}
+				player = (MainCharacter) mgr.getEntity();
+
+				if (player.getLocation().getType() == TileType.DOWN_STAIRS) {
+					int depth = game.getCurrentLevel().getDepth();
+					if (depth >= maxDepth) {
+						game.win();
+						break;
+					}
+					game.gotoLevel(depth + 1, gen);
+					levels++;
+					continue;
+				}
+
+				tm.takeTurnWithoutAnnounce(policy.choose(game, player, rand));
+				Announcer.getAnnouncer().clear();
+				turns++;
+			}
+		} finally {
+			if (tm instanceof ParallelTurnManager)
+				((ParallelTurnManager) tm).shutdown();
+		}
+
+		return new GameResult(game.getState(), seed, turns, levels,
+				game.getCurrentLevel().getDepth(),
+				player == null ? 1 : player.getPlayerLevel(),
+				System.nanoTime() - start);
+	}
+
+}
@@ -0,0 +1,119 @@
+package edu.brown.cs.roguelike.engine.config.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.brown.cs.roguelike.engine.config.Config;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.config.MonsterTemplate;
+import edu.brown.cs.roguelike.engine.config.TemplateRegistry;
+import edu.brown.cs.roguelike.engine.config.WeaponTemplate;
+
+public class TemplateRegistryTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("templates", "");
+		dir.delete();
+		dir.mkdir();
+		for (String name : Config.REQUIRED_FILES.values())
+			copy(new File("../config", name + Config.CFG_EXT), new File(dir, name + Config.CFG_EXT));
+	}
+
+	@After
+	public void tearDown() {
+		for (File f : dir.listFiles())
+			f.delete();
+		dir.delete();
+	}
+
+	private static void copy(File from, File to) throws IOException {
+		InputStream in = new FileInputStream(from);
+		OutputStream out = new FileOutputStream(to);
+		try {
+			byte[] buf = new byte[4096];
+			int n;
+			while ((n = in.read(buf)) > 0)
+				out.write(buf, 0, n);
+		} finally {
+			in.close();
+			out.close();
+		}
+	}
+
+	@Test
+	public void matchesConfig() throws ConfigurationException {
+		Config c = new Config(dir.getPath());
+		TemplateRegistry r = TemplateRegistry.forDir(dir.getPath());
+
+		assertEquals(c.loadMonsterTemplate(), r.getMonsters());
+		assertEquals(c.loadWeaponTemplate(), r.getWeapons());
+
+		int indexed = 0;
+		for (List<MonsterTemplate> tier : r.getMonstersByTier().values())
+			indexed += tier.size();
+		assertEquals(r.getMonsters().size(), indexed);
+
+		for (WeaponTemplate w : r.getWeapons()) {
+			assertSame(w, r.getWeapon(w.name));
+			assertTrue(r.getWeaponsByTier().get(w.tier).contains(w));
+		}
+	}
+
+	@Test
+	public void sharedAndParsedOnce() throws ConfigurationException {
+		TemplateRegistry r = TemplateRegistry.forDir(dir.getPath());
+		assertSame(r, TemplateRegistry.forDir(dir.getPath() + "/."));
+
+		List<MonsterTemplate> monsters = r.getMonsters();
+		int reads = r.getReads();
+		for (int i = 0; i < 10; i++) {
+			assertSame(monsters, r.getMonsters());
+			r.getMonstersByTier();
+		}
+		assertEquals(reads, r.getReads());
+	}
+
+	@Test
+	public void reloadsChangedFile() throws ConfigurationException, IOException {
+		TemplateRegistry r = TemplateRegistry.forDir(dir.getPath());
+		List<MonsterTemplate> before = r.getMonsters();
+		List<WeaponTemplate> weapons = r.getWeapons();
+		assertNotNull(r.getMonster(before.get(0).name));
+
+		File f = new File(dir, Config.REQUIRED_FILES.get(Config.ConfigType.MONSTER) + Config.CFG_EXT);
+		OutputStream out = new FileOutputStream(f);
+		out.write(("[{\"name\":\"Newt\",\"color\":\"green\",\"startHp\":3,"
+				+ "\"character\":\"n\",\"attack\":1,\"defense\":0,"
+				+ "\"moveCost\":10,\"tier\":1}]").getBytes("UTF-8"));
+		out.close();
+		f.setLastModified(f.lastModified() + 2000);
+
+		List<MonsterTemplate> after = r.getMonsters();
+		assertNotSame(before, after);
+		assertEquals(1, after.size());
+		assertSame(after.get(0), r.getMonster("Newt"));
+		assertEquals(1, r.getMonstersByTier().size());
+
+		// Other files are untouched
+		assertSame(weapons, r.getWeapons());
+	}
+
+}
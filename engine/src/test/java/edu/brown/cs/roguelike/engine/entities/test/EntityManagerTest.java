@@ -0,0 +1,88 @@
+package edu.brown.cs.roguelike.engine.entities.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.googlecode.lanterna.terminal.Terminal.Color;
+
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.EntityManager;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.entities.Monster;
+
+public class EntityManagerTest {
+
+	@Test
+	public void viewsAreSnapshots() {
+		EntityManager em = new EntityManager();
+		Monster a = new Monster('a', Color.RED, null);
+		Monster b = new Monster('b', Color.RED, null);
+		EntityActionManager ma = em.register(a);
+
+		List<EntityActionManager> before = em.getView(EntityManager.MONSTER);
+		assertSame(before, em.getView("monster"));
+		assertEquals(1, before.size());
+
+		EntityActionManager mb = em.register(b);
+		List<EntityActionManager> after = em.getView(EntityManager.MONSTER);
+		assertNotSame(before, after);
+		assertEquals(1, before.size());
+		assertEquals(2, after.size());
+
+		em.unregister(a);
+		assertFalse(em.reallyExists(ma));
+		assertTrue(em.reallyExists(mb));
+		assertEquals(2, after.size());
+		assertEquals(1, em.getView(EntityManager.MONSTER).size());
+		assertSame(mb, em.getView(EntityManager.MONSTER).get(0));
+
+		assertTrue(em.getView("nothing").isEmpty());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void viewsAreReadOnly() {
+		EntityManager em = new EntityManager();
+		em.register(new Monster('a', Color.RED, null));
+		em.getView(EntityManager.MONSTER).clear();
+	}
+
+	@Test
+	public void playerIsCached() throws IOException, ClassNotFoundException {
+		EntityManager em = new EntityManager();
+		assertNull(em.getPlayer());
+		MainCharacter mc = new MainCharacter("cached");
+		EntityActionManager m = em.register(mc);
+		assertSame(m, em.getPlayer());
+		assertSame(m, em.getPlayer(0));
+		assertNull(em.getPlayer(1));
+
+		// rebuilt after loading
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(em);
+		out.close();
+		EntityManager loaded = (EntityManager) new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertEquals(m, loaded.getPlayer());
+		assertTrue(loaded.reallyExists(loaded.getPlayer()));
+		assertEquals(1, loaded.getView(EntityManager.MAIN).size());
+
+		em.unregister(mc);
+		assertNull(em.getPlayer());
+		assertFalse(em.reallyExists(m));
+	}
+
+}
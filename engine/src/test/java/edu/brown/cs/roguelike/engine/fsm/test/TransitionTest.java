@@ -0,0 +1,141 @@
+package edu.brown.cs.roguelike.engine.fsm.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.config.TemplateRegistry;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.entities.Monster;
+import edu.brown.cs.roguelike.engine.fsm.Input;
+import edu.brown.cs.roguelike.engine.fsm.Transition;
+import edu.brown.cs.roguelike.engine.fsm.monster.MonsterInput;
+import edu.brown.cs.roguelike.engine.fsm.monster.PlayerInSpace;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Space;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+
+public class TransitionTest {
+
+	private static class Stamped extends Transition<Input> {
+		private static final long serialVersionUID = 1L;
+		long stamp;
+		boolean answer;
+		int asked;
+
+		Stamped() {
+			super(null);
+		}
+
+		@Override
+		public long getStamp(Input i) {
+			return stamp;
+		}
+
+		@Override
+		public boolean isReady(Input i) {
+			asked++;
+			return answer;
+		}
+	}
+
+	private static class CountingPlayerInSpace extends PlayerInSpace {
+		private static final long serialVersionUID = 1L;
+		int asked;
+
+		CountingPlayerInSpace(Monster me) {
+			super(null, me);
+		}
+
+		@Override
+		public boolean isReady(MonsterInput i) {
+			asked++;
+			return super.isReady(i);
+		}
+	}
+
+	@Test
+	public void asksOnlyWhenStampMoves() {
+		Stamped t = new Stamped();
+		t.stamp = 3;
+		assertFalse(t.check(null));
+		assertFalse(t.check(null));
+		assertEquals(1, t.asked);
+
+		// A changed answer is not seen until the stamp moves
+		t.answer = true;
+		assertFalse(t.check(null));
+		t.stamp = 4;
+		assertTrue(t.check(null));
+		assertEquals(2, t.asked);
+
+		t.stamp = Transition.ALWAYS;
+		t.check(null);
+		t.check(null);
+		assertEquals(4, t.asked);
+	}
+
+	private static List<Tile> freeTiles(Level l, Space s) {
+		List<Tile> free = new ArrayList<Tile>();
+		for (int x = 0; x < l.getWidth(); x++)
+			for (int y = 0; y < l.getHeight(); y++)
+				if (l.getTile(x, y).getSpace() == s && l.getTile(x, y).isPassable())
+					free.add(l.getTile(x, y));
+		return free;
+	}
+
+	private static void moveTo(MainCharacter mc, Tile t) {
+		Tile from = mc.getLocation();
+		t.setEntity(mc);
+		from.setEntity(null);
+	}
+
+	/**
+	 * A monster's PlayerInSpace is only asked again once the player or the
+	 * monster changes space
+	 */
+	@Test
+	public void playerInSpaceFollowsThePlayer() throws ConfigurationException {
+		Level l = new BSPLevelGenerator("../config").generateLevel(new Vec2i(80, 24), 3, 7);
+		MainCharacter mc = new MainCharacter("transition");
+		l.placeCharacter(mc, true);
+
+		Room home = null;
+		for (Room r : l.getRooms())
+			if (r != mc.getLocation().getSpace() && freeTiles(l, r).size() >= 3)
+				home = r;
+		List<Tile> free = freeTiles(l, home);
+		Monster m = new Monster(TemplateRegistry.forDir("../config").getMonsters().get(0), l);
+		free.get(0).setEntity(m);
+		l.getManager().register(m);
+
+		CountingPlayerInSpace t = new CountingPlayerInSpace(m);
+		MonsterInput in = l.getMonsterInput();
+		assertFalse(t.check(in));
+		assertFalse(t.check(in));
+		m.changeHP(-1);
+		assertFalse(t.check(in));
+		assertEquals(1, t.asked);
+
+		Tile away = mc.getLocation();
+		moveTo(mc, free.get(1));
+		assertTrue(t.check(in));
+		moveTo(mc, free.get(2));
+		assertTrue(t.check(in));
+		assertEquals(2, t.asked);
+
+		moveTo(mc, away);
+		assertFalse(t.check(in));
+		assertEquals(3, t.asked);
+	}
+
+}
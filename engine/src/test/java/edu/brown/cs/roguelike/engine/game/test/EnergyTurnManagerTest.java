@@ -0,0 +1,172 @@
+package edu.brown.cs.roguelike.engine.game.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.EntityManager;
+import edu.brown.cs.roguelike.engine.entities.Monster;
+import edu.brown.cs.roguelike.engine.entities.events.Wait;
+import edu.brown.cs.roguelike.engine.game.ActivityTiers;
+import edu.brown.cs.roguelike.engine.game.CumulativeTurnManager;
+import edu.brown.cs.roguelike.engine.game.EnergyTurnManager;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.game.GameState;
+import edu.brown.cs.roguelike.engine.game.test.TurnHarness.StubGame;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Space;
+import edu.brown.cs.roguelike.engine.sim.DescendPolicy;
+import edu.brown.cs.roguelike.engine.sim.GameResult;
+import edu.brown.cs.roguelike.engine.sim.PlayerPolicy;
+import edu.brown.cs.roguelike.engine.sim.RandomWalkPolicy;
+import edu.brown.cs.roguelike.engine.sim.Simulation;
+
+public class EnergyTurnManagerTest {
+
+	private static final int POINTS = 10;
+
+	/**
+	 * Counts the monster turns it hands out
+	 */
+	private static class CountingManager extends EnergyTurnManager {
+		private static final long serialVersionUID = 1L;
+		int turns = 0;
+		Map<EntityActionManager,Integer> turnsOf = new IdentityHashMap<EntityActionManager,Integer>();
+
+		CountingManager(Game game) {
+			super(null, game, POINTS);
+		}
+
+		@Override
+		protected void actorTurn(EntityManager em, EntityActionManager mgr) {
+			turns++;
+			Integer n = turnsOf.get(mgr);
+			turnsOf.put(mgr, n == null ? 1 : n + 1);
+			super.actorTurn(em, mgr);
+		}
+	}
+
+	/**
+	 * Monsters' points are left out: a monster saving up for an Action is
+	 * only paid for the turns it sat out once it comes up
+	 */
+	private static void playAlongside(long seed, PlayerPolicy policy, int turns)
+			throws ConfigurationException {
+		Game a = new StubGame(seed), b = new StubGame(seed);
+		CumulativeTurnManager every = new CumulativeTurnManager(null, a, POINTS);
+		CountingManager energy = new CountingManager(b);
+		int monsterTurns = TurnHarness.playAlongside(seed, policy, turns, a, every, b, energy, false);
+		assertTrue(energy.turns <= monsterTurns);
+	}
+
+	/**
+	 * Monsters end up in the same place with the same HP and points every
+	 * turn
+	 */
+	@Test
+	public void sameTurnsAsCumulative() throws ConfigurationException {
+		for (long seed = 1; seed <= 4; seed++) {
+			playAlongside(seed, new RandomWalkPolicy(), 300);
+			playAlongside(seed, new DescendPolicy(), 300);
+		}
+	}
+
+	@Test
+	public void sameGamesAsCumulative() throws ConfigurationException {
+		Simulation every = new Simulation("../config", TurnHarness.SIZE, new DescendPolicy(), 3, 1000);
+		Simulation energy = new Simulation("../config", TurnHarness.SIZE, new DescendPolicy(), 3, 1000);
+		energy.setEnergyScheduler(true);
+		for (long seed = 1; seed <= 5; seed++) {
+			GameResult r = every.play(seed);
+			GameResult s = energy.play(seed);
+			assertTrue(r + " vs " + s, r.sameGame(s));
+		}
+	}
+
+	/**
+	 * Idle monsters away from the player are left alone
+	 */
+	@Test
+	public void idleMonstersAreNotTouched() throws ConfigurationException {
+		Game g = new StubGame(3);
+		CountingManager energy = new CountingManager(g);
+		for (int turn = 0; turn < 50; turn++)
+			energy.takeTurnWithoutAnnounce(new Wait());
+
+		int idle = 0;
+		for (EntityActionManager m : g.getCurrentLevel().getManager().getView(EntityManager.MONSTER)) {
+			if (((Monster) m.getEntity()).isChasing()) {
+				assertEquals(50, (int) energy.turnsOf.get(m));
+			} else {
+				// Only until waiting leaves them as they are
+				assertTrue(energy.turnsOf.get(m) <= 2);
+				idle++;
+			}
+		}
+		assertTrue(idle > 0);
+	}
+
+	/**
+	 * Monsters too many rooms away stay where they are, even chasing
+	 */
+	@Test
+	public void farMonstersSleep() throws ConfigurationException {
+		int sleeping = 0;
+		for (long seed = 1; seed <= 4; seed++) {
+			Game g = new StubGame(seed);
+			Level l = g.getCurrentLevel();
+			CountingManager energy = new CountingManager(g);
+			energy.setActivityTiers(new ActivityTiers(0, 1, 3));
+
+			EntityActionManager player = l.getManager().getPlayer();
+			Map<Space,Integer> steps = l.getSpaceGraph().stepsFrom(
+					player.getLocation().getSpace(), Integer.MAX_VALUE);
+			Map<EntityActionManager,Vec2i> start = new IdentityHashMap<EntityActionManager,Vec2i>();
+			for (EntityActionManager m : l.getManager().getView(EntityManager.MONSTER)) {
+				((Monster) m.getEntity()).startChasing();
+				start.put(m, m.getLocation().getLocation());
+			}
+
+			for (int turn = 0; turn < 30; turn++)
+				energy.takeTurnWithoutAnnounce(new Wait());
+
+			for (EntityActionManager m : start.keySet()) {
+				Space space = l.getTile(start.get(m).x, start.get(m).y).getSpace();
+				if (space != null && steps.get(space) > 1) {
+					assertEquals(start.get(m), m.getLocation().getLocation());
+					assertTrue(energy.turnsOf.get(m) <= 1);
+					sleeping++;
+				}
+			}
+		}
+		assertTrue(sleeping > 0);
+	}
+
+	/**
+	 * Monsters in the next rooms over still cover the same ground, a few
+	 * turns at a time
+	 */
+	@Test
+	public void slowerTiersKeepUp() throws ConfigurationException {
+		for (long seed = 1; seed <= 4; seed++) {
+			Game g = new StubGame(seed);
+			CountingManager energy = new CountingManager(g);
+			energy.setActivityTiers(new ActivityTiers(0, Integer.MAX_VALUE, 3));
+			int monsters = g.getCurrentLevel().getManager().getView(EntityManager.MONSTER).size();
+			for (EntityActionManager m : g.getCurrentLevel().getManager().getView(EntityManager.MONSTER))
+				((Monster) m.getEntity()).startChasing();
+
+			for (int turn = 0; turn < 30 && g.getState() == GameState.RUNNING; turn++)
+				energy.takeTurnWithoutAnnounce(new Wait());
+			assertTrue(energy.turns < monsters * 30);
+		}
+	}
+
+}
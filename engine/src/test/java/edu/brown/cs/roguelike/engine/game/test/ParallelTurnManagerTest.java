@@ -0,0 +1,124 @@
+package edu.brown.cs.roguelike.engine.game.test;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.EntityManager;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.entities.events.Wait;
+import edu.brown.cs.roguelike.engine.fsm.monster.Chasing;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.game.ParallelTurnManager;
+import edu.brown.cs.roguelike.engine.game.test.TurnHarness.StubGame;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.pathfinding.ChaseMap;
+import edu.brown.cs.roguelike.engine.pathfinding.PathfinderType;
+import edu.brown.cs.roguelike.engine.sim.DescendPolicy;
+import edu.brown.cs.roguelike.engine.sim.GameResult;
+import edu.brown.cs.roguelike.engine.sim.PlayerPolicy;
+import edu.brown.cs.roguelike.engine.sim.RandomWalkPolicy;
+import edu.brown.cs.roguelike.engine.sim.Simulation;
+
+public class ParallelTurnManagerTest {
+
+	/**
+	 * Plays a game on one thread and on four, checking that they stay the
+	 * same
+	 */
+	private static void playAlongside(long seed, PlayerPolicy policy)
+			throws ConfigurationException {
+		Game a = new StubGame(seed, 60), b = new StubGame(seed, 60);
+		ParallelTurnManager one = new ParallelTurnManager(null, a, 10, 1);
+		ParallelTurnManager four = new ParallelTurnManager(null, b, 10, 4);
+		try {
+			TurnHarness.playAlongside(seed, policy, 100, a, one, b, four, true);
+		} finally {
+			four.shutdown();
+		}
+	}
+
+	/**
+	 * Any number of threads makes the same decisions
+	 */
+	@Test
+	public void threadsDoNotMatter() throws ConfigurationException {
+		for (long seed = 1; seed <= 4; seed++) {
+			playAlongside(seed, new RandomWalkPolicy());
+			playAlongside(seed, new DescendPolicy());
+		}
+	}
+
+	/**
+	 * Nor with any pathfinder monsters may decide apart with
+	 */
+	@Test
+	public void threadsDoNotMatterToAnyPathfinder() throws ConfigurationException {
+		PathfinderType before = Chasing.getPathfinderType();
+		try {
+			for (PathfinderType type : PathfinderType.values()) {
+				if (!ParallelTurnManager.decidesApart(type))
+					continue;
+				Chasing.setPathfinderType(type);
+				for (long seed = 1; seed <= 2; seed++)
+					playAlongside(seed, new RandomWalkPolicy());
+			}
+		} finally {
+			Chasing.setPathfinderType(before);
+		}
+	}
+
+	@Test
+	public void sameGamesOnAnyThreads() throws ConfigurationException {
+		Simulation one = new Simulation("../config", TurnHarness.SIZE, new DescendPolicy(), 3, 1000);
+		Simulation four = new Simulation("../config", TurnHarness.SIZE, new DescendPolicy(), 3, 1000);
+		one.setDecisionThreads(1);
+		four.setDecisionThreads(4);
+		for (long seed = 1; seed <= 5; seed++) {
+			GameResult r = one.play(seed);
+			GameResult s = four.play(seed);
+			assertTrue(r + " vs " + s, r.sameGame(s));
+		}
+	}
+
+	/**
+	 * @return The steps to to of every monster that can reach it, added up
+	 */
+	private static int distance(Game g, Tile to) {
+		int sum = 0;
+		ChaseMap map = g.getCurrentLevel().getChaseMap(to);
+		for (EntityActionManager m : g.getCurrentLevel().getManager().getView(EntityManager.MONSTER))
+			if (map.getDistance(m.getLocation()) != ChaseMap.UNREACHABLE)
+				sum += map.getDistance(m.getLocation());
+		return sum;
+	}
+
+	/**
+	 * A crowd keeps closing in on the player, the monsters whose tile was
+	 * taken by an ally thinking again
+	 */
+	@Test
+	public void crowdKeepsMoving() throws ConfigurationException {
+		Game g = new StubGame(2, 60);
+		ParallelTurnManager tm = new ParallelTurnManager(null, g, 10, 4);
+		EntityManager em = g.getCurrentLevel().getManager();
+		MainCharacter player = (MainCharacter) em.getPlayer().getEntity();
+		Tile start = player.getLocation();
+
+		int before = distance(g, start);
+
+		try {
+			for (int turn = 0; turn < 5; turn++) {
+				player.restore(1000000, 1000000, player.getStats(), player.getStats());
+				tm.takeTurnWithoutAnnounce(new Wait());
+			}
+		} finally {
+			tm.shutdown();
+		}
+
+		assertTrue(distance(g, start) < before);
+	}
+
+}
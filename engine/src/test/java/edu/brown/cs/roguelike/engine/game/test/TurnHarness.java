@@ -0,0 +1,117 @@
+package edu.brown.cs.roguelike.engine.game.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.config.MonsterTemplate;
+import edu.brown.cs.roguelike.engine.config.TemplateRegistry;
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.EntityManager;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.entities.Monster;
+import edu.brown.cs.roguelike.engine.game.CumulativeTurnManager;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.game.GameState;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+import edu.brown.cs.roguelike.engine.proc.RandomGen;
+import edu.brown.cs.roguelike.engine.sim.PlayerPolicy;
+
+/**
+ * Plays two copies of a game side by side, each with its own turn
+ * manager, checking after every turn that they are still the same
+ *
+ */
+final class TurnHarness {
+
+	static final Vec2i SIZE = new Vec2i(80, 24);
+
+	private TurnHarness() {
+	}
+
+	static class StubGame extends Game {
+		private static final long serialVersionUID = 1L;
+
+		StubGame(long seed) throws ConfigurationException {
+			this(seed, 0);
+		}
+
+		/**
+		 * A first level with extra chasing monsters, e.g. enough to be
+		 * decided for on several threads
+		 */
+		StubGame(long seed, int extra) throws ConfigurationException {
+			super(SIZE);
+			setSeed(seed);
+			createInitalLevel(new BSPLevelGenerator("../config"));
+			start();
+
+			if (extra == 0)
+				return;
+			Level l = getCurrentLevel();
+			RandomGen rand = new RandomGen(seed);
+			List<MonsterTemplate> templates = TemplateRegistry.forDir("../config").getMonsters();
+			List<Tile> free = new ArrayList<Tile>();
+			for (int x = 0; x < l.getWidth(); x++)
+				for (int y = 0; y < l.getHeight(); y++)
+					if (l.getTile(x, y).isPassable() && l.getTile(x, y).getSpace() != null)
+						free.add(l.getTile(x, y));
+			for (int i = 0; i < extra; i++) {
+				Monster m = new Monster(templates.get(rand.getRandom(templates.size())), l);
+				free.remove(rand.getRandom(free.size())).setEntity(m);
+				l.getManager().register(m);
+				m.startChasing();
+			}
+		}
+	}
+
+	/**
+	 * Where everyone is, their HP, and whether each monster is chasing
+	 *
+	 * @param monsterPoints Whether to add monsters' action points too
+	 */
+	static List<String> snapshot(Game g, boolean monsterPoints) {
+		List<String> state = new ArrayList<String>();
+		EntityManager em = g.getCurrentLevel().getManager();
+		for (EntityActionManager m : em.getView(EntityManager.MAIN))
+			state.add(m.getLocation().getLocation() + " " + m.getEntity().getHP()
+					+ " " + m.getActionPoints());
+		for (EntityActionManager m : em.getView(EntityManager.MONSTER))
+			state.add(m.getLocation().getLocation() + " " + m.getEntity().getHP()
+					+ " " + ((Monster) m.getEntity()).isChasing()
+					+ (monsterPoints ? " " + m.getActionPoints() : ""));
+		return state;
+	}
+
+	/**
+	 * Plays a with ta and b with tb for up to turns turns, the player of
+	 * each doing what policy chooses from seed, and fails as soon as they
+	 * differ
+	 *
+	 * @return How many monsters took part in the turns played, on a
+	 */
+	static int playAlongside(long seed, PlayerPolicy policy, int turns,
+			Game a, CumulativeTurnManager ta, Game b, CumulativeTurnManager tb,
+			boolean monsterPoints) {
+		RandomGen randA = new RandomGen(seed), randB = new RandomGen(seed);
+		int monsterTurns = 0;
+		for (int turn = 0; turn < turns && a.getState() == GameState.RUNNING; turn++) {
+			EntityActionManager pa = a.getCurrentLevel().getManager().getPlayer();
+			EntityActionManager pb = b.getCurrentLevel().getManager().getPlayer();
+			if (pa == null)
+				break;
+			monsterTurns += a.getCurrentLevel().getManager().getView(EntityManager.MONSTER).size();
+			ta.takeTurnWithoutAnnounce(policy.choose(a, (MainCharacter) pa.getEntity(), randA));
+			tb.takeTurnWithoutAnnounce(policy.choose(b, (MainCharacter) pb.getEntity(), randB));
+			assertEquals("seed " + seed + " turn " + turn,
+					snapshot(a, monsterPoints), snapshot(b, monsterPoints));
+		}
+		return monsterTurns;
+	}
+
+}
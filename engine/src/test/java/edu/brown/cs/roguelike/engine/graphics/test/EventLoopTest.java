@@ -0,0 +1,103 @@
+package edu.brown.cs.roguelike.engine.graphics.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+
+import org.junit.Test;
+
+import com.googlecode.lanterna.input.Key;
+import com.googlecode.lanterna.screen.Screen;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.events.GameAction;
+import edu.brown.cs.roguelike.engine.graphics.Application;
+import edu.brown.cs.roguelike.engine.graphics.FrameMetrics;
+import edu.brown.cs.roguelike.engine.graphics.Layer;
+import edu.brown.cs.roguelike.engine.graphics.Section;
+
+public class EventLoopTest {
+
+	/**
+	 * Counts keys and frames, and quits on 'q'
+	 */
+	private static class CountingApp extends Application {
+		volatile int keys = 0;
+		volatile int draws = 0;
+
+		CountingApp() {
+			super("test");
+		}
+
+		@Override
+		protected boolean initialize(Vec2i screenSize) {
+			layers.push(new Layer() {
+				public GameAction getActionForKey(Key k) {
+					keys++;
+					if (k.getCharacter() == 'q')
+						shutdown();
+					return null;
+				}
+				public void propagateAction(GameAction action) {}
+				public void updateSize(Vec2i newSize) {}
+				public void doDraw(Section s) {
+					draws++;
+					s.drawString(0, 0, "keys " + keys);
+				}
+				public void tick(long nanosSincePreviousTick) {}
+			});
+			return true;
+		}
+
+		@Override
+		public Vec2i getSize() {
+			return new Vec2i(40, 10);
+		}
+
+		@Override
+		public void deleteSaveFile() {}
+	}
+
+	@Test
+	public void drawsOnlyAfterInputAndSleepsWhenIdle()
+			throws IOException, InterruptedException {
+		final CountingApp app = new CountingApp();
+		app.setFrameCap(20);
+		PipedOutputStream keyboard = new PipedOutputStream();
+		final Screen screen = new Screen(new OfflineTerminal(40, 10,
+				new PipedInputStream(keyboard), null), 40, 10);
+		screen.startScreen();
+
+		Thread loop = new Thread(new Runnable() {
+			public void run() {
+				app.startup(screen);
+			}
+		});
+		loop.start();
+
+		// Idle: one frame for startup, then nothing to draw
+		Thread.sleep(500);
+		FrameMetrics m = app.getMetrics();
+		assertEquals(1, app.draws);
+		assertTrue("woke up " + m.getWakeups() + " times", m.getWakeups() < 60);
+
+		// A burst of keys is handled at once and drawn in few frames
+		keyboard.write("abcdefghij".getBytes("UTF-8"));
+		keyboard.flush();
+		Thread.sleep(300);
+		assertEquals(10, app.keys);
+		assertTrue("drew " + app.draws + " frames", app.draws >= 2 && app.draws <= 4);
+		assertTrue(m.getMaxInputLatency() > 0);
+
+		keyboard.write('q');
+		keyboard.flush();
+		loop.join(2000);
+		assertFalse(loop.isAlive());
+		assertEquals(11, m.getKeysHandled());
+	}
+
+}
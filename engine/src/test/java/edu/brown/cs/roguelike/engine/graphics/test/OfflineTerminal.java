@@ -0,0 +1,92 @@
+package edu.brown.cs.roguelike.engine.graphics.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.terminal.TerminalSize;
+import com.googlecode.lanterna.terminal.text.FixedTerminalSizeProvider;
+import com.googlecode.lanterna.terminal.text.UnixTerminal;
+
+/**
+ * A terminal of a fixed size that sends its output to a stream and never
+ * touches a real tty, for running screens in tests. Counts the bytes it
+ * writes.
+ */
+public class OfflineTerminal extends UnixTerminal {
+
+	private static class CountingStream extends OutputStream {
+		private final OutputStream out;
+		long count = 0;
+
+		CountingStream(OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			count++;
+			if (out != null)
+				out.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			count += len;
+			if (out != null)
+				out.write(b, off, len);
+		}
+	}
+
+	private final CountingStream counter;
+
+	/**
+	 * @param out Where output goes, or null to only count it
+	 */
+	public OfflineTerminal(int columns, int rows, OutputStream out) {
+		this(columns, rows, new ByteArrayInputStream(new byte[0]), out);
+	}
+
+	/**
+	 * @param in Where key presses come from
+	 */
+	public OfflineTerminal(int columns, int rows, InputStream in, OutputStream out) {
+		this(in, new CountingStream(out), new TerminalSize(columns, rows));
+	}
+
+	private OfflineTerminal(InputStream in, CountingStream counter, TerminalSize size) {
+		super(in, counter, Charset.forName("UTF-8"), new FixedTerminalSizeProvider(size));
+		this.counter = counter;
+	}
+
+	/**
+	 * @return A started screen on a new terminal that only counts output
+	 */
+	public static Screen newScreen(int columns, int rows) {
+		Screen s = new Screen(new OfflineTerminal(columns, rows, null), columns, rows);
+		s.startScreen();
+		return s;
+	}
+
+	public long getBytesWritten() {
+		return counter.count;
+	}
+
+	// No tty to configure
+
+	@Override
+	public void enterPrivateMode() {}
+
+	@Override
+	public void exitPrivateMode() {}
+
+	@Override
+	public void setCBreak(boolean cbreakOn) {}
+
+	@Override
+	public void setEcho(boolean echoOn) {}
+
+}
@@ -0,0 +1,35 @@
+package edu.brown.cs.roguelike.engine.graphics.test;
+
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.screen.ScreenCharacterStyle;
+import com.googlecode.lanterna.screen.ScreenWriter;
+
+/**
+ * A ScreenWriter that remembers what was drawn where, and how many
+ * strings and characters that took
+ */
+public class RecordingWriter extends ScreenWriter {
+
+	public final char[][] cells;
+	public int strings = 0;
+	public int characters = 0;
+
+	public RecordingWriter(Screen screen, int columns, int rows) {
+		super(screen);
+		cells = new char[columns][rows];
+	}
+
+	@Override
+	public void drawString(int x, int y, String string, ScreenCharacterStyle... styles) {
+		strings++;
+		characters += string.length();
+		for (int i = 0; i < string.length(); i++)
+			cells[x + i][y] = string.charAt(i);
+	}
+
+	public void reset() {
+		strings = 0;
+		characters = 0;
+	}
+
+}
@@ -0,0 +1,161 @@
+package edu.brown.cs.roguelike.engine.level.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.config.MonsterTemplate;
+import edu.brown.cs.roguelike.engine.config.TemplateRegistry;
+import edu.brown.cs.roguelike.engine.entities.Combatable;
+import edu.brown.cs.roguelike.engine.entities.Entity;
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.entities.Monster;
+import edu.brown.cs.roguelike.engine.level.Direction;
+import edu.brown.cs.roguelike.engine.level.EntityIndex;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.proc.RandomGen;
+
+public class EntityIndexTest {
+
+	private static final Direction[] DIRS = {
+		Direction.LEFT, Direction.RIGHT, Direction.UP, Direction.DOWN };
+
+	private static Level level(boolean compact, long seed) throws ConfigurationException {
+		return LevelFixtures.levelWithPlayer(LevelFixtures.SMALL, 3, compact, seed, "index");
+	}
+
+	private static List<Entity> scanWithin(Level l, int x, int y, int r) {
+		List<Entity> found = new ArrayList<Entity>();
+		for (int i = 0; i < l.getWidth(); i++)
+			for (int j = 0; j < l.getHeight(); j++)
+				if (l.getEntityAt(i, j) != null && Math.abs(i - x) + Math.abs(j - y) <= r)
+					found.add(l.getEntityAt(i, j));
+		return found;
+	}
+
+	private static void assertMatchesTiles(Level l) {
+		EntityIndex index = l.getEntityIndex();
+		List<Entity> all = scanWithin(l, 0, 0, Integer.MAX_VALUE / 2);
+		assertEquals(all.size(), index.size());
+		for (Entity e : all) {
+			Vec2i at = index.positionOf(e);
+			assertSame(e, l.getEntityAt(at.x, at.y));
+		}
+	}
+
+	/**
+	 * The index follows every move, attack and death over many turns
+	 */
+	@Test
+	public void followsMoves() throws ConfigurationException {
+		for (boolean compact : new boolean[] { false, true }) {
+			Level l = level(compact, 11);
+			l.getEntityIndex();
+			RandomGen rand = new RandomGen(5);
+			for (int turn = 0; turn < 500; turn++) {
+				for (EntityActionManager m : l.getManager().getEntity("monster"))
+					if (l.getManager().reallyExists(m))
+						m.getEntity().move(DIRS[rand.getRandom(DIRS.length)]);
+				assertMatchesTiles(l);
+			}
+		}
+	}
+
+	@Test
+	public void queriesMatchScan() throws ConfigurationException {
+		Level l = level(false, 4);
+		EntityIndex index = l.getEntityIndex();
+		RandomGen rand = new RandomGen(9);
+
+		for (int i = 0; i < 200; i++) {
+			int x = rand.getRandom(l.getWidth()), y = rand.getRandom(l.getHeight());
+			int r = rand.getRandom(30);
+			assertEquals(new HashSet<Entity>(scanWithin(l, x, y, r)),
+					new HashSet<Entity>(index.within(x, y, r)));
+		}
+
+		for (Room room : l.getRooms()) {
+			HashSet<Entity> inside = new HashSet<Entity>();
+			for (int x = room.min.x; x <= room.max.x; x++)
+				for (int y = room.min.y; y <= room.max.y; y++)
+					if (l.getEntityAt(x, y) != null)
+						inside.add(l.getEntityAt(x, y));
+			assertEquals(inside, new HashSet<Entity>(index.inRoom(room)));
+		}
+	}
+
+	@Test
+	public void nearestHostile() throws ConfigurationException {
+		Level l = level(false, 4);
+		EntityIndex index = l.getEntityIndex();
+		Combatable player = (Combatable) l.getManager().getPlayer(0).getEntity();
+		Vec2i p = index.positionOf(player);
+
+		int best = Integer.MAX_VALUE;
+		for (EntityActionManager m : l.getManager().getEntity("monster")) {
+			Vec2i at = index.positionOf(m.getEntity());
+			best = Math.min(best, Math.abs(at.x - p.x) + Math.abs(at.y - p.y));
+
+			// The only enemy of a monster is the player
+			assertSame(player, index.nearestHostile(m.getEntity()));
+		}
+
+		Combatable nearest = index.nearestHostile(player);
+		Vec2i at = index.positionOf(nearest);
+		assertEquals(best, Math.abs(at.x - p.x) + Math.abs(at.y - p.y));
+		assertTrue(nearest.getTeam() != player.getTeam());
+
+		if (best > 1)
+			assertNull(index.nearestHostile(player, best - 1));
+	}
+
+	/**
+	 * Enough monsters that the index searches their cells instead of
+	 * looking through all of them
+	 */
+	@Test
+	public void nearestHostileInCrowd() throws ConfigurationException {
+		Level l = level(false, 8);
+		RandomGen rand = new RandomGen(3);
+		MonsterTemplate template = TemplateRegistry.forDir("../config").getMonsters().get(0);
+		List<Tile> free = new ArrayList<Tile>();
+		for (int x = 0; x < l.getWidth(); x++)
+			for (int y = 0; y < l.getHeight(); y++)
+				if (l.getTile(x, y).isPassable())
+					free.add(l.getTile(x, y));
+		for (int i = 0; i < 150; i++) {
+			Monster m = new Monster(template, l);
+			free.remove(rand.getRandom(free.size())).setEntity(m);
+			l.getManager().register(m);
+		}
+
+		EntityIndex index = l.getEntityIndex();
+		MainCharacter player = (MainCharacter) l.getManager().getPlayer(0).getEntity();
+		for (int i = 0; i < 50; i++) {
+			player.getLocation().setEntity(null);
+			free.remove(rand.getRandom(free.size())).setEntity(player);
+			Vec2i p = index.positionOf(player);
+
+			int best = Integer.MAX_VALUE;
+			for (EntityActionManager m : l.getManager().getEntity("monster")) {
+				Vec2i at = index.positionOf(m.getEntity());
+				best = Math.min(best, Math.abs(at.x - p.x) + Math.abs(at.y - p.y));
+			}
+			Vec2i at = index.positionOf(index.nearestHostile(player));
+			assertEquals(best, Math.abs(at.x - p.x) + Math.abs(at.y - p.y));
+		}
+	}
+
+}
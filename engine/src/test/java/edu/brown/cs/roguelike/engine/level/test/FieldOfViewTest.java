@@ -0,0 +1,123 @@
+package edu.brown.cs.roguelike.engine.level.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.config.TemplateRegistry;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.entities.Monster;
+import edu.brown.cs.roguelike.engine.level.FieldOfView;
+import edu.brown.cs.roguelike.engine.level.Hallway;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.level.TileType;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+
+public class FieldOfViewTest {
+
+	/**
+	 * An open floor with a wall down column 10
+	 */
+	private static Level walled() {
+		Tile[][] tiles = new Tile[21][11];
+		for (int x = 0; x < 21; x++)
+			for (int y = 0; y < 11; y++) {
+				tiles[x][y] = new Tile(x == 10 ? TileType.WALL_VER : TileType.FLOOR);
+				tiles[x][y].setLocation(new Vec2i(x, y));
+			}
+		return new Level(tiles, new ArrayList<Room>(), new ArrayList<Hallway>());
+	}
+
+	@Test
+	public void wallsBlockSight() {
+		Level l = walled();
+		l.updateFieldOfView(l.getTile(7, 5));
+		FieldOfView fov = l.getFieldOfView();
+
+		assertTrue(fov.isVisible(7, 5));
+		assertTrue(fov.isVisible(9, 5));
+		assertTrue(fov.isVisible(10, 5));
+		assertFalse(fov.isVisible(11, 5));
+		assertFalse(fov.isVisible(12, 4));
+
+		// Nothing further than the radius
+		assertTrue(fov.isVisible(7 - FieldOfView.DEFAULT_RADIUS, 5));
+		assertFalse(fov.isVisible(7 - FieldOfView.DEFAULT_RADIUS - 1, 5));
+		assertFalse(fov.isVisible(3, 0));
+
+		// What was seen is revealed, and only that
+		for (int x = 0; x < l.getWidth(); x++)
+			for (int y = 0; y < l.getHeight(); y++) {
+				assertEquals(fov.isVisible(x, y), l.getTile(x, y).getReveal());
+				assertEquals(fov.isVisible(x, y), fov.isRemembered(x, y));
+			}
+	}
+
+	@Test
+	public void castsOnlyWhenSomethingChanged() {
+		Level l = walled();
+		l.updateFieldOfView(l.getTile(7, 5));
+		l.updateFieldOfView(l.getTile(7, 5));
+		FieldOfView fov = l.getFieldOfView();
+		assertEquals(1, fov.getCasts());
+
+		// Opening the wall lets the viewer see through
+		l.getTile(10, 5).setType(TileType.DOOR);
+		l.updateFieldOfView(l.getTile(7, 5));
+		assertEquals(2, fov.getCasts());
+		assertTrue(fov.isVisible(11, 5));
+
+		// Stepping away leaves what was seen remembered but out of sight
+		l.updateFieldOfView(l.getTile(2, 5));
+		assertEquals(3, fov.getCasts());
+		assertFalse(fov.isVisible(11, 5));
+		assertTrue(fov.isRemembered(11, 5));
+		assertTrue(l.getTile(11, 5).getReveal());
+	}
+
+	@Test
+	public void roomsAreLit() throws ConfigurationException {
+		for (boolean compact : new boolean[] { false, true }) {
+			BSPLevelGenerator gen = new BSPLevelGenerator("../config");
+			gen.setCompactTiles(compact);
+			Level l = gen.generateLevel(new Vec2i(160, 48), 3, 8);
+			MainCharacter mc = new MainCharacter("fov");
+			l.placeCharacter(mc, true);
+			Room home = (Room) mc.getLocation().getSpace();
+
+			Room other = null;
+			for (Room r : l.getRooms())
+				if (r != home)
+					other = r;
+			Tile there = l.getTile(other.min.x, other.min.y);
+			Monster m = new Monster(TemplateRegistry.forDir("../config").getMonsters().get(0), l);
+			there.setEntity(m);
+			l.getManager().register(m);
+
+			l.updateFieldOfView(mc.getLocation());
+			for (int x = home.min.x - 1; x <= home.max.x + 1; x++)
+				for (int y = home.min.y - 1; y <= home.max.y + 1; y++)
+					assertTrue(l.isVisible(x, y));
+			assertTrue(l.revealedRooms.contains(home));
+
+			l.updateFieldOfView(l.getTile(other.max.x, other.max.y));
+			assertTrue(l.isVisible(there.getLocation().x, there.getLocation().y));
+			assertEquals(m.getCharacter(), l.getTile(other.min.x, other.min.y).getCharacter());
+
+			// Out of sight, the room is drawn without the monster in it
+			l.updateFieldOfView(l.getTile(home.min.x, home.min.y));
+			assertFalse(l.isVisible(there.getLocation().x, there.getLocation().y));
+			assertTrue(l.isRevealed(there.getLocation().x, there.getLocation().y));
+			assertEquals(TileType.FLOOR.getCharacter(), l.getTile(other.min.x, other.min.y).getCharacter());
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+package edu.brown.cs.roguelike.engine.level.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.lanterna.terminal.Terminal.Color;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.entities.Potion;
+import edu.brown.cs.roguelike.engine.entities.events.ChangeHP;
+import edu.brown.cs.roguelike.engine.graphics.test.OfflineTerminal;
+import edu.brown.cs.roguelike.engine.graphics.test.RecordingWriter;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+import edu.brown.cs.roguelike.engine.save.BinarySaveFormat;
+import edu.brown.cs.roguelike.engine.save.SaveLoadException;
+import edu.brown.cs.roguelike.engine.save.SaveOutput;
+
+public class LevelDrawTest {
+
+	private static final int W = 80, H = 24;
+
+	private Level level;
+	private RecordingWriter sw;
+
+	@Before
+	public void setUp() throws ConfigurationException {
+		level = new BSPLevelGenerator("../config").generateLevel(new Vec2i(W, H), 1, 42);
+		sw = new RecordingWriter(OfflineTerminal.newScreen(W, H), W, H);
+	}
+
+	private void assertShowsLevel() {
+		for (int x = 0; x < W; x++)
+			for (int y = 0; y < H; y++)
+				assertEquals(level.getTile(x, y).getCharacter(), sw.cells[x][y]);
+	}
+
+	@Test
+	public void fullDrawCoalescesRuns() {
+		level.doDraw(sw);
+		assertShowsLevel();
+		assertEquals(W * H, sw.characters);
+		// a hidden level is mostly runs of one color
+		assertTrue(sw.strings < W * H / 10);
+		assertEquals(0, level.getDamagedTileCount());
+	}
+
+	@Test
+	public void onlyChangesAreRedrawn() {
+		level.doDraw(sw);
+		sw.reset();
+		level.drawChanges(sw);
+		assertEquals(0, sw.strings);
+
+		Room r = level.getRooms().get(0);
+		level.revealRoom(r);
+		Tile t = level.getTile(r.min.x, r.min.y);
+		t.addStackable(new Potion(Color.RED, new ChangeHP(5)));
+
+		int roomCells = (r.max.x - r.min.x + 3) * (r.max.y - r.min.y + 3);
+		assertEquals(roomCells, level.getDamagedTileCount());
+
+		level.drawChanges(sw);
+		assertShowsLevel();
+		assertEquals(roomCells, sw.characters);
+		// at most a few runs per row of the room
+		assertTrue(sw.strings <= 3 * (r.max.y - r.min.y + 3));
+
+		sw.reset();
+		level.drawChanges(sw);
+		assertEquals(0, sw.strings);
+	}
+
+	/**
+	 * Looking at a pile, or saving it, leaves the tile to be drawn and
+	 * saved as it was
+	 */
+	@Test
+	public void readingPilesChangesNothing() throws IOException, SaveLoadException {
+		Room r = level.getRooms().get(0);
+		Tile t = level.getTile(r.min.x, r.min.y);
+		t.addStackable(new Potion(Color.RED, new ChangeHP(5)));
+		level.doDraw(sw);
+		level.clearDirty();
+
+		assertEquals(1, t.getStackables().size());
+		assertTrue(t.hasStackables());
+		SaveOutput out = new SaveOutput(Channels.newChannel(new ByteArrayOutputStream()));
+		BinarySaveFormat.writeLevel(level, out);
+		out.flush();
+
+		assertEquals(0, level.getDamagedTileCount());
+		assertEquals(0, level.getDirtyTileCount());
+	}
+
+}
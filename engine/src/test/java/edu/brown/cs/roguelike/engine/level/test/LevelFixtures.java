@@ -0,0 +1,57 @@
+package edu.brown.cs.roguelike.engine.level.test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+
+/**
+ * Generated levels for tests, from the config the game ships with
+ *
+ */
+public final class LevelFixtures {
+
+	/** The size of a screen */
+	public static final Vec2i SMALL = new Vec2i(80, 24);
+
+	/** Big enough for a few dozen spaces */
+	public static final Vec2i LARGE = new Vec2i(160, 48);
+
+	private LevelFixtures() {
+	}
+
+	/**
+	 * @param compact Whether the level keeps its tiles in a TileStore
+	 */
+	public static Level level(Vec2i size, int depth, boolean compact, long seed)
+			throws ConfigurationException {
+		BSPLevelGenerator gen = new BSPLevelGenerator("../config");
+		gen.setCompactTiles(compact);
+		return gen.generateLevel(size, depth, seed);
+	}
+
+	/**
+	 * A generated level with nobody on it, so nothing is in the way
+	 */
+	public static Level emptyLevel(Vec2i size, int depth, boolean compact, long seed)
+			throws ConfigurationException {
+		Level l = level(size, depth, compact, seed);
+		for (int x = 0; x < l.getWidth(); x++)
+			for (int y = 0; y < l.getHeight(); y++)
+				if (l.getEntityAt(x, y) != null)
+					l.getTile(x, y).setEntity(null);
+		return l;
+	}
+
+	/**
+	 * A generated level with a player called name on its stairs
+	 */
+	public static Level levelWithPlayer(Vec2i size, int depth, boolean compact, long seed,
+			String name) throws ConfigurationException {
+		Level l = level(size, depth, compact, seed);
+		l.placeCharacter(new MainCharacter(name), true);
+		return l;
+	}
+
+}
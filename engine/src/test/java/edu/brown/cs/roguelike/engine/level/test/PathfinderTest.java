@@ -0,0 +1,115 @@
+package edu.brown.cs.roguelike.engine.level.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Pathfinder;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.pathfinding.AStar;
+
+public class PathfinderTest {
+
+	private static List<Tile> passable(Level l) {
+		List<Tile> tiles = new ArrayList<Tile>();
+		for (int x = 0; x < l.getWidth(); x++)
+			for (int y = 0; y < l.getHeight(); y++)
+				if (l.getTileType(x, y).isPassable())
+					tiles.add(l.getTile(x, y));
+		return tiles;
+	}
+
+	/**
+	 * Paths are found where AStar finds them, are as long as AStar's and
+	 * GridAStar's, and are walkable
+	 */
+	@Test
+	public void matchesAStar() throws ConfigurationException {
+		Random r = new Random(7);
+		for (long seed = 1; seed <= 4; seed++) {
+			// compact levels hand AStar a new view of a tile each time
+			Level l = LevelFixtures.emptyLevel(LevelFixtures.SMALL, 1, seed % 2 == 0, seed);
+			List<Tile> floor = passable(l);
+			Pathfinder p = l.getPathfinder();
+			for (int i = 0; i < 30; i++) {
+				Tile s = floor.get(r.nextInt(floor.size()));
+				Tile e = floor.get(r.nextInt(floor.size()));
+				List<Tile> expected = new AStar<Tile>().computePath(s, e);
+				List<Tile> path = p.findPath(s, e);
+				if (expected == null) {
+					assertNull(path);
+					continue;
+				}
+				assertEquals(expected.size(), path.size());
+				assertEquals(l.getGridAStar().computePath(l, s, e).size(), path.size());
+				assertEquals(s, path.get(0));
+				assertEquals(e, path.get(path.size() - 1));
+				assertEquals(path.size() - 1, p.getDistance(e));
+				for (int j = 1; j < path.size(); j++) {
+					Vec2i a = path.get(j - 1).getLocation(), b = path.get(j).getLocation();
+					assertEquals(1, Math.abs(a.x - b.x) + Math.abs(a.y - b.y));
+					assertTrue(path.get(j).getType().isPassable());
+				}
+			}
+		}
+	}
+
+	/**
+	 * The nearest stairs and items are found, and nothing past the radius
+	 */
+	@Test
+	public void nearestTargets() throws ConfigurationException {
+		for (boolean compact : new boolean[] { false, true }) {
+			Level l = LevelFixtures.emptyLevel(LevelFixtures.SMALL, 1, compact, 2);
+			Pathfinder p = l.getPathfinder();
+
+			Tile from = l.upStairs;
+			assertEquals(from.getLocation(), p.nearest(from, 0, Pathfinder.STAIRS).getLocation());
+
+			Tile down = l.getTile(l.downStairs.getLocation().x, l.downStairs.getLocation().y);
+			p.flood(down, Pathfinder.UNBOUNDED);
+			int far = p.getDistance(from);
+			assertTrue(far > 0);
+			// the up stairs are further from the down stairs than themselves
+			assertEquals(down.getLocation(), p.nearest(down, far, Pathfinder.STAIRS).getLocation());
+
+			Tile item = p.nearest(from, Pathfinder.UNBOUNDED, Pathfinder.ITEMS);
+			if (item != null) {
+				assertTrue(item.hasStackables());
+				int d = p.getDistance(item);
+				assertNull(p.nearest(from, d - 1, Pathfinder.ITEMS));
+				assertNotNull(p.nearest(from, d, Pathfinder.ITEMS));
+			}
+
+			// bounded: nothing further than the radius is reached
+			p.flood(from, 3);
+			for (Tile t : passable(l)) {
+				int d = p.getDistance(t);
+				assertTrue(d <= 3);
+			}
+		}
+	}
+
+	/**
+	 * Corner tiles only have neighbours on the level
+	 */
+	@Test
+	public void neighborsStayOnTheLevel() throws ConfigurationException {
+		Level l = LevelFixtures.emptyLevel(LevelFixtures.SMALL, 1, false, 1);
+		assertEquals(2, l.getNeighbors(l.getTile(0, 0)).size());
+		assertEquals(2, l.getNeighbors(l.getTile(l.getWidth() - 1, l.getHeight() - 1)).size());
+		assertEquals(3, l.getNeighbors(l.getTile(0, 1)).size());
+		assertEquals(4, l.getNeighbors(l.getTile(1, 1)).size());
+	}
+
+}
@@ -0,0 +1,61 @@
+package edu.brown.cs.roguelike.engine.level.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.level.Hallway;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Space;
+import edu.brown.cs.roguelike.engine.level.SpaceGraph;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+
+public class SpaceGraphTest {
+
+	@Test
+	public void neighboursAreOneStep() throws ConfigurationException {
+		Level l = new BSPLevelGenerator("../config").generateLevel(new Vec2i(80, 24), 3, 6);
+		SpaceGraph g = l.getSpaceGraph();
+
+		for (Room r : l.getRooms()) {
+			Map<Space,Integer> steps = g.stepsFrom(r, Integer.MAX_VALUE);
+			assertEquals(0, (int) steps.get(r));
+			for (Room n : r.getConnectedRooms())
+				if (n != r)
+					assertEquals(1, (int) steps.get(n));
+
+			// Every space is reachable, and distances go both ways
+			assertEquals(l.getRooms().size() + l.getHallways().size(), steps.size());
+			for (Map.Entry<Space,Integer> e : steps.entrySet())
+				assertEquals(e.getValue(), g.stepsFrom(e.getKey(), Integer.MAX_VALUE).get(r));
+		}
+
+		for (Hallway h : l.getHallways()) {
+			Map<Space,Integer> steps = g.stepsFrom(h, 1);
+			for (Room r : h.getRooms())
+				assertEquals(1, (int) steps.get(r));
+			assertEquals(h.getRooms().size() + 1, steps.size());
+		}
+	}
+
+	@Test
+	public void stopsAtMax() throws ConfigurationException {
+		Level l = new BSPLevelGenerator("../config").generateLevel(new Vec2i(80, 24), 3, 6);
+		Room from = l.getRooms().get(0);
+		Map<Space,Integer> all = l.getSpaceGraph().stepsFrom(from, Integer.MAX_VALUE);
+		for (int max = 0; max < 4; max++) {
+			Map<Space,Integer> near = l.getSpaceGraph().stepsFrom(from, max);
+			for (Map.Entry<Space,Integer> e : all.entrySet())
+				assertEquals(e.getValue() <= max, near.containsKey(e.getKey()));
+			for (int steps : near.values())
+				assertTrue(steps <= max);
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+package edu.brown.cs.roguelike.engine.level.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.level.Hallway;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Space;
+import edu.brown.cs.roguelike.engine.level.SpaceIndex;
+import edu.brown.cs.roguelike.engine.level.Tile;
+
+public class SpaceIndexTest {
+
+	private static Level level(boolean compact, long seed) throws ConfigurationException {
+		return LevelFixtures.level(LevelFixtures.LARGE, 3, compact, seed);
+	}
+
+	@Test
+	public void matchesTheTiles() throws ConfigurationException {
+		for (boolean compact : new boolean[] { false, true }) {
+			for (long seed = 1; seed <= 5; seed++) {
+				Level l = level(compact, seed);
+				SpaceIndex index = l.getSpaceIndex();
+				for (int x = 0; x < l.getWidth(); x++)
+					for (int y = 0; y < l.getHeight(); y++) {
+						Tile t = l.getTile(x, y);
+						assertSame(t.getSpace(), index.getSpace(x, y));
+						assertEquals(index.getId(t.getSpace()), index.getId(x, y));
+						// Every floor is in a room or a hallway
+						if (t.getType().isPassable())
+							assertNotNull("seed " + seed + " " + t, t.getSpace());
+					}
+
+				for (int i = 0; i < l.getRooms().size(); i++) {
+					Room r = l.getRooms().get(i);
+					assertEquals(i, index.getId(r));
+					assertTrue(index.isRoom(i));
+					assertSame(r, index.getSpace(r.min.x, r.min.y));
+					assertSame(r, index.getSpace(r.max.x, r.max.y));
+				}
+				for (Hallway h : l.getHallways())
+					assertTrue(!index.isRoom(index.getId(h)));
+			}
+		}
+	}
+
+	@Test
+	public void adjacencyMatchesTheSpaces() throws ConfigurationException {
+		Level l = level(false, 3);
+		SpaceIndex index = l.getSpaceIndex();
+		for (int id = 0; id < index.size(); id++) {
+			Space s = index.getSpace(id);
+			Set<Space> expected = new HashSet<Space>();
+			if (s instanceof Room) {
+				expected.addAll(((Room) s).getConnectedRooms());
+				for (Hallway h : l.getHallways())
+					if (h.getRooms().contains(s))
+						expected.add(h);
+			} else {
+				expected.addAll(((Hallway) s).getRooms());
+			}
+			expected.remove(s);
+
+			Set<Space> adjacent = new HashSet<Space>();
+			for (int n : index.getAdjacent(id)) {
+				assertTrue(adjacent.add(index.getSpace(n)));
+				// and back
+				boolean back = false;
+				for (int m : index.getAdjacent(n))
+					back |= m == id;
+				assertTrue(back);
+			}
+			assertEquals(expected, adjacent);
+		}
+	}
+
+	@Test
+	public void sameSpace() throws ConfigurationException {
+		Level l = level(true, 2);
+		SpaceIndex index = l.getSpaceIndex();
+		Room a = l.getRooms().get(0), b = l.getRooms().get(1);
+		assertTrue(index.sameSpace(l.getTile(a.min.x, a.min.y), l.getTile(a.max.x, a.max.y)));
+		assertTrue(!index.sameSpace(l.getTile(a.min.x, a.min.y), l.getTile(b.min.x, b.min.y)));
+		// Walls are in no space, not the same one
+		Tile wall = l.getTile(a.min.x - 1, a.min.y - 1);
+		assertEquals(SpaceIndex.NONE, index.getId(wall));
+		assertTrue(!index.sameSpace(wall, wall));
+	}
+
+}
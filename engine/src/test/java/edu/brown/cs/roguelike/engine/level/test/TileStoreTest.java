@@ -0,0 +1,149 @@
+package edu.brown.cs.roguelike.engine.level.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.entities.Jewel;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.level.Direction;
+import edu.brown.cs.roguelike.engine.level.Hallway;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.level.TileStore;
+import edu.brown.cs.roguelike.engine.level.TileType;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+
+public class TileStoreTest {
+
+	private static Level compactLevel(int w, int h) {
+		return new Level(compactStore(w, h), new ArrayList<Room>(), new ArrayList<Hallway>());
+	}
+
+	private static TileStore compactStore(int w, int h) {
+		Tile[][] tiles = new Tile[w][h];
+		for (int x = 0; x < w; x++) {
+			for (int y = 0; y < h; y++) {
+				boolean edge = x == 0 || y == 0 || x == w - 1 || y == h - 1;
+				tiles[x][y] = new Tile(edge ? TileType.WALL_HOR : TileType.FLOOR);
+				tiles[x][y].setLocation(new Vec2i(x, y));
+			}
+		}
+		return TileStore.fromTiles(tiles);
+	}
+
+	/**
+	 * Views of the same cell share state and are interchangeable
+	 */
+	@Test
+	public void viewsShareState() {
+		Level level = compactLevel(6, 5);
+		Tile a = level.getTile(2, 3);
+		Tile b = level.getTile(2, 3);
+
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		assertEquals(a.getId(), b.getId());
+		assertFalse(a.equals(level.getTile(3, 2)));
+
+		a.setType(TileType.DOOR);
+		a.setReveal(true);
+		a.addStackable(new Jewel());
+		assertEquals(TileType.DOOR, b.getType());
+		assertTrue(b.getReveal());
+		assertEquals(1, b.getStackables().size());
+		assertEquals(TileType.WALL_HOR, level.getTileType(0, 0));
+	}
+
+	/**
+	 * Moving an entity goes through the store
+	 */
+	@Test
+	public void moveUpdatesStore() {
+		Level level = compactLevel(6, 5);
+		MainCharacter mc = new MainCharacter("test");
+		level.getTile(1, 1).setEntity(mc);
+
+		mc.move(Direction.RIGHT);
+		assertNull(level.getEntityAt(1, 1));
+		assertSame(mc, level.getEntityAt(2, 1));
+		assertEquals(level.getTile(2, 1), mc.getLocation());
+
+		// walls stop movement
+		mc.move(Direction.UP);
+		assertSame(mc, level.getEntityAt(2, 1));
+	}
+
+	/**
+	 * Walking around only keeps piles where something lies, and a pile
+	 * picked up is forgotten
+	 */
+	@Test
+	public void pilesStaySparse() {
+		TileStore store = compactStore(8, 5);
+		Level level = new Level(store, new ArrayList<Room>(), new ArrayList<Hallway>());
+		level.getTile(4, 3).addStackable(new Jewel());
+		assertEquals(1, store.getPileCount());
+
+		MainCharacter mc = new MainCharacter("test");
+		level.getTile(1, 1).setEntity(mc);
+		for (int i = 0; i < 5; i++)
+			mc.move(Direction.RIGHT);
+		for (int i = 0; i < 5; i++)
+			mc.move(Direction.LEFT);
+		assertEquals(1, store.getPileCount());
+
+		mc.move(Direction.DOWN);
+		mc.move(Direction.DOWN);
+		for (int i = 0; i < 3; i++)
+			mc.move(Direction.RIGHT);
+		assertEquals(level.getTile(4, 3), mc.getLocation());
+		assertEquals(0, store.getPileCount());
+		assertFalse(level.getTile(4, 3).hasStackables());
+		assertEquals(1, mc.getInventory().size());
+	}
+
+	/**
+	 * A generated compact level matches the grid version cell for cell and
+	 * survives serialization
+	 */
+	@Test
+	public void generatedLevelRoundTrip() throws ConfigurationException, IOException, ClassNotFoundException {
+		BSPLevelGenerator gen = new BSPLevelGenerator("../config");
+		gen.setCompactTiles(true);
+		Level level = gen.generateLevel(new Vec2i(80, 24), 1);
+		assertNull(level.tiles);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(out);
+		oos.writeObject(level);
+		oos.close();
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()));
+		Level copy = (Level) ois.readObject();
+		ois.close();
+
+		for (int x = 0; x < level.getWidth(); x++) {
+			for (int y = 0; y < level.getHeight(); y++) {
+				assertEquals(level.getTileType(x, y), copy.getTileType(x, y));
+				assertEquals(level.getEntityAt(x, y) == null, copy.getEntityAt(x, y) == null);
+			}
+		}
+		assertEquals(TileType.UP_STAIRS, copy.upStairs.getType());
+		assertEquals(copy.upStairs, copy.getTile(copy.upStairs.getLocation().x, copy.upStairs.getLocation().y));
+	}
+
+}
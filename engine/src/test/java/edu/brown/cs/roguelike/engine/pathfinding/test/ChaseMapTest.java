@@ -0,0 +1,89 @@
+package edu.brown.cs.roguelike.engine.pathfinding.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.level.Direction;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.level.TileType;
+import edu.brown.cs.roguelike.engine.pathfinding.ChaseMap;
+
+public class ChaseMapTest {
+
+	private static final String[] MAP = {
+		"##########",
+		"#........#",
+		"#.######.#",
+		"#.#....#.#",
+		"#...##...#",
+		"##########",
+	};
+
+	/**
+	 * Following the field from anywhere walks a shortest path to the target
+	 */
+	@Test
+	public void descendsShortestPath() {
+		Level level = GridAStarTest.buildLevel(MAP);
+		Tile[][] t = level.getTiles();
+		Tile target = t[5][3];
+
+		Tile cur = t[1][1];
+		List<Tile> best = level.getGridAStar().computePath(level, cur, target);
+		ChaseMap map = level.getChaseMap(target);
+		assertEquals(best.size() - 1, map.getDistance(cur));
+
+		int steps = 0;
+		Direction dir;
+		while ((dir = map.directionFrom(cur)) != null) {
+			Vec2i next = cur.getLocation().plus(dir.getDelta());
+			cur = t[next.x][next.y];
+			steps++;
+		}
+		assertEquals(target, cur);
+		assertEquals(best.size() - 1, steps);
+	}
+
+	/**
+	 * The field is only rebuilt when the target moves or passability changes
+	 */
+	@Test
+	public void rebuildsOnlyWhenStale() {
+		Level level = GridAStarTest.buildLevel(MAP);
+		Tile[][] t = level.getTiles();
+
+		ChaseMap map = level.getChaseMap(t[5][3]);
+		level.getChaseMap(t[5][3]);
+		assertEquals(1, map.getRebuilds());
+
+		level.getChaseMap(t[6][3]);
+		assertEquals(2, map.getRebuilds());
+
+		// not a passability change
+		t[1][1].setType(TileType.DOOR);
+		level.getChaseMap(t[6][3]);
+		assertEquals(2, map.getRebuilds());
+
+		// cut the left loop: (1,1) now has to go around the right side
+		t[1][2].setType(TileType.WALL_VER);
+		assertTrue(map.isStale());
+		level.getChaseMap(t[6][3]);
+		assertEquals(3, map.getRebuilds());
+		assertEquals(Direction.RIGHT, map.directionFrom(t[1][1]));
+
+		// wall the target off entirely
+		t[6][4].setType(TileType.WALL_VER);
+		t[7][3].setType(TileType.WALL_VER);
+		t[5][3].setType(TileType.WALL_VER);
+		assertNull(level.getChaseMap(t[6][3]).directionFrom(t[1][1]));
+		assertEquals(ChaseMap.UNREACHABLE, map.getDistance(t[1][1]));
+	}
+
+}
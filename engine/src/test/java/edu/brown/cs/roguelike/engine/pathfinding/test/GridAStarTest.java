@@ -0,0 +1,147 @@
+package edu.brown.cs.roguelike.engine.pathfinding.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.level.Hallway;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.level.TileType;
+import edu.brown.cs.roguelike.engine.pathfinding.AStar;
+import edu.brown.cs.roguelike.engine.pathfinding.GridAStar;
+import edu.brown.cs.roguelike.engine.pathfinding.IndexedMinHeap;
+
+public class GridAStarTest {
+
+	/** '#' is wall, '.' is floor. Rows are y, columns are x. */
+	private static final String[] MAP = {
+		"############",
+		"#....#.....#",
+		"#.##.#.###.#",
+		"#.#..#...#.#",
+		"#.#.####.#.#",
+		"#.#......#.#",
+		"#.########.#",
+		"#..........#",
+		"############",
+	};
+
+	private Level level;
+
+	@Before
+	public void setUp() {
+		level = buildLevel(MAP);
+	}
+
+	static Level buildLevel(String[] map) {
+		Tile[][] tiles = new Tile[map[0].length()][map.length];
+		for (int x = 0; x < tiles.length; x++) {
+			for (int y = 0; y < tiles[0].length; y++) {
+				char c = map[y].charAt(x);
+				tiles[x][y] = new Tile(c == '#' ? TileType.WALL_HOR : TileType.FLOOR);
+				tiles[x][y].setLocation(new Vec2i(x, y));
+			}
+		}
+		return new Level(tiles, new ArrayList<Room>(), new ArrayList<Hallway>());
+	}
+
+	private static int cost(List<Tile> path) {
+		int c = 0;
+		for (int i = 1; i < path.size(); i++)
+			c += path.get(i - 1).distance(path.get(i));
+		return c;
+	}
+
+	private static void assertContiguous(List<Tile> path) {
+		for (int i = 1; i < path.size(); i++) {
+			Vec2i a = path.get(i - 1).getLocation();
+			Vec2i b = path.get(i).getLocation();
+			assertEquals(1, Math.abs(a.x - b.x) + Math.abs(a.y - b.y));
+			assertTrue(path.get(i).getType().isPassable());
+		}
+	}
+
+	/**
+	 * The grid engine finds paths as cheap as the object-graph AStar
+	 */
+	@Test
+	public void matchesNodeAStar() {
+		Tile[][] t = level.getTiles();
+		Tile[] ends = { t[1][1], t[4][3], t[6][1], t[10][7], t[3][5], t[8][3] };
+
+		for (Tile s : ends) {
+			for (Tile e : ends) {
+				List<Tile> expected = new AStar<Tile>().computePath(s, e);
+				List<Tile> actual = level.getGridAStar().computePath(level, s, e);
+
+				assertNotNull(actual);
+				assertEquals(s, actual.get(0));
+				assertEquals(e, actual.get(actual.size() - 1));
+				assertContiguous(actual);
+				assertEquals(cost(expected), cost(actual));
+			}
+		}
+	}
+
+	/**
+	 * nextStep agrees with the second tile of the full path, and the engine
+	 * can be reused without being reset
+	 */
+	@Test
+	public void nextStepIsSecondTileOfPath() {
+		Tile[][] t = level.getTiles();
+		GridAStar grid = level.getGridAStar();
+
+		for (int i = 0; i < 3; i++) {
+			List<Tile> path = grid.computePath(level, t[1][1], t[8][3]);
+			assertEquals(path.get(1), grid.nextStep(level, t[1][1], t[8][3]));
+		}
+		assertNull(grid.nextStep(level, t[1][1], t[1][1]));
+	}
+
+	/**
+	 * Unreachable goals give no path
+	 */
+	@Test
+	public void unreachable() {
+		Tile[][] t = level.getTiles();
+		t[10][3].setType(TileType.WALL_VER);
+		t[6][1].setType(TileType.WALL_VER);
+		t[8][4].setType(TileType.WALL_VER);
+
+		assertNull(level.getGridAStar().computePath(level, t[1][1], t[7][1]));
+		assertNull(level.getGridAStar().nextStep(level, t[1][1], t[7][1]));
+	}
+
+	/**
+	 * The heap pops in key order, honoring decreased keys
+	 */
+	@Test
+	public void heapDecreaseKey() {
+		IndexedMinHeap heap = new IndexedMinHeap(8);
+		heap.push(3, 30);
+		heap.push(5, 50);
+		heap.push(1, 10);
+		heap.push(7, 70);
+		heap.decreaseKey(7, 5);
+		heap.decreaseKey(5, 60); // not lower, ignored
+
+		assertEquals(7, heap.pop());
+		assertEquals(1, heap.pop());
+		assertEquals(3, heap.pop());
+		assertTrue(heap.contains(5));
+		assertEquals(5, heap.pop());
+		assertTrue(heap.isEmpty());
+	}
+
+}
@@ -0,0 +1,124 @@
+package edu.brown.cs.roguelike.engine.pathfinding.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.level.TileType;
+import edu.brown.cs.roguelike.engine.level.test.LevelFixtures;
+import edu.brown.cs.roguelike.engine.pathfinding.ChaseMap;
+import edu.brown.cs.roguelike.engine.pathfinding.HierarchicalPathfinder;
+
+public class HierarchicalPathfinderTest {
+
+	private static Level emptyLevel(long seed) throws ConfigurationException {
+		return LevelFixtures.emptyLevel(LevelFixtures.LARGE, 3, false, seed);
+	}
+
+	/**
+	 * Stepping from one stair to the other takes as many steps as the
+	 * shortest path on the tiles
+	 */
+	@Test
+	public void walksShortestPaths() throws ConfigurationException {
+		for (long seed = 1; seed <= 5; seed++) {
+			Level l = emptyLevel(seed);
+			HierarchicalPathfinder hpa = l.getHierarchicalPathfinder();
+			assertTrue(hpa.getPortalCount() > 0);
+
+			Tile goal = l.downStairs;
+			Tile cur = l.upStairs;
+			int best = l.getChaseMap(goal).getDistance(cur);
+			assertTrue(best != ChaseMap.UNREACHABLE);
+
+			int steps = 0;
+			Tile next;
+			while ((next = hpa.nextStep(l, cur, goal)) != null) {
+				assertEquals(1, Math.abs(next.getLocation().x - cur.getLocation().x)
+						+ Math.abs(next.getLocation().y - cur.getLocation().y));
+				cur = next;
+				steps++;
+				assertTrue(steps <= best);
+			}
+			assertSame("seed " + seed, goal, cur);
+			assertEquals(best, steps);
+		}
+	}
+
+	/**
+	 * Within one room it steps straight across it
+	 */
+	@Test
+	public void sameSpace() throws ConfigurationException {
+		Level l = emptyLevel(2);
+		Room r = l.getRooms().get(0);
+		Tile from = l.getTile(r.min.x, r.min.y);
+		Tile to = l.getTile(r.max.x, r.min.y);
+		if (from == to)
+			to = l.getTile(r.min.x, r.max.y);
+
+		Tile next = l.getHierarchicalPathfinder().nextStep(l, from, to);
+		assertNotNull(next);
+		assertEquals(l.getChaseMap(to).getDistance(from) - 1, l.getChaseMap(to).getDistance(next));
+		assertNull(l.getHierarchicalPathfinder().nextStep(l, from, from));
+	}
+
+	/**
+	 * Steps within one room follow the goal when it moves, and are the
+	 * same when asked again
+	 */
+	@Test
+	public void sameSpaceGoalMoves() throws ConfigurationException {
+		Level l = emptyLevel(4);
+		HierarchicalPathfinder hpa = l.getHierarchicalPathfinder();
+		Room r = l.getRooms().get(0);
+		Tile[] goals = { l.getTile(r.min.x, r.min.y), l.getTile(r.max.x, r.max.y),
+				l.getTile(r.min.x, r.min.y) };
+		for (Tile goal : goals) {
+			for (int x = r.min.x; x <= r.max.x; x++) {
+				for (int y = r.min.y; y <= r.max.y; y++) {
+					Tile from = l.getTile(x, y);
+					Tile next = hpa.nextStep(l, from, goal);
+					if (from == goal) {
+						assertNull(next);
+						continue;
+					}
+					ChaseMap map = l.getChaseMap(goal);
+					assertEquals(map.getDistance(from) - 1, map.getDistance(next));
+					assertSame(next, hpa.nextStep(l, from, goal));
+				}
+			}
+		}
+	}
+
+	/**
+	 * It is built again once a tile changes passability, and finds no way
+	 * to a goal that has been walled off
+	 */
+	@Test
+	public void rebuiltWhenPassabilityChanges() throws ConfigurationException {
+		Level l = emptyLevel(3);
+		HierarchicalPathfinder before = l.getHierarchicalPathfinder();
+		assertSame(before, l.getHierarchicalPathfinder());
+
+		Tile goal = l.downStairs;
+		int gx = goal.getLocation().x, gy = goal.getLocation().y;
+		for (int x = gx - 1; x <= gx + 1; x++)
+			for (int y = gy - 1; y <= gy + 1; y++)
+				if ((x != gx || y != gy) && l.inBounds(x, y))
+					l.getTile(x, y).setType(TileType.WALL_VER);
+
+		assertNotSame(before, l.getHierarchicalPathfinder());
+		assertNull(l.getHierarchicalPathfinder().nextStep(l, l.upStairs, goal));
+	}
+
+}
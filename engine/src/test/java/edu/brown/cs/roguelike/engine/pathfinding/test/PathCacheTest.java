@@ -0,0 +1,125 @@
+package edu.brown.cs.roguelike.engine.pathfinding.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.level.TileType;
+import edu.brown.cs.roguelike.engine.pathfinding.PathCache;
+
+public class PathCacheTest {
+
+	private static final String[] MAP = {
+		"####################",
+		"#..................#",
+		"#.################.#",
+		"#.#..............#.#",
+		"#.#..............#.#",
+		"#....................",
+		"####################",
+	};
+
+	/**
+	 * Following an unchanged path only searches once
+	 */
+	@Test
+	public void reusesThePath() {
+		Level level = GridAStarTest.buildLevel(MAP);
+		Tile[][] t = level.getTiles();
+		Tile goal = t[10][4];
+		Tile cur = t[1][1];
+		int best = level.getGridAStar().computePath(level, cur, goal).size() - 1;
+
+		PathCache cache = new PathCache();
+		int steps = 0;
+		Tile next;
+		while ((next = cache.nextStep(level, cur, goal)) != null) {
+			cur = next;
+			steps++;
+		}
+		assertSame(goal, cur);
+		assertEquals(best, steps);
+		assertEquals(1, cache.getMisses());
+		assertEquals(0, cache.getRepairs());
+		assertEquals(best - 1, cache.getHits());
+	}
+
+	/**
+	 * A goal that moves a little is followed by repairing the path's end,
+	 * and one that moves far is planned for again
+	 */
+	@Test
+	public void followsAMovingGoal() {
+		Level level = GridAStarTest.buildLevel(MAP);
+		Tile[][] t = level.getTiles();
+		PathCache cache = new PathCache(2);
+
+		Tile cur = cache.nextStep(level, t[1][1], t[10][4]);
+		cur = cache.nextStep(level, cur, t[11][4]);
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getRepairs());
+
+		// back onto the old path: cut short
+		cur = cache.nextStep(level, cur, t[10][4]);
+		assertEquals(2, cache.getRepairs());
+
+		// too far from where the path was planned to
+		cur = cache.nextStep(level, cur, t[14][4]);
+		assertEquals(2, cache.getMisses());
+
+		Tile goal = t[14][4];
+		Tile next;
+		while ((next = cache.nextStep(level, cur, goal)) != null)
+			cur = next;
+		assertSame(goal, cur);
+	}
+
+	/**
+	 * A tile blocked ahead is routed around without planning again
+	 */
+	@Test
+	public void repairsAroundBlockedTiles() {
+		Level level = GridAStarTest.buildLevel(MAP);
+		Tile[][] t = level.getTiles();
+		PathCache cache = new PathCache();
+		Tile goal = t[19][5];
+
+		// along the bottom corridor
+		Tile cur = cache.nextStep(level, t[3][4], goal);
+		cur = cache.nextStep(level, cur, goal);
+		t[10][5].setType(TileType.WALL_HOR);
+
+		Tile next;
+		while ((next = cache.nextStep(level, cur, goal)) != null) {
+			assertTrue(next != t[10][5]);
+			cur = next;
+		}
+		assertSame(goal, cur);
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getRepairs());
+	}
+
+	/**
+	 * Stepping off the path, or having no way there, is a miss
+	 */
+	@Test
+	public void missesOffThePath() {
+		Level level = GridAStarTest.buildLevel(MAP);
+		Tile[][] t = level.getTiles();
+		PathCache cache = new PathCache();
+
+		cache.nextStep(level, t[1][1], t[10][4]);
+		cache.nextStep(level, t[18][1], t[10][4]);
+		assertEquals(2, cache.getMisses());
+
+		t[1][1].setType(TileType.WALL_HOR);
+		assertNull(cache.nextStep(level, t[18][1], t[1][1]));
+		assertEquals(3, cache.getMisses());
+	}
+
+}
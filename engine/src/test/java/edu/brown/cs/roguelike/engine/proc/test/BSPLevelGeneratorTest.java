@@ -0,0 +1,51 @@
+package edu.brown.cs.roguelike.engine.proc.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+
+public class BSPLevelGeneratorTest {
+
+	private static void assertSameLayout(Level a, Level b) {
+		assertEquals(a.getRooms().size(), b.getRooms().size());
+		assertEquals(a.getHallways().size(), b.getHallways().size());
+		for (int i = 0; i < a.getRooms().size(); i++) {
+			assertEquals(a.getRooms().get(i).min, b.getRooms().get(i).min);
+			assertEquals(a.getRooms().get(i).max, b.getRooms().get(i).max);
+		}
+		for (int x = 0; x < a.getWidth(); x++)
+			for (int y = 0; y < a.getHeight(); y++)
+				assertEquals(a.getTileType(x, y), b.getTileType(x, y));
+		assertEquals(a.upStairs.getLocation(), b.upStairs.getLocation());
+		assertEquals(a.downStairs.getLocation(), b.downStairs.getLocation());
+	}
+
+	/**
+	 * Building with several threads gives the level one thread would
+	 */
+	@Test
+	public void parallelMatchesSequential() throws ConfigurationException {
+		BSPLevelGenerator sequential = new BSPLevelGenerator("../config");
+		BSPLevelGenerator parallel = new BSPLevelGenerator("../config");
+		parallel.setParallelism(4);
+
+		for (long seed = 1; seed <= 3; seed++) {
+			assertSameLayout(sequential.generateLevel(new Vec2i(80, 24), 1, seed),
+					parallel.generateLevel(new Vec2i(80, 24), 1, seed));
+		}
+
+		sequential.setSplitDepth(8);
+		parallel.setSplitDepth(8);
+		Vec2i big = new Vec2i(300, 300);
+		assertSameLayout(sequential.generateLevel(big, 1, 99),
+				parallel.generateLevel(big, 1, 99));
+
+		parallel.setParallelism(1);
+	}
+
+}
@@ -0,0 +1,132 @@
+package edu.brown.cs.roguelike.engine.proc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+import edu.brown.cs.roguelike.engine.proc.LevelGenerator;
+import edu.brown.cs.roguelike.engine.proc.LevelPrefetcher;
+import edu.brown.cs.roguelike.engine.save.test.BinarySaveFormatTest;
+
+public class LevelPrefetcherTest {
+
+	/**
+	 * Remembers which thread generated each depth
+	 */
+	private static class RecordingGenerator implements LevelGenerator {
+		final BSPLevelGenerator gen = new BSPLevelGenerator("../config");
+		final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+
+		@Override
+		public Level generateLevel(Vec2i levelSize, int depth) throws ConfigurationException {
+			calls.add(depth + "@" + Thread.currentThread().getName());
+			return gen.generateLevel(levelSize, depth);
+		}
+
+		@Override
+		public Level generateLevel(Vec2i levelSize, int depth, long seed) throws ConfigurationException {
+			calls.add(depth + "@" + Thread.currentThread().getName());
+			return gen.generateLevel(levelSize, depth, seed);
+		}
+	}
+
+	private RecordingGenerator gen;
+	private LevelPrefetcher prefetcher;
+	private Game g;
+
+	@Before
+	public void setUp() throws ConfigurationException {
+		gen = new RecordingGenerator();
+		prefetcher = new LevelPrefetcher(gen, "../config", 2);
+		g = new BinarySaveFormatTest.TestGame();
+		g.createInitalLevel(gen.gen);
+	}
+
+	@After
+	public void tearDown() {
+		prefetcher.shutdown();
+	}
+
+	private void awaitReady(int depth) throws InterruptedException {
+		for (int i = 0; i < 500 && !prefetcher.isReady(depth); i++)
+			Thread.sleep(10);
+		assertTrue(prefetcher.isReady(depth));
+	}
+
+	/**
+	 * The stairs hand over a level made on the worker thread, and the
+	 * next ones are started
+	 */
+	@Test
+	public void descendsIntoPrefetchedLevel() throws ConfigurationException, InterruptedException {
+		prefetcher.prefetch(g);
+		awaitReady(2);
+		awaitReady(3);
+		assertEquals(2, gen.calls.size());
+
+		g.gotoLevel(2, prefetcher);
+		assertEquals(2, g.getCurrentLevel().getDepth());
+		assertTrue(gen.calls.contains("2@level-prefetch"));
+
+		awaitReady(4);
+		assertEquals(3, gen.calls.size());
+		assertTrue(gen.calls.contains("4@level-prefetch"));
+	}
+
+	/**
+	 * A level prefetched for other inputs is not handed out
+	 */
+	@Test
+	public void regeneratesWhenInputsChange() throws ConfigurationException, InterruptedException {
+		String here = "2@" + Thread.currentThread().getName();
+		prefetcher.prefetch(g);
+		awaitReady(2);
+
+		Level l = prefetcher.generateLevel(new Vec2i(60, 20), 2, g.getLevelSeed(2));
+		assertEquals(60, l.getWidth());
+		assertTrue(gen.calls.remove(here));
+
+		prefetcher.prefetch(g);
+		awaitReady(2);
+		g.setSeed(g.getSeed() + 1);
+		prefetcher.generateLevel(g.getMapSize(), 2, g.getLevelSeed(2));
+		assertTrue(gen.calls.remove(here));
+
+		prefetcher.prefetch(g);
+		awaitReady(2);
+		prefetcher.invalidate();
+		prefetcher.generateLevel(g.getMapSize(), 2, g.getLevelSeed(2));
+		assertTrue(gen.calls.remove(here));
+	}
+
+	/**
+	 * A prefetched level is the one that would have been generated on the
+	 * spot
+	 */
+	@Test
+	public void prefetchedLevelMatchesSeed() throws ConfigurationException, InterruptedException {
+		prefetcher.prefetch(g);
+		awaitReady(2);
+		Level fetched = prefetcher.generateLevel(g.getMapSize(), 2, g.getLevelSeed(2));
+		Level direct = gen.gen.generateLevel(g.getMapSize(), 2, g.getLevelSeed(2));
+
+		for (int x = 0; x < direct.getWidth(); x++)
+			for (int y = 0; y < direct.getHeight(); y++)
+				assertEquals(direct.getTileType(x, y), fetched.getTileType(x, y));
+		assertEquals(direct.getManager().getEntity("monster").size(),
+				fetched.getManager().getEntity("monster").size());
+	}
+
+}
@@ -0,0 +1,117 @@
+package edu.brown.cs.roguelike.engine.proc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.level.Hallway;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.level.TileType;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+import edu.brown.cs.roguelike.engine.proc.RandomGen;
+import edu.brown.cs.roguelike.engine.save.test.BinarySaveFormatTest;
+
+public class RandomGenTest {
+
+	@Test
+	public void sameSeedSameSequence() {
+		RandomGen a = new RandomGen(42);
+		RandomGen b = new RandomGen(42);
+		for (int i = 0; i < 1000; i++) {
+			int n = a.getRandom(3, 17);
+			assertEquals(n, b.getRandom(3, 17));
+			assertTrue(n >= 3 && n <= 17);
+		}
+		b.setState(a.getState());
+		assertEquals(a.nextLong(), b.nextLong());
+	}
+
+	/**
+	 * A derived stream depends on the key and seed only
+	 */
+	@Test
+	public void derivedStreamsAreIndependent() {
+		RandomGen a = new RandomGen(7);
+		RandomGen used = new RandomGen(7);
+		for (int i = 0; i < 10; i++)
+			used.nextLong();
+
+		assertEquals(a.derive("level").nextLong(), used.derive("level").nextLong());
+		assertEquals(a.derive(3).nextLong(), used.derive(3).nextLong());
+		assertFalse(a.derive(3).nextLong() == a.derive(4).nextLong());
+		assertFalse(a.derive("items").nextLong() == a.derive("monsters").nextLong());
+	}
+
+	private static Set<Vec2i> monsterPositions(Level l) {
+		Set<Vec2i> positions = new HashSet<Vec2i>();
+		for (EntityActionManager m : l.getManager().getEntity("monster"))
+			positions.add(m.getLocation().getLocation());
+		return positions;
+	}
+
+	/**
+	 * Two games with the same seed get the same levels
+	 */
+	@Test
+	public void sameSeedSameLevels() throws ConfigurationException {
+		BSPLevelGenerator gen = new BSPLevelGenerator("../config");
+		Game a = new BinarySaveFormatTest.TestGame();
+		Game b = new BinarySaveFormatTest.TestGame();
+		a.setSeed(1234);
+		b.setSeed(1234);
+		a.createInitalLevel(gen);
+		b.createInitalLevel(gen);
+		a.gotoLevel(2, gen);
+		b.gotoLevel(2, gen);
+
+		for (int depth = 1; depth <= 2; depth++) {
+			Level la = a.getLevels().get(depth), lb = b.getLevels().get(depth);
+			for (int x = 0; x < la.getWidth(); x++)
+				for (int y = 0; y < la.getHeight(); y++)
+					assertEquals(la.getTileType(x, y), lb.getTileType(x, y));
+			assertEquals(monsterPositions(la), monsterPositions(lb));
+			assertEquals(la.getRandom().getState(), lb.getRandom().getState());
+		}
+	}
+
+	/**
+	 * A level that comes without a random stream refuses to roll until its
+	 * game gives it the one its generator would have
+	 */
+	@Test
+	public void streamsComeFromTheGameSeed() throws ConfigurationException {
+		Game a = new BinarySaveFormatTest.TestGame();
+		a.setSeed(99);
+		a.createInitalLevel(new BSPLevelGenerator("../config"));
+
+		Tile[][] tiles = { { new Tile(TileType.FLOOR) } };
+		tiles[0][0].setLocation(new Vec2i(0, 0));
+		Level bare = new Level(tiles, new ArrayList<Room>(), new ArrayList<Hallway>());
+		bare.setDepth(1);
+		try {
+			bare.getRandom();
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		Game b = new BinarySaveFormatTest.TestGame();
+		b.setSeed(99);
+		b.putLevel(bare);
+		assertEquals(a.getLevels().get(1).getRandom().getSeed(), bare.getRandom().getSeed());
+	}
+
+}
@@ -0,0 +1,104 @@
+package edu.brown.cs.roguelike.engine.save.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.save.AutoSaver;
+import edu.brown.cs.roguelike.engine.save.SaveFormat;
+import edu.brown.cs.roguelike.engine.save.SaveLoadException;
+import edu.brown.cs.roguelike.engine.save.SaveManager;
+import edu.brown.cs.roguelike.engine.save.SaveSnapshot;
+
+public class AutoSaverTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("autoSave", ".rog");
+		file.delete();
+	}
+
+	@After
+	public void tearDown() {
+		new SaveManager(file.getPath()).deleteSave();
+	}
+
+	private static Tile firstRoomTile(Level l) {
+		Room r = l.getRooms().get(0);
+		return l.getTile(r.min.x, r.min.y);
+	}
+
+	/**
+	 * Changes made after a snapshot is taken do not reach the save
+	 */
+	private void checkSnapshotIsolated(SaveFormat format)
+			throws ConfigurationException, SaveLoadException {
+		Game g = BinarySaveFormatTest.makeGame(2);
+		SaveManager sm = new SaveManager(file.getPath(), format);
+		Tile t = firstRoomTile(g.getCurrentLevel());
+		boolean before = t.getReveal();
+
+		SaveSnapshot s = sm.snapshotGame(g);
+		t.setReveal(!before);
+		s.write();
+
+		Game loaded = new SaveManager(file.getPath()).loadGame();
+		assertEquals(g, loaded);
+		assertEquals(before, firstRoomTile(loaded.getCurrentLevel()).getReveal());
+	}
+
+	@Test
+	public void snapshotIsolatedSegmented() throws ConfigurationException, SaveLoadException {
+		checkSnapshotIsolated(SaveFormat.SEGMENTED);
+	}
+
+	@Test
+	public void snapshotIsolatedBinary() throws ConfigurationException, SaveLoadException {
+		checkSnapshotIsolated(SaveFormat.BINARY);
+	}
+
+	/**
+	 * Saves happen every N turns and on level changes, and flush waits for
+	 * them
+	 */
+	@Test
+	public void savesOnCadence() throws ConfigurationException, SaveLoadException {
+		Game g = BinarySaveFormatTest.makeGame(3);
+		SaveManager sm = new SaveManager(file.getPath(), SaveFormat.SEGMENTED);
+		AutoSaver saver = new AutoSaver(sm, 3, true);
+
+		saver.turnEnded(g);
+		saver.turnEnded(g);
+		saver.flush();
+		assertFalse(file.exists());
+
+		saver.turnEnded(g);
+		saver.flush();
+		assertTrue(file.isDirectory());
+		assertEquals(3, sm.getLevelsLastWritten());
+
+		g.setCurrentLevel(g.getLevels().get(1));
+		saver.levelChanged(g);
+		saver.flush();
+		assertFalse(saver.isBusy());
+		assertEquals(1, sm.getLevelsLastWritten());
+		assertEquals(1, sm.loadGame().getCurrentLevel().getDepth());
+
+		saver.shutdown();
+	}
+
+}
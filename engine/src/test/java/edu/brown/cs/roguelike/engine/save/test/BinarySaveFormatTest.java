@@ -0,0 +1,158 @@
+package edu.brown.cs.roguelike.engine.save.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.entities.Combatable;
+import edu.brown.cs.roguelike.engine.entities.DamageType;
+import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.MainCharacter;
+import edu.brown.cs.roguelike.engine.entities.Stats;
+import edu.brown.cs.roguelike.engine.entities.Weapon;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Tile;
+import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+import edu.brown.cs.roguelike.engine.save.SaveFormat;
+import edu.brown.cs.roguelike.engine.save.SaveLoadException;
+import edu.brown.cs.roguelike.engine.save.SaveManager;
+
+public class BinarySaveFormatTest {
+
+	/** Loading needs a concrete game with a no-argument constructor */
+	public static class TestGame extends Game {
+		private static final long serialVersionUID = 1L;
+
+		public TestGame() {
+			super(new Vec2i(80, 24));
+		}
+	}
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("binarySave", ".rog");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	static Game makeGame(int depth) throws ConfigurationException {
+		BSPLevelGenerator gen = new BSPLevelGenerator("../config");
+		Game g = new TestGame();
+		g.createInitalLevel(gen);
+		for (int d = 2; d <= depth; d++)
+			g.gotoLevel(d, gen);
+		return g;
+	}
+
+	static void assertSameLevel(Level a, Level b) {
+		assertEquals(a, b);
+		assertEquals(a.getDepth(), b.getDepth());
+		assertEquals(a.getRooms().size(), b.getRooms().size());
+		assertEquals(a.getHallways().size(), b.getHallways().size());
+		assertEquals(a.revealedRooms.size(), b.revealedRooms.size());
+		assertEquals(a.upStairs.getLocation(), b.upStairs.getLocation());
+		assertEquals(a.downStairs.getLocation(), b.downStairs.getLocation());
+
+		for (int x = 0; x < a.getWidth(); x++) {
+			for (int y = 0; y < a.getHeight(); y++) {
+				Tile ta = a.getTile(x, y), tb = b.getTile(x, y);
+				assertEquals(ta.getType(), tb.getType());
+				assertEquals(ta.getReveal(), tb.getReveal());
+				assertEquals(ta.getSpace() == null, tb.getSpace() == null);
+				assertEquals(ta.getStackables().size(), tb.getStackables().size());
+				assertEquals(ta.getEntity() == null, tb.getEntity() == null);
+				if (ta.getEntity() != null)
+					assertEquals(ta.getEntity().getName(), tb.getEntity().getName());
+			}
+		}
+
+		List<EntityActionManager> ma = a.getManager().getEntity("monster");
+		List<EntityActionManager> mb = b.getManager().getEntity("monster");
+		assertEquals(ma.size(), mb.size());
+		for (int i = 0; i < ma.size(); i++) {
+			Combatable ca = ma.get(i).getEntity(), cb = mb.get(i).getEntity();
+			assertEquals(ca.getLocation().getLocation(), cb.getLocation().getLocation());
+			assertEquals(ca.getHP(), cb.getHP());
+			assertEquals(ca.getStats().getAttack(), cb.getStats().getAttack());
+			assertEquals(ma.get(i).getActionPoints(), mb.get(i).getActionPoints());
+		}
+	}
+
+	/**
+	 * A game with several levels and a wielded weapon survives the trip
+	 */
+	@Test
+	public void gameRoundTrip() throws ConfigurationException, SaveLoadException {
+		Game g = makeGame(3);
+		MainCharacter mc = (MainCharacter) g.getCurrentLevel().getManager()
+				.getEntity("main").get(0).getEntity();
+		mc.getInventory().add(new Weapon(new Stats(4, 0), "test sword", DamageType.SLASH));
+		mc.changeHP(-7);
+
+		SaveManager sm = new SaveManager(file.getPath(), SaveFormat.BINARY);
+		sm.saveGame(g);
+		Game loaded = sm.loadGame();
+
+		assertTrue(loaded instanceof TestGame);
+		assertEquals(g, loaded);
+		assertEquals(g.getState(), loaded.getState());
+		assertEquals(g.getLevels().size(), loaded.getLevels().size());
+		assertEquals(g.getCurrentLevel(), loaded.getCurrentLevel());
+		for (Integer depth : g.getLevels().keySet())
+			assertSameLevel(g.getLevels().get(depth), loaded.getLevels().get(depth));
+
+		EntityActionManager player = loaded.getCurrentLevel().getManager().getPlayer(0);
+		assertNotNull(player);
+		MainCharacter loadedMc = (MainCharacter) player.getEntity();
+		assertEquals(mc.getHP(), loadedMc.getHP());
+		assertEquals(mc.getInventory().size(), loadedMc.getInventory().size());
+		assertEquals(mc.getLocation().getLocation(), loadedMc.getLocation().getLocation());
+	}
+
+	/**
+	 * Saves in the old format still load once binary saving is switched on
+	 */
+	@Test
+	public void loadsJavaSerializedSave() throws ConfigurationException, SaveLoadException {
+		Game g = makeGame(2);
+		new SaveManager(file.getPath(), SaveFormat.JAVA).saveGame(g);
+
+		Game loaded = new SaveManager(file.getPath(), SaveFormat.BINARY).loadGame();
+		assertEquals(g, loaded);
+		assertEquals(2, loaded.getLevels().size());
+	}
+
+	/**
+	 * Compact levels stay compact
+	 */
+	@Test
+	public void compactLevelRoundTrip() throws ConfigurationException, SaveLoadException {
+		BSPLevelGenerator gen = new BSPLevelGenerator("../config");
+		gen.setCompactTiles(true);
+		Level level = gen.generateLevel(new Vec2i(120, 60), 4);
+
+		SaveManager sm = new SaveManager(file.getPath(), SaveFormat.BINARY);
+		sm.saveLevel(level);
+		Level loaded = sm.loadLevel();
+
+		assertNotNull(loaded.getStore());
+		assertSameLevel(level, loaded);
+	}
+
+}
@@ -0,0 +1,148 @@
+package edu.brown.cs.roguelike.engine.save.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.game.Game;
+import edu.brown.cs.roguelike.engine.level.Level;
+import edu.brown.cs.roguelike.engine.level.Room;
+import edu.brown.cs.roguelike.engine.save.SaveFormat;
+import edu.brown.cs.roguelike.engine.save.SaveLoadException;
+import edu.brown.cs.roguelike.engine.save.SaveManager;
+
+public class SegmentedSaveTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("segmentedSave", ".rog");
+		dir.delete();
+	}
+
+	@After
+	public void tearDown() {
+		new SaveManager(dir.getPath()).deleteSave();
+	}
+
+	private static int segmentCount(File dir) {
+		int n = 0;
+		for (String name : dir.list())
+			if (name.endsWith(".seg"))
+				n++;
+		return n;
+	}
+
+	/**
+	 * Only new, changed and current levels are written, and what is
+	 * loaded matches what was saved
+	 */
+	@Test
+	public void writesOnlyChangedLevels() throws ConfigurationException, SaveLoadException {
+		Game g = BinarySaveFormatTest.makeGame(4);
+		SaveManager sm = new SaveManager(dir.getPath(), SaveFormat.SEGMENTED);
+
+		sm.saveGame(g);
+		assertTrue(dir.isDirectory());
+		assertEquals(4, sm.getLevelsLastWritten());
+
+		sm.saveGame(g);
+		assertEquals(1, sm.getLevelsLastWritten());
+		assertEquals(4, segmentCount(dir));
+
+		// reveal a room on a level the player left
+		Level first = g.getLevels().get(1);
+		Room r = first.getRooms().get(0);
+		first.getTile(r.min.x, r.min.y).setReveal(!first.getTile(r.min.x, r.min.y).getReveal());
+		assertTrue(first.isDirty());
+		assertEquals(1, first.getDirtyTileCount());
+		sm.saveGame(g);
+		assertEquals(2, sm.getLevelsLastWritten());
+		assertFalse(first.isDirty());
+
+		Game loaded = new SaveManager(dir.getPath(), SaveFormat.SEGMENTED).loadGame();
+		assertEquals(g, loaded);
+		assertEquals(g.getCurrentLevel(), loaded.getCurrentLevel());
+		for (Integer depth : g.getLevels().keySet())
+			BinarySaveFormatTest.assertSameLevel(g.getLevels().get(depth), loaded.getLevels().get(depth));
+	}
+
+	/**
+	 * Leftovers of an interrupted save do not affect loading, and are
+	 * cleaned up by the next save
+	 */
+	@Test
+	public void survivesInterruptedSave() throws ConfigurationException, SaveLoadException, IOException {
+		Game g = BinarySaveFormatTest.makeGame(2);
+		SaveManager sm = new SaveManager(dir.getPath(), SaveFormat.SEGMENTED);
+		sm.saveGame(g);
+
+		// a half written segment and manifest
+		new FileOutputStream(new File(dir, "level-2-2.seg")).close();
+		FileOutputStream tmp = new FileOutputStream(new File(dir, "manifest.tmp"));
+		tmp.write(new byte[] { 1, 2, 3 });
+		tmp.close();
+
+		SaveManager reopened = new SaveManager(dir.getPath(), SaveFormat.SEGMENTED);
+		Game loaded = reopened.loadGame();
+		assertEquals(2, loaded.getLevels().size());
+
+		reopened.saveGame(loaded);
+		assertEquals(1, reopened.getLevelsLastWritten());
+		assertFalse(new File(dir, "manifest.tmp").exists());
+		assertEquals(2, segmentCount(dir));
+	}
+
+	/**
+	 * A save from a fresh instance that dies before its manifest is swapped
+	 * in leaves the game already on disk loadable
+	 */
+	@Test
+	public void freshInstanceKeepsSegmentsOnDisk() throws ConfigurationException, SaveLoadException {
+		Game g = BinarySaveFormatTest.makeGame(2);
+		new SaveManager(dir.getPath(), SaveFormat.SEGMENTED).saveGame(g);
+
+		// the manifest cannot be written, as if the save was cut short
+		File blocker = new File(dir, "manifest.tmp");
+		assertTrue(blocker.mkdir());
+		try {
+			new SaveManager(dir.getPath(), SaveFormat.SEGMENTED).saveGame(BinarySaveFormatTest.makeGame(2));
+			fail();
+		} catch (SaveLoadException e) {
+			// expected
+		}
+		assertTrue(blocker.delete());
+
+		Game loaded = new SaveManager(dir.getPath(), SaveFormat.SEGMENTED).loadGame();
+		assertEquals(g, loaded);
+		for (Integer depth : g.getLevels().keySet())
+			BinarySaveFormatTest.assertSameLevel(g.getLevels().get(depth), loaded.getLevels().get(depth));
+	}
+
+	/**
+	 * A new game in the same place replaces every segment of the old one
+	 */
+	@Test
+	public void newGameReplacesOld() throws ConfigurationException, SaveLoadException {
+		SaveManager sm = new SaveManager(dir.getPath(), SaveFormat.SEGMENTED);
+		sm.saveGame(BinarySaveFormatTest.makeGame(3));
+		Game g = BinarySaveFormatTest.makeGame(1);
+		sm.saveGame(g);
+
+		assertEquals(1, sm.getLevelsLastWritten());
+		assertEquals(1, segmentCount(dir));
+		assertEquals(g, sm.loadGame());
+	}
+
+}
@@ -0,0 +1,58 @@
+package edu.brown.cs.roguelike.engine.sim.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import cs195n.Vec2i;
+import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.game.GameState;
+import edu.brown.cs.roguelike.engine.sim.DescendPolicy;
+import edu.brown.cs.roguelike.engine.sim.GameResult;
+import edu.brown.cs.roguelike.engine.sim.HeadlessRunner;
+import edu.brown.cs.roguelike.engine.sim.RandomWalkPolicy;
+import edu.brown.cs.roguelike.engine.sim.Simulation;
+
+public class SimulationTest {
+
+	private static final Vec2i SIZE = new Vec2i(80, 24);
+
+	@Test
+	public void sameSeedSameGame() throws ConfigurationException {
+		Simulation sim = new Simulation("../config", SIZE, new RandomWalkPolicy(), 3, 300);
+		for (long seed = 1; seed <= 5; seed++) {
+			GameResult a = sim.play(seed);
+			GameResult b = sim.play(seed);
+			assertTrue(a + " vs " + b, a.sameGame(b));
+		}
+	}
+
+	@Test
+	public void descendsToWin() throws ConfigurationException {
+		Simulation sim = new Simulation("../config", SIZE, new DescendPolicy(), 2, 2000);
+		int deeper = 0;
+		for (long seed = 1; seed <= 5; seed++) {
+			GameResult r = sim.play(seed);
+			if (r.outcome == GameState.WIN)
+				assertEquals(2, r.depth);
+			if (r.levels > 1)
+				deeper++;
+		}
+		assertTrue(deeper > 0);
+	}
+
+	@Test
+	public void parallelMatchesSequential() throws InterruptedException {
+		Simulation sim = new Simulation("../config", SIZE, new DescendPolicy(), 2, 500);
+		HeadlessRunner.Report one = new HeadlessRunner(sim, 1).run(8, 42);
+		HeadlessRunner.Report four = new HeadlessRunner(sim, 4).run(8, 42);
+
+		assertEquals(0, one.errors);
+		assertEquals(0, four.errors);
+		assertEquals(8, four.results.size());
+		for (int i = 0; i < 8; i++)
+			assertTrue(one.results.get(i).sameGame(four.results.get(i)));
+	}
+
+}
@@ -10,6 +10,27 @@ public interface Arguments {
 	@Option(shortName="t")
 	boolean getTty();
 
+	/** Master seed for new games, random if not given */
+	@Option(shortName="s")
+	Long getSeed();
+	boolean isSeed();
+
+	/** Most frames drawn per second */
+	@Option(shortName="f",defaultValue="30")
+	int getFps();
+
+	/** Only give monsters a turn when they have something to do */
+	@Option(shortName="e")
+	boolean getEnergy();
+
+	/** Run monsters far from the player less often, implies -e */
+	@Option(shortName="a")
+	boolean getTiered();
+
+	/** Print frame and CPU counters on exit */
+	@Option(shortName="m")
+	boolean getMetrics();
+
 	@Option(helpRequest = true)
 	boolean getHelp();
 
@@ -9,6 +9,7 @@ import com.googlecode.lanterna.screen.ScreenCharacterStyle;
 import cs195n.Vec2i;
 import edu.brown.cs.roguelike.engine.config.ConfigurationException;
 import edu.brown.cs.roguelike.engine.entities.EntityActionManager;
+import edu.brown.cs.roguelike.engine.entities.EntityManager;
 import edu.brown.cs.roguelike.engine.events.GameAction;
 import edu.brown.cs.roguelike.engine.graphics.Layer;
 import edu.brown.cs.roguelike.engine.graphics.Section;
@@ -92,7 +93,7 @@ public class DemoLayer implements Layer {
     public void propagateAction(GameAction action) {
 		List<EntityActionManager> managers = null;
 		if (currentLevel != null)
-			managers =  currentLevel.getManager().getEntity("keyboard");
+			managers =  currentLevel.getManager().getView(EntityManager.KEYBOARD);
 		if (managers == null)
 			managers = new ArrayList<EntityActionManager>();
         if (action.getContextClassifier() != 1)
@@ -158,12 +159,10 @@ public class DemoLayer implements Layer {
             sw.drawString(middle.x - statusMsg.length() / 2, 0, statusMsg);
         } else { // otherwise draw level
 
-            Tile[][] tiles = currentLevel.tiles;
-
             Tile t;
-            for (int c = 0; c < tiles.length; c++) {
-                for (int r = tiles[0].length - 1; r >= 0; r--) { // flip y
-                    t = tiles[c][r];
+            for (int c = 0; c < currentLevel.getWidth(); c++) {
+                for (int r = currentLevel.getHeight() - 1; r >= 0; r--) { // flip y
+                    t = currentLevel.getTile(c, r);
 
                     sw.setForegroundColor(t.getColor());
                     sw.drawString(c, r, String.valueOf(t.getCharacter()),
@@ -2,41 +2,97 @@ package edu.brown.cs.roguelike.game;
 
 import cs195n.Vec2i;
 import edu.brown.cs.roguelike.engine.config.ConfigurationException;
+import edu.brown.cs.roguelike.engine.game.ActivityTiers;
 import edu.brown.cs.roguelike.engine.game.CumulativeTurnManager;
+import edu.brown.cs.roguelike.engine.game.EnergyTurnManager;
 import edu.brown.cs.roguelike.engine.game.Game;
 import edu.brown.cs.roguelike.engine.graphics.Application;
 import edu.brown.cs.roguelike.engine.proc.BSPLevelGenerator;
+import edu.brown.cs.roguelike.engine.proc.LevelGenerator;
+import edu.brown.cs.roguelike.engine.proc.LevelPrefetcher;
+import edu.brown.cs.roguelike.engine.save.AutoSaver;
+import edu.brown.cs.roguelike.engine.save.SaveFormat;
 import edu.brown.cs.roguelike.engine.save.SaveManager;
 
 public class GUIApp extends Application {
 
 	private final static Vec2i SCREEN_SIZE = new Vec2i(80,30);
 	private final static int POINTS_PER_TURN = 10;
+	private final static int AUTOSAVE_TURNS = 50;
+	private final static int PREFETCH_LEVELS = 1;
 	
 	private SaveManager sm;
+	private AutoSaver saver;
 	private CumulativeTurnManager tm;
 	private BSPLevelGenerator lg;
+	private LevelPrefetcher prefetcher;
 	private String configDir;
+	private Long seed;
+	private boolean energy;
+	private boolean tiered;
 	
 	public GUIApp(Arguments args) {
 		super("demo");
 		configDir = args.getConfig();
+		if (args.isSeed())
+			seed = args.getSeed();
+		setFrameCap(args.getFps());
+		tiered = args.getTiered();
+		energy = args.getEnergy() || tiered;
 		isTTY = args.getTty();
 		if (isTTY)
 			System.setProperty("java.awt.headless","true");
 	}
 	
 	public SaveManager getSaveManager() { return sm; }
-	public BSPLevelGenerator getLevelGenerator() { return lg; }
+	public AutoSaver getAutoSaver() { return saver; }
+	/**
+	 * @return The generator to use for levels below the first, which has
+	 * them ready ahead of time
+	 */
+	public LevelGenerator getLevelGenerator() { return prefetcher; }
 	public CumulativeTurnManager getTurnManager() { return tm; }
 	
+	private void makeTurnManager(Game g) {
+		if (energy) {
+			EnergyTurnManager etm = new EnergyTurnManager(this, g, POINTS_PER_TURN);
+			if (tiered)
+				etm.setActivityTiers(ActivityTiers.DEFAULT);
+			tm = etm;
+		} else {
+			tm = new CumulativeTurnManager(this, g, POINTS_PER_TURN);
+		}
+		tm.setAutoSaver(saver);
+	}
+	
+	/**
+	 * Made once and kept for every game: a second SaveManager on the same
+	 * directory would not know what the first one has written there
+	 */
+	private void makeSaveManager() {
+		if (saver != null)
+			return;
+		this.sm = new SaveManager(System.getProperty("user.home")+"/mainSave", SaveFormat.SEGMENTED);
+		this.saver = new AutoSaver(sm, AUTOSAVE_TURNS, true);
+	}
+	
+	private void makeLevelGenerator() {
+		if (prefetcher != null)
+			prefetcher.shutdown();
+		this.lg = new BSPLevelGenerator(configDir);
+		this.prefetcher = new LevelPrefetcher(lg, configDir, PREFETCH_LEVELS);
+	}
+	
 	public RogueGame makeNewGame() {
 		RogueGame rg = new RogueGame();
-		this.sm = new SaveManager(System.getProperty("user.home")+"/mainSave");
-		this.lg = new BSPLevelGenerator(configDir);
-		tm = new CumulativeTurnManager(this, rg, POINTS_PER_TURN);
+		if (seed != null)
+			rg.setSeed(seed);
+		makeSaveManager();
+		makeLevelGenerator();
+		makeTurnManager(rg);
 		try {
 			rg.createInitalLevel(lg);
+			prefetcher.prefetch(rg);
 			
 		} catch (ConfigurationException e1) {
 			this.layers.push(new MainLayer(this, null, SCREEN_SIZE,
@@ -48,8 +104,8 @@ public class GUIApp extends Application {
 	@Override
 	protected boolean initialize(Vec2i screenSize)  {
 		
-		this.sm = new SaveManager(System.getProperty("user.home")+"/mainSave");
-		this.lg = new BSPLevelGenerator(configDir);
+		makeSaveManager();
+		makeLevelGenerator();
 		
 		RogueGame rg = null;
 		try {
@@ -57,7 +113,8 @@ public class GUIApp extends Application {
 			Game g = sm.loadGame();
 			if (g instanceof RogueGame) rg = (RogueGame)g;
 						
-			tm = new CumulativeTurnManager(this, rg, POINTS_PER_TURN);
+			makeTurnManager(rg);
+			prefetcher.prefetch(rg);
 			
 			this.layers.push(new MainLayer(
 					this, rg, SCREEN_SIZE, "Succesful Load"));
@@ -92,9 +92,9 @@ public class InventoryLayer implements Layer{
 		s = s.moveUpperLeft(new Vec2i(size.x - 50, 0));
 		
 		Set<Stackable> inventory;
-		List<EntityActionManager> mains = currentLevel.getManager().getEntity("main");
-		if (mains.size() > 0)
-			inventory =	mains.get(0).getEntity().getInventory();
+		EntityActionManager main = currentLevel.getManager().getPlayer();
+		if (main != null)
+			inventory =	main.getEntity().getInventory();
 		else
 			inventory = new HashSet<Stackable>();
 		Iterator<Stackable> iter = inventory.iterator();
@@ -24,8 +24,6 @@ import edu.brown.cs.roguelike.engine.graphics.PotionLayer;
 import edu.brown.cs.roguelike.engine.graphics.WeaponLayer;
 import edu.brown.cs.roguelike.engine.level.Direction;
 import edu.brown.cs.roguelike.engine.level.Level;
-import edu.brown.cs.roguelike.engine.level.Room;
-import edu.brown.cs.roguelike.engine.level.Tile;
 import edu.brown.cs.roguelike.engine.level.TileType;
 import edu.brown.cs.roguelike.engine.save.SaveLoadException;
 
@@ -102,8 +100,7 @@ public class MainLayer extends DefaultMainLayer<GUIApp> {
 
 	// CHECK FOR WIN/LOSE
 	private void checkLose() {
-		List<EntityActionManager> main = game.getCurrentLevel().getManager().getEntity("main");
-		if (main.isEmpty()) {
+		if (game.getCurrentLevel().getManager().getPlayer() == null) {
 			app.deleteSaveFile();
 			return;
 		}
@@ -126,7 +123,7 @@ public class MainLayer extends DefaultMainLayer<GUIApp> {
 		// then get the keyboard-controlled managers
 		// (just the player)
 		if (currentLevel != null) {
-			managers = currentLevel.getManager().getEntity("keyboard");
+			managers = currentLevel.getManager().getView(EntityManager.KEYBOARD);
 
 			int a = action.getActionClassifier();
 			if(managers.size() == 0) {
@@ -153,12 +150,12 @@ public class MainLayer extends DefaultMainLayer<GUIApp> {
 			case 1: // generate new level
 			{
 				this.game = app.makeNewGame();
-				app.getSaveManager().saveGame(game);
+				app.getAutoSaver().requestSave(game);
 				checkReveal();
 			}
 			break;	
 			case 2: // save current level
-				app.getSaveManager().saveGame(this.game);
+				app.getAutoSaver().requestSave(this.game);
 				break;
 				//			case 3: // load saved level
 				//			{
@@ -168,7 +165,9 @@ public class MainLayer extends DefaultMainLayer<GUIApp> {
 				//			}
 				//				break;
 			case 4: // save and quit
-				app.getSaveManager().saveGame(game);
+				app.getAutoSaver().requestSave(game);
+				app.getAutoSaver().flush();
+				app.getAutoSaver().shutdown();
 				app.shutdown();
 				break;
 			case 5:
@@ -239,6 +238,7 @@ public class MainLayer extends DefaultMainLayer<GUIApp> {
 						if(currentLevel.getDepth() != 1) {
 							game.gotoLevel(currentLevel.getDepth()-1, app.getLevelGenerator());
 							checkReveal();
+							app.getAutoSaver().levelChanged(game);
 						}
 					}
 				}
@@ -248,6 +248,7 @@ public class MainLayer extends DefaultMainLayer<GUIApp> {
 					if (c.getLocation().getType() == TileType.DOWN_STAIRS) {
 						game.gotoLevel(currentLevel.getDepth()+1, app.getLevelGenerator());
 						checkReveal();
+						app.getAutoSaver().levelChanged(game);
 					}
 				}
 				break;
@@ -278,19 +279,11 @@ public class MainLayer extends DefaultMainLayer<GUIApp> {
 	private void checkReveal() {
 		Level currentLevel = game.getCurrentLevel();
 
-		List<EntityActionManager> mainMangr = currentLevel.getManager().getEntity("main");
-		if(mainMangr.size() < 1) 
+		EntityActionManager mainMangr = currentLevel.getManager().getPlayer();
+		if(mainMangr == null) 
 			return;
 
-		Tile playerLoc = mainMangr.get(0).getLocation();
-
-		for(Room r : currentLevel.getRooms()) {
-			if(r.containsTile(playerLoc)) {
-				currentLevel.revealRoom(r);
-			}
-		}
-
-		currentLevel.revealAround(playerLoc);
+		currentLevel.updateFieldOfView(mainMangr.getLocation());
 	}
 
 	@Override
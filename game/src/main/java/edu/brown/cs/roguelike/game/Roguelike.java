@@ -11,6 +11,8 @@ public class Roguelike {
 		Arguments appArgs = CliFactory.parseArguments(Arguments.class, args);
 		GUIApp app = new GUIApp(appArgs);
 		app.startup();
+		if (appArgs.getMetrics())
+			System.out.println(app.getMetrics());
 		} catch (HelpRequestedException e) {
 			System.out.println(e.getMessage());
 		}
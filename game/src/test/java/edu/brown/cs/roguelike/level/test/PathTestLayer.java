@@ -141,12 +141,10 @@ public class PathTestLayer implements Layer {
             sw.drawString(middle.x - statusMsg.length() / 2, 0, statusMsg);
         } else { // otherwise draw level
 
-            Tile[][] tiles = currentLevel.tiles;
-
             Tile t;
-            for (int c = 0; c < tiles.length; c++) {
-                for (int r = tiles[0].length - 1; r >= 0; r--) { // flip y
-                    t = tiles[c][r];
+            for (int c = 0; c < currentLevel.getWidth(); c++) {
+                for (int r = currentLevel.getHeight() - 1; r >= 0; r--) { // flip y
+                    t = currentLevel.getTile(c, r);
 
                     sw.setForegroundColor(t.getColor());
                     sw.drawString(c, r, String.valueOf(t.getCharacter()),